@@ -0,0 +1,34 @@
+package it.unibz.inf.ontop.owlapi;
+
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.owlapi.resultset.MaterializedGraphOWLResultSet;
+import org.apache.commons.rdf.api.IRI;
+import org.semanticweb.owlapi.model.OWLException;
+
+import javax.annotation.Nonnull;
+
+/**
+ * OWLAPI counterpart of MaterializationSession: the OBDA specification is loaded only once.
+ */
+public interface OWLAPIMaterializationSession extends AutoCloseable {
+
+    /**
+     * Classes and properties that can be materialized
+     */
+    ImmutableSet<IRI> getVocabulary();
+
+    /**
+     * Materializes the saturated RDF graph
+     */
+    MaterializedGraphOWLResultSet materialize(@Nonnull MaterializationParams params) throws OWLException;
+
+    /**
+     * Materializes a sub-set of the saturated RDF graph corresponding the selected vocabulary
+     */
+    MaterializedGraphOWLResultSet materialize(@Nonnull ImmutableSet<IRI> selectedVocabulary,
+                                              @Nonnull MaterializationParams params) throws OWLException;
+
+    @Override
+    void close() throws OWLException;
+}
@@ -45,6 +45,12 @@ public interface OntopOWLAPIMaterializer {
         return materialize(configuration, selectedVocabulary, MaterializationParams.defaultBuilder().build());
     }
 
+    /**
+     * Loads the OBDA specification and starts the query engine only once for many materializations
+     */
+    OWLAPIMaterializationSession createSession(@Nonnull OntopSystemConfiguration configuration)
+            throws OWLException;
+
     /**
      * Default implementation
      */
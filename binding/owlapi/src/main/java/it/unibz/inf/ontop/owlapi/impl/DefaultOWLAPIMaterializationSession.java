@@ -0,0 +1,48 @@
+package it.unibz.inf.ontop.owlapi.impl;
+
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.materialization.MaterializationSession;
+import it.unibz.inf.ontop.owlapi.OWLAPIMaterializationSession;
+import it.unibz.inf.ontop.owlapi.exception.OntopOWLException;
+import it.unibz.inf.ontop.owlapi.resultset.MaterializedGraphOWLResultSet;
+import it.unibz.inf.ontop.owlapi.resultset.impl.OntopMaterializedGraphOWLResultSet;
+import org.apache.commons.rdf.api.IRI;
+import org.semanticweb.owlapi.model.OWLException;
+
+import javax.annotation.Nonnull;
+
+class DefaultOWLAPIMaterializationSession implements OWLAPIMaterializationSession {
+
+    private final MaterializationSession session;
+
+    DefaultOWLAPIMaterializationSession(MaterializationSession session) {
+        this.session = session;
+    }
+
+    @Override
+    public ImmutableSet<IRI> getVocabulary() {
+        return session.getVocabulary();
+    }
+
+    @Override
+    public MaterializedGraphOWLResultSet materialize(@Nonnull MaterializationParams params) {
+        return new OntopMaterializedGraphOWLResultSet(session.materialize(params));
+    }
+
+    @Override
+    public MaterializedGraphOWLResultSet materialize(@Nonnull ImmutableSet<IRI> selectedVocabulary,
+                                                     @Nonnull MaterializationParams params) {
+        return new OntopMaterializedGraphOWLResultSet(session.materialize(selectedVocabulary, params));
+    }
+
+    @Override
+    public void close() throws OWLException {
+        try {
+            session.close();
+        } catch (OntopConnectionException e) {
+            throw new OntopOWLException(e);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import it.unibz.inf.ontop.injection.OntopSystemConfiguration;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
 import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
 import it.unibz.inf.ontop.materialization.impl.DefaultOntopRDFMaterializer;
+import it.unibz.inf.ontop.owlapi.OWLAPIMaterializationSession;
 import it.unibz.inf.ontop.owlapi.OntopOWLAPIMaterializer;
 import it.unibz.inf.ontop.owlapi.exception.OntopOWLException;
 import it.unibz.inf.ontop.owlapi.resultset.MaterializedGraphOWLResultSet;
@@ -67,6 +68,16 @@ public class DefaultOntopOWLAPIMaterializer implements OntopOWLAPIMaterializer {
 		}
 	}
 
+	@Override
+	public OWLAPIMaterializationSession createSession(@Nonnull OntopSystemConfiguration configuration)
+			throws OWLException {
+		try {
+			return new DefaultOWLAPIMaterializationSession(materializer.createSession(configuration));
+		} catch (OBDASpecificationException e) {
+			throw new OntopOWLException(e);
+		}
+	}
+
 	private MaterializedGraphOWLResultSet wrap(MaterializedGraphResultSet graphResultSet) {
 		return new OntopMaterializedGraphOWLResultSet(graphResultSet);
 	}
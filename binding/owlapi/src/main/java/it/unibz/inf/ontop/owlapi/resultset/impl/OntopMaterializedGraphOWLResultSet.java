@@ -3,6 +3,7 @@ package it.unibz.inf.ontop.owlapi.resultset.impl;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
 import it.unibz.inf.ontop.owlapi.resultset.MaterializedGraphOWLResultSet;
 import org.apache.commons.rdf.api.IRI;
 
@@ -31,4 +32,9 @@ public class OntopMaterializedGraphOWLResultSet extends OntopGraphOWLResultSet
     public ImmutableSet<IRI> getSelectedVocabulary() {
         return graphResultSet.getSelectedVocabulary();
     }
+
+    @Override
+    public ImmutableList<PredicateMaterializationStatistics> getPredicateStatisticsSoFar() {
+        return graphResultSet.getPredicateStatisticsSoFar();
+    }
 }
@@ -0,0 +1,70 @@
+package it.unibz.inf.ontop.owlapi.resultset.impl;
+
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.BindingSetBenchmarkSupport;
+import it.unibz.inf.ontop.owlapi.resultset.OWLBinding;
+import it.unibz.inf.ontop.owlapi.resultset.OWLBindingSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static it.unibz.inf.ontop.answering.resultset.impl.BindingSetBenchmarkSupport.SIGNATURE;
+import static it.unibz.inf.ontop.answering.resultset.impl.BindingSetBenchmarkSupport.measure;
+
+/**
+ * Conversion of the Ontop binding sets into OWLAPI binding sets, compared to the decoding of the Ontop binding sets
+ * alone.
+ */
+@Ignore("used only for benchmark tests")
+public class OntopOWLBindingSetBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:owlbindingset";
+    private static final int NUM_RUNS = 5;
+
+    private BindingSetBenchmarkSupport support;
+
+    @Before
+    public void setUp() throws Exception {
+        support = new BindingSetBenchmarkSupport(URL);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        support.close();
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("OntopBindingSet.getConstant", run, () -> {
+                TupleResultSet resultSet = support.createTupleResultSet();
+                while (resultSet.hasNext()) {
+                    OntopBindingSet bindingSet = resultSet.next();
+                    for (String variable : SIGNATURE)
+                        bindingSet.getConstant(variable);
+                }
+                resultSet.close();
+            });
+            measure("OntopOWLBindingSet.getOWLObject", run, () -> {
+                TupleResultSet resultSet = support.createTupleResultSet();
+                while (resultSet.hasNext()) {
+                    OWLBindingSet bindingSet = new OntopOWLBindingSet(resultSet.next());
+                    for (String variable : SIGNATURE)
+                        bindingSet.getOWLObject(variable);
+                }
+                resultSet.close();
+            });
+            measure("OntopOWLBindingSet.iterator", run, () -> {
+                TupleResultSet resultSet = support.createTupleResultSet();
+                while (resultSet.hasNext()) {
+                    OWLBindingSet bindingSet = new OntopOWLBindingSet(resultSet.next());
+                    for (OWLBinding binding : bindingSet)
+                        binding.getValue();
+                }
+                resultSet.close();
+            });
+        }
+    }
+}
@@ -30,6 +30,7 @@ import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
 import it.unibz.inf.ontop.injection.OntopSystemConfiguration;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
 import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
 import it.unibz.inf.ontop.rdf4j.materialization.RDF4JMaterializer;
 import it.unibz.inf.ontop.rdf4j.query.MaterializationGraphQuery;
 import it.unibz.inf.ontop.rdf4j.utils.RDF4JHelper;
@@ -201,6 +202,11 @@ public class DefaultRDF4JMaterializer implements RDF4JMaterializer {
 		public ImmutableSet<IRI> getSelectedVocabulary() {
 			return graphResultSet.getSelectedVocabulary();
 		}
+
+		@Override
+		public ImmutableList<PredicateMaterializationStatistics> getPredicateStatisticsSoFar() {
+			return graphResultSet.getPredicateStatisticsSoFar();
+		}
 	}
 
 	private static class GraphMaterializationIteration implements CloseableIteration<Statement, QueryEvaluationException> {
@@ -2,6 +2,7 @@ package it.unibz.inf.ontop.rdf4j.query;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
 import org.apache.commons.rdf.api.IRI;
 import org.eclipse.rdf4j.query.GraphQuery;
 
@@ -38,4 +39,11 @@ public interface MaterializationGraphQuery extends GraphQuery {
      *
      */
     ImmutableSet<IRI> getSelectedVocabulary();
+
+    /**
+     * Throughput metrics of the RDF predicates/classes whose materialization has started so far.
+     *
+     * May evolve until the materialization completes.
+     */
+    ImmutableList<PredicateMaterializationStatistics> getPredicateStatisticsSoFar();
 }
@@ -20,8 +20,7 @@
 package it.unibz.inf.ontop.rdf4j.query.impl;
 
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
-import org.eclipse.rdf4j.model.IRI;
-import org.eclipse.rdf4j.model.Literal;
+import it.unibz.inf.ontop.answering.reformulation.input.SPARQLQueryUtility;
 import org.eclipse.rdf4j.model.Value;
 import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.Dataset;
@@ -109,23 +108,8 @@ public abstract class AbstractOntopQuery implements Query {
         this.queryTimeout = maxQueryTime;
     }
 
-    //all code below is copy-pasted from org.eclipse.rdf4j.repository.sparql.query.SPARQLOperation
     protected String getQueryString() {
-        if (bindings.size() == 0)
-            return queryString;
-        String qry = queryString;
-        int b = qry.indexOf('{');
-        String select = qry.substring(0, b);
-        String where = qry.substring(b);
-        for (String name : bindings.getBindingNames()) {
-            String replacement = getReplacement(bindings.getValue(name));
-            if (replacement != null) {
-                String pattern = "[\\?\\$]" + name + "(?=\\W)";
-                select = select.replaceAll(pattern, "");
-                where = where.replaceAll(pattern, replacement);
-            }
-        }
-        return select + where;
+        return SPARQLQueryUtility.inlineBindings(queryString, bindings);
     }
 
     protected ParsedQuery getParsedQuery() {
@@ -137,38 +121,21 @@ public abstract class AbstractOntopQuery implements Query {
         }
     }
 
-
-    private String getReplacement(Value value) {
-        StringBuilder sb = new StringBuilder();
-        if (value instanceof IRI) {
-            return appendValue(sb, (IRI) value).toString();
-        } else if (value instanceof Literal) {
-            return appendValue(sb, (Literal) value).toString();
-        } else {
-            throw new IllegalArgumentException(
-                    "BNode references not supported by SPARQL end-points");
-        }
+    /**
+     * Without the bindings
+     */
+    protected String getInitialQueryString() {
+        return queryString;
     }
 
-    private StringBuilder appendValue(StringBuilder sb, IRI uri) {
-        sb.append("<").append(uri.stringValue()).append(">");
-        return sb;
+    /**
+     * Without the bindings
+     */
+    protected ParsedQuery getInitialParsedQuery() {
+        return initialParsedQuery;
     }
 
-    private StringBuilder appendValue(StringBuilder sb, Literal lit) {
-        sb.append('"');
-        sb.append(lit.getLabel().replace("\"", "\\\""));
-        sb.append('"');
-
-        if (lit.getLanguage() != null) {
-            sb.append('@');
-            sb.append(lit.getLanguage());
-        }
-        else if (lit.getDatatype() != null) {
-            sb.append("^^<");
-            sb.append(lit.getDatatype().stringValue());
-            sb.append('>');
-        }
-        return sb;
+    protected String getBaseIRI() {
+        return baseIRI;
     }
-}
\ No newline at end of file
+}
@@ -57,7 +57,8 @@ public class OntopTupleQuery extends AbstractOntopQuery implements TupleQuery {
 			if(this.queryTimeout > 0)
 				stm.setQueryTimeout(this.queryTimeout);
 			try {
-				SelectQuery inputQuery = factory.createSelectQuery(getQueryString(), getParsedQuery());
+				SelectQuery inputQuery = factory.createSelectQuery(getInitialQueryString(), getInitialParsedQuery(),
+						bindings, getBaseIRI());
 				res = stm.execute(inputQuery);
 			} catch (OntopQueryAnsweringException e) {
 				long end = System.currentTimeMillis();
@@ -0,0 +1,70 @@
+package it.unibz.inf.ontop.rdf4j.query.impl;
+
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.BindingSetBenchmarkSupport;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import static it.unibz.inf.ontop.answering.resultset.impl.BindingSetBenchmarkSupport.SIGNATURE;
+import static it.unibz.inf.ontop.answering.resultset.impl.BindingSetBenchmarkSupport.measure;
+
+/**
+ * Conversion of the Ontop binding sets into RDF4J binding sets, compared to the decoding of the Ontop binding sets
+ * alone.
+ */
+@Ignore("used only for benchmark tests")
+public class OntopRDF4JBindingSetBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:rdf4jbindingset";
+    private static final int NUM_RUNS = 5;
+
+    private BindingSetBenchmarkSupport support;
+
+    @Before
+    public void setUp() throws Exception {
+        support = new BindingSetBenchmarkSupport(URL);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        support.close();
+    }
+
+    @Test
+    public void benchmark() throws Exception {
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("OntopBindingSet.getConstant", run, () -> {
+                TupleResultSet resultSet = support.createTupleResultSet();
+                while (resultSet.hasNext()) {
+                    OntopBindingSet bindingSet = resultSet.next();
+                    for (String variable : SIGNATURE)
+                        bindingSet.getConstant(variable);
+                }
+                resultSet.close();
+            });
+            measure("OntopRDF4JBindingSet.getValue", run, () -> {
+                TupleResultSet resultSet = support.createTupleResultSet();
+                while (resultSet.hasNext()) {
+                    BindingSet bindingSet = new OntopRDF4JBindingSet(resultSet.next());
+                    for (String variable : SIGNATURE)
+                        bindingSet.getValue(variable);
+                }
+                resultSet.close();
+            });
+            measure("OntopRDF4JBindingSet.iterator", run, () -> {
+                TupleResultSet resultSet = support.createTupleResultSet();
+                while (resultSet.hasNext()) {
+                    BindingSet bindingSet = new OntopRDF4JBindingSet(resultSet.next());
+                    for (Binding binding : bindingSet)
+                        binding.getValue();
+                }
+                resultSet.close();
+            });
+        }
+    }
+}
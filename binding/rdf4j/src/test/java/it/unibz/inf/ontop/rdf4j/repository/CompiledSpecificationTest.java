@@ -0,0 +1,253 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Table;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
+import it.unibz.inf.ontop.spec.OBDASpecification;
+import it.unibz.inf.ontop.spec.OBDASpecificationSerializer;
+import it.unibz.inf.ontop.spec.mapping.TMappingExclusionConfig;
+import it.unibz.inf.ontop.spec.ontology.ClassExpression;
+import it.unibz.inf.ontop.spec.ontology.ClassifiedTBox;
+import it.unibz.inf.ontop.spec.ontology.Equivalences;
+import org.apache.commons.rdf.api.IRI;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Properties;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+/**
+ * OBDA specification saved into a binary file and loaded back
+ */
+public class CompiledSpecificationTest {
+
+    private static final String OWL_FILE = "src/test/resources/userconstraints/uc.owl";
+    private static final String R2RML_FILE = "src/test/resources/userconstraints/uc.ttl";
+    private static final String CREATE_FILE = "src/test/resources/userconstraints/create.sql";
+
+    private static final String URL = "jdbc:h2:mem:compiledspecification";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final String PREFIX = "http://www.semanticweb.org/ontologies/2013/7/untitled-ontology-150#";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private Connection sqlConnection;
+
+    @Before
+    public void init() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            Scanner sqlFile = new Scanner(new File(CREATE_FILE));
+            s.execute(sqlFile.useDelimiter("\\A").next());
+            sqlFile.close();
+            for (int i = 1; i <= 10; i++) {
+                s.execute("INSERT INTO TABLE1 VALUES (" + i + "," + i + ");");
+            }
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            s.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        File compiledFile = folder.newFile("spec.bin");
+        OntopSQLOWLAPIConfiguration initialConfiguration = createConfiguration(new Properties());
+        initialConfiguration.saveCompiledSpecification(compiledFile);
+        OBDASpecification initialSpecification = initialConfiguration.loadSpecification();
+
+        OBDASpecificationSerializer serializer = initialConfiguration.getInjector()
+                .getInstance(OBDASpecificationSerializer.class);
+        OBDASpecification loadedSpecification;
+        try (InputStream inputStream = new FileInputStream(compiledFile)) {
+            loadedSpecification = serializer.deserialize(inputStream, "unknown-checksum").orElse(null);
+        }
+        assertNull(loadedSpecification);
+
+        OntopSQLOWLAPIConfiguration compiledConfiguration = createConfiguration(compiledFile, new Properties());
+        loadedSpecification = compiledConfiguration.loadSpecification();
+
+        assertEquals(getMappingDefinitions(initialSpecification), getMappingDefinitions(loadedSpecification));
+        assertEquals(initialSpecification.getDBMetadata().getDatabaseRelations().toString(),
+                loadedSpecification.getDBMetadata().getDatabaseRelations().toString());
+        assertEquals(getClassHierarchy(initialSpecification.getSaturatedTBox()),
+                getClassHierarchy(loadedSpecification.getSaturatedTBox()));
+
+        String query = "PREFIX : <" + PREFIX + "> SELECT ?v WHERE { ?x :hasVal1 ?v . }";
+        assertEquals(count(initialConfiguration, query), count(compiledConfiguration, query));
+        assertEquals(10, count(compiledConfiguration, query));
+    }
+
+    /**
+     * Other settings: other checksum, so the compiled specification is outdated and is ignored
+     */
+    @Test
+    public void testOutdated() throws Exception {
+        File compiledFile = folder.newFile("spec.bin");
+        createConfiguration(new Properties()).saveCompiledSpecification(compiledFile);
+        File sameInputFile = folder.newFile("same.bin");
+        createConfiguration(new Properties()).saveCompiledSpecification(sameInputFile);
+
+        Properties properties = new Properties();
+        properties.setProperty("ontop.test.otherSetting", "true");
+        OntopSQLOWLAPIConfiguration configuration = createConfiguration(compiledFile, properties);
+        File otherInputFile = folder.newFile("other.bin");
+        configuration.saveCompiledSpecification(otherInputFile);
+
+        String inputChecksum = readInputChecksum(compiledFile);
+        assertEquals(inputChecksum, readInputChecksum(sameInputFile));
+        assertNotEquals(inputChecksum, readInputChecksum(otherInputFile));
+
+        String query = "PREFIX : <" + PREFIX + "> SELECT ?v WHERE { ?x :hasVal1 ?v . }";
+        assertEquals(10, count(configuration, query));
+    }
+
+    /**
+     * Corrupted file: the specification is extracted again
+     */
+    @Test
+    public void testCorrupted() throws Exception {
+        File compiledFile = folder.newFile("spec.bin");
+        createConfiguration(new Properties()).saveCompiledSpecification(compiledFile);
+        byte[] bytes = Files.readAllBytes(compiledFile.toPath());
+        bytes[bytes.length / 2] ^= 0xFF;
+        Files.write(compiledFile.toPath(), bytes);
+
+        OntopSQLOWLAPIConfiguration configuration = createConfiguration(compiledFile, new Properties());
+        String query = "PREFIX : <" + PREFIX + "> SELECT ?v WHERE { ?x :hasVal1 ?v . }";
+        assertEquals(10, count(configuration, query));
+    }
+
+    /**
+     * The T-mapping exclusions are part of the input checksum
+     */
+    @Test
+    public void testTMappingExclusions() throws Exception {
+        File compiledFile = folder.newFile("spec.bin");
+        createConfiguration(new Properties()).saveCompiledSpecification(compiledFile);
+
+        OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .tMappingExclusionConfig(new TMappingExclusionConfig(ImmutableSet.of(PREFIX + "Class1"),
+                        ImmutableSet.of()))
+                .compiledSpecificationFile(compiledFile)
+                .enableTestMode()
+                .build();
+        File excludingFile = folder.newFile("excluding.bin");
+        configuration.saveCompiledSpecification(excludingFile);
+
+        assertNotEquals(readInputChecksum(compiledFile), readInputChecksum(excludingFile));
+    }
+
+    private static OntopSQLOWLAPIConfiguration createConfiguration(Properties properties) {
+        return OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+    }
+
+    private static OntopSQLOWLAPIConfiguration createConfiguration(File compiledFile, Properties properties) {
+        return OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .compiledSpecificationFile(compiledFile)
+                .enableTestMode()
+                .build();
+    }
+
+    /**
+     * Header: magic number, format version, Ontop version and input checksum
+     */
+    private static String readInputChecksum(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readInt();
+            in.readInt();
+            readString(in);
+            return readString(in);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The URI template function symbols are numbered in their creation order (e.g. URI2T1), which is not stable
+     */
+    private static ImmutableSet<String> getMappingDefinitions(OBDASpecification specification) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (Table.Cell<RDFAtomPredicate, IRI, IQ> cell : specification.getSaturatedMapping().getRDFPropertyQueries())
+            builder.add(normalizeTemplateSymbols(cell.getColumnKey() + " " + cell.getValue()));
+        for (Table.Cell<RDFAtomPredicate, IRI, IQ> cell : specification.getSaturatedMapping().getRDFClassQueries())
+            builder.add(normalizeTemplateSymbols(cell.getColumnKey() + " " + cell.getValue()));
+        return builder.build();
+    }
+
+    private static String normalizeTemplateSymbols(String definition) {
+        return definition.replaceAll("(URI\\d+)T\\d+\\(", "$1(");
+    }
+
+    private static ImmutableSet<String> getClassHierarchy(ClassifiedTBox tbox) {
+        ImmutableSet.Builder<String> builder = ImmutableSet.builder();
+        for (Equivalences<ClassExpression> equivalences : tbox.classesDAG())
+            builder.add(equivalences.getMembers() + " < " + tbox.classesDAG().getDirectSuper(equivalences));
+        return builder.build();
+    }
+
+    private static int count(OntopSQLOWLAPIConfiguration configuration, String queryString) {
+        OntopRepository repository = OntopRepository.defaultRepository(configuration);
+        repository.initialize();
+        int count = 0;
+        try (RepositoryConnection connection = repository.getConnection()) {
+            TupleQuery query = connection.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+            try (TupleQueryResult result = query.evaluate()) {
+                while (result.hasNext()) {
+                    result.next();
+                    count++;
+                }
+            }
+        } finally {
+            repository.shutDown();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,118 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.pool.JDBCConnectionPool;
+import it.unibz.inf.ontop.answering.connection.pool.impl.HikariConnectionPool;
+import it.unibz.inf.ontop.answering.connection.pool.impl.TomcatConnectionPool;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Scanner;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Connections requested concurrently to the instrumented pools
+ */
+public class ConnectionPoolStatisticsTest {
+
+    private static final String OWL_FILE = "src/test/resources/userconstraints/uc.owl";
+    private static final String R2RML_FILE = "src/test/resources/userconstraints/uc.ttl";
+    private static final String CREATE_FILE = "src/test/resources/userconstraints/create.sql";
+
+    private static final String URL = "jdbc:h2:mem:poolstatistics";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final int CLIENTS = 8;
+
+    private Connection sqlConnection;
+
+    @Before
+    public void init() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            Scanner sqlFile = new Scanner(new File(CREATE_FILE));
+            s.execute(sqlFile.useDelimiter("\\A").next());
+            sqlFile.close();
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            s.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testTomcat() throws Exception {
+        testPool(TomcatConnectionPool.class);
+    }
+
+    @Test
+    public void testHikari() throws Exception {
+        testPool(HikariConnectionPool.class);
+    }
+
+    private void testPool(Class<? extends JDBCConnectionPool> poolClass) throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty(JDBCConnectionPool.class.getCanonicalName(), poolClass.getCanonicalName());
+
+        OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+
+        OntopQueryEngine queryEngine = configuration.loadQueryEngine();
+        queryEngine.connect();
+        ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        try {
+            List<Future<OntopConnection>> futures = new ArrayList<>();
+            for (int i = 0; i < CLIENTS; i++)
+                futures.add(clients.submit(queryEngine::getConnection));
+            List<OntopConnection> connections = new ArrayList<>();
+            for (Future<OntopConnection> future : futures)
+                connections.add(future.get(10, TimeUnit.SECONDS));
+
+            ConnectionPoolStatistics statistics = queryEngine.getConnectionPoolStatistics().get();
+            assertEquals(CLIENTS, statistics.getAcquisitionCount());
+            assertEquals(CLIENTS, statistics.getActiveConnectionCount());
+            assertEquals(0, statistics.getWaitingThreadCount());
+            assertEquals(0, statistics.getFailedAcquisitionCount());
+            assertEquals(CLIENTS, (long) statistics.getAcquisitionLatencyHistogram().values().stream()
+                    .reduce(0L, Long::sum));
+
+            for (OntopConnection connection : connections)
+                connection.close();
+
+            statistics = queryEngine.getConnectionPoolStatistics().get();
+            assertEquals(0, statistics.getActiveConnectionCount());
+            assertTrue(statistics.getIdleConnectionCount() >= CLIENTS);
+        } finally {
+            clients.shutdownNow();
+            queryEngine.close();
+        }
+    }
+}
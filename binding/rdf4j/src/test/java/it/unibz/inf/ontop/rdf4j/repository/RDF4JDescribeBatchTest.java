@@ -0,0 +1,168 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReport;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.model.Statement;
+import org.eclipse.rdf4j.query.GraphQuery;
+import org.eclipse.rdf4j.query.GraphQueryResult;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.List;
+import java.util.Properties;
+import java.util.Scanner;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * DESCRIBE queries evaluated with different batch sizes (see {@link OntopSystemSettings#DESCRIBE_BATCH_SIZE})
+ */
+public class RDF4JDescribeBatchTest {
+
+    private static final String OWL_FILE = "src/test/resources/userconstraints/uc.owl";
+    private static final String R2RML_FILE = "src/test/resources/userconstraints/uc.ttl";
+    private static final String CREATE_FILE = "src/test/resources/userconstraints/create.sql";
+
+    private static final String URL = "jdbc:h2:mem:describebatch";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final String PREFIX = "http://www.semanticweb.org/ontologies/2013/7/untitled-ontology-150#";
+
+    private static Connection sqlConnection;
+
+    @BeforeClass
+    public static void init() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            Scanner sqlFile = new Scanner(new File(CREATE_FILE));
+            s.execute(sqlFile.useDelimiter("\\A").next());
+            sqlFile.close();
+            for (int i = 1; i <= 10; i++) {
+                s.execute("INSERT INTO TABLE1 VALUES (" + i + "," + (i * 2) + ");");
+            }
+        }
+    }
+
+    @AfterClass
+    public static void tearDown() throws Exception {
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            s.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testVariableDescribe() throws Exception {
+        String query = "PREFIX : <" + PREFIX + "> DESCRIBE ?x WHERE { ?x :hasVal1 ?v }";
+
+        ImmutableSet<Statement> expected = evaluate(query, 1);
+        assertEquals(20, expected.size());
+        assertEquals(expected, evaluate(query, 3));
+        assertEquals(expected, evaluate(query, 100));
+    }
+
+    @Test
+    public void testIRIDescribe() throws Exception {
+        String query = "DESCRIBE <" + PREFIX + "Class1-4>";
+
+        ImmutableSet<Statement> expected = evaluate(query, 1);
+        assertEquals(2, expected.size());
+        assertEquals(expected, evaluate(query, 100));
+    }
+
+    /**
+     * The CONSTRUCT queries of the batches share the same template: reformulated for a first DESCRIBE query,
+     * it is found in the query cache when describing other resources
+     */
+    @Test
+    public void testCachedReformulation() throws Exception {
+        OntopSQLOWLAPIConfiguration config = createConfiguration(3);
+        List<QueryExecutionReport> reports = new CopyOnWriteArrayList<>();
+        config.getInjector().getInstance(QueryExecutionReporter.class).addListener(reports::add);
+
+        OntopRepository repo = OntopRepository.defaultRepository(config);
+        repo.initialize();
+        try {
+            assertEquals(2, evaluate(repo, "DESCRIBE <" + PREFIX + "Class1-4>").size());
+            assertFalse(getConstructReports(reports).get(0).isCacheHit());
+            reports.clear();
+
+            ImmutableSet<Statement> statements = evaluate(repo,
+                    "PREFIX : <" + PREFIX + "> DESCRIBE ?x WHERE { ?x :hasVal1 ?v }");
+            assertEquals(20, statements.size());
+
+            // 4 batches (10 resources), in the subject and object positions
+            ImmutableList<QueryExecutionReport> constructReports = getConstructReports(reports);
+            assertEquals(8, constructReports.size());
+            assertEquals(8, constructReports.stream()
+                    .map(QueryExecutionReport::getInputQueryString)
+                    .distinct()
+                    .count());
+            assertTrue(constructReports.stream().allMatch(QueryExecutionReport::isCacheHit));
+        } finally {
+            repo.shutDown();
+        }
+    }
+
+    private static ImmutableList<QueryExecutionReport> getConstructReports(List<QueryExecutionReport> reports) {
+        return reports.stream()
+                .filter(r -> r.getInputQueryString().startsWith("CONSTRUCT"))
+                .collect(ImmutableCollectors.toList());
+    }
+
+    private static ImmutableSet<Statement> evaluate(String queryString, int batchSize) {
+        OntopRepository repo = OntopRepository.defaultRepository(createConfiguration(batchSize));
+        repo.initialize();
+        try {
+            return evaluate(repo, queryString);
+        } finally {
+            repo.shutDown();
+        }
+    }
+
+    private static ImmutableSet<Statement> evaluate(OntopRepository repo, String queryString) {
+        RepositoryConnection conn = repo.getConnection();
+        try {
+            GraphQuery query = conn.prepareGraphQuery(QueryLanguage.SPARQL, queryString);
+            ImmutableSet.Builder<Statement> builder = ImmutableSet.builder();
+            try (GraphQueryResult result = query.evaluate()) {
+                while (result.hasNext()) {
+                    builder.add(result.next());
+                }
+            }
+            return builder.build();
+        } finally {
+            conn.close();
+        }
+    }
+
+    private static OntopSQLOWLAPIConfiguration createConfiguration(int batchSize) {
+        Properties properties = new Properties();
+        properties.setProperty(OntopSystemSettings.DESCRIBE_BATCH_SIZE, String.valueOf(batchSize));
+
+        return OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+    }
+}
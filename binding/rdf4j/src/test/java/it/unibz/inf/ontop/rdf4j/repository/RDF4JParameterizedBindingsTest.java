@@ -0,0 +1,176 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.reformulation.input.RDF4JInputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.*;
+import org.eclipse.rdf4j.query.algebra.evaluation.QueryBindingSet;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Properties;
+import java.util.Scanner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Bindings passed as SQL parameters (see {@link OntopReformulationSettings#BINDING_PARAMETERIZATION})
+ */
+public class RDF4JParameterizedBindingsTest {
+
+    private static final String OWL_FILE = "src/test/resources/userconstraints/uc.owl";
+    private static final String R2RML_FILE = "src/test/resources/userconstraints/uc.ttl";
+    private static final String CREATE_FILE = "src/test/resources/userconstraints/create.sql";
+
+    private static final String URL = "jdbc:h2:mem:parameterized";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final String PREFIX = "http://www.semanticweb.org/ontologies/2013/7/untitled-ontology-150#";
+    private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
+    private Connection sqlConnection;
+    private OntopSQLOWLAPIConfiguration config;
+    private RepositoryConnection conn;
+
+    @Before
+    public void init() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            Scanner sqlFile = new Scanner(new File(CREATE_FILE));
+            s.execute(sqlFile.useDelimiter("\\A").next());
+            sqlFile.close();
+            for (int i = 1; i <= 100; i++) {
+                s.execute("INSERT INTO TABLE1 VALUES (" + i + "," + i + ");");
+            }
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(OntopReformulationSettings.BINDING_PARAMETERIZATION, "true");
+
+        config = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+
+        OntopRepository repo = OntopRepository.defaultRepository(config);
+        repo.initialize();
+        conn = repo.getConnection();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        conn.close();
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            s.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testSameQueryDifferentBindings() throws Exception {
+        String queryString = "PREFIX : <" + PREFIX + "> SELECT * WHERE { ?x :hasVal1 ?v1 . }";
+
+        for (int i = 1; i <= 3; i++) {
+            TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+            query.setBinding("x", VALUE_FACTORY.createIRI(PREFIX + "Class1-" + i));
+            assertEquals(ImmutableList.of(String.valueOf(i)), evaluate(query, "v1"));
+        }
+    }
+
+    @Test
+    public void testUnknownIRI() throws Exception {
+        String queryString = "PREFIX : <" + PREFIX + "> SELECT ?v1 WHERE { ?x :hasVal1 ?v1 . }";
+
+        TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+        query.setBinding("x", VALUE_FACTORY.createIRI(PREFIX + "Class1-107"));
+        assertEquals(ImmutableList.of(), evaluate(query, "v1"));
+    }
+
+    @Test
+    public void testNonCanonicalIRI() throws Exception {
+        String queryString = "PREFIX : <" + PREFIX + "> SELECT ?v1 WHERE { ?x :hasVal1 ?v1 . }";
+
+        for (String value : ImmutableList.of("007", "+7", "a")) {
+            TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+            query.setBinding("x", VALUE_FACTORY.createIRI(PREFIX + "Class1-" + value));
+            assertEquals(ImmutableList.of(), evaluate(query, "v1"));
+        }
+    }
+
+    /**
+     * The IRI is turned into a condition on the column of its template, inside the union
+     */
+    @Test
+    public void testColumnCondition() throws Exception {
+        String queryString = "PREFIX : <" + PREFIX + "> SELECT ?v1 WHERE { ?x :hasVal1 ?v1 . }";
+
+        String sql = getNativeQuery(queryString, "x", PREFIX + "Class1-5");
+        int viewIndex = sql.lastIndexOf("PARAMETERIZED_QVIEW");
+        assertTrue(sql.substring(0, viewIndex).contains("= ?"));
+        assertFalse(sql.substring(viewIndex).contains("="));
+
+        // The SQL query does not depend on the value of the column
+        assertEquals(sql, getNativeQuery(queryString, "x", PREFIX + "Class1-42"));
+    }
+
+    /**
+     * The bound variable only appears in an OPTIONAL: the bindings are inlined
+     */
+    @Test
+    public void testOptionalBinding() throws Exception {
+        String queryString = "PREFIX : <" + PREFIX + "> SELECT ?v1 WHERE { ?y :hasVal1 ?v1 . "
+                + "OPTIONAL { ?x :hasVal1 ?v1 } } ORDER BY ?v1 LIMIT 2";
+
+        TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+        query.setBinding("x", VALUE_FACTORY.createIRI(PREFIX + "Class1-5"));
+        assertEquals(2, evaluate(query, "v1").size());
+    }
+
+    private String getNativeQuery(String queryString, String variable, String iri) throws Exception {
+        QueryBindingSet bindings = new QueryBindingSet();
+        bindings.addBinding(variable, VALUE_FACTORY.createIRI(iri));
+        SelectQuery inputQuery = config.getInjector().getInstance(RDF4JInputQueryFactory.class)
+                .createSelectQuery(queryString, QueryParserUtil.parseQuery(QueryLanguage.SPARQL, queryString, null),
+                        bindings, null);
+
+        OntopQueryEngine queryEngine = config.loadQueryEngine();
+        queryEngine.connect();
+        try (OntopConnection connection = queryEngine.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            return statement.getExecutableQuery(inputQuery).getNativeQueryString();
+        } finally {
+            queryEngine.close();
+        }
+    }
+
+    private static ImmutableList<String> evaluate(TupleQuery query, String variable) {
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        try (TupleQueryResult result = query.evaluate()) {
+            while (result.hasNext()) {
+                builder.add(result.next().getValue(variable).stringValue());
+            }
+        }
+        return builder.build();
+    }
+}
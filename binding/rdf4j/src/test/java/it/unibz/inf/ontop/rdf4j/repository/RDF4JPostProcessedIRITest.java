@@ -0,0 +1,146 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableMultiset;
+import it.unibz.inf.ontop.injection.OntopReformulationSQLSettings;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.model.ValueFactory;
+import org.eclipse.rdf4j.model.impl.SimpleValueFactory;
+import org.eclipse.rdf4j.query.*;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Properties;
+import java.util.Scanner;
+import java.util.stream.StreamSupport;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * Compares the results with and without post-processing the IRI construction
+ * (see {@link OntopReformulationSQLSettings#POST_PROCESS_IRI_CONSTRUCTION})
+ */
+public class RDF4JPostProcessedIRITest {
+
+    private static final String OWL_FILE = "src/test/resources/userconstraints/uc.owl";
+    private static final String R2RML_FILE = "src/test/resources/userconstraints/uc.ttl";
+    private static final String CREATE_FILE = "src/test/resources/userconstraints/create.sql";
+
+    private static final String URL = "jdbc:h2:mem:postprocessed";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final String PREFIX = "http://www.semanticweb.org/ontologies/2013/7/untitled-ontology-150#";
+    private static final ValueFactory VALUE_FACTORY = SimpleValueFactory.getInstance();
+
+    private Connection sqlConnection;
+    private RepositoryConnection delegatedConn;
+    private RepositoryConnection postProcessedConn;
+
+    @Before
+    public void init() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            Scanner sqlFile = new Scanner(new File(CREATE_FILE));
+            s.execute(sqlFile.useDelimiter("\\A").next());
+            sqlFile.close();
+            for (int i = 1; i <= 20; i++) {
+                s.execute("INSERT INTO TABLE1 VALUES (" + i + "," + (i % 3 == 0 ? "NULL" : i) + ");");
+            }
+        }
+        delegatedConn = createConnection(false);
+        postProcessedConn = createConnection(true);
+    }
+
+    private static RepositoryConnection createConnection(boolean postProcessIRIs) {
+        Properties properties = new Properties();
+        properties.setProperty(OntopReformulationSQLSettings.POST_PROCESS_IRI_CONSTRUCTION,
+                String.valueOf(postProcessIRIs));
+        properties.setProperty(OntopReformulationSettings.BINDING_PARAMETERIZATION, "true");
+
+        OntopSQLOWLAPIConfiguration config = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+
+        OntopRepository repo = OntopRepository.defaultRepository(config);
+        repo.initialize();
+        return repo.getConnection();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        delegatedConn.close();
+        postProcessedConn.close();
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            s.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testSimpleQuery() {
+        compare("PREFIX : <" + PREFIX + "> SELECT * WHERE { ?x :hasVal1 ?v1 . }");
+    }
+
+    @Test
+    public void testOptional() {
+        compare("PREFIX : <" + PREFIX + "> SELECT * WHERE { ?x :hasVal1 ?v1 . OPTIONAL { ?y :hasVal2 ?v1 } }");
+    }
+
+    @Test
+    public void testUnion() {
+        compare("PREFIX : <" + PREFIX + "> SELECT * WHERE { { ?x :hasVal1 ?v } UNION { ?x :hasVal2 ?v } }");
+    }
+
+    @Test
+    public void testDistinctOrderBy() {
+        compare("PREFIX : <" + PREFIX + "> SELECT DISTINCT ?x WHERE { ?x :hasVal1 ?v } ORDER BY ?x");
+    }
+
+    /**
+     * The bound variable is post-processed: falls back to the inlined bindings
+     */
+    @Test
+    public void testBinding() {
+        String queryString = "PREFIX : <" + PREFIX + "> SELECT ?v1 WHERE { ?x :hasVal1 ?v1 . }";
+        ImmutableMultiset<ImmutableMap<String, String>> expected = evaluate(delegatedConn, queryString, true);
+        assertEquals(1, expected.size());
+        assertEquals(expected, evaluate(postProcessedConn, queryString, true));
+    }
+
+    private void compare(String queryString) {
+        ImmutableMultiset<ImmutableMap<String, String>> expected = evaluate(delegatedConn, queryString, false);
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, evaluate(postProcessedConn, queryString, false));
+    }
+
+    private static ImmutableMultiset<ImmutableMap<String, String>> evaluate(RepositoryConnection conn, String queryString,
+                                                          boolean bindX) {
+        TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, queryString);
+        if (bindX)
+            query.setBinding("x", VALUE_FACTORY.createIRI(PREFIX + "Class1-7"));
+        ImmutableMultiset.Builder<ImmutableMap<String, String>> builder = ImmutableMultiset.builder();
+        try (TupleQueryResult result = query.evaluate()) {
+            while (result.hasNext()) {
+                BindingSet bindingSet = result.next();
+                builder.add(StreamSupport.stream(bindingSet.spliterator(), false)
+                        .collect(ImmutableCollectors.toMap(Binding::getName, b -> b.getValue().toString())));
+            }
+        }
+        return builder.build();
+    }
+}
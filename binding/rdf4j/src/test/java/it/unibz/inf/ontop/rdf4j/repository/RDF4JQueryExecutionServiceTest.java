@@ -0,0 +1,341 @@
+package it.unibz.inf.ontop.rdf4j.repository;
+
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
+import it.unibz.inf.ontop.answering.connection.impl.PooledQueryExecutionService;
+import it.unibz.inf.ontop.answering.reformulation.input.DescribeQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSetPublisher;
+import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.TupleQuery;
+import org.eclipse.rdf4j.query.TupleQueryResult;
+import org.eclipse.rdf4j.repository.RepositoryConnection;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.Properties;
+import java.util.Scanner;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.Assert.*;
+
+/**
+ * Queries evaluated by the {@link PooledQueryExecutionService}, synchronously or not
+ */
+public class RDF4JQueryExecutionServiceTest {
+
+    private static final String OWL_FILE = "src/test/resources/userconstraints/uc.owl";
+    private static final String R2RML_FILE = "src/test/resources/userconstraints/uc.ttl";
+    private static final String CREATE_FILE = "src/test/resources/userconstraints/create.sql";
+
+    private static final String URL = "jdbc:h2:mem:executionservice";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final String PREFIX = "http://www.semanticweb.org/ontologies/2013/7/untitled-ontology-150#";
+
+    private static final String SELECT_QUERY = "PREFIX : <" + PREFIX + "> SELECT * WHERE { ?x :hasVal1 ?v1 . }";
+
+    private static final String DESCRIBE_QUERY = "PREFIX : <" + PREFIX + "> DESCRIBE ?x WHERE { ?x :hasVal1 ?v1 . }";
+
+    private Connection sqlConnection;
+    private OntopSQLOWLAPIConfiguration configuration;
+
+    @Before
+    public void init() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            Scanner sqlFile = new Scanner(new File(CREATE_FILE));
+            s.execute(sqlFile.useDelimiter("\\A").next());
+            sqlFile.close();
+            for (int i = 1; i <= 10; i++) {
+                s.execute("INSERT INTO TABLE1 VALUES (" + i + "," + i + ");");
+            }
+        }
+
+        Properties properties = new Properties();
+        properties.setProperty(QueryExecutionService.class.getCanonicalName(),
+                PooledQueryExecutionService.class.getCanonicalName());
+        properties.setProperty(OntopSystemSettings.QUERY_EXECUTION_THREADS, "1");
+        properties.setProperty(OntopSystemSettings.QUERY_EXECUTION_QUEUE_SIZE, "1");
+
+        configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .ontologyFile(OWL_FILE)
+                .r2rmlMappingFile(R2RML_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (java.sql.Statement s = sqlConnection.createStatement()) {
+            s.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testQueries() throws Exception {
+        OntopRepository repo = OntopRepository.defaultRepository(configuration);
+        repo.initialize();
+        try (RepositoryConnection conn = repo.getConnection()) {
+            for (int i = 0; i < 3; i++) {
+                TupleQuery query = conn.prepareTupleQuery(QueryLanguage.SPARQL, SELECT_QUERY);
+                int count = 0;
+                try (TupleQueryResult result = query.evaluate()) {
+                    while (result.hasNext()) {
+                        result.next();
+                        count++;
+                    }
+                }
+                assertEquals(10, count);
+            }
+        }
+        finally {
+            repo.shutDown();
+        }
+        QueryExecutionService service = getExecutionService();
+        assertEquals(0, service.getInFlightQueryCount());
+        assertEquals(0, service.getQueueDepth());
+    }
+
+    @Test
+    public void testDeadline() throws Exception {
+        QueryExecutionService service = getExecutionService();
+        CountDownLatch cancellation = new CountDownLatch(1);
+
+        try {
+            service.execute(() -> {
+                try {
+                    cancellation.await();
+                } catch (InterruptedException e) {
+                    throw new OntopQueryEvaluationException(e);
+                }
+                throw new OntopQueryEvaluationException("Cancelled by the DB");
+            }, cancellation::countDown, 100);
+            fail("The deadline should have been exceeded");
+        } catch (OntopQueryEvaluationException e) {
+            assertTrue(e.getMessage().startsWith("Query deadline exceeded"));
+        }
+        assertEquals(0, cancellation.getCount());
+    }
+
+    @Test
+    public void testBoundedQueue() throws Exception {
+        QueryExecutionService service = getExecutionService();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = clients.submit(() -> service.execute(() -> {
+                started.countDown();
+                await(release);
+                return 1;
+            }, () -> {}, 0));
+            started.await();
+            assertEquals(1, service.getInFlightQueryCount());
+
+            Future<Integer> second = clients.submit(() -> service.execute(() -> 2, () -> {}, 0));
+            while (service.getQueueDepth() == 0)
+                Thread.sleep(5);
+
+            // Only one thread and one slot in the queue
+            try {
+                service.execute(() -> 3, () -> {}, 0);
+                fail("The query should have been rejected");
+            } catch (OntopQueryEvaluationException e) {
+                assertTrue(e.getCause() instanceof RejectedExecutionException);
+            }
+
+            release.countDown();
+            assertEquals(1, (int) first.get());
+            assertEquals(2, (int) second.get());
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testExecuteAsync() throws Exception {
+        OntopQueryEngine queryEngine = configuration.loadQueryEngine();
+        queryEngine.connect();
+        try (OntopConnection connection = queryEngine.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(SELECT_QUERY);
+            TupleResultSet resultSet = statement.executeAsync(query).get(10, TimeUnit.SECONDS);
+            int count = 0;
+            while (resultSet.hasNext()) {
+                resultSet.next();
+                count++;
+            }
+            resultSet.close();
+            assertEquals(10, count);
+        } finally {
+            queryEngine.close();
+        }
+    }
+
+    /**
+     * The SELECT query collecting the described resources is evaluated by the only thread of the pool
+     */
+    @Test
+    public void testExecuteAsyncDescribe() throws Exception {
+        OntopQueryEngine queryEngine = configuration.loadQueryEngine();
+        queryEngine.connect();
+        try (OntopConnection connection = queryEngine.getConnection();
+             OntopStatement statement = connection.createStatement()) {
+            DescribeQuery query = connection.getInputQueryFactory().createDescribeQuery(DESCRIBE_QUERY);
+            int count = count(statement.executeAsync(query).get(10, TimeUnit.SECONDS));
+            assertTrue(count > 0);
+            assertEquals(count(statement.execute(query)), count);
+        } finally {
+            queryEngine.close();
+        }
+        QueryExecutionService service = getExecutionService();
+        assertEquals(0, service.getInFlightQueryCount());
+    }
+
+    @Test
+    public void testPublisherBackpressure() throws Exception {
+        OntopQueryEngine queryEngine = configuration.loadQueryEngine();
+        queryEngine.connect();
+        try (OntopConnection connection = queryEngine.getConnection()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(SELECT_QUERY);
+            OntopBindingSetPublisher publisher = connection.publish(query);
+
+            BlockingQueue<String> events = new LinkedBlockingQueue<>();
+            AtomicReference<OntopBindingSetPublisher.Subscription> subscription = new AtomicReference<>();
+            publisher.subscribe(new OntopBindingSetPublisher.Subscriber() {
+                @Override
+                public void onSubscribe(OntopBindingSetPublisher.Subscription s) {
+                    subscription.set(s);
+                }
+
+                @Override
+                public void onNext(OntopBindingSet bindingSet) {
+                    events.add("next");
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    events.add("error: " + throwable);
+                }
+
+                @Override
+                public void onComplete() {
+                    events.add("complete");
+                }
+            });
+
+            int count = 0;
+            while (true) {
+                subscription.get().request(3);
+                String event = null;
+                for (int i = 0; i < 3; i++) {
+                    event = events.poll(10, TimeUnit.SECONDS);
+                    if (!"next".equals(event))
+                        break;
+                    count++;
+                }
+                if (!"next".equals(event)) {
+                    assertEquals("complete", event);
+                    break;
+                }
+                // Nothing is fetched without demand
+                assertNull(events.poll(50, TimeUnit.MILLISECONDS));
+            }
+            assertEquals(10, count);
+        } finally {
+            queryEngine.close();
+        }
+    }
+
+    @Test
+    public void testPublisherCancellation() throws Exception {
+        OntopQueryEngine queryEngine = configuration.loadQueryEngine();
+        queryEngine.connect();
+        try (OntopConnection connection = queryEngine.getConnection()) {
+            SelectQuery query = connection.getInputQueryFactory().createSelectQuery(SELECT_QUERY);
+            CountDownLatch completion = new CountDownLatch(1);
+            AtomicInteger count = new AtomicInteger();
+            AtomicReference<Throwable> error = new AtomicReference<>();
+            connection.publish(query).subscribe(new OntopBindingSetPublisher.Subscriber() {
+                private OntopBindingSetPublisher.Subscription subscription;
+
+                @Override
+                public void onSubscribe(OntopBindingSetPublisher.Subscription subscription) {
+                    this.subscription = subscription;
+                    subscription.request(Long.MAX_VALUE);
+                }
+
+                @Override
+                public void onNext(OntopBindingSet bindingSet) {
+                    if (count.incrementAndGet() == 4) {
+                        subscription.cancel();
+                        completion.countDown();
+                    }
+                }
+
+                @Override
+                public void onError(Throwable throwable) {
+                    error.set(throwable);
+                    completion.countDown();
+                }
+
+                @Override
+                public void onComplete() {
+                    completion.countDown();
+                }
+            });
+            assertTrue(completion.await(10, TimeUnit.SECONDS));
+            assertNull(error.get());
+            Thread.sleep(50);
+            assertEquals(4, count.get());
+        } finally {
+            queryEngine.close();
+        }
+    }
+
+    private static int count(SimpleGraphResultSet resultSet) throws Exception {
+        int count = 0;
+        while (resultSet.hasNext()) {
+            resultSet.next();
+            count++;
+        }
+        resultSet.close();
+        return count;
+    }
+
+    private QueryExecutionService getExecutionService() {
+        QueryExecutionService service = configuration.getInjector().getInstance(QueryExecutionService.class);
+        assertTrue(service instanceof PooledQueryExecutionService);
+        return service;
+    }
+
+    private static void await(CountDownLatch latch) throws OntopQueryEvaluationException {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            throw new OntopQueryEvaluationException(e);
+        }
+    }
+}
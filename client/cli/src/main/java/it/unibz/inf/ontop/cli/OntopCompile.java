@@ -21,14 +21,60 @@ package it.unibz.inf.ontop.cli;
  */
 
 import com.github.rvesse.airline.annotations.Command;
+import com.github.rvesse.airline.annotations.Option;
+import com.github.rvesse.airline.annotations.OptionType;
+import com.github.rvesse.airline.annotations.help.BashCompletion;
+import com.github.rvesse.airline.annotations.restrictions.Required;
+import com.github.rvesse.airline.help.cli.bash.CompletionBehaviour;
+import com.google.common.base.Strings;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration.Builder;
+
+import java.io.File;
 
 @Command(name = "compile",
-        description = "compile the ontology axioms into  mappings",
-        hidden = true)
-public class OntopCompile implements OntopCommand {
+        description = "Compile the OBDA specification (saturated mapping, DB metadata and classified ontology) " +
+                "into a binary file, to be loaded with the property ontop.compiledSpecificationFile")
+public class OntopCompile extends OntopMappingOntologyRelatedCommand {
+
+    @Option(type = OptionType.COMMAND, name = {"-o", "--output"}, title = "output",
+            description = "Output file")
+    @Required
+    @BashCompletion(behaviour = CompletionBehaviour.FILENAMES)
+    String outputFile;
+
+    @Option(type = OptionType.COMMAND, name = {"-c", "--constraint"}, title = "constraint file",
+            description = "User-supplied DB constraint file")
+    @BashCompletion(behaviour = CompletionBehaviour.FILENAMES)
+    String constraintFile;
 
     @Override
     public void run() {
+        Builder<? extends Builder> configBuilder = OntopSQLOWLAPIConfiguration.defaultBuilder();
+
+        if (!Strings.isNullOrEmpty(owlFile))
+            configBuilder.ontologyFile(owlFile);
+
+        if (isR2rmlFile(mappingFile))
+            configBuilder.r2rmlMappingFile(mappingFile);
+        else
+            configBuilder.nativeOntopMappingFile(mappingFile);
+
+        if (!Strings.isNullOrEmpty(constraintFile))
+            configBuilder.basicImplicitConstraintFile(constraintFile);
+
+        OntopSQLOWLAPIConfiguration configuration = configBuilder
+                .propertyFile(propertiesFile)
+                .build();
+
+        try {
+            configuration.saveCompiledSpecification(new File(outputFile));
+        } catch (Exception e) {
+            System.out.format("ERROR: cannot compile the OBDA specification: %s\n", e.getMessage());
+            e.printStackTrace();
+            System.exit(1);
+        }
 
+        System.out.format("OBDA specification compiled into %s\n", outputFile);
     }
 }
@@ -27,20 +27,39 @@ import com.github.rvesse.airline.annotations.OptionType;
 import com.github.rvesse.airline.annotations.restrictions.AllowedValues;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
 import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
 import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration.Builder;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.materialization.DeltaMapping;
+import it.unibz.inf.ontop.materialization.DeltaMappingExtractor;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.materialization.MaterializationSession;
+import it.unibz.inf.ontop.materialization.MaterializedGraphWriter;
+import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
+import it.unibz.inf.ontop.owlapi.OWLAPIMaterializationSession;
 import it.unibz.inf.ontop.owlapi.OntopOWLAPIMaterializer;
 import it.unibz.inf.ontop.owlapi.resultset.MaterializedGraphOWLResultSet;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+import it.unibz.inf.ontop.utils.LocalJDBCConnectionUtils;
 import org.apache.commons.rdf.api.RDF;
+import org.apache.commons.rdf.simple.SimpleRDF;
 import org.semanticweb.owlapi.apibinding.OWLManager;
 import org.semanticweb.owlapi.io.WriterDocumentTarget;
 import org.semanticweb.owlapi.model.*;
 
 import java.io.*;
 import java.nio.file.Paths;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 @Command(name = "materialize",
@@ -69,6 +88,8 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
     private static final String OWL_XML = "owlxml";
     private static final String TURTLE = "turtle";
     private static final String N3 = "n3";
+    private static final String NTRIPLES = "ntriples";
+    private static final String NQUADS = "nquads";
 
 
     @Option(type = OptionType.COMMAND, override = true, name = {"-o", "--output"},
@@ -78,11 +99,24 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
 
     @Option(type = OptionType.COMMAND, name = {"-f", "--format"}, title = "outputFormat",
             description = "The format of the materialized ontology. " +
-                    //" Options: rdfxml, owlxml, turtle, n3. " +
+                    //" Options: rdfxml, owlxml, turtle, n3, ntriples, nquads. " +
+                    "ntriples, nquads and turtle are streamed directly into the output (constant memory). " +
                     "Default: rdfxml")
-    @AllowedValues(allowedValues = {RDF_XML, OWL_XML, TURTLE, N3})
+    @AllowedValues(allowedValues = {RDF_XML, OWL_XML, TURTLE, N3, NTRIPLES, NQUADS})
     public String format = RDF_XML;
 
+    @Option(type = OptionType.COMMAND, name = {"--gzip"}, title = "gzip compression",
+            description = "Compresses the output with gzip (only for ntriples, nquads and turtle). Default: false.")
+    private boolean compress = false;
+
+    @Option(type = OptionType.COMMAND, name = {"--group-subjects"}, title = "group triples by subject",
+            description = "Groups the consecutive triples sharing the same subject (only for turtle). Default: false.")
+    private boolean groupSubjects = false;
+
+    @Option(type = OptionType.COMMAND, name = {"--graph"}, title = "graph IRI",
+            description = "Named graph of the quads (only for nquads). Default: the default graph.")
+    private String graph;
+
     @Option(type = OptionType.COMMAND, name = {"--separate-files"}, title = "output to separate files",
             description = "generating separate files for different classes/properties. This is useful for" +
                     " materializing large OBDA setting. Default: false.")
@@ -92,6 +126,24 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
             description = "All the SQL results of one big query will be stored in memory. Not recommended. Default: false.")
     private boolean noStream = false;
 
+    @Option(type = OptionType.COMMAND, name = {"--threads"}, title = "number of threads",
+            description = "Number of classes/properties materialized in parallel, each on its own DB connection " +
+                    "(with --separate-files, number of files written in parallel). " +
+                    "Default: 1.")
+    private int threads = 1;
+
+    @Option(type = OptionType.COMMAND, name = {"--watermarks"}, title = "watermark file",
+            description = "Incremental materialization (ntriples, nquads and turtle only): file storing " +
+                    "the watermarks of the mappings declaring a changeColumn. Only the triples derived from " +
+                    "the rows changed since the previous run are materialized. The file is created if missing " +
+                    "and updated at the end.")
+    private String watermarkFile;
+
+    @Option(type = OptionType.COMMAND, name = {"--deleted-output"}, title = "tombstone output",
+            description = "Incremental materialization: output file for the triples derived from the rows " +
+                    "deleted since the previous run (mappings declaring a deletedColumn)")
+    private String deletedOutputFile;
+
     private boolean doStreamResults = true;
 
     public OntopMaterialize(){}
@@ -104,7 +156,9 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
         if (noStream){
             doStreamResults = false;
         }
-        if(separate) {
+        if (watermarkFile != null) {
+            runIncrementally();
+        } else if(separate) {
             runWithSeparateFiles();
         } else {
             runWithSingleFile();
@@ -142,13 +196,23 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
 
             RDF rdfFactory = configuration.getInjector().getInstance(RDF.class);
 
-            int i = 1;
-            int numPredicates = predicateMap.size();
-            for (Map.Entry<IRI, PredicateType> entry : predicateMap.entrySet()) {
-                IRI predicateIRI = entry.getKey();
-                System.err.println(String.format("Materializing %s (%d/%d)", predicateIRI, i, numPredicates));
-                serializePredicate(materializationConfig, predicateIRI, entry.getValue(), outputFile, format, ontology, rdfFactory);
-                i++;
+            // The specification is loaded and the connection pool is started only once
+            if (isStreamingFormat(format)) {
+                ImmutableMap<String, String> prefixes = ppMapping.getMetadata().getPrefixManager().getPrefixMap();
+                try (MaterializationSession session = OntopRDFMaterializer.defaultMaterializer()
+                        .createSession(materializationConfig)) {
+                    materializeInParallel(predicateMap,
+                            (iri, type) -> streamPredicate(session, iri, type, prefixes, rdfFactory));
+                }
+            }
+            else {
+                ImmutableSet<OWLDeclarationAxiom> declarations = ImmutableSet.copyOf(
+                        ontology.getAxioms(AxiomType.DECLARATION));
+                try (OWLAPIMaterializationSession session = OntopOWLAPIMaterializer.defaultMaterializer()
+                        .createSession(materializationConfig)) {
+                    materializeInParallel(predicateMap,
+                            (iri, type) -> serializePredicate(session, iri, type, declarations, rdfFactory));
+                }
             }
 
         } catch (OWLOntologyCreationException e) {
@@ -177,44 +241,99 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
     }
 
     /**
-     * Serializes the A-box corresponding to a predicate into one or multiple file.
+     * One file (or more) per class/property. The files are written in parallel by --threads workers.
+     */
+    private void materializeInParallel(ImmutableMap<IRI, PredicateType> predicateMap,
+                                       PredicateSerializer serializer) throws Exception {
+        int numPredicates = predicateMap.size();
+        AtomicInteger predicateCounter = new AtomicInteger();
+        AtomicInteger threadCounter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread thread = new Thread(r, "ontop-materialize-" + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Map.Entry<IRI, PredicateType> entry : predicateMap.entrySet()) {
+                futures.add(executor.submit(() -> {
+                    System.err.println(String.format("Materializing %s (%d/%d)", entry.getKey(),
+                            predicateCounter.incrementAndGet(), numPredicates));
+                    serializer.serialize(entry.getKey(), entry.getValue());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    throw (cause instanceof Exception) ? (Exception) cause : e;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @FunctionalInterface
+    private interface PredicateSerializer {
+        void serialize(IRI predicateIRI, PredicateType predicateType) throws Exception;
+    }
+
+    private String getFilePrefix(IRI predicateIRI, PredicateType predicateType) {
+        return Paths.get(outputFile, predicateIRI.toString().replaceAll("[^a-zA-Z0-9]", "_")
+                + predicateType.getCode() + "_").toString();
+    }
+
+    /**
+     * Streams the A-box corresponding to a predicate into one file.
      */
-    private void serializePredicate(OntopSQLOWLAPIConfiguration materializationConfig, IRI predicateIRI,
-                                    PredicateType predicateType,
-                                    String outputFile, String format, OWLOntology ontology, RDF rdfFactory) throws Exception {
+    private void streamPredicate(MaterializationSession session, IRI predicateIRI, PredicateType predicateType,
+                                 ImmutableMap<String, String> prefixes, RDF rdfFactory) throws Exception {
         final long startTime = System.currentTimeMillis();
 
+        String fileName = getFilePrefix(predicateIRI, predicateType) + getStreamingSuffix();
+        MaterializationParams materializationParams = MaterializationParams.defaultBuilder()
+                .enableDBResultsStreaming(doStreamResults)
+                .build();
+
+        try (MaterializedGraphResultSet graphResultSet = session.materialize(
+                ImmutableSet.of(rdfFactory.createIRI(predicateIRI.toString())), materializationParams);
+             MaterializedGraphWriter writer = createWriter(new FileOutputStream(fileName), prefixes)) {
+            long tripleCount = writer.write(graphResultSet);
+            final long time = System.currentTimeMillis() - startTime;
+            System.out.println(String.format("%s: %d triples in %d {ms}", predicateIRI, tripleCount, time));
+        }
+    }
 
-        System.err.println("Starts writing triples into files.");
+    /**
+     * Serializes the A-box corresponding to a predicate into one or multiple file.
+     */
+    private void serializePredicate(OWLAPIMaterializationSession session, IRI predicateIRI,
+                                    PredicateType predicateType, ImmutableSet<OWLDeclarationAxiom> declarations,
+                                    RDF rdfFactory) throws Exception {
+        final long startTime = System.currentTimeMillis();
 
         int tripleCount = 0;
         int fileCount = 0;
 
-        String outputDir = outputFile;
-
-        String filePrefix = Paths.get(outputDir, predicateIRI.toString().replaceAll("[^a-zA-Z0-9]", "_")
-                + predicateType.getCode() +"_" ).toString();
-        OntopOWLAPIMaterializer materializer = OntopOWLAPIMaterializer.defaultMaterializer();
+        String filePrefix = getFilePrefix(predicateIRI, predicateType);
         MaterializationParams materializationParams = MaterializationParams.defaultBuilder()
                 .enableDBResultsStreaming(doStreamResults)
                 .build();
 
-
-        try (MaterializedGraphOWLResultSet graphResultSet = materializer.materialize(materializationConfig,
+        try (MaterializedGraphOWLResultSet graphResultSet = session.materialize(
                 ImmutableSet.of(rdfFactory.createIRI(predicateIRI.toString())), materializationParams)) {
 
             while (graphResultSet.hasNext()) {
-                tripleCount += serializeTripleBatch(ontology, graphResultSet, filePrefix, predicateIRI.toString(), fileCount, format);
+                tripleCount += serializeTripleBatch(declarations, graphResultSet, filePrefix, predicateIRI.toString(), fileCount, format);
                 fileCount++;
             }
-
-            System.out.println("NR of TRIPLES: " + tripleCount);
-            System.out.println("VOCABULARY SIZE (NR of QUERIES): " + graphResultSet.getSelectedVocabulary().size());
         }
 
-        final long endTime = System.currentTimeMillis();
-        final long time = endTime - startTime;
-        System.out.println("Elapsed time to materialize: " + time + " {ms}");
+        final long time = System.currentTimeMillis() - startTime;
+        System.out.println(String.format("%s: %d triples in %d {ms}", predicateIRI, tripleCount, time));
     }
 
     /**
@@ -222,7 +341,7 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
      * Upper bound: TRIPLE_LIMIT_PER_FILE.
      *
      */
-    private int serializeTripleBatch(OWLOntology ontology, MaterializedGraphOWLResultSet iterator,
+    private int serializeTripleBatch(ImmutableSet<OWLDeclarationAxiom> declarations, MaterializedGraphOWLResultSet iterator,
                                      String filePrefix, String predicateName, int fileCount, String format) throws Exception {
         String suffix;
 
@@ -250,7 +369,7 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
         OWLOntology aBox = manager.createOntology(IRI.create(predicateName));
 
         // Add the signatures
-        for (OWLDeclarationAxiom axiom : ontology.getAxioms(AxiomType.DECLARATION)) {
+        for (OWLDeclarationAxiom axiom : declarations) {
             manager.addAxiom(aBox, axiom);
         }
 
@@ -270,19 +389,9 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
 
 
     public void runWithSingleFile() {
-        BufferedOutputStream output = null;
-        BufferedWriter writer = null;
-
         try {
             final long startTime = System.currentTimeMillis();
 
-            if (outputFile != null) {
-                output = new BufferedOutputStream(new FileOutputStream(outputFile));
-            } else {
-                output = new BufferedOutputStream(System.out);
-            }
-            writer = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"));
-
             Builder configBuilder = createAndInitConfigurationBuilder();
 
             if (owlFile != null) {
@@ -316,30 +425,60 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
                         .build();
             }
 
-            OntopOWLAPIMaterializer materializer = OntopOWLAPIMaterializer.defaultMaterializer();
             MaterializationParams materializationParams = MaterializationParams.defaultBuilder()
                     .enableDBResultsStreaming(doStreamResults)
+                    .parallelism(threads)
                     .build();
 
+            if (isStreamingFormat(format)) {
+                ImmutableMap<String, String> prefixes = initialConfiguration.loadProvidedPPMapping()
+                        .getMetadata().getPrefixManager().getPrefixMap();
+                OutputStream output = (outputFile != null)
+                        ? new FileOutputStream(outputFile)
+                        // System.out is flushed but not closed
+                        : new FilterOutputStream(System.out) {
+                            @Override
+                            public void close() throws IOException {
+                                flush();
+                            }
+                        };
+
+                OntopRDFMaterializer materializer = OntopRDFMaterializer.defaultMaterializer();
+                try (MaterializedGraphResultSet graphResults = materializer.materialize(
+                        materializerConfiguration, materializationParams);
+                     MaterializedGraphWriter writer = createWriter(output, prefixes)) {
+
+                    writer.write(graphResults);
+
+                    System.err.println("NR of TRIPLES: " + graphResults.getTripleCountSoFar());
+                    System.err.println("VOCABULARY SIZE (NR of QUERIES): " + graphResults.getSelectedVocabulary().size());
+                }
+            }
+            else {
+                try (BufferedWriter writer = new BufferedWriter(new OutputStreamWriter((outputFile != null)
+                        ? new BufferedOutputStream(new FileOutputStream(outputFile))
+                        : new BufferedOutputStream(System.out), "UTF-8"))) {
 
-            // OBDAModelSynchronizer.declarePredicates(ontology, obdaModel);
+                    OntopOWLAPIMaterializer materializer = OntopOWLAPIMaterializer.defaultMaterializer();
 
-            OWLOntologyManager manager = ontology.getOWLOntologyManager();
-            try (MaterializedGraphOWLResultSet graphResults = materializer.materialize(
-                    materializerConfiguration, materializationParams)) {
+                    // OBDAModelSynchronizer.declarePredicates(ontology, obdaModel);
 
-                while (graphResults.hasNext())
-                    manager.addAxiom(ontology, graphResults.next());
+                    OWLOntologyManager manager = ontology.getOWLOntologyManager();
+                    try (MaterializedGraphOWLResultSet graphResults = materializer.materialize(
+                            materializerConfiguration, materializationParams)) {
 
-                OWLDocumentFormat DocumentFormat = getDocumentFormat(format);
+                        while (graphResults.hasNext())
+                            manager.addAxiom(ontology, graphResults.next());
 
-                manager.saveOntology(ontology, DocumentFormat, new WriterDocumentTarget(writer));
+                        OWLDocumentFormat DocumentFormat = getDocumentFormat(format);
 
-                System.err.println("NR of TRIPLES: " + graphResults.getTripleCountSoFar());
-                System.err.println("VOCABULARY SIZE (NR of QUERIES): " + graphResults.getSelectedVocabulary().size());
+                        manager.saveOntology(ontology, DocumentFormat, new WriterDocumentTarget(writer));
+
+                        System.err.println("NR of TRIPLES: " + graphResults.getTripleCountSoFar());
+                        System.err.println("VOCABULARY SIZE (NR of QUERIES): " + graphResults.getSelectedVocabulary().size());
+                    }
+                }
             }
-            if (outputFile!=null)
-                output.close();
 
             final long endTime = System.currentTimeMillis();
             final long time = endTime - startTime;
@@ -351,6 +490,143 @@ public class OntopMaterialize extends OntopReasoningCommandBase {
         }
     }
 
+    /**
+     * Only the rows changed since the watermarks stored in the watermark file
+     */
+    private void runIncrementally() {
+        try {
+            if (separate || !isStreamingFormat(format) || outputFile == null)
+                throw new IllegalArgumentException("--watermarks requires an output file and the ntriples, " +
+                        "nquads or turtle format (no --separate-files)");
+
+            final long startTime = System.currentTimeMillis();
+
+            Builder configBuilder = createAndInitConfigurationBuilder();
+            if (owlFile != null) {
+                configBuilder.ontologyFile(owlFile);
+            }
+            OntopSQLOWLAPIConfiguration initialConfiguration = configBuilder.build();
+
+            OWLOntology ontology;
+            if (owlFile != null) {
+                OWLOntology initialOntology = initialConfiguration.loadProvidedInputOntology();
+                ontology = disableReasoning
+                        ? extractDeclarations(initialOntology.getOWLOntologyManager(), initialOntology)
+                        : initialOntology;
+            }
+            else {
+                ontology = OWLManager.createOWLOntologyManager().createOntology();
+            }
+
+            SQLPPMapping ppMapping = initialConfiguration.loadProvidedPPMapping();
+
+            File watermarks = new File(watermarkFile);
+            Properties previousWatermarks = new Properties();
+            if (watermarks.exists()) {
+                try (Reader reader = new InputStreamReader(new FileInputStream(watermarks), "UTF-8")) {
+                    previousWatermarks.load(reader);
+                }
+            }
+
+            DeltaMappingExtractor extractor = initialConfiguration.getInjector()
+                    .getInstance(DeltaMappingExtractor.class);
+            DeltaMapping delta;
+            try (Connection connection = LocalJDBCConnectionUtils.createConnection(
+                    initialConfiguration.getSettings())) {
+                delta = extractor.extract(ppMapping, Maps.fromProperties(previousWatermarks), connection);
+            }
+
+            ImmutableMap<String, String> prefixes = ppMapping.getMetadata().getPrefixManager().getPrefixMap();
+            long changedCount = materializeDelta(delta.getChangedMapping(), ontology, outputFile, prefixes);
+            System.err.println("NR of CHANGED TRIPLES: " + changedCount);
+
+            if (delta.getDeletedMapping().isPresent()) {
+                if (deletedOutputFile != null) {
+                    long deletedCount = materializeDelta(delta.getDeletedMapping().get(), ontology,
+                            deletedOutputFile, prefixes);
+                    System.err.println("NR of DELETED TRIPLES: " + deletedCount);
+                }
+                else
+                    System.err.println("WARNING: no --deleted-output, the deleted triples are not materialized");
+            }
+
+            // Only stored once the delta has been materialized
+            Properties newWatermarks = new Properties();
+            newWatermarks.putAll(delta.getNewWatermarks());
+            try (Writer writer = new OutputStreamWriter(new FileOutputStream(watermarks), "UTF-8")) {
+                newWatermarks.store(writer, "Ontop materialization watermarks");
+            }
+
+            final long time = System.currentTimeMillis() - startTime;
+            System.out.println("Elapsed time to materialize: " + time + " {ms}");
+
+        } catch (Exception e) {
+            System.out.println("Error materializing ontology:");
+            e.printStackTrace();
+        }
+    }
+
+    private long materializeDelta(SQLPPMapping ppMapping, OWLOntology ontology, String file,
+                                  ImmutableMap<String, String> prefixes) throws Exception {
+        OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .propertyFile(propertiesFile)
+                .ppMapping(ppMapping)
+                .ontology(ontology)
+                .enableOntologyAnnotationQuerying(true)
+                .build();
+        MaterializationParams materializationParams = MaterializationParams.defaultBuilder()
+                .enableDBResultsStreaming(doStreamResults)
+                .parallelism(threads)
+                .build();
+
+        try (MaterializedGraphResultSet graphResults = OntopRDFMaterializer.defaultMaterializer()
+                .materialize(configuration, materializationParams);
+             MaterializedGraphWriter writer = createWriter(new FileOutputStream(file), prefixes)) {
+            return writer.write(graphResults);
+        }
+    }
+
+    private static boolean isStreamingFormat(String format) {
+        return format.equals(NTRIPLES) || format.equals(NQUADS) || format.equals(TURTLE);
+    }
+
+    private String getStreamingSuffix() {
+        String suffix;
+        switch (format) {
+            case NTRIPLES:
+                suffix = ".nt";
+                break;
+            case NQUADS:
+                suffix = ".nq";
+                break;
+            default:
+                suffix = ".ttl";
+        }
+        return compress ? suffix + ".gz" : suffix;
+    }
+
+    private MaterializedGraphWriter createWriter(OutputStream outputStream, ImmutableMap<String, String> prefixes)
+            throws IOException {
+        MaterializedGraphWriter.Format writerFormat;
+        switch (format) {
+            case NTRIPLES:
+                writerFormat = MaterializedGraphWriter.Format.NTRIPLES;
+                break;
+            case NQUADS:
+                writerFormat = MaterializedGraphWriter.Format.NQUADS;
+                break;
+            default:
+                writerFormat = MaterializedGraphWriter.Format.TURTLE;
+        }
+        MaterializedGraphWriter.Builder<?> builder = MaterializedGraphWriter.defaultBuilder(writerFormat)
+                .enableCompression(compress)
+                .prefixes(prefixes)
+                .enableSubjectGrouping(groupSubjects);
+        if (graph != null)
+            builder.graph(new SimpleRDF().createIRI(graph));
+        return builder.build(outputStream);
+    }
+
 
     /**
      * Mapping file + connection info
@@ -17,6 +17,12 @@ public interface DatalogFactory {
 
     CQIE getFreshCQIECopy(CQIE rule);
 
+    /**
+     * Same as getFreshCQIECopy(rule), but with a suffix allocated by the caller
+     * (the variables are renamed into [name]_[suffix])
+     */
+    CQIE getFreshCQIECopy(CQIE rule, int suffix);
+
 
     DatalogProgram getDatalogProgram();
 
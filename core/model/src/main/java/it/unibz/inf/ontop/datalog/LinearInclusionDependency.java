@@ -21,10 +21,13 @@ public class LinearInclusionDependency {
     @Override
     public String toString() { return head + " :- " + body; }
 
+    /**
+     * Indexed by the predicate of the body (the dependencies are looked up from the atoms they apply to)
+     */
     public static ImmutableMultimap<Predicate, LinearInclusionDependency> toMultimap(ImmutableList<LinearInclusionDependency> dependencies) {
         return dependencies.stream()
                 .collect(ImmutableCollectors.toMultimap(
-                        d -> d.getHead().getFunctionSymbol(),
+                        d -> d.getBody().getFunctionSymbol(),
                         d -> d));
     }
 }
@@ -13,6 +13,7 @@ import it.unibz.inf.ontop.model.type.TypeFactory;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 
 
@@ -157,8 +158,11 @@ public class DatalogFactoryImpl implements DatalogFactory {
      */
     @Override
     public CQIE getFreshCQIECopy(CQIE rule) {
+        return getFreshCQIECopy(rule, suffix.incrementAndGet());
+    }
 
-        int suff = ++suffix;
+    @Override
+    public CQIE getFreshCQIECopy(CQIE rule, int suff) {
 
         // This method doesn't support nested functional terms
         CQIE freshRule = rule.clone();
@@ -182,7 +186,7 @@ public class DatalogFactoryImpl implements DatalogFactory {
         return freshRule;
     }
 
-    private int suffix = 0;
+    private final AtomicInteger suffix = new AtomicInteger();
 
     private Term getFreshTerm(Term term, int suff) {
         Term newTerm;
@@ -98,6 +98,17 @@ public class QuotedID {
 		
 		return quoteString + id + quoteString;
 	}
+
+	/**
+	 * (used only for serializing the DB metadata)
+	 */
+	String getQuoteString() {
+		return quoteString;
+	}
+
+	boolean isCaseSensitive() {
+		return caseSensitive;
+	}
 	
 	@Override
 	public String toString() {
@@ -110,6 +110,17 @@ public class RelationID {
 	public String getTableName() {
 		return table.getName();
 	}
+
+	/**
+	 * (used only for serializing the DB metadata)
+	 */
+	QuotedID getSchemaID() {
+		return schema;
+	}
+
+	QuotedID getTableID() {
+		return table;
+	}
 	
 	/**
 	 * 
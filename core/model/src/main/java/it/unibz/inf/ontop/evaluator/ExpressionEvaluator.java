@@ -20,9 +20,14 @@ package it.unibz.inf.ontop.evaluator;
  * #L%
  */
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.datalog.AlgebraOperatorPredicate;
 import it.unibz.inf.ontop.model.term.functionsymbol.*;
-import it.unibz.inf.ontop.datalog.impl.DatalogTools;
 import it.unibz.inf.ontop.model.term.impl.ImmutabilityTools;
 import it.unibz.inf.ontop.model.term.*;
 import it.unibz.inf.ontop.model.type.NumericRDFDatatype;
@@ -30,50 +35,58 @@ import it.unibz.inf.ontop.model.type.RDFDatatype;
 import it.unibz.inf.ontop.model.type.TypeFactory;
 import it.unibz.inf.ontop.model.vocabulary.OntopInternal;
 import it.unibz.inf.ontop.model.vocabulary.XSD;
-import it.unibz.inf.ontop.substitution.Substitution;
-import it.unibz.inf.ontop.substitution.impl.UnifierUtilities;
+import it.unibz.inf.ontop.substitution.ImmutableSubstitution;
+import it.unibz.inf.ontop.substitution.impl.ImmutableUnificationTools;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.apache.commons.rdf.api.RDF;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import static it.unibz.inf.ontop.model.term.functionsymbol.ExpressionOperation.*;
 
 
 /**
- * WARNING: NOT immutable!!!!!
+ * Evaluates directly the immutable expressions (no conversion into mutable functional terms).
+ *
+ * Thread-safe: the results are memoized in a bounded table.
  */
+@Singleton
 public class ExpressionEvaluator {
 
-	private final DatalogTools datalogTools;
+	private static final int MEMO_MAX_SIZE = 10_000;
+
 	private final TermFactory termFactory;
 	private final TypeFactory typeFactory;
 	private final ValueConstant valueFalse;
 	private final ValueConstant valueTrue;
 	private final ValueConstant valueNull;
-	private final UnifierUtilities unifierUtilities;
+	private final ImmutableFunctionalTerm emptyString;
+	private final ImmutableUnificationTools unificationTools;
 	private final ExpressionNormalizer normalizer;
 	private final ImmutabilityTools immutabilityTools;
 	private final RDF rdfFactory;
+	private final Cache<ImmutableExpression, EvaluationResult> memo;
 
 	@Inject
-	private ExpressionEvaluator(DatalogTools datalogTools, TermFactory termFactory, TypeFactory typeFactory,
-								UnifierUtilities unifierUtilities, ExpressionNormalizer normalizer,
+	private ExpressionEvaluator(TermFactory termFactory, TypeFactory typeFactory,
+								ImmutableUnificationTools unificationTools, ExpressionNormalizer normalizer,
 								ImmutabilityTools immutabilityTools, RDF rdfFactory) {
 		this.termFactory = termFactory;
 		this.typeFactory = typeFactory;
-		this.datalogTools = datalogTools;
 		valueFalse = termFactory.getBooleanConstant(false);
 		valueTrue = termFactory.getBooleanConstant(true);
 		valueNull = termFactory.getNullConstant();
-		this.unifierUtilities = unifierUtilities;
+		// Blank language with literal type
+		emptyString = termFactory.getImmutableTypedTerm(termFactory.getConstantLiteral("", XSD.STRING), XSD.STRING);
+		this.unificationTools = unificationTools;
 		this.normalizer = normalizer;
 		this.immutabilityTools = immutabilityTools;
 		this.rdfFactory = rdfFactory;
+		this.memo = CacheBuilder.newBuilder()
+				.maximumSize(MEMO_MAX_SIZE)
+				.build();
 	}
 
 	public static class EvaluationResult {
@@ -144,25 +157,26 @@ public class ExpressionEvaluator {
 	}
 
 	public EvaluationResult evaluateExpression(ImmutableExpression expression) {
-		Expression mutableExpression = immutabilityTools.convertToMutableBooleanExpression(expression);
-
-		Term evaluatedTerm = evalOperation(mutableExpression);
+		EvaluationResult result = memo.getIfPresent(expression);
+		if (result == null) {
+			result = convertEvaluatedTerm(evalOperation(expression));
+			memo.put(expression, result);
+		}
+		return result;
+	}
 
-		/**
-		 * If a function, convert it into an ImmutableBooleanExpression
-		 */
-		if (evaluatedTerm instanceof Function) {
-			Function evaluatedFunctionalTerm = (Function) evaluatedTerm;
+	private EvaluationResult convertEvaluatedTerm(ImmutableTerm evaluatedTerm) {
+		if (evaluatedTerm instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm evaluatedFunctionalTerm = (ImmutableFunctionalTerm) evaluatedTerm;
 
-			Predicate predicate = evaluatedFunctionalTerm.getFunctionSymbol();
-			if (!(predicate instanceof OperationPredicate)) {
+			FunctionSymbol functionSymbol = evaluatedFunctionalTerm.getFunctionSymbol();
+			if (!(functionSymbol instanceof OperationPredicate)) {
 				throw new RuntimeException("Functional term evaluated that does not have a OperationPredicate: "
 						+ evaluatedFunctionalTerm);
 			}
 
-			return new EvaluationResult(termFactory.getImmutableExpression(
-					termFactory.getExpression((OperationPredicate) predicate,
-							evaluatedFunctionalTerm.getTerms())), normalizer, termFactory);
+			return new EvaluationResult(termFactory.getImmutableExpression((OperationPredicate) functionSymbol,
+					evaluatedFunctionalTerm.getTerms()), normalizer, termFactory);
 		}
 		else if (evaluatedTerm instanceof Constant) {
 			if (evaluatedTerm == valueFalse) {
@@ -175,68 +189,44 @@ public class ExpressionEvaluator {
 			}
 		}
 		else if (evaluatedTerm instanceof Variable) {
-		    return new EvaluationResult(termFactory.getImmutableExpression(ExpressionOperation.IS_TRUE,
-                    immutabilityTools.convertIntoImmutableTerm(evaluatedTerm)), normalizer, termFactory);
-        }
+			return new EvaluationResult(termFactory.getImmutableExpression(ExpressionOperation.IS_TRUE,
+					evaluatedTerm), normalizer, termFactory);
+		}
 		else {
 			throw new RuntimeException("Unexpected term returned after evaluation: " + evaluatedTerm);
 		}
 	}
 
-
-	private Term eval(Term expr) {
-		if (expr instanceof Variable) 
+	private ImmutableTerm eval(ImmutableTerm expr) {
+		if (expr instanceof Variable)
 			return expr;
 
-		else if (expr instanceof Constant) 
+		else if (expr instanceof Constant)
 			return expr;
-		
-		else if (expr instanceof Function) 
-			return eval((Function) expr);
-		 
+
+		else if (expr instanceof ImmutableFunctionalTerm)
+			return eval((ImmutableFunctionalTerm) expr);
+
 		throw new RuntimeException("Invalid expression");
 	}
 
-	private Term eval(Function expr) {
-		Predicate p = expr.getFunctionSymbol();
-		if (expr.isAlgebraFunction()) { // p == DatalogAlgebraOperatorPredicates.SPARQL_JOIN || p == DatalogAlgebraOperatorPredicates.SPARQL_LEFTJOIN
-			List<Term> terms = expr.getTerms();
-			for (int i=0; i<terms.size(); i++) {
-				Term old = terms.get(i);
-				if (old instanceof Function) {
-					Term newterm = eval((Function)old);
-					if (!newterm.equals(old))
-						if (newterm == valueFalse) {
-							//
-							terms.set(i, termFactory.getTypedTerm(valueFalse, typeFactory.getXsdBooleanDatatype()));
-						} else if (newterm == valueTrue) {
-							//remove
-							terms.remove(i);
-							i--;
-							continue;
-						}
-						else {
-							terms.set(i, newterm);
-						}
-				}
-			}
-			return expr;
-		}
-		else if (expr.isOperation()) {
+	private ImmutableTerm eval(ImmutableFunctionalTerm expr) {
+		FunctionSymbol p = expr.getFunctionSymbol();
+		if (p instanceof OperationPredicate) {
 			return evalOperation(expr);
-		} 
-		else if (expr.isDataTypeFunction()) {
-			Term t0 = expr.getTerm(0);
+		}
+		else if (p instanceof DatatypePredicate) {
+			ImmutableTerm t0 = expr.getTerm(0);
 			if (t0 instanceof Constant) {
 				ValueConstant value = (ValueConstant) t0;
 				String valueString = value.getValue();
 
 				RDFDatatype datatype = value.getType();
 
-				if (datatype.isA(XSD.BOOLEAN)) { // OBDAVocabulary.XSD_BOOLEAN
+				if (datatype.isA(XSD.BOOLEAN)) {
 					if (valueString.equals("true") || valueString.equals("1")) {
 						return valueTrue;
-					} 
+					}
 					else if (valueString.equals("false") || valueString.equals("0")) {
 						return valueFalse;
 					}
@@ -250,35 +240,37 @@ public class ExpressionEvaluator {
 					return termFactory.getBooleanConstant(valueString.length() != 0);
 				}
 				// TODO (R): year, date and time are not covered?
-			} 
+			}
 			else if (t0 instanceof Variable) {
-				return termFactory.getFunctionIsTrue(expr);
-			} 
+				return termFactory.getImmutableExpression(IS_TRUE, expr);
+			}
 			else {
 				return expr;
 			}
 		}
+		// Including the algebra functions (not expected in immutable terms)
 		return expr;
 	}
 
-	private Term evalOperation(Function term) {
+	private ImmutableTerm evalOperation(ImmutableFunctionalTerm term) {
 
-		Predicate pred = term.getFunctionSymbol();
-		ExpressionOperation expressionOperation = ExpressionOperation.valueOf(pred.toString());
+		FunctionSymbol pred = term.getFunctionSymbol();
+		// ExpressionOperation is the only implementation of OperationPredicate
+		ExpressionOperation expressionOperation = (ExpressionOperation) pred;
 		switch(expressionOperation){
 
 			case ADD:
 			case SUBTRACT:
 			case MULTIPLY:
 			case DIVIDE:
-				Function returnedDatatype = getDatatype(term);
-            //expression has not been removed
-            if(returnedDatatype != null &&
-                    (returnedDatatype.getFunctionSymbol().equals(pred) || isNumeric((ValueConstant) returnedDatatype.getTerm(0)))){
-                return term;
-            }
-			else
-				return valueFalse;
+				ImmutableFunctionalTerm returnedDatatype = getDatatype(term);
+				//expression has not been removed
+				if(returnedDatatype != null &&
+						(returnedDatatype.getFunctionSymbol().equals(pred) || isNumeric((ValueConstant) returnedDatatype.getTerm(0)))){
+					return term;
+				}
+				else
+					return valueFalse;
 			case AND :
 				return evalAnd(term.getTerm(0), term.getTerm(1));
 			case OR:
@@ -373,11 +365,12 @@ public class ExpressionEvaluator {
 	 * Expression evaluator for isNumeric() function
 	 */
 
-	private Term evalIsNumeric(Function term) {
-		Term innerTerm = term.getTerm(0);
-		if (innerTerm instanceof Function) {
-			Function function = (Function) innerTerm;
-			return termFactory.getBooleanConstant(function.isDataTypeFunction() && isNumeric(function.getFunctionSymbol()));
+	private ImmutableTerm evalIsNumeric(ImmutableFunctionalTerm term) {
+		ImmutableTerm innerTerm = term.getTerm(0);
+		if (innerTerm instanceof ImmutableFunctionalTerm) {
+			FunctionSymbol functionSymbol = ((ImmutableFunctionalTerm) innerTerm).getFunctionSymbol();
+			return termFactory.getBooleanConstant((functionSymbol instanceof DatatypePredicate)
+					&& isNumeric(functionSymbol));
 		}
 		else {
 			return term;
@@ -387,12 +380,11 @@ public class ExpressionEvaluator {
 	/*
 	 * Expression evaluator for isLiteral() function
 	 */
-	private Term evalIsLiteral(Function term) {
-		Term innerTerm = term.getTerm(0);
-		if (innerTerm instanceof Function) {
-			Function function = (Function) innerTerm;
-			return termFactory.getBooleanConstant(function.isDataTypeFunction());
-		} 
+	private ImmutableTerm evalIsLiteral(ImmutableFunctionalTerm term) {
+		ImmutableTerm innerTerm = term.getTerm(0);
+		if (innerTerm instanceof ImmutableFunctionalTerm) {
+			return termFactory.getBooleanConstant(isDatatypeFunction(innerTerm));
+		}
 		else {
 			return term;
 		}
@@ -401,12 +393,11 @@ public class ExpressionEvaluator {
 	/*
 	 * Expression evaluator for isBlank() function
 	 */
-	private Term evalIsBlank(Function term) {
-		Term teval = eval(term.getTerm(0));
-		if (teval instanceof Function) {
-			Function function = (Function) teval;
-			Predicate predicate = function.getFunctionSymbol();
-			return termFactory.getBooleanConstant(predicate instanceof BNodePredicate);
+	private ImmutableTerm evalIsBlank(ImmutableFunctionalTerm term) {
+		ImmutableTerm teval = eval(term.getTerm(0));
+		if (teval instanceof ImmutableFunctionalTerm) {
+			FunctionSymbol functionSymbol = ((ImmutableFunctionalTerm) teval).getFunctionSymbol();
+			return termFactory.getBooleanConstant(functionSymbol instanceof BNodePredicate);
 		}
 		return term;
 	}
@@ -414,12 +405,11 @@ public class ExpressionEvaluator {
 	/*
 	 * Expression evaluator for isIRI() and isURI() function
 	 */
-	private Term evalIsIri(Function term) {
-		Term teval = eval(term.getTerm(0));
-		if (teval instanceof Function) {
-			Function function = (Function) teval;
-			Predicate predicate = function.getFunctionSymbol();
-			return termFactory.getBooleanConstant(predicate instanceof URITemplatePredicate);
+	private ImmutableTerm evalIsIri(ImmutableFunctionalTerm term) {
+		ImmutableTerm teval = eval(term.getTerm(0));
+		if (teval instanceof ImmutableFunctionalTerm) {
+			FunctionSymbol functionSymbol = ((ImmutableFunctionalTerm) teval).getFunctionSymbol();
+			return termFactory.getBooleanConstant(functionSymbol instanceof URITemplatePredicate);
 		}
 		return term;
 	}
@@ -427,72 +417,76 @@ public class ExpressionEvaluator {
 	/*
 	 * Expression evaluator for str() function
 	 */
-	private Term evalStr(Function term) {
-		Term innerTerm = term.getTerm(0);
-		if (innerTerm instanceof Function) {
-			Function function = (Function) innerTerm;
-			Predicate predicate = function.getFunctionSymbol();
-			Term parameter = function.getTerm(0);
-			if (function.isDataTypeFunction()) {
-				if (isXsdString(predicate) ) { // R: was datatype.equals(OBDAVocabulary.RDFS_LITERAL_URI)
-					return termFactory.getTypedTerm(
+	private ImmutableTerm evalStr(ImmutableFunctionalTerm term) {
+		ImmutableTerm innerTerm = term.getTerm(0);
+		if (innerTerm instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm function = (ImmutableFunctionalTerm) innerTerm;
+			FunctionSymbol functionSymbol = function.getFunctionSymbol();
+			ImmutableTerm parameter = function.getTerm(0);
+			if (functionSymbol instanceof DatatypePredicate) {
+				if (isXsdString(functionSymbol)) {
+					return termFactory.getImmutableTypedTerm(
 							termFactory.getVariable(parameter.toString()), typeFactory.getXsdStringDatatype());
-				} 
+				}
 
 				else {
-					return termFactory.getTypedTerm(
-							termFactory.getFunctionCast(termFactory.getVariable(parameter.toString()),
+					return termFactory.getImmutableTypedTerm(
+							termFactory.getImmutableExpression(QUEST_CAST, termFactory.getVariable(parameter.toString()),
 									termFactory.getConstantLiteral(typeFactory.getXsdStringDatatype().getIRI().getIRIString())),
 										typeFactory.getXsdStringDatatype());
 				}
-			} 
-			else if (predicate instanceof URITemplatePredicate) {
-				return termFactory.getTypedTerm(function.clone(), typeFactory.getXsdStringDatatype());
-			} 
-			else if (predicate instanceof BNodePredicate) {
+			}
+			else if (functionSymbol instanceof URITemplatePredicate) {
+				return termFactory.getImmutableTypedTerm(function, typeFactory.getXsdStringDatatype());
+			}
+			else if (functionSymbol instanceof BNodePredicate) {
 				return valueNull;
 			}
 		}
 		return term;
 	}
 
-	private static boolean isXsdString(Predicate predicate) {
-		return (predicate instanceof DatatypePredicate)
-				&& ((DatatypePredicate) predicate).getReturnedType().isA(XSD.STRING);
+	private static boolean isXsdString(FunctionSymbol functionSymbol) {
+		return (functionSymbol instanceof DatatypePredicate)
+				&& ((DatatypePredicate) functionSymbol).getReturnedType().isA(XSD.STRING);
+	}
+
+	private static boolean isDatatypeFunction(ImmutableTerm term) {
+		return (term instanceof ImmutableFunctionalTerm)
+				&& (((ImmutableFunctionalTerm) term).getFunctionSymbol() instanceof DatatypePredicate);
 	}
 
 	/*
 	 * Expression evaluator for datatype() function
 	 */
-	private Term evalDatatype(Function term) {
-		Term innerTerm = term.getTerm(0);
-		if (innerTerm instanceof Function) {
-			Function function = (Function) innerTerm;
-			return getDatatype(function);
+	private ImmutableTerm evalDatatype(ImmutableFunctionalTerm term) {
+		ImmutableTerm innerTerm = term.getTerm(0);
+		if (innerTerm instanceof ImmutableFunctionalTerm) {
+			return getDatatype((ImmutableFunctionalTerm) innerTerm);
 		}
 		return term;
 	}
-	
-	private Function getDatatype(Function function) {
-		Predicate predicate = function.getFunctionSymbol();
-		if (function.isDataTypeFunction()) {
-			return termFactory.getUriTemplateForDatatype(predicate.toString());
-		} 
-		else if (predicate instanceof BNodePredicate) {
+
+	private ImmutableFunctionalTerm getDatatype(ImmutableFunctionalTerm function) {
+		FunctionSymbol functionSymbol = function.getFunctionSymbol();
+		if (functionSymbol instanceof DatatypePredicate) {
+			return getUriTemplateForDatatype(functionSymbol.toString());
+		}
+		else if (functionSymbol instanceof BNodePredicate) {
 			return null;
-		} 
-		else if (predicate instanceof URITemplatePredicate) {
+		}
+		else if (functionSymbol instanceof URITemplatePredicate) {
 			return null;
-		} 
-		else if (function.isAlgebraFunction()) {
-			return termFactory.getUriTemplateForDatatype(typeFactory.getXsdBooleanDatatype().getIRI().getIRIString());
-		} 
-		else if (predicate == ExpressionOperation.ADD || predicate == ExpressionOperation.SUBTRACT || 
-				predicate == ExpressionOperation.MULTIPLY || predicate == ExpressionOperation.DIVIDE)
+		}
+		else if (functionSymbol instanceof AlgebraOperatorPredicate) {
+			return getUriTemplateForDatatype(typeFactory.getXsdBooleanDatatype().getIRI().getIRIString());
+		}
+		else if (functionSymbol == ExpressionOperation.ADD || functionSymbol == ExpressionOperation.SUBTRACT ||
+				functionSymbol == ExpressionOperation.MULTIPLY || functionSymbol == ExpressionOperation.DIVIDE)
 		{
 			//return numerical if arguments have same type
-			Term arg1 = function.getTerm(0);
-			Term arg2 = function.getTerm(1);
+			ImmutableTerm arg1 = function.getTerm(0);
+			ImmutableTerm arg2 = function.getTerm(1);
 
 			if (arg1 instanceof Variable|| arg2 instanceof Variable){
 				return function;
@@ -501,27 +495,30 @@ public class ExpressionEvaluator {
 
 			Predicate pred2 = getDatatypePredicate(arg2);
 			if (pred1.equals(pred2) || (isDouble(pred1) && isNumeric(pred2))) {
-				return termFactory.getUriTemplateForDatatype(pred1.toString());
-			} 
+				return getUriTemplateForDatatype(pred1.toString());
+			}
 			else if (isNumeric(pred1) && isDouble(pred2)) {
-				return termFactory.getUriTemplateForDatatype(pred2.toString());
-			} 
+				return getUriTemplateForDatatype(pred2.toString());
+			}
 			else {
 				return null;
 			}
 		}
-		else if (function.isOperation()) {
+		else if (functionSymbol instanceof OperationPredicate) {
 			//return boolean uri
-			return termFactory.getUriTemplateForDatatype(XSD.BOOLEAN.getIRIString());
+			return getUriTemplateForDatatype(XSD.BOOLEAN.getIRIString());
 		}
 		return null;
 	}
-	
-	private Predicate getDatatypePredicate(Term term) {
-		if (term instanceof Function) {
-			Function function = (Function) term;
-			return function.getFunctionSymbol();
-		} 
+
+	private ImmutableFunctionalTerm getUriTemplateForDatatype(String type) {
+		return termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(type));
+	}
+
+	private Predicate getDatatypePredicate(ImmutableTerm term) {
+		if (term instanceof ImmutableFunctionalTerm) {
+			return ((ImmutableFunctionalTerm) term).getFunctionSymbol();
+		}
 		else if (term instanceof ValueConstant) {
 			ValueConstant constant = (ValueConstant) term;
 			RDFDatatype type = constant.getType();
@@ -529,22 +526,22 @@ public class ExpressionEvaluator {
 			if (pred == null)
 				pred = termFactory.getRequiredTypePredicate(XSD.STRING); // .XSD_STRING;
 			return pred;
-		} 
+		}
 		else {
 			throw new RuntimeException("Unexpected term type: " + term);
 		}
 	}
-	
+
 	private boolean isDouble(Predicate pred) {
 		return (pred.equals(termFactory.getRequiredTypePredicate(XSD.DOUBLE))
 				|| pred.equals(termFactory.getRequiredTypePredicate(XSD.FLOAT)));
 	}
-	
+
 	private boolean isNumeric(Predicate pred) {
 		return (pred instanceof DatatypePredicate)
 				&& (((DatatypePredicate) pred).getReturnedType() instanceof NumericRDFDatatype);
 	}
-	
+
 	private boolean isNumeric(ValueConstant constant) {
 		String constantValue = constant.getValue();
 		RDFDatatype type = typeFactory.getDatatype(rdfFactory.createIRI(constantValue));
@@ -554,150 +551,126 @@ public class ExpressionEvaluator {
 	/*
 	 * Expression evaluator for lang() function
 	 */
-	private Term evalLang(Function term) {
-		Term innerTerm = term.getTerm(0);
-
-		// Create a default return constant: blank language with literal type.
-		// TODO: avoid this constant wrapping thing
-		Function emptyString = termFactory.getTypedTerm(
-				termFactory.getConstantLiteral("", XSD.STRING), XSD.STRING);
+	private ImmutableTerm evalLang(ImmutableFunctionalTerm term) {
+		ImmutableTerm innerTerm = term.getTerm(0);
 
-        if (innerTerm instanceof Variable) {
-            return term;
-        }
+		if (innerTerm instanceof Variable) {
+			return term;
+		}
 		/*
 		 * TODO: consider the case of constants
 		 */
-		if (!(innerTerm instanceof Function)) {
+		if (!(innerTerm instanceof ImmutableFunctionalTerm)) {
 			return emptyString;
 		}
-		Function function = (Function) innerTerm;
+		FunctionSymbol functionSymbol = ((ImmutableFunctionalTerm) innerTerm).getFunctionSymbol();
 
-		if (!function.isDataTypeFunction()) {
+		if (!(functionSymbol instanceof DatatypePredicate)) {
 			return null;
 		}
 
-		Predicate predicate = function.getFunctionSymbol();
-		if (predicate instanceof DatatypePredicate) {
-			RDFDatatype datatype = ((DatatypePredicate) predicate).getReturnedType();
+		RDFDatatype datatype = ((DatatypePredicate) functionSymbol).getReturnedType();
 
-			return datatype.getLanguageTag()
-					// TODO: avoid this constant wrapping thing
-					.map(tag -> termFactory.getTypedTerm(
-							termFactory.getConstantLiteral(tag.getFullString(), XSD.STRING),
-							XSD.STRING))
-					.orElse(emptyString);
-
-		}
-		return term;
+		return datatype.getLanguageTag()
+				// TODO: avoid this constant wrapping thing
+				.map(tag -> termFactory.getImmutableTypedTerm(
+						termFactory.getConstantLiteral(tag.getFullString(), XSD.STRING),
+						XSD.STRING))
+				.orElse(emptyString);
 	}
 
 	/*
 	 * Expression evaluator for langMatches() function
 	 */
-	private Term evalLangMatches(Function term) {
+	private ImmutableTerm evalLangMatches(ImmutableFunctionalTerm term) {
 		final String SELECT_ALL = "*";
-		
+
 		/*
 		 * Evaluate the first term
 		 */
-		Term teval1 = eval(term.getTerm(0));
+		ImmutableTerm teval1 = eval(term.getTerm(0));
 		if (teval1 == null) {
 			return valueNull; // ROMAN (10 Jan 2017): not valueFalse
 		}
 		/*
 		 * Evaluate the second term
 		 */
-		Term innerTerm2 = term.getTerm(1);
-		if (innerTerm2 == null) {
-			return valueNull; // ROMAN (10 Jan 2017): not valueFalse
-		}
+		ImmutableTerm innerTerm2 = term.getTerm(1);
 
 		/*
 		 * Term checks
 		 */
 		if (teval1 instanceof Constant && innerTerm2 instanceof Constant) {
 			String lang1 = ((Constant) teval1).getValue();
-			String lang2 = ((Constant) innerTerm2).getValue();	
+			String lang2 = ((Constant) innerTerm2).getValue();
 			if (lang2.equals(SELECT_ALL)) {
-				if (lang1.isEmpty()) 
-					return termFactory.getFunctionIsNull(teval1);
-				else 
-					return termFactory.getFunctionIsNotNull(teval1);
-			} 
+				if (lang1.isEmpty())
+					return termFactory.getImmutableExpression(IS_NULL, teval1);
+				else
+					return termFactory.getImmutableExpression(IS_NOT_NULL, teval1);
+			}
 			else {
 				return termFactory.getBooleanConstant(lang1.equals(lang2));
 			}
-		} 
+		}
 		else if (teval1 instanceof Variable && innerTerm2 instanceof Constant) {
-			Variable var = (Variable) teval1;
 			Constant lang = (Constant) innerTerm2;
 			if (lang.getValue().equals(SELECT_ALL)) {
 				// The char * means to get all languages
-				return termFactory.getFunctionIsNotNull(var);
+				return termFactory.getImmutableExpression(IS_NOT_NULL, teval1);
 			} else {
-				return termFactory.getFunctionEQ(var, lang);
+				return termFactory.getImmutableExpression(EQ, teval1, lang);
 			}
-		} 
-		else if (teval1 instanceof Function && innerTerm2 instanceof Function) {
-			Function f1 = (Function) teval1;
-			Function f2 = (Function) innerTerm2;
-			if(f1.isOperation()){
+		}
+		else if (teval1 instanceof ImmutableFunctionalTerm && innerTerm2 instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm f1 = (ImmutableFunctionalTerm) teval1;
+			ImmutableFunctionalTerm f2 = (ImmutableFunctionalTerm) innerTerm2;
+			if (f1.getFunctionSymbol() instanceof OperationPredicate) {
 				return term;
 			}
-			return evalLangMatches(termFactory.getLANGMATCHESFunction(f1.getTerm(0),
-					f2.getTerm(0)));
-		} 
+			return evalLangMatches(termFactory.getImmutableExpression(LANGMATCHES, f1.getTerm(0), f2.getTerm(0)));
+		}
 		else {
 			return term;
 		}
 	}
 
-	private Term evalRegex(Function term) {
-//
-		Term eval1 = term.getTerm(0);
-		eval1 = evalRegexSingleExpression(eval1);
-
-        Term eval2 = term.getTerm(1);
-		eval2 = evalRegexSingleExpression(eval2);
-
-        Term eval3 = term.getTerm(2);
-        eval3 = evalRegexSingleExpression(eval3);
+	private ImmutableTerm evalRegex(ImmutableFunctionalTerm term) {
+		ImmutableTerm eval1 = evalRegexSingleExpression(term.getTerm(0));
+		ImmutableTerm eval2 = evalRegexSingleExpression(term.getTerm(1));
+		ImmutableTerm eval3 = evalRegexSingleExpression(term.getTerm(2));
 
-        if(eval1.equals(valueFalse)
-                || eval2.equals(valueFalse)
-                || eval3.equals(valueFalse))
-        {
-            return valueFalse;
-        }
-
-        return termFactory.getFunction(term.getFunctionSymbol(), eval1, eval2, term.getTerm(2));
+		if(eval1.equals(valueFalse)
+				|| eval2.equals(valueFalse)
+				|| eval3.equals(valueFalse))
+		{
+			return valueFalse;
+		}
 
+		return termFactory.getImmutableFunctionalTerm(term.getFunctionSymbol(), eval1, eval2, term.getTerm(2));
 	}
 
-	private Term evalRegexSingleExpression(Term expr){
-
-        if (expr instanceof Function) {
-            Function function1 = (Function) expr;
-            Predicate predicate1 = function1.getFunctionSymbol();
-            if((predicate1 instanceof URITemplatePredicate)
-                    ||(predicate1 instanceof BNodePredicate)) {
-                return valueFalse;
-            }
-            if (!function1.isDataTypeFunction()){
-				Term evaluatedExpression = eval(expr);
+	private ImmutableTerm evalRegexSingleExpression(ImmutableTerm expr){
+
+		if (expr instanceof ImmutableFunctionalTerm) {
+			FunctionSymbol functionSymbol = ((ImmutableFunctionalTerm) expr).getFunctionSymbol();
+			if((functionSymbol instanceof URITemplatePredicate)
+					||(functionSymbol instanceof BNodePredicate)) {
+				return valueFalse;
+			}
+			if (!(functionSymbol instanceof DatatypePredicate)){
+				ImmutableTerm evaluatedExpression = eval(expr);
 				return expr.equals(evaluatedExpression)
 						? expr
 						: evalRegexSingleExpression(evaluatedExpression);
-            }
-        }
-        return expr;
-
-    }
+			}
+		}
+		return expr;
+	}
 
-	private Term evalIfElseNull(Function term) {
-		Term formerCondition = term.getTerm(0);
-		Term newCondition = eval(formerCondition);
+	private ImmutableTerm evalIfElseNull(ImmutableFunctionalTerm term) {
+		ImmutableTerm formerCondition = term.getTerm(0);
+		ImmutableTerm newCondition = eval(formerCondition);
 		if (newCondition.equals(formerCondition))
 			return term;
 		else if (newCondition.equals(valueFalse))
@@ -705,30 +678,31 @@ public class ExpressionEvaluator {
 		else if (newCondition.equals(valueTrue))
 			return term.getTerm(1);
 		else
-			return termFactory.getFunction(term.getFunctionSymbol(), newCondition, term.getTerm(1));
+			return termFactory.getImmutableFunctionalTerm(term.getFunctionSymbol(), newCondition, term.getTerm(1));
 	}
 
-	private Term evalIsNullNotNull(Function term, boolean isnull) {
-		Term innerTerm = term.getTerms().get(0);
-		if (innerTerm instanceof Function) {
-			Function f = (Function) innerTerm;
-			if (f.isDataTypeFunction()) {
-				Function isNotNullInnerInnerTerm = termFactory.getFunction(ExpressionOperation.IS_NOT_NULL,
-						((Function) innerTerm).getTerms());
-				return evalIsNullNotNull(isNotNullInnerInnerTerm , isnull);
-			}
+	private ImmutableTerm evalIsNullNotNull(ImmutableFunctionalTerm term, boolean isnull) {
+		ImmutableTerm innerTerm = term.getTerm(0);
+		if (isDatatypeFunction(innerTerm)) {
+			ImmutableExpression isNotNullInnerInnerTerm = termFactory.getImmutableExpression(IS_NOT_NULL,
+					((ImmutableFunctionalTerm) innerTerm).getTerms());
+			return evalIsNullNotNull(isNotNullInnerInnerTerm, isnull);
 		}
-		Term result = eval(innerTerm);
-		if (result == valueNull) {
+		ImmutableTerm result = eval(innerTerm);
+		// Not evaluable: kept as it is
+		if (result == null) {
+			return termFactory.getImmutableExpression(isnull ? IS_NULL : IS_NOT_NULL, innerTerm);
+		}
+		else if (result == valueNull) {
 			return termFactory.getBooleanConstant(isnull);
-		} 
+		}
 		else if (result instanceof Constant) {
 			return termFactory.getBooleanConstant(!isnull);
 		}
 
-		if (result instanceof Function) {
-			Function functionalTerm = (Function) result;
-			Predicate functionSymbol = functionalTerm.getFunctionSymbol();
+		if (result instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm functionalTerm = (ImmutableFunctionalTerm) result;
+			FunctionSymbol functionSymbol = functionalTerm.getFunctionSymbol();
 			/*
 			 * Special optimization for URI templates
 			 */
@@ -742,13 +716,16 @@ public class ExpressionEvaluator {
 			else if (functionSymbol != IS_NULL
 					&& functionSymbol != IS_NOT_NULL
 					&& functionSymbol != IF_ELSE_NULL) {
-				Expression notNullExpression = datalogTools.foldBooleanConditions(
+				Optional<ImmutableExpression> notNullExpression = immutabilityTools.foldBooleanExpressions(
 						functionalTerm.getTerms().stream()
-								.map(t -> termFactory.getFunction(IS_NOT_NULL, t))
-								.collect(Collectors.toList()));
+								.map(t -> termFactory.getImmutableExpression(IS_NOT_NULL, t)));
+				// No argument: trivially not null
+				if (!notNullExpression.isPresent())
+					return termFactory.getBooleanConstant(!isnull);
+
 				return eval(isnull
-						? termFactory.getFunction(NOT, notNullExpression)
-						: notNullExpression);
+						? termFactory.getImmutableExpression(NOT, notNullExpression.get())
+						: notNullExpression.get());
 			}
 		}
 
@@ -757,104 +734,93 @@ public class ExpressionEvaluator {
 		 * This can be improved by evaluating some of the function, e.g,. URI
 		 * and Bnodes never return null
 		 */
-		if (isnull) {
-			return termFactory.getFunctionIsNull(result);
-		} else {
-			return termFactory.getFunctionIsNotNull(result);
-		}
+		return termFactory.getImmutableExpression(isnull ? IS_NULL : IS_NOT_NULL, result);
 	}
 
 	/**
 	 * TODO: make it stronger (in case someone uses complex sub-terms such as IS_NULL(x) inside the URI template...)
 	 */
-	private Function simplifyIsNullorNotNullUriTemplate(Function uriTemplate, boolean isNull) {
-		Set<Variable> variables = uriTemplate.getVariables();
+	private ImmutableExpression simplifyIsNullorNotNullUriTemplate(ImmutableFunctionalTerm uriTemplate, boolean isNull) {
+		ImmutableSet<Variable> variables = uriTemplate.getVariables();
 		if (isNull) {
 			switch (variables.size()) {
 				case 0:
-					return termFactory.getFunctionIsNull(uriTemplate);
+					return termFactory.getImmutableExpression(IS_NULL, uriTemplate);
 				case 1:
-					return termFactory.getFunctionIsNull(variables.iterator().next());
+					return termFactory.getImmutableExpression(IS_NULL, variables.iterator().next());
 				default:
-					return variables.stream()
-							.reduce(null,
-									(e, v) -> e == null
-											? termFactory.getFunctionIsNull(v)
-											: termFactory.getFunctionOR(e, termFactory.getFunctionIsNull(v)),
-									(e1, e2) -> e1 == null
-											? e2
-											: (e2 == null) ? e1 : termFactory.getFunctionOR(e1, e2));
+					ImmutableExpression disjunction = null;
+					for (Variable v : variables) {
+						ImmutableExpression isNullExpression = termFactory.getImmutableExpression(IS_NULL, v);
+						disjunction = (disjunction == null)
+								? isNullExpression
+								: termFactory.getImmutableExpression(OR, disjunction, isNullExpression);
+					}
+					return disjunction;
 			}
 		}
 		else {
 			if (variables.isEmpty())
-				return termFactory.getFunctionIsNotNull(uriTemplate);
+				return termFactory.getImmutableExpression(IS_NOT_NULL, uriTemplate);
 			else
-				return datalogTools.foldBooleanConditions(
+				return immutabilityTools.foldBooleanExpressions(
 						variables.stream()
-								.map(termFactory::getFunctionIsNotNull)
-								.collect(Collectors.toList()));
+								.map(v -> termFactory.getImmutableExpression(IS_NOT_NULL, v)))
+						.get();
 		}
 	}
 
-	private Term evalIsTrue(Function term) {
-		Term teval = eval(term.getTerm(0));
-		if (teval instanceof Function) {
-			Function f = (Function) teval;
-			Predicate predicate = f.getFunctionSymbol();
-			if (predicate == ExpressionOperation.IS_NOT_NULL) {
-				return termFactory.getFunctionIsNotNull(f.getTerm(0));
-			} else if (predicate == ExpressionOperation.IS_NULL) {
-				return termFactory.getFunctionIsNull(f.getTerm(0));
-			} else if (predicate == ExpressionOperation.NEQ) {
-				return termFactory.getFunctionNEQ(f.getTerm(0), f.getTerm(1));
-			} else if (predicate == ExpressionOperation.EQ) {
-				return termFactory.getFunctionEQ(f.getTerm(0), f.getTerm(1));
+	private ImmutableTerm evalIsTrue(ImmutableFunctionalTerm term) {
+		ImmutableTerm teval = eval(term.getTerm(0));
+		if (teval instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm f = (ImmutableFunctionalTerm) teval;
+			FunctionSymbol functionSymbol = f.getFunctionSymbol();
+			if (functionSymbol == IS_NOT_NULL
+					|| functionSymbol == IS_NULL
+					|| functionSymbol == NEQ
+					|| functionSymbol == EQ) {
+				return f;
 			}
 		} else if (teval instanceof Constant) {
 			return teval;
 		}
 		return term;
 	}
-	
-	
-	private Term evalNot(Function term) {
-		Term teval = eval(term.getTerm(0));
-		if (teval instanceof Function) {
-			Function f = (Function) teval;
-			Predicate predicate = f.getFunctionSymbol();
-			if (predicate == ExpressionOperation.IS_NOT_NULL) {
-				return termFactory.getFunctionIsNull(f.getTerm(0));
-			} else if (predicate == ExpressionOperation.IS_NULL) {
-				return termFactory.getFunctionIsNotNull(f.getTerm(0));
-			} else if (predicate == ExpressionOperation.NEQ) {
-				return termFactory.getFunctionEQ(f.getTerm(0), f.getTerm(1));
-			} else if (predicate == ExpressionOperation.EQ) {
-				return termFactory.getFunctionNEQ(f.getTerm(0), f.getTerm(1));
+
+	private ImmutableTerm evalNot(ImmutableFunctionalTerm term) {
+		ImmutableTerm teval = eval(term.getTerm(0));
+		if (teval instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm f = (ImmutableFunctionalTerm) teval;
+			FunctionSymbol functionSymbol = f.getFunctionSymbol();
+			if (functionSymbol == IS_NOT_NULL) {
+				return termFactory.getImmutableExpression(IS_NULL, f.getTerm(0));
+			} else if (functionSymbol == IS_NULL) {
+				return termFactory.getImmutableExpression(IS_NOT_NULL, f.getTerm(0));
+			} else if (functionSymbol == NEQ) {
+				return termFactory.getImmutableExpression(EQ, f.getTerm(0), f.getTerm(1));
+			} else if (functionSymbol == EQ) {
+				return termFactory.getImmutableExpression(NEQ, f.getTerm(0), f.getTerm(1));
 			}
 		} else if (teval instanceof Constant) {
 			if (teval == valueFalse)
 				return valueTrue;
 			else if (teval == valueTrue)
 				return valueFalse;
-			else if (teval == valueNull)
-				return teval;
 			// ROMAN (10 Jan 2017): this needs to be revised
 			return teval;
 		}
 		return term;
 	}
 
-	private Term evalEqNeq(Function term, boolean eq) {
+	private ImmutableTerm evalEqNeq(ImmutableFunctionalTerm term, boolean eq) {
 		/*
 		 * Evaluate the first term
 		 */
-		
+
 		// Do not eval if term is DataTypeFunction, e.g. integer(10)
-		Term teval1;
-		if (term.getTerm(0) instanceof Function) {
-			Function t1 = (Function) term.getTerm(0);
-			if (!(t1.isDataTypeFunction())) {
+		ImmutableTerm teval1;
+		if (term.getTerm(0) instanceof ImmutableFunctionalTerm) {
+			if (!isDatatypeFunction(term.getTerm(0))) {
 				teval1 = eval(term.getTerm(0));
 				if (teval1 == null) {
 					return valueFalse;
@@ -875,10 +841,9 @@ public class ExpressionEvaluator {
 		 * Evaluate the second term
 		 */
 
-		Term teval2;
-		if (term.getTerm(1) instanceof Function) {
-			Function t2 = (Function) term.getTerm(1);
-			if (!(t2.isDataTypeFunction())) {
+		ImmutableTerm teval2;
+		if (term.getTerm(1) instanceof ImmutableFunctionalTerm) {
+			if (!isDatatypeFunction(term.getTerm(1))) {
 				teval2 = eval(term.getTerm(1));
 				if (teval2 == null) {
 					return valueFalse;
@@ -895,80 +860,55 @@ public class ExpressionEvaluator {
 			teval2 = eval(term.getTerm(1));
 		}
 
-		/* 
-		 * Normalizing the location of terms, functions first 
+		/*
+		 * Normalizing the location of terms, functions first
 		 */
-		Term eval1 = teval1 instanceof Function ? teval1 : teval2;
-		Term eval2 = teval1 instanceof Function ? teval2 : teval1;
+		ImmutableTerm eval1 = teval1 instanceof ImmutableFunctionalTerm ? teval1 : teval2;
+		ImmutableTerm eval2 = teval1 instanceof ImmutableFunctionalTerm ? teval2 : teval1;
 
 		if (eval1 instanceof Variable || eval2 instanceof Variable) {
 			// no - op
-		} 
+		}
 		else if (eval1 instanceof Constant && eval2 instanceof Constant) {
-			if (eval1.equals(eval2)) 
-				return termFactory.getBooleanConstant(eq);
-			else 
-				return termFactory.getBooleanConstant(!eq);
-			
-		} 
-		else if (eval1 instanceof Function) {
-			Function f1 = (Function) eval1;
-			Predicate pred1 = f1.getFunctionSymbol();
-			
-			if (f1.isDataTypeFunction()) {
-//				if (pred1.getTermType(0) == COL_TYPE.UNSUPPORTED) {
-//					throw new RuntimeException("Unsupported type: " + pred1);
-//				}
-			} 
-			else if (f1.isOperation()) {
+			return termFactory.getBooleanConstant(eval1.equals(eval2) == eq);
+		}
+		else if (eval1 instanceof ImmutableFunctionalTerm) {
+			ImmutableFunctionalTerm f1 = (ImmutableFunctionalTerm) eval1;
+			FunctionSymbol pred1 = f1.getFunctionSymbol();
+
+			if (pred1 instanceof OperationPredicate) {
 				return term;
 			}
-			
+
 			/*
 			 * Evaluate the second term
 			 */
-			if (eval2 instanceof Function) {
-				Function f2 = (Function) eval2;
-				Predicate pred2 = f2.getFunctionSymbol();
-//				if (pred2.getTermType(0) == COL_TYPE.UNSUPPORTED) {
-//					throw new RuntimeException("Unsupported type: " + pred2);
-//				}
-
-				if (pred1.equals(pred2)) {
+			if (eval2 instanceof ImmutableFunctionalTerm) {
+				ImmutableFunctionalTerm f2 = (ImmutableFunctionalTerm) eval2;
+
+				if (pred1.equals(f2.getFunctionSymbol())) {
 					if (pred1 instanceof URITemplatePredicate) {
 						return evalUriTemplateEqNeq(f1, f2, eq);
-					} 
+					}
 					else {
-						if (eq) {
-							Function neweq = termFactory.getFunctionEQ(f1.getTerm(0), f2.getTerm(0));
-							return evalEqNeq(neweq, true);
-						} 
-						else {
-							Function neweq = termFactory.getFunctionNEQ(f1.getTerm(0), f2.getTerm(0));
-							return evalEqNeq(neweq, false);
-						}
+						return evalEqNeq(termFactory.getImmutableExpression(eq ? EQ : NEQ, f1.getTerm(0),
+								f2.getTerm(0)), eq);
 					}
-				} 
-				else if (!pred1.equals(pred2)) {
-					return termFactory.getBooleanConstant(!eq);
-				} 
+				}
 				else {
-					return term;
+					return termFactory.getBooleanConstant(!eq);
 				}
 			}
 		}
 
 		/* eval2 is not a function */
-		if (eq) {
-			return termFactory.getFunctionEQ(eval1, eval2);
-		} else {
-			return termFactory.getFunctionNEQ(eval1, eval2);
-		}
+		return termFactory.getImmutableExpression(eq ? EQ : NEQ, eval1, eval2);
 	}
 
-	private Term evalUriTemplateEqNeq(Function uriFunction1, Function uriFunction2, boolean isEqual) {
+	private ImmutableTerm evalUriTemplateEqNeq(ImmutableFunctionalTerm uriFunction1,
+											   ImmutableFunctionalTerm uriFunction2, boolean isEqual) {
 		int arityForFunction1 = uriFunction1.getArity();
-		int arityForFunction2 = uriFunction2.getArity();		
+		int arityForFunction2 = uriFunction2.getArity();
 		if (arityForFunction1 == 1) {
 			if (arityForFunction2 == 1) {
 				return evalUriFunctionsWithSingleTerm(uriFunction1, uriFunction2, isEqual);
@@ -986,118 +926,97 @@ public class ExpressionEvaluator {
 		}
 		return null;
 	}
-	
-	private Term evalUriFunctionsWithSingleTerm(Function uriFunction1, Function uriFunction2, boolean isEqual) {
-		Term term1 = uriFunction1.getTerm(0);
-		Term term2 = uriFunction2.getTerm(0);
 
-		if (term2 instanceof Variable) {
-
-			if (isEqual) {
-				return termFactory.getFunctionEQ(term2, term1);
-			} else {
-				if(term1 instanceof ValueConstant){
-					if (isEqual)
-						return termFactory.getFunctionEQ(term1, term2);
-					else
-						return termFactory.getFunctionNEQ(term1, term2);
-				}
-				return termFactory.getFunctionNEQ(term2, term1);
-			}
-
-		} else if (term2 instanceof ValueConstant) {
+	private ImmutableTerm evalUriFunctionsWithSingleTerm(ImmutableFunctionalTerm uriFunction1,
+														 ImmutableFunctionalTerm uriFunction2, boolean isEqual) {
+		ImmutableTerm term1 = uriFunction1.getTerm(0);
+		ImmutableTerm term2 = uriFunction2.getTerm(0);
 
+		if (term2 instanceof Variable) {
+			if (isEqual)
+				return termFactory.getImmutableExpression(EQ, term2, term1);
+			else if (term1 instanceof ValueConstant)
+				return termFactory.getImmutableExpression(NEQ, term1, term2);
+			else
+				return termFactory.getImmutableExpression(NEQ, term2, term1);
+		}
+		else if (term2 instanceof ValueConstant) {
 			if (term1.equals(term2))
 				return termFactory.getBooleanConstant(isEqual);
+			else if (term1 instanceof Variable)
+				return termFactory.getImmutableExpression(isEqual ? EQ : NEQ, term1, term2);
 			else
-				{
-				if (term1 instanceof Variable) {
-					if (isEqual)
-						return termFactory.getFunctionEQ(term1, term2);
-					else
-						return termFactory.getFunctionNEQ(term1, term2);
-				}
 				return termFactory.getBooleanConstant(!isEqual);
-			}
 		}
 		return null;
 	}
 
-	private Term evalUriFunctionsWithMultipleTerms(Function uriFunction1, Function uriFunction2, boolean isEqual) {
+	private ImmutableTerm evalUriFunctionsWithMultipleTerms(ImmutableFunctionalTerm uriFunction1,
+															ImmutableFunctionalTerm uriFunction2, boolean isEqual) {
 		if (uriFunction1.equals(uriFunction2))
 			return termFactory.getBooleanConstant(isEqual);
 
-		Substitution theta = unifierUtilities.getMGU(uriFunction1, uriFunction2);
-		if (theta == null) {
+		Optional<ImmutableSubstitution<ImmutableTerm>> theta = unificationTools.computeMGU(uriFunction1, uriFunction2);
+		if ((!theta.isPresent()) || theta.get().isEmpty()) {
 			return termFactory.getBooleanConstant(!isEqual);
-		} 
+		}
 		else {
-			boolean isEmpty = theta.isEmpty();
-			if (isEmpty) {
-				return termFactory.getBooleanConstant(!isEqual);
-			} 
-			else {
-				Function result = null;
-				List<Function> temp = new ArrayList<>();
-				Set<Variable> keys = theta.getMap().keySet();
-				for (Variable var : keys) {
-					if (isEqual) 
-						result = termFactory.getFunctionEQ(var, theta.get(var));
-					else 
-						result = termFactory.getFunctionNEQ(var, theta.get(var));
-					
-					temp.add(result);
-					if (temp.size() == 2) {
-						if (isEqual){
-							result = termFactory.getFunctionAND(temp.get(0), temp.get(1));
-						}else{
-							result = termFactory.getFunctionOR(temp.get(0), temp.get(1));
-						}
-						temp.clear();
-						temp.add(result);
-					}
-				}
-				return result;
-			}				
+			ImmutableExpression result = null;
+			for (Map.Entry<Variable, ImmutableTerm> entry : theta.get().getImmutableMap().entrySet()) {
+				ImmutableExpression atom = termFactory.getImmutableExpression(isEqual ? EQ : NEQ,
+						entry.getKey(), entry.getValue());
+				result = (result == null)
+						? atom
+						: termFactory.getImmutableExpression(isEqual ? AND : OR, result, atom);
+			}
+			return result;
 		}
 	}
-		
-	
-	private Term evalAnd(Term t1, Term t2) {
-		Term e1 = eval(t1);
-		Term e2 = eval(t2);
-	
+
+	private ImmutableTerm evalAnd(ImmutableTerm t1, ImmutableTerm t2) {
+		ImmutableTerm e1 = eval(t1);
+		ImmutableTerm e2 = eval(t2);
+
 		if (e1 == valueFalse || e2 == valueFalse)
 			return valueFalse;
-		
+
 		if (e1 == valueTrue)
 			return e2;
-		
+
 		if (e2 == valueTrue)
 			return e1;
-		
-		return termFactory.getFunctionAND(e1, e2);
+
+		return termFactory.getImmutableExpression(AND, keepIfNotEvaluated(e1, t1), keepIfNotEvaluated(e2, t2));
 	}
 
-	private Term evalOr(Term t1, Term t2) {
-		Term e1 = eval(t1);
-		Term e2 = eval(t2);
-	
+	private ImmutableTerm evalOr(ImmutableTerm t1, ImmutableTerm t2) {
+		ImmutableTerm e1 = eval(t1);
+		ImmutableTerm e2 = eval(t2);
+
 		if (e1 == valueTrue || e2 == valueTrue)
 			return valueTrue;
-		
+
 		if (e1 == valueFalse)
 			return e2;
-		
+
 		if (e2 == valueFalse)
 			return e1;
-		
-		return termFactory.getFunctionOR(e1, e2);
+
+		return termFactory.getImmutableExpression(OR, keepIfNotEvaluated(e1, t1), keepIfNotEvaluated(e2, t2));
 	}
 
+	/**
+	 * The original term when it could not be evaluated (null)
+	 */
+	private static ImmutableTerm keepIfNotEvaluated(ImmutableTerm evaluatedTerm, ImmutableTerm originalTerm) {
+		return evaluatedTerm == null ? originalTerm : evaluatedTerm;
+	}
+
+	/**
+	 * No internal state (apart from the thread-safe memo table): no need to copy it
+	 */
 	@Override
 	public ExpressionEvaluator clone() {
-		return new ExpressionEvaluator(datalogTools, termFactory, typeFactory, unifierUtilities, normalizer,
-				immutabilityTools, rdfFactory);
+		return this;
 	}
 }
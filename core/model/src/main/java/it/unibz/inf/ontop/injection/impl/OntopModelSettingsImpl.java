@@ -138,8 +138,25 @@ public class OntopModelSettingsImpl implements OntopModelSettings {
      * Returns the integer value of the given key.
      */
     Optional<Integer> getInteger(String key) {
-        String value = (String) get(key);
-        return Optional.ofNullable(Integer.parseInt(value));
+        Object value = get(key);
+
+        if (value == null) {
+            return Optional.empty();
+        }
+
+        if (value instanceof Integer) {
+            return Optional.of((Integer) value);
+        }
+        else if (value instanceof String) {
+            try {
+                return Optional.of(Integer.parseInt(((String) value).trim()));
+            } catch (NumberFormatException e) {
+                throw new InvalidOntopConfigurationException("An integer was expected for " + key + ": " + value);
+            }
+        }
+        else {
+            throw new InvalidOntopConfigurationException("An integer was expected for " + key + ": " + value);
+        }
     }
 
     int getRequiredInteger(String key) {
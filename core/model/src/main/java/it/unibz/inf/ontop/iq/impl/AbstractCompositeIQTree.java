@@ -8,6 +8,7 @@ import it.unibz.inf.ontop.iq.CompositeIQTree;
 import it.unibz.inf.ontop.iq.IQProperties;
 import it.unibz.inf.ontop.iq.IQTree;
 import it.unibz.inf.ontop.iq.exception.InvalidIntermediateQueryException;
+import it.unibz.inf.ontop.iq.node.DataNode;
 import it.unibz.inf.ontop.iq.node.ExplicitVariableProjectionNode;
 import it.unibz.inf.ontop.iq.node.QueryNode;
 import it.unibz.inf.ontop.model.term.Variable;
@@ -25,13 +26,21 @@ public abstract class AbstractCompositeIQTree<N extends QueryNode> implements Co
     private final N rootNode;
     private final ImmutableList<IQTree> children;
     private final IQProperties iqProperties;
-    private static final String TAB_STR = "   ";
 
     /**
      * LAZY
      */
     @Nullable
     private ImmutableSet<Variable> knownVariables;
+    /**
+     * LAZY
+     */
+    @Nullable
+    private ImmutableSet<Variable> variables;
+    /**
+     * LAZY (0 if not computed yet)
+     */
+    private int structuralHash;
 
     // Non final
     private boolean hasBeenSuccessfullyValidate;
@@ -51,6 +60,8 @@ public abstract class AbstractCompositeIQTree<N extends QueryNode> implements Co
         this.iqProperties = iqProperties;
         // To be computed on-demand
         knownVariables = null;
+        variables = null;
+        structuralHash = 0;
         hasBeenSuccessfullyValidate = false;
     }
 
@@ -66,12 +77,17 @@ public abstract class AbstractCompositeIQTree<N extends QueryNode> implements Co
 
     @Override
     public ImmutableSet<Variable> getVariables() {
-        if (rootNode instanceof ExplicitVariableProjectionNode)
-            return ((ExplicitVariableProjectionNode) rootNode).getVariables();
-        else
-            return children.stream()
-                    .flatMap(c -> c.getVariables().stream())
-                    .collect(ImmutableCollectors.toSet());
+        if (variables == null) {
+            if (rootNode instanceof ExplicitVariableProjectionNode)
+                variables = ((ExplicitVariableProjectionNode) rootNode).getVariables();
+            else if (children.size() == 1)
+                variables = children.get(0).getVariables();
+            else
+                variables = children.stream()
+                        .flatMap(c -> c.getVariables().stream())
+                        .collect(ImmutableCollectors.toSet());
+        }
+        return variables;
     }
 
     @Override
@@ -85,21 +101,18 @@ public abstract class AbstractCompositeIQTree<N extends QueryNode> implements Co
         return knownVariables;
     }
 
-    @Override
-    public String toString() {
-        return printSubtree(this, "");
-    }
-
     /**
-     * Recursive
+     * Only the empty leaves are declared as empty (the composite trees with empty children
+     * are only simplified when lifted): constant, nothing to memoize.
      */
-    private static String printSubtree(IQTree subTree, String offset) {
-        String childOffset = offset + TAB_STR;
+    @Override
+    public final boolean isDeclaredAsEmpty() {
+        return false;
+    }
 
-        return offset + subTree.getRootNode() + "\n"
-                + subTree.getChildren().stream()
-                    .map(c -> printSubtree(c, childOffset))
-                    .reduce("", (c, a) -> c + a);
+    @Override
+    public String toString() {
+        return IQTreePrinter.print(this);
     }
 
     @Override
@@ -108,13 +121,34 @@ public abstract class AbstractCompositeIQTree<N extends QueryNode> implements Co
                 && isEquivalentTo((CompositeIQTree) o);
     }
 
+    /**
+     * Structural hash, consistent with isEquivalentTo(). Computed once (the children hashes are themselves cached).
+     */
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        if (structuralHash == 0) {
+            int hash = computeNodeHash(rootNode);
+            for (IQTree child : children)
+                hash = 31 * hash + computeTreeHash(child);
+            // 0 is reserved for "not computed yet"
+            structuralHash = (hash == 0) ? 1 : hash;
+        }
+        return structuralHash;
     }
 
+    /**
+     * Sub-trees that are shared (same instance) or whose structural hashes differ are not visited.
+     *
+     * Equal but distinct trees are still compared recursively (the trees are not hash-consed),
+     * and the first comparison of a tree also pays for the computation of its hash
+     * (see IQTreeEqualityBenchmark).
+     */
     @Override
     public boolean isEquivalentTo(IQTree tree) {
+        if (this == tree)
+            return true;
+        if ((tree instanceof CompositeIQTree) && (hashCode() != tree.hashCode()))
+            return false;
         if (!getRootNode().isEquivalentTo(tree.getRootNode()))
             return false;
 
@@ -124,6 +158,24 @@ public abstract class AbstractCompositeIQTree<N extends QueryNode> implements Co
                     .allMatch(i -> children.get(i).isEquivalentTo(otherChildren.get(i)));
     }
 
+    private static int computeTreeHash(IQTree tree) {
+        return (tree instanceof CompositeIQTree)
+                ? tree.hashCode()
+                // Leaves are query nodes: their hashCode() is not structural
+                : computeNodeHash(tree.getRootNode());
+    }
+
+    /**
+     * Only relies on what QueryNode.isEquivalentTo() compares (the variables and, for data nodes, the predicate),
+     * the rendering of the node is not needed.
+     */
+    private static int computeNodeHash(QueryNode node) {
+        int hash = 31 * node.getClass().hashCode() + node.getLocalVariables().hashCode();
+        return (node instanceof DataNode)
+                ? 31 * hash + ((DataNode) node).getProjectionAtom().getPredicate().hashCode()
+                : hash;
+    }
+
     protected IQProperties getProperties() {
         return iqProperties;
     }
@@ -14,21 +14,24 @@ public class BasicQueryTreePrinter implements IntermediateQueryPrinter {
 
     @Override
     public String stringify(IntermediateQuery query) {
-        return  query.getProjectionAtom() + "\n"
-                + stringifySubTree(query, query.getRootNode(), "");
+        StringBuilder strBuilder = new StringBuilder();
+        strBuilder.append(query.getProjectionAtom()).append("\n");
+        stringifySubTree(query, query.getRootNode(), 0, strBuilder);
+        return strBuilder.toString();
     }
 
 
     /**
-     * Recursive method.
+     * Recursive method. Appends to the same builder (linear in the size of the output).
      */
-    private String stringifySubTree(IntermediateQuery query, QueryNode subTreeRoot, String rootOffsetString) {
-        StringBuilder strBuilder = new StringBuilder();
-        strBuilder.append(rootOffsetString + subTreeRoot + "\n");
+    private void stringifySubTree(IntermediateQuery query, QueryNode subTreeRoot, int depth,
+                                  StringBuilder strBuilder) {
+        for (int i = 0; i < depth; i++)
+            strBuilder.append(TAB_STR);
+        strBuilder.append(subTreeRoot).append("\n");
 
         for (QueryNode child : query.getChildren(subTreeRoot)) {
-            strBuilder.append(stringifySubTree(query, child, rootOffsetString + TAB_STR));
+            stringifySubTree(query, child, depth + 1, strBuilder);
         }
-        return strBuilder.toString();
     }
 }
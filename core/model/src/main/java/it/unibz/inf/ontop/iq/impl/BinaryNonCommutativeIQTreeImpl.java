@@ -122,11 +122,6 @@ public class BinaryNonCommutativeIQTreeImpl extends AbstractCompositeIQTree<Bina
                 && getRootNode().isConstructed(variable, leftChild, rightChild);
     }
 
-    @Override
-    public boolean isDeclaredAsEmpty() {
-        return false;
-    }
-
     @Override
     public VariableNullability getVariableNullability() {
         if (variableNullability == null)
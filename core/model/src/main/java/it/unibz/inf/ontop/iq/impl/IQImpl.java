@@ -101,6 +101,6 @@ public class IQImpl implements IQ {
 
     @Override
     public int hashCode() {
-        return toString().hashCode();
+        return 31 * projectionAtom.getVariables().hashCode() + tree.hashCode();
     }
 }
@@ -0,0 +1,34 @@
+package it.unibz.inf.ontop.iq.impl;
+
+import it.unibz.inf.ontop.iq.IQTree;
+
+/**
+ * Prints an IQ tree (one node per line, indented by depth) into a single buffer.
+ *
+ * Linear in the size of the output: the subtrees are not rendered into intermediate strings.
+ */
+final class IQTreePrinter {
+
+    private static final String TAB_STR = "   ";
+
+    private IQTreePrinter() {
+    }
+
+    static String print(IQTree tree) {
+        StringBuilder builder = new StringBuilder();
+        print(tree, 0, builder);
+        return builder.toString();
+    }
+
+    /**
+     * Recursive
+     */
+    private static void print(IQTree subTree, int depth, StringBuilder builder) {
+        for (int i = 0; i < depth; i++)
+            builder.append(TAB_STR);
+        builder.append(subTree.getRootNode()).append("\n");
+
+        for (IQTree child : subTree.getChildren())
+            print(child, depth + 1, builder);
+    }
+}
@@ -111,11 +111,6 @@ public class NaryIQTreeImpl extends AbstractCompositeIQTree<NaryOperatorNode> im
         return getVariables().contains(variable) && getRootNode().isConstructed(variable, getChildren());
     }
 
-    @Override
-    public boolean isDeclaredAsEmpty() {
-        return false;
-    }
-
     @Override
     public VariableNullability getVariableNullability() {
         if (variableNullability == null)
@@ -10,7 +10,6 @@ import it.unibz.inf.ontop.iq.IQProperties;
 import it.unibz.inf.ontop.iq.IQTree;
 import it.unibz.inf.ontop.iq.UnaryIQTree;
 import it.unibz.inf.ontop.iq.exception.InvalidIntermediateQueryException;
-import it.unibz.inf.ontop.iq.node.ExplicitVariableProjectionNode;
 import it.unibz.inf.ontop.iq.node.UnaryOperatorNode;
 import it.unibz.inf.ontop.iq.node.VariableNullability;
 import it.unibz.inf.ontop.iq.transform.IQTreeVisitingTransformer;
@@ -99,11 +98,6 @@ public class UnaryIQTreeImpl extends AbstractCompositeIQTree<UnaryOperatorNode>
                 && getRootNode().isConstructed(variable, getChild());
     }
 
-    @Override
-    public boolean isDeclaredAsEmpty() {
-        return false;
-    }
-
     @Override
     public VariableNullability getVariableNullability() {
         if (variableNullability == null)
@@ -132,15 +126,6 @@ public class UnaryIQTreeImpl extends AbstractCompositeIQTree<UnaryOperatorNode>
         return possibleVariableDefinitions;
     }
 
-    @Override
-    public ImmutableSet<Variable> getVariables() {
-        UnaryOperatorNode rootNode = getRootNode();
-        if (rootNode instanceof ExplicitVariableProjectionNode)
-            return ((ExplicitVariableProjectionNode) rootNode).getVariables();
-        else
-            return getChild().getVariables();
-    }
-
     @Override
     protected void validateNode() throws InvalidIntermediateQueryException {
         getRootNode().validateNode(getChild());
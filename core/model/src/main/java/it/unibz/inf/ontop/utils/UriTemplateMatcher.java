@@ -27,28 +27,39 @@ import it.unibz.inf.ontop.model.term.functionsymbol.URITemplatePredicate;
 import it.unibz.inf.ontop.model.term.*;
 
 import java.util.*;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
 
+/**
+ * Matches IRIs against the IRI templates of the mapping.
+ *
+ * The templates are indexed by a prefix trie over their literal prefixes (before their first placeholder).
+ * An IRI only walks down the trie once, and is then only matched against the templates whose prefix it starts with.
+ *
+ * When several templates match, the most specific one (the longest pattern) is selected.
+ *
+ * Immutable.
+ */
 public class UriTemplateMatcher {
 
     private final TermFactory termFactory;
+    private final ImmutableMap<Pattern, ImmutableFunctionalTerm> uriTemplateMatcher;
+    private final TrieNode root;
 
-    private UriTemplateMatcher(TermFactory termFactory) {
+    private UriTemplateMatcher(ImmutableMap<Pattern, ImmutableFunctionalTerm> uriTemplateMatcher,
+                               TermFactory termFactory) {
         this.termFactory = termFactory;
+        this.uriTemplateMatcher = uriTemplateMatcher;
+        this.root = buildTrie(uriTemplateMatcher);
     }
 
-    private final Map<Pattern, ImmutableFunctionalTerm> uriTemplateMatcher = new HashMap<>();
-
     /**
      * TODO: refactor using streaming.
      */
     public static UriTemplateMatcher create(Stream<? extends ImmutableFunctionalTerm> targetAtomStream,
                                             TermFactory termFactory) {
         Set<String> templateStrings = new HashSet<>();
-
-        UriTemplateMatcher uriTemplateMatcher = new UriTemplateMatcher(termFactory);
+        Map<Pattern, ImmutableFunctionalTerm> pattern2Term = new LinkedHashMap<>();
 
         ImmutableList<? extends ImmutableFunctionalTerm> targetAtoms = targetAtomStream.collect(ImmutableCollectors.toList());
 
@@ -70,30 +81,26 @@ public class UriTemplateMatcher {
 				 * URI without template, we get it directly from the column
 				 * of the table, and the function is only f(x)
 				 */
-                if (templateStrings.contains("(.+)")) {
+                if (templateStrings.contains(PLACEHOLDER_PATTERN)) {
                     continue;
                 }
 
                 ImmutableFunctionalTerm templateFunction = termFactory.getImmutableUriTemplate(termFactory.getVariable("x"));
-                Pattern matcher = Pattern.compile("(.+)");
-                uriTemplateMatcher.uriTemplateMatcher.put(matcher, templateFunction);
-                templateStrings.add("(.+)");
+                pattern2Term.put(Pattern.compile(PLACEHOLDER_PATTERN), templateFunction);
+                templateStrings.add(PLACEHOLDER_PATTERN);
             } else {
                 ValueConstant template = (ValueConstant) fun.getTerms().get(0);
-                String templateString = template.getValue();
-                templateString = templateString.replace("{}", "(.+)");
+                String templateString = template.getValue().replace(PLACEHOLDER, PLACEHOLDER_PATTERN);
 
                 if (templateStrings.contains(templateString)) {
                     continue;
                 }
 
-                Pattern matcher = Pattern.compile(templateString);
-                uriTemplateMatcher.uriTemplateMatcher.put(matcher, fun);
+                pattern2Term.put(Pattern.compile(templateString), fun);
                 templateStrings.add(templateString);
-
             }
         }
-        return uriTemplateMatcher;
+        return new UriTemplateMatcher(ImmutableMap.copyOf(pattern2Term), termFactory);
     }
 
     public static UriTemplateMatcher merge(Stream<UriTemplateMatcher> uriTemplateMatchers, TermFactory termFactory) {
@@ -108,9 +115,7 @@ public class UriTemplateMatcher {
                         e -> e.getKey(),
                         e -> flatten(e.getKey(), e.getValue())
                 ));
-        UriTemplateMatcher uriTemplateMatcher = new UriTemplateMatcher(termFactory);
-        uriTemplateMatcher.uriTemplateMatcher.putAll(pattern2Term);
-        return uriTemplateMatcher;
+        return new UriTemplateMatcher(pattern2Term, termFactory);
     }
 
     private static ImmutableFunctionalTerm flatten(Pattern pattern, Collection<ImmutableFunctionalTerm> collection) {
@@ -121,69 +126,212 @@ public class UriTemplateMatcher {
     }
 
     /***
-     * We will try to match the URI to one of our patterns, if this happens, we
+     * We will try to match the URI to one of our templates, if this happens, we
      * have a corresponding function, and the parameters for this function. The
-     * parameters are the values for the groups of the pattern.
+     * parameters are the substrings of the URI matching the placeholders of the template.
      */
     public ImmutableFunctionalTerm generateURIFunction(String uriString) {
-        ImmutableFunctionalTerm functionURI = null;
-
-        List<Pattern> patternsMatched = new LinkedList<>();
-        for (Pattern pattern : uriTemplateMatcher.keySet()) {
+        IndexedTemplate bestTemplate = null;
+        String[] bestValues = null;
 
-            Matcher matcher = pattern.matcher(uriString);
-            boolean match = matcher.matches();
-            if (!match) {
-                continue;
+        // Walks down the trie: the templates of the visited nodes are the ones whose prefix the IRI starts with
+        TrieNode node = root;
+        int position = 0;
+        while (node != null) {
+            for (IndexedTemplate template : node.templates) {
+                // Sorted by decreasing rank
+                if (bestTemplate != null && template.rank <= bestTemplate.rank)
+                    break;
+                String[] values = template.match(uriString);
+                if (values != null) {
+                    bestTemplate = template;
+                    bestValues = values;
+                    break;
+                }
             }
-            patternsMatched.add(pattern);
+            node = (position < uriString.length())
+                    ? node.getChild(uriString.charAt(position++))
+                    : null;
         }
-        Comparator<Pattern> comparator = new Comparator<Pattern>() {
-            public int compare(Pattern c1, Pattern c2) {
-                return c2.pattern().length() - c1.pattern().length(); // use your logic
-            }
-        };
 
-        Collections.sort(patternsMatched, comparator);
-        for (Pattern pattern : patternsMatched) {
-            ImmutableFunctionalTerm matchingFunction = uriTemplateMatcher.get(pattern);
-            ImmutableTerm baseParameter = matchingFunction.getTerm(0);
+        if (bestTemplate != null) {
+            ImmutableTerm baseParameter = bestTemplate.function.getTerm(0);
             if (baseParameter instanceof Constant) {
 				/*
 				 * This is a general template function of the form
 				 * uri("http://....", var1, var2,...) <p> we need to match var1,
 				 * var2, etc with substrings from the subjectURI
 				 */
-                Matcher matcher = pattern.matcher(uriString);
-                if (matcher.matches()) {
-                    ImmutableList.Builder<ImmutableTerm> values = ImmutableList.builder();
-                    values.add(baseParameter);
-                    for (int i = 0; i < matcher.groupCount(); i++) {
-                        String value = matcher.group(i + 1);
-                        values.add(termFactory.getConstantLiteral(value));
-                    }
-                    functionURI = termFactory.getImmutableUriTemplate(values.build());
-                }
-            } else if (baseParameter instanceof Variable) {
-				/*
-				 * This is a direct mapping to a column, uri(x)
-				 * we need to match x with the subjectURI
-				 */
-                functionURI = termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(uriString));
+                ImmutableList.Builder<ImmutableTerm> values = ImmutableList.builder();
+                values.add(baseParameter);
+                for (String value : bestValues)
+                    values.add(termFactory.getConstantLiteral(value));
+                return termFactory.getImmutableUriTemplate(values.build());
             }
-            break;
         }
-        if (functionURI == null) {
-			/* If we cannot match against a template, we try to match against the most general template (which will
-			 * generate empty queries later in the query answering process
-			 */
-            functionURI = termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(uriString));
+		/*
+		 * Direct mapping to a column, uri(x): we match x with the subjectURI.
+		 *
+		 * If we cannot match against a template, we also match against the most general template
+		 * (which will generate empty queries later in the query answering process)
+		 */
+        return termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(uriString));
+    }
+
+    public ImmutableMap<Pattern, ImmutableFunctionalTerm> getMap() {
+        return uriTemplateMatcher;
+    }
+
+
+    private static final String PLACEHOLDER = "{}";
+    private static final String PLACEHOLDER_PATTERN = "(.+)";
+
+    private static TrieNode buildTrie(ImmutableMap<Pattern, ImmutableFunctionalTerm> pattern2Term) {
+        TrieNode root = new TrieNode();
+        int order = 0;
+        for (Map.Entry<Pattern, ImmutableFunctionalTerm> e : pattern2Term.entrySet()) {
+            IndexedTemplate template = new IndexedTemplate(e.getKey(), e.getValue(), order++);
+            TrieNode node = root;
+            for (int i = 0; i < template.segments[0].length(); i++)
+                node = node.getOrCreateChild(template.segments[0].charAt(i));
+            node.templates.add(template);
+        }
+        root.sortTemplates();
+        return root;
+    }
+
+    private static class TrieNode {
+        // Sorted by decreasing rank (then by insertion order)
+        private final List<IndexedTemplate> templates = new ArrayList<>(1);
+        private final Map<Character, TrieNode> children = new HashMap<>();
+
+        TrieNode getChild(char c) {
+            return children.get(c);
+        }
+
+        TrieNode getOrCreateChild(char c) {
+            return children.computeIfAbsent(c, k -> new TrieNode());
         }
 
-        return functionURI;
+        void sortTemplates() {
+            templates.sort(Comparator.comparingInt((IndexedTemplate t) -> -t.rank)
+                    .thenComparingInt(t -> t.order));
+            children.values().forEach(TrieNode::sortTemplates);
+        }
     }
 
-    private ImmutableMap<Pattern, ImmutableFunctionalTerm> getMap() {
-        return ImmutableMap.copyOf(uriTemplateMatcher);
+    /**
+     * Template split into its literal segments, around its placeholders.
+     *
+     * The segments are matched literally; each placeholder matches a non-empty string without line terminators,
+     * preferring the longest one (like a greedy (.+) group).
+     */
+    private static class IndexedTemplate {
+        private final ImmutableFunctionalTerm function;
+        // Length of the regex pattern: the longer, the more specific
+        private final int rank;
+        private final int order;
+        // Never empty. For uri(x), a single placeholder between two empty segments
+        private final String[] segments;
+
+        IndexedTemplate(Pattern pattern, ImmutableFunctionalTerm function, int order) {
+            this.function = function;
+            this.rank = pattern.pattern().length();
+            this.order = order;
+            ImmutableTerm baseParameter = function.getTerm(0);
+            String templateString = (baseParameter instanceof ValueConstant)
+                    ? ((ValueConstant) baseParameter).getValue()
+                    : PLACEHOLDER;
+            this.segments = split(templateString);
+        }
+
+        private static String[] split(String templateString) {
+            List<String> segments = new ArrayList<>();
+            int start = 0;
+            int index;
+            while ((index = templateString.indexOf(PLACEHOLDER, start)) >= 0) {
+                segments.add(templateString.substring(start, index));
+                start = index + PLACEHOLDER.length();
+            }
+            segments.add(templateString.substring(start));
+            return segments.toArray(new String[0]);
+        }
+
+        /**
+         * The IRI is assumed to start with the first segment.
+         *
+         * Returns the values of the placeholders, or null if the IRI does not match.
+         */
+        String[] match(String iri) {
+            int placeholderCount = segments.length - 1;
+            if (placeholderCount == 0)
+                return iri.length() == segments[0].length() ? new String[0] : null;
+
+            String lastSegment = segments[placeholderCount];
+            if (iri.length() < segments[0].length() + lastSegment.length() + placeholderCount
+                    || !iri.endsWith(lastSegment))
+                return null;
+
+            int[] boundaries = new int[segments.length];
+            boundaries[0] = segments[0].length();
+            if (!match(iri, 1, boundaries))
+                return null;
+
+            String[] values = new String[placeholderCount];
+            for (int i = 0; i < placeholderCount; i++)
+                values[i] = iri.substring(boundaries[i], boundaries[i + 1] - segments[i + 1].length());
+            return values;
+        }
+
+        /**
+         * Places the segment k (k >= 1), after the placeholder starting at boundaries[k - 1].
+         * Sets boundaries[k] to the end of the segment.
+         *
+         * Recursive. Greedy: the latest positions are tried first.
+         */
+        private boolean match(String iri, int k, int[] boundaries) {
+            String segment = segments[k];
+            int placeholderStart = boundaries[k - 1];
+            int maxPlaceholderEnd = nextLineTerminator(iri, placeholderStart);
+
+            if (k == segments.length - 1) {
+                int position = iri.length() - segment.length();
+                if (position <= placeholderStart || position > maxPlaceholderEnd)
+                    return false;
+                boundaries[k] = iri.length();
+                return true;
+            }
+
+            int minRemainingLength = segments.length - 1 - k;
+            for (int i = k + 1; i < segments.length; i++)
+                minRemainingLength += segments[i].length();
+
+            for (int position = Math.min(iri.length() - minRemainingLength - segment.length(), maxPlaceholderEnd);
+                 position > placeholderStart; position--) {
+                if (iri.startsWith(segment, position)) {
+                    boundaries[k] = position + segment.length();
+                    if (match(iri, k + 1, boundaries))
+                        return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Like in regular expressions, the placeholders ("." characters) do not match line terminators
+         */
+        private static int nextLineTerminator(String iri, int start) {
+            for (int i = start; i < iri.length(); i++) {
+                switch (iri.charAt(i)) {
+                    case '\n':
+                    case '\r':
+                    case '\u0085':
+                    case '\u2028':
+                    case '\u2029':
+                        return i;
+                }
+            }
+            return iri.length();
+        }
     }
 }
@@ -0,0 +1,159 @@
+package it.unibz.inf.ontop.evaluator;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.ExpressionOperation;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import org.junit.Test;
+
+import java.util.Optional;
+import java.util.Random;
+
+import static it.unibz.inf.ontop.model.term.functionsymbol.ExpressionOperation.*;
+import static org.junit.Assert.*;
+
+/**
+ * Compares the evaluation of random expressions with the one of the reference (mutable) evaluator.
+ */
+public class ImmutableExpressionEvaluationTest {
+
+    private static final int EXPRESSION_COUNT = 20_000;
+    private static final int MAX_DEPTH = 4;
+
+    private static final ImmutableList<ExpressionOperation> BOOLEAN_OPERATIONS = ImmutableList.of(
+            AND, OR, NOT, EQ, NEQ, IS_NULL, IS_NOT_NULL, IS_TRUE, IS_LITERAL, IS_IRI, IS_BLANK, IS_NUMERIC,
+            LANGMATCHES, REGEX, GT, CONTAINS);
+
+    private static final ImmutableList<ExpressionOperation> NON_BOOLEAN_OPERATIONS = ImmutableList.of(
+            SPARQL_STR, SPARQL_LANG, SPARQL_DATATYPE, ADD, IF_ELSE_NULL, CONCAT);
+
+    private final Injector injector;
+    private final TermFactory termFactory;
+    private final ExpressionEvaluator evaluator;
+    private final ImmutableList<ImmutableTerm> leaves;
+
+    public ImmutableExpressionEvaluationTest() {
+        injector = OntopModelConfiguration.defaultBuilder()
+                .enableTestMode()
+                .build()
+                .getInjector();
+        termFactory = injector.getInstance(TermFactory.class);
+        evaluator = injector.getInstance(ExpressionEvaluator.class);
+
+        Variable x = termFactory.getVariable("x");
+        Variable y = termFactory.getVariable("y");
+        ValueConstant one = termFactory.getConstantLiteral("1", XSD.INTEGER);
+        ValueConstant zero = termFactory.getConstantLiteral("0", XSD.INTEGER);
+        ValueConstant a = termFactory.getConstantLiteral("a");
+        ValueConstant template1 = termFactory.getConstantLiteral("http://example.org/{}");
+        ValueConstant template2 = termFactory.getConstantLiteral("http://example.org/{}/{}");
+
+        leaves = ImmutableList.of(
+                x, y, one, zero, a,
+                termFactory.getConstantLiteral("en"),
+                termFactory.getConstantLiteral("*"),
+                termFactory.getBooleanConstant(true),
+                termFactory.getBooleanConstant(false),
+                termFactory.getNullConstant(),
+                termFactory.getImmutableTypedTerm(x, XSD.STRING),
+                termFactory.getImmutableTypedTerm(y, XSD.INTEGER),
+                termFactory.getImmutableTypedTerm(one, XSD.INTEGER),
+                termFactory.getImmutableTypedTerm(a, XSD.STRING),
+                termFactory.getImmutableTypedTerm(termFactory.getConstantLiteral("true", XSD.BOOLEAN), XSD.BOOLEAN),
+                termFactory.getImmutableTypedTerm(y, "en"),
+                termFactory.getImmutableUriTemplate(template1, x),
+                termFactory.getImmutableUriTemplate(template1, y),
+                termFactory.getImmutableUriTemplate(template1, one),
+                termFactory.getImmutableUriTemplate(template2, x, y),
+                termFactory.getImmutableUriTemplate(template2, y, one),
+                termFactory.getImmutableBNodeTemplate(x));
+    }
+
+    @Test
+    public void testSameResultsAsReference() {
+        Random random = new Random(42);
+        int evaluatedCount = 0;
+
+        for (int i = 0; i < EXPRESSION_COUNT; i++) {
+            ImmutableExpression expression = generateExpression(random, MAX_DEPTH);
+            MutableExpressionEvaluator reference = injector.getInstance(MutableExpressionEvaluator.class);
+
+            Optional<ImmutableTerm> expectedResult = evaluate(() -> reference.evaluateExpression(expression));
+            Optional<ImmutableTerm> result = evaluate(() -> evaluator.evaluateExpression(expression).getTerm());
+
+            // When the reference fails (e.g. null sub-terms in its mutable result), any result is accepted
+            if (expectedResult.isPresent()) {
+                assertEquals("Evaluation of " + expression, expectedResult, result);
+                evaluatedCount++;
+            }
+        }
+        // Most of the expressions are expected to be supported
+        assertTrue(evaluatedCount > EXPRESSION_COUNT / 2);
+    }
+
+    @Test
+    public void testMemoizedResult() {
+        Variable x = termFactory.getVariable("x");
+        ImmutableExpression expression = termFactory.getImmutableExpression(AND,
+                termFactory.getImmutableExpression(IS_NOT_NULL, x),
+                termFactory.getImmutableExpression(EQ, termFactory.getBooleanConstant(true),
+                        termFactory.getBooleanConstant(true)));
+
+        ExpressionEvaluator.EvaluationResult result = evaluator.evaluateExpression(expression);
+        assertEquals(Optional.of(termFactory.getImmutableExpression(IS_NOT_NULL, x)), result.getOptionalExpression());
+        assertSame(result, evaluator.clone().evaluateExpression(
+                termFactory.getImmutableExpression(AND,
+                        termFactory.getImmutableExpression(IS_NOT_NULL, x),
+                        termFactory.getImmutableExpression(EQ, termFactory.getBooleanConstant(true),
+                                termFactory.getBooleanConstant(true)))));
+    }
+
+    private interface Evaluation {
+        ImmutableTerm run();
+    }
+
+    /**
+     * Empty if the evaluation fails (unsupported expression, or endless rewriting of some REGEX arguments)
+     */
+    private static Optional<ImmutableTerm> evaluate(Evaluation evaluation) {
+        try {
+            return Optional.of(evaluation.run());
+        } catch (RuntimeException | StackOverflowError e) {
+            return Optional.empty();
+        }
+    }
+
+    private ImmutableExpression generateExpression(Random random, int depth) {
+        ExpressionOperation operation = BOOLEAN_OPERATIONS.get(random.nextInt(BOOLEAN_OPERATIONS.size()));
+        switch (operation) {
+            case AND:
+            case OR:
+            case NOT:
+            case IS_TRUE:
+                return generateFunctionalTerm(operation, random, depth, true);
+            default:
+                return generateFunctionalTerm(operation, random, depth, false);
+        }
+    }
+
+    private ImmutableExpression generateFunctionalTerm(ExpressionOperation operation, Random random, int depth,
+                                                       boolean booleanArguments) {
+        ImmutableList.Builder<ImmutableTerm> argumentBuilder = ImmutableList.builder();
+        for (int i = 0; i < operation.getArity(); i++)
+            argumentBuilder.add((booleanArguments && depth > 0 && random.nextInt(3) > 0)
+                    ? generateExpression(random, depth - 1)
+                    : generateTerm(random, depth - 1));
+        return termFactory.getImmutableExpression(operation, argumentBuilder.build());
+    }
+
+    private ImmutableTerm generateTerm(Random random, int depth) {
+        if (depth <= 0 || random.nextInt(3) == 0)
+            return leaves.get(random.nextInt(leaves.size()));
+        if (random.nextBoolean())
+            return generateExpression(random, depth);
+        ExpressionOperation operation = NON_BOOLEAN_OPERATIONS.get(random.nextInt(NON_BOOLEAN_OPERATIONS.size()));
+        return generateFunctionalTerm(operation, random, depth, operation == IF_ELSE_NULL);
+    }
+}
@@ -0,0 +1,130 @@
+package it.unibz.inf.ontop.iq;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.dbschema.*;
+import it.unibz.inf.ontop.model.atom.RelationPredicate;
+import it.unibz.inf.ontop.model.term.ImmutableExpression;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.term.functionsymbol.ExpressionOperation;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.function.BiPredicate;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+import static it.unibz.inf.ontop.OntopModelTestingTools.*;
+
+/**
+ * Comparison of separately built unions of joins (e.g. as produced by the unfolding of a large mapping),
+ * with isEquivalentTo() (cached structural hashes) and with a plain recursive comparison of the nodes.
+ *
+ * "Cold" trees are freshly built (the hashes are computed during the comparison), "warm" trees
+ * are compared again, as in the fixed-point loops of the optimizers.
+ *
+ * Equal but distinct trees are compared recursively in both cases (no hash-consing).
+ */
+@Ignore("used only for benchmark tests")
+public class IQTreeEqualityBenchmark {
+
+    private static final int UNION_SIZE = 200;
+    private static final int NUM_COMPARISONS = 500;
+    private static final int NUM_RUNS = 5;
+
+    private final static RelationPredicate TABLE1_PREDICATE;
+    private final static RelationPredicate TABLE2_PREDICATE;
+    private final static Variable X = TERM_FACTORY.getVariable("x");
+    private final static Variable Y = TERM_FACTORY.getVariable("y");
+    private final static Variable Z = TERM_FACTORY.getVariable("z");
+
+    private final static ImmutableExpression EQ_X_Z = TERM_FACTORY.getImmutableExpression(ExpressionOperation.EQ, X, Z);
+
+    static {
+        BasicDBMetadata dbMetadata = createDummyMetadata();
+        QuotedIDFactory idFactory = dbMetadata.getQuotedIDFactory();
+
+        DatabaseRelationDefinition table1Def = dbMetadata.createDatabaseRelation(idFactory.createRelationID(null, "TABLE1"));
+        table1Def.addAttribute(idFactory.createAttributeID("col1"), Types.INTEGER, null, false);
+        table1Def.addAttribute(idFactory.createAttributeID("col2"), Types.INTEGER, null, false);
+        TABLE1_PREDICATE = table1Def.getAtomPredicate();
+
+        DatabaseRelationDefinition table2Def = dbMetadata.createDatabaseRelation(idFactory.createRelationID(null, "TABLE2"));
+        table2Def.addAttribute(idFactory.createAttributeID("col1"), Types.INTEGER, null, false);
+        table2Def.addAttribute(idFactory.createAttributeID("col2"), Types.INTEGER, null, false);
+        TABLE2_PREDICATE = table2Def.getAtomPredicate();
+
+        dbMetadata.freeze();
+    }
+
+    @Test
+    public void benchmark() {
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("different (last leaf), cold", run, false, false, IQTree::isEquivalentTo);
+            measure("different (last leaf), cold, recursive", run, false, false, IQTreeEqualityBenchmark::isRecursivelyEquivalent);
+            measure("different (last leaf), warm", run, false, true, IQTree::isEquivalentTo);
+            measure("different (last leaf), warm, recursive", run, false, true, IQTreeEqualityBenchmark::isRecursivelyEquivalent);
+            measure("equal, cold", run, true, false, IQTree::isEquivalentTo);
+            measure("equal, cold, recursive", run, true, false, IQTreeEqualityBenchmark::isRecursivelyEquivalent);
+            measure("equal, warm", run, true, true, IQTree::isEquivalentTo);
+            measure("equal, warm, recursive", run, true, true, IQTreeEqualityBenchmark::isRecursivelyEquivalent);
+        }
+    }
+
+    private static void measure(String name, int run, boolean equal, boolean warm,
+                                BiPredicate<IQTree, IQTree> comparison) {
+        Supplier<IQTree> leftSupplier = () -> buildUnionTree(TABLE2_PREDICATE);
+        Supplier<IQTree> rightSupplier = () -> buildUnionTree(equal ? TABLE2_PREDICATE : TABLE1_PREDICATE);
+
+        ImmutableList<IQTree> lefts = IntStream.range(0, NUM_COMPARISONS)
+                .mapToObj(i -> leftSupplier.get())
+                .collect(ImmutableCollectors.toList());
+        ImmutableList<IQTree> rights = IntStream.range(0, NUM_COMPARISONS)
+                .mapToObj(i -> rightSupplier.get())
+                .collect(ImmutableCollectors.toList());
+        if (warm)
+            for (int i = 0; i < NUM_COMPARISONS; i++)
+                comparison.test(lefts.get(i), rights.get(i));
+
+        long start = System.nanoTime();
+        int count = 0;
+        for (int i = 0; i < NUM_COMPARISONS; i++)
+            if (comparison.test(lefts.get(i), rights.get(i)))
+                count++;
+        long time = System.nanoTime() - start;
+        System.out.printf("%-40s (run %d): %10.1f ns/comparison (%d)%n", name, run,
+                (double) time / NUM_COMPARISONS, count);
+    }
+
+    /**
+     * Comparison without the hashes: the root nodes and then the children
+     */
+    private static boolean isRecursivelyEquivalent(IQTree tree, IQTree otherTree) {
+        if (!tree.getRootNode().isEquivalentTo(otherTree.getRootNode()))
+            return false;
+        ImmutableList<IQTree> children = tree.getChildren();
+        ImmutableList<IQTree> otherChildren = otherTree.getChildren();
+        return (children.size() == otherChildren.size())
+                && IntStream.range(0, children.size())
+                    .allMatch(i -> isRecursivelyEquivalent(children.get(i), otherChildren.get(i)));
+    }
+
+    /**
+     * The right predicate of the last join is the only difference
+     */
+    private static IQTree buildUnionTree(RelationPredicate lastRightPredicate) {
+        return IQ_FACTORY.createNaryIQTree(IQ_FACTORY.createUnionNode(ImmutableSet.of(X, Y, Z)),
+                IntStream.range(0, UNION_SIZE)
+                        .mapToObj(i -> buildJoinTree(i == UNION_SIZE - 1 ? lastRightPredicate : TABLE2_PREDICATE))
+                        .collect(ImmutableCollectors.toList()));
+    }
+
+    private static IQTree buildJoinTree(RelationPredicate rightPredicate) {
+        return IQ_FACTORY.createNaryIQTree(IQ_FACTORY.createInnerJoinNode(EQ_X_Z),
+                ImmutableList.of(
+                        IQ_FACTORY.createExtensionalDataNode(ATOM_FACTORY.getDataAtom(TABLE1_PREDICATE, X, Y)),
+                        IQ_FACTORY.createExtensionalDataNode(ATOM_FACTORY.getDataAtom(rightPredicate, Z, Y))));
+    }
+}
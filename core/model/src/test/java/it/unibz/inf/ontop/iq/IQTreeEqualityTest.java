@@ -0,0 +1,99 @@
+package it.unibz.inf.ontop.iq;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.dbschema.*;
+import it.unibz.inf.ontop.iq.node.ExtensionalDataNode;
+import it.unibz.inf.ontop.model.atom.RelationPredicate;
+import it.unibz.inf.ontop.model.term.ImmutableExpression;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.term.functionsymbol.ExpressionOperation;
+import org.junit.Test;
+
+import java.sql.Types;
+
+import static it.unibz.inf.ontop.OntopModelTestingTools.*;
+import static org.junit.Assert.*;
+
+public class IQTreeEqualityTest {
+
+    private final static RelationPredicate TABLE1_PREDICATE;
+    private final static RelationPredicate TABLE2_PREDICATE;
+    private final static Variable X = TERM_FACTORY.getVariable("x");
+    private final static Variable Y = TERM_FACTORY.getVariable("y");
+    private final static Variable Z = TERM_FACTORY.getVariable("z");
+
+    private final static ImmutableExpression EQ_X_Z = TERM_FACTORY.getImmutableExpression(ExpressionOperation.EQ, X, Z);
+
+    static {
+        BasicDBMetadata dbMetadata = createDummyMetadata();
+        QuotedIDFactory idFactory = dbMetadata.getQuotedIDFactory();
+
+        DatabaseRelationDefinition table1Def = dbMetadata.createDatabaseRelation(idFactory.createRelationID(null, "TABLE1"));
+        table1Def.addAttribute(idFactory.createAttributeID("col1"), Types.INTEGER, null, false);
+        table1Def.addAttribute(idFactory.createAttributeID("col2"), Types.INTEGER, null, false);
+        TABLE1_PREDICATE = table1Def.getAtomPredicate();
+
+        DatabaseRelationDefinition table2Def = dbMetadata.createDatabaseRelation(idFactory.createRelationID(null, "TABLE2"));
+        table2Def.addAttribute(idFactory.createAttributeID("col1"), Types.INTEGER, null, false);
+        table2Def.addAttribute(idFactory.createAttributeID("col2"), Types.INTEGER, null, false);
+        TABLE2_PREDICATE = table2Def.getAtomPredicate();
+
+        dbMetadata.freeze();
+    }
+
+    @Test
+    public void testSeparatelyBuiltTrees() {
+        IQTree tree1 = buildTree(TABLE2_PREDICATE);
+        IQTree tree2 = buildTree(TABLE2_PREDICATE);
+
+        assertNotSame(tree1, tree2);
+        assertEquals(tree1, tree2);
+        assertEquals(tree1.hashCode(), tree2.hashCode());
+        assertTrue(tree1.isEquivalentTo(tree2));
+    }
+
+    @Test
+    public void testDifferentLeaf() {
+        IQTree tree1 = buildTree(TABLE2_PREDICATE);
+        IQTree tree2 = buildTree(TABLE1_PREDICATE);
+
+        assertNotEquals(tree1, tree2);
+        assertFalse(tree1.isEquivalentTo(tree2));
+        assertFalse(tree2.isEquivalentTo(tree1));
+    }
+
+    @Test
+    public void testSharedSubTree() {
+        IQTree joinTree = buildJoinTree(TABLE2_PREDICATE);
+        IQTree tree1 = IQ_FACTORY.createUnaryIQTree(IQ_FACTORY.createConstructionNode(ImmutableSet.of(X)), joinTree);
+        IQTree tree2 = IQ_FACTORY.createUnaryIQTree(IQ_FACTORY.createConstructionNode(ImmutableSet.of(X)), joinTree);
+        IQTree tree3 = IQ_FACTORY.createUnaryIQTree(IQ_FACTORY.createConstructionNode(ImmutableSet.of(Z)), joinTree);
+
+        assertEquals(tree1, tree2);
+        assertNotEquals(tree1, tree3);
+    }
+
+    @Test
+    public void testMemoizedVariables() {
+        IQTree joinTree = buildJoinTree(TABLE2_PREDICATE);
+
+        assertEquals(ImmutableSet.of(X, Y, Z), joinTree.getVariables());
+        assertSame(joinTree.getVariables(), joinTree.getVariables());
+        assertSame(joinTree.getKnownVariables(), joinTree.getKnownVariables());
+    }
+
+    private static IQTree buildTree(RelationPredicate rightPredicate) {
+        return IQ_FACTORY.createUnaryIQTree(IQ_FACTORY.createConstructionNode(ImmutableSet.of(X)),
+                buildJoinTree(rightPredicate));
+    }
+
+    private static IQTree buildJoinTree(RelationPredicate rightPredicate) {
+        ExtensionalDataNode dataNode1 = IQ_FACTORY.createExtensionalDataNode(
+                ATOM_FACTORY.getDataAtom(TABLE1_PREDICATE, X, Y));
+        ExtensionalDataNode dataNode2 = IQ_FACTORY.createExtensionalDataNode(
+                ATOM_FACTORY.getDataAtom(rightPredicate, Z, Y));
+        return IQ_FACTORY.createNaryIQTree(IQ_FACTORY.createInnerJoinNode(EQ_X_Z),
+                ImmutableList.of(dataNode1, dataNode2));
+    }
+}
@@ -0,0 +1,72 @@
+package it.unibz.inf.ontop.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.model.term.*;
+
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reference: matches the IRI against all the patterns of the matcher, one after the other, with regular expressions.
+ */
+class RegexUriTemplateMatching {
+
+    private final Map<Pattern, ImmutableFunctionalTerm> pattern2Term;
+    private final TermFactory termFactory;
+
+    RegexUriTemplateMatching(UriTemplateMatcher matcher, TermFactory termFactory) {
+        this.pattern2Term = matcher.getMap();
+        this.termFactory = termFactory;
+    }
+
+    /**
+     * Several results if several patterns of the same length match the IRI (their order is unspecified)
+     */
+    ImmutableSet<ImmutableFunctionalTerm> generateURIFunctions(String uriString) {
+        OptionalInt maxLength = pattern2Term.keySet().stream()
+                .filter(p -> p.matcher(uriString).matches())
+                .mapToInt(p -> p.pattern().length())
+                .max();
+        if (!maxLength.isPresent())
+            return ImmutableSet.of(termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(uriString)));
+
+        return pattern2Term.entrySet().stream()
+                .filter(e -> e.getKey().pattern().length() == maxLength.getAsInt())
+                .filter(e -> e.getKey().matcher(uriString).matches())
+                .map(e -> generateURIFunction(e.getKey(), e.getValue(), uriString))
+                .collect(ImmutableCollectors.toSet());
+    }
+
+    /**
+     * One of the results (single pass over the patterns)
+     */
+    ImmutableFunctionalTerm generateURIFunction(String uriString) {
+        Map.Entry<Pattern, ImmutableFunctionalTerm> bestEntry = null;
+        for (Map.Entry<Pattern, ImmutableFunctionalTerm> e : pattern2Term.entrySet()) {
+            if (e.getKey().matcher(uriString).matches()
+                    && (bestEntry == null || e.getKey().pattern().length() > bestEntry.getKey().pattern().length()))
+                bestEntry = e;
+        }
+        return bestEntry == null
+                ? termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(uriString))
+                : generateURIFunction(bestEntry.getKey(), bestEntry.getValue(), uriString);
+    }
+
+    private ImmutableFunctionalTerm generateURIFunction(Pattern pattern, ImmutableFunctionalTerm matchingFunction,
+                                                       String uriString) {
+        ImmutableTerm baseParameter = matchingFunction.getTerm(0);
+        if (baseParameter instanceof Variable)
+            return termFactory.getImmutableUriTemplate(termFactory.getConstantLiteral(uriString));
+
+        Matcher matcher = pattern.matcher(uriString);
+        matcher.matches();
+        ImmutableList.Builder<ImmutableTerm> values = ImmutableList.builder();
+        values.add(baseParameter);
+        for (int i = 0; i < matcher.groupCount(); i++)
+            values.add(termFactory.getConstantLiteral(matcher.group(i + 1)));
+        return termFactory.getImmutableUriTemplate(values.build());
+    }
+}
@@ -0,0 +1,57 @@
+package it.unibz.inf.ontop.utils;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.stream.IntStream;
+
+import static it.unibz.inf.ontop.OntopModelTestingTools.TERM_FACTORY;
+
+/**
+ * Matching of IRIs against 10k templates (e.g. one per table of a large DB), compared to the matching
+ * of the IRIs against each template with regular expressions.
+ *
+ * Half of the IRIs match a template, the other half none.
+ */
+@Ignore("used only for benchmark tests")
+public class UriTemplateMatcherBenchmark {
+
+    private static final int TEMPLATE_COUNT = 10_000;
+    private static final int IRI_COUNT = 10_000;
+    private static final int REGEX_IRI_COUNT = 200;
+    private static final int NUM_RUNS = 5;
+
+    @Test
+    public void benchmark() {
+        UriTemplateMatcher matcher = UriTemplateMatcher.create(
+                IntStream.range(0, TEMPLATE_COUNT)
+                        .mapToObj(i -> TERM_FACTORY.getImmutableUriTemplate(
+                                TERM_FACTORY.getConstantLiteral("http://example.org/table" + i + "/{}/{}"),
+                                TERM_FACTORY.getVariable("x"), TERM_FACTORY.getVariable("y"))),
+                TERM_FACTORY);
+        RegexUriTemplateMatching reference = new RegexUriTemplateMatching(matcher, TERM_FACTORY);
+
+        ImmutableList<String> iris = IntStream.range(0, IRI_COUNT)
+                .mapToObj(i -> (i % 2 == 0)
+                        ? "http://example.org/table" + (i % TEMPLATE_COUNT) + "/" + i + "/" + (i * 7)
+                        : "http://other.org/resource/" + i)
+                .collect(ImmutableCollectors.toList());
+
+        for (int run = 0; run < NUM_RUNS; run++) {
+            long start = System.nanoTime();
+            int hash = 0;
+            for (String iri : iris)
+                hash += matcher.generateURIFunction(iri).hashCode();
+            long time = System.nanoTime() - start;
+            System.out.printf("Prefix trie (run %d): %10.1f ns/IRI (%d)%n", run, (double) time / IRI_COUNT, hash);
+
+            start = System.nanoTime();
+            hash = 0;
+            for (String iri : iris.subList(0, REGEX_IRI_COUNT))
+                hash += reference.generateURIFunction(iri).hashCode();
+            time = System.nanoTime() - start;
+            System.out.printf("Regex scan  (run %d): %10.1f ns/IRI (%d)%n", run, (double) time / REGEX_IRI_COUNT, hash);
+        }
+    }
+}
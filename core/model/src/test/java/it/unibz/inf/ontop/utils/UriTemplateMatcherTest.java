@@ -0,0 +1,130 @@
+package it.unibz.inf.ontop.utils;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.model.term.ImmutableFunctionalTerm;
+import it.unibz.inf.ontop.model.term.ImmutableTerm;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static it.unibz.inf.ontop.OntopModelTestingTools.TERM_FACTORY;
+import static org.junit.Assert.*;
+
+public class UriTemplateMatcherTest {
+
+    // No regex metacharacter: the literal parts of the templates used to be interpreted as regular expressions
+    private static final String ALPHABET = "ab/:#-_01";
+    private static final int NUM_RUNS = 200;
+    private static final int TEMPLATES_PER_RUN = 30;
+    private static final int IRIS_PER_RUN = 300;
+
+    @Test
+    public void testMostSpecificTemplate() {
+        UriTemplateMatcher matcher = UriTemplateMatcher.create(Stream.of(
+                template("http://example.org/{}"),
+                template("http://example.org/person/{}"),
+                template("http://example.org/person/{}/{}")), TERM_FACTORY);
+
+        assertEquals(instance("http://example.org/person/{}/{}", "1/2", "3"),
+                matcher.generateURIFunction("http://example.org/person/1/2/3"));
+        assertEquals(instance("http://example.org/person/{}", "1"),
+                matcher.generateURIFunction("http://example.org/person/1"));
+        assertEquals(instance("http://example.org/{}", "person/"),
+                matcher.generateURIFunction("http://example.org/person/"));
+        assertEquals(TERM_FACTORY.getImmutableUriTemplate(TERM_FACTORY.getConstantLiteral("http://other.org/1")),
+                matcher.generateURIFunction("http://other.org/1"));
+    }
+
+    /**
+     * Like the (.+) groups of the regular expressions: greedy and non-empty
+     */
+    @Test
+    public void testGreedyPlaceholders() {
+        UriTemplateMatcher matcher = UriTemplateMatcher.create(Stream.of(template("http://example.org/{}-{}-{}")),
+                TERM_FACTORY);
+
+        assertEquals(instance("http://example.org/{}-{}-{}", "a-b", "c", "d"),
+                matcher.generateURIFunction("http://example.org/a-b-c-d"));
+        assertEquals(TERM_FACTORY.getImmutableUriTemplate(TERM_FACTORY.getConstantLiteral("http://example.org/a--d")),
+                matcher.generateURIFunction("http://example.org/a--d"));
+    }
+
+    @Test
+    public void testSameResultsAsRegex() {
+        Random random = new Random(42);
+        for (int run = 0; run < NUM_RUNS; run++) {
+            List<String> templates = new ArrayList<>();
+            for (int i = 0; i < TEMPLATES_PER_RUN; i++)
+                templates.add(randomTemplate(random));
+
+            Stream<ImmutableFunctionalTerm> templateFunctions = templates.stream().map(t -> template(t));
+            UriTemplateMatcher matcher = UriTemplateMatcher.create(run % 2 == 0
+                    ? templateFunctions
+                    : Stream.concat(templateFunctions,
+                        Stream.of(TERM_FACTORY.getImmutableUriTemplate(TERM_FACTORY.getVariable("x")))),
+                    TERM_FACTORY);
+            RegexUriTemplateMatching reference = new RegexUriTemplateMatching(matcher, TERM_FACTORY);
+
+            for (int i = 0; i < IRIS_PER_RUN; i++) {
+                String iri = (i % 3 == 0)
+                        ? randomString(random, 1 + random.nextInt(12))
+                        : instantiate(templates.get(random.nextInt(templates.size())), random);
+
+                ImmutableSet<ImmutableFunctionalTerm> expectedResults = reference.generateURIFunctions(iri);
+                ImmutableFunctionalTerm result = matcher.generateURIFunction(iri);
+                assertTrue("IRI " + iri + " in " + templates + ": " + result + " instead of " + expectedResults,
+                        expectedResults.contains(result));
+            }
+        }
+    }
+
+    private static String randomTemplate(Random random) {
+        StringBuilder builder = new StringBuilder(randomString(random, random.nextInt(6)));
+        int placeholderCount = 1 + random.nextInt(3);
+        for (int i = 0; i < placeholderCount; i++) {
+            builder.append("{}");
+            builder.append(randomString(random, random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+    private static String instantiate(String template, Random random) {
+        StringBuilder builder = new StringBuilder();
+        int start = 0;
+        int index;
+        while ((index = template.indexOf("{}", start)) >= 0) {
+            builder.append(template, start, index);
+            builder.append(randomString(random, random.nextInt(4)));
+            start = index + 2;
+        }
+        builder.append(template.substring(start));
+        return builder.toString();
+    }
+
+    private static String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++)
+            builder.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        return builder.toString();
+    }
+
+    private static ImmutableFunctionalTerm template(String template) {
+        ImmutableList.Builder<ImmutableTerm> arguments = ImmutableList.builder();
+        arguments.add(TERM_FACTORY.getConstantLiteral(template));
+        for (int i = 0; i < (template.split("\\{}", -1).length - 1); i++)
+            arguments.add(TERM_FACTORY.getVariable("v" + i));
+        return TERM_FACTORY.getImmutableUriTemplate(arguments.build());
+    }
+
+    private static ImmutableFunctionalTerm instance(String template, String... values) {
+        ImmutableList.Builder<ImmutableTerm> arguments = ImmutableList.builder();
+        arguments.add(TERM_FACTORY.getConstantLiteral(template));
+        for (String value : values)
+            arguments.add(TERM_FACTORY.getConstantLiteral(value));
+        return TERM_FACTORY.getImmutableUriTemplate(arguments.build());
+    }
+}
@@ -1,7 +1,12 @@
 package it.unibz.inf.ontop.datalog;
 
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.model.term.Constant;
+import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
 import it.unibz.inf.ontop.substitution.Substitution;
 
+import java.util.Optional;
+
 public interface CQContainmentCheck {
 
 	/**
@@ -16,5 +21,25 @@ public interface CQContainmentCheck {
 	boolean isContainedIn(CQIE cq1, CQIE cq2);
 
 	Substitution computeHomomorphsim(CQIE q1, CQIE q2);
+
+	/**
+	 * Over-approximates the predicates that may occur in the body of a query containing cq.
+	 *
+	 * When present (together with getContainerConstants), cq can only be contained in the queries
+	 * that have the same head predicate, whose body predicates are among the returned ones
+	 * and whose constants (in the head and in the body) are among the ones returned by getContainerConstants.
+	 *
+	 * Empty if no such approximation is available.
+	 */
+	default Optional<ImmutableSet<Predicate>> getContainerBodyPredicates(CQIE cq) {
+		return Optional.empty();
+	}
+
+	/**
+	 * Over-approximates the constants that may occur in a query containing cq (see getContainerBodyPredicates)
+	 */
+	default Optional<ImmutableSet<Constant>> getContainerConstants(CQIE cq) {
+		return Optional.empty();
+	}
 	
 }
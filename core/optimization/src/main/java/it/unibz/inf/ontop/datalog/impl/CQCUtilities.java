@@ -21,10 +21,12 @@ package it.unibz.inf.ontop.datalog.impl;
  */
 
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import it.unibz.inf.ontop.datalog.CQIE;
 import it.unibz.inf.ontop.datalog.CQContainmentCheck;
 import it.unibz.inf.ontop.datalog.LinearInclusionDependency;
+import it.unibz.inf.ontop.model.term.Constant;
 import it.unibz.inf.ontop.model.term.Function;
 import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
 import it.unibz.inf.ontop.substitution.Substitution;
@@ -32,6 +34,9 @@ import it.unibz.inf.ontop.substitution.impl.SubstitutionUtilities;
 import it.unibz.inf.ontop.substitution.impl.UnifierUtilities;
 
 import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /***
  * A class that allows you to perform different operations related to query
@@ -63,48 +68,152 @@ public class CQCUtilities {
 	 * 
 	 * Removal of queries is done in two main double scans. The first scan goes
 	 * top-down/down-top, the second scan goes down-top/top-down
+	 *
+	 * The containment is only checked against the queries whose signature (head predicate,
+	 * body predicates and constants) is compatible with the one of the contained query
+	 * (see CQContainmentCheck.getContainerBodyPredicates).
 	 * 
 	 * @param queries
 	 */
 	
 	public static void removeContainedQueries(List<CQIE> queries, CQContainmentCheck containment) {
 
-		{
-			Iterator<CQIE> iterator = queries.iterator();
-			while (iterator.hasNext()) {
-				CQIE query = iterator.next();
-				ListIterator<CQIE> iterator2 = queries.listIterator(queries.size());
-				while (iterator2.hasPrevious()) {
-					CQIE query2 = iterator2.previous(); 
-					if (query2 == query)
-						break;
-					if (containment.isContainedIn(query, query2)) {
-						iterator.remove();
-						break;
-					}
-				}
-			}
+		// first pass: removes the queries contained in one of the next queries
+		List<CQIE> remaining = removeContainedQueries(queries, containment, true);
+		// second pass: removes the queries contained in one of the previous (remaining) queries
+		remaining = removeContainedQueries(remaining, containment, false);
+
+		if (remaining.size() < queries.size()) {
+			queries.clear();
+			queries.addAll(remaining);
 		}
-		{
-			// second pass from the end
-			ListIterator<CQIE> iterator = queries.listIterator(queries.size());
-			while (iterator.hasPrevious()) {
-				CQIE query = iterator.previous();
-				Iterator<CQIE> iterator2 = queries.iterator();
-				while (iterator2.hasNext()) {
-					CQIE query2 = iterator2.next();
-					if (query2 == query)
-						break;
-					if (containment.isContainedIn(query, query2)) {
-						iterator.remove();
-						break;
-					}
-				}
+	}
+
+	/**
+	 * Returns the queries that are not contained in any of the next (resp. previous) queries.
+	 *
+	 * As in a scan of the list, the comparisons stop at the query itself
+	 * (in case it occurs several times in the list).
+	 */
+	private static List<CQIE> removeContainedQueries(List<CQIE> queries, CQContainmentCheck containment,
+													 boolean containerAfter) {
+		List<CQIE> list = new ArrayList<>(queries);
+		ContainerIndex index = new ContainerIndex(list, containment);
+
+		Map<CQIE, Integer> bounds = new IdentityHashMap<>();
+		for (int i = 0; i < list.size(); i++) {
+			if (containerAfter)
+				bounds.put(list.get(i), i);
+			else
+				bounds.putIfAbsent(list.get(i), i);
+		}
+
+		List<CQIE> remaining = new ArrayList<>(list.size());
+		for (int i = 0; i < list.size(); i++) {
+			CQIE query = list.get(i);
+			int bound = bounds.get(query);
+			boolean contained = index.getContainerCandidates(i, containerAfter ? j -> j > bound : j -> j < bound)
+					.anyMatch(j -> containment.isContainedIn(query, list.get(j)));
+			if (!contained)
+				remaining.add(query);
+		}
+		return remaining;
+	}
+
+	/**
+	 * Indexes the queries by head predicate and signature of their body.
+	 *
+	 * The predicates are not counted: a homomorphism may map several atoms to the same one.
+	 *
+	 * The signatures are grouped by their least frequent constant (the pivot), which must be
+	 * among the constants of the contained query.
+	 */
+	private static final class ContainerIndex {
+		private final List<CQIE> queries;
+		private final CQContainmentCheck containment;
+		// head predicate -> pivot (empty if no constants) -> signature -> positions
+		private final Map<Predicate, Map<Optional<Constant>, Map<Signature, List<Integer>>>> positions = new HashMap<>();
+
+		ContainerIndex(List<CQIE> queries, CQContainmentCheck containment) {
+			this.queries = queries;
+			this.containment = containment;
+
+			Map<Predicate, Map<Signature, List<Integer>>> signatures = new HashMap<>();
+			for (int i = 0; i < queries.size(); i++) {
+				CQIE query = queries.get(i);
+				signatures.computeIfAbsent(query.getHead().getFunctionSymbol(), p -> new HashMap<>())
+						.computeIfAbsent(new Signature(query), s -> new ArrayList<>())
+						.add(i);
 			}
+
+			Map<Constant, Integer> frequencies = new HashMap<>();
+			for (Map<Signature, List<Integer>> m : signatures.values())
+				for (Signature signature : m.keySet())
+					for (Constant constant : signature.constants)
+						frequencies.merge(constant, 1, Integer::sum);
+
+			signatures.forEach((p, m) -> {
+				Map<Optional<Constant>, Map<Signature, List<Integer>>> pivots = new HashMap<>();
+				m.forEach((signature, l) -> pivots.computeIfAbsent(
+						signature.constants.stream().min(Comparator.comparing(frequencies::get)),
+						c -> new HashMap<>()).put(signature, l));
+				positions.put(p, pivots);
+			});
+		}
+
+		/**
+		 * Positions of the queries that may contain the i-th query (restricted to the given range)
+		 */
+		IntStream getContainerCandidates(int i, IntPredicate range) {
+			CQIE query = queries.get(i);
+			Optional<ImmutableSet<Predicate>> predicates = containment.getContainerBodyPredicates(query);
+			Optional<ImmutableSet<Constant>> constants = containment.getContainerConstants(query);
+			if (!predicates.isPresent() || !constants.isPresent())
+				return IntStream.range(0, queries.size())
+						.filter(range);
+
+			Map<Optional<Constant>, Map<Signature, List<Integer>>> pivots = positions.get(query.getHead().getFunctionSymbol());
+			return Stream.concat(Stream.of(Optional.<Constant>empty()), constants.get().stream().map(Optional::of))
+					.map(pivots::get)
+					.filter(Objects::nonNull)
+					.flatMap(m -> m.entrySet().stream())
+					.filter(e -> predicates.get().containsAll(e.getKey().bodyPredicates)
+							&& constants.get().containsAll(e.getKey().constants))
+					.flatMap(e -> e.getValue().stream())
+					.mapToInt(j -> j)
+					.filter(range);
 		}
 	}
 
+	private static final class Signature {
+		private final ImmutableSet<Predicate> bodyPredicates;
+		private final ImmutableSet<Constant> constants;
+
+		Signature(CQIE query) {
+			ImmutableSet.Builder<Predicate> predicateBuilder = ImmutableSet.builder();
+			ImmutableSet.Builder<Constant> constantBuilder = ImmutableSet.builder();
+			HomomorphismUtilities.collectConstants(constantBuilder, query.getHead());
+			for (Function atom : query.getBody()) {
+				predicateBuilder.add(atom.getFunctionSymbol());
+				HomomorphismUtilities.collectConstants(constantBuilder, atom);
+			}
+			this.bodyPredicates = predicateBuilder.build();
+			this.constants = constantBuilder.build();
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o) return true;
+			if (!(o instanceof Signature)) return false;
+			Signature other = (Signature) o;
+			return bodyPredicates.equals(other.bodyPredicates) && constants.equals(other.constants);
+		}
 
+		@Override
+		public int hashCode() {
+			return Objects.hash(bodyPredicates, constants);
+		}
+	}
 
 	public void optimizeQueryWithSigmaRules(List<Function> atoms, ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies) {
 
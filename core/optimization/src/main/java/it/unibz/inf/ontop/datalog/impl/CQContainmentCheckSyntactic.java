@@ -1,10 +1,15 @@
 package it.unibz.inf.ontop.datalog.impl;
 
+import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.datalog.CQIE;
 import it.unibz.inf.ontop.datalog.CQContainmentCheck;
+import it.unibz.inf.ontop.model.term.Constant;
 import it.unibz.inf.ontop.model.term.Function;
+import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
 import it.unibz.inf.ontop.substitution.Substitution;
 
+import java.util.Optional;
+
 public class CQContainmentCheckSyntactic implements CQContainmentCheck {
 
 	/**
@@ -31,4 +36,24 @@ public class CQContainmentCheckSyntactic implements CQContainmentCheck {
 		throw new RuntimeException("Unimplemented method");
 	}
 
+	/**
+	 * The atoms of the containing query all occur in cq
+	 */
+	@Override
+	public Optional<ImmutableSet<Predicate>> getContainerBodyPredicates(CQIE cq) {
+		ImmutableSet.Builder<Predicate> predicates = ImmutableSet.builder();
+		for (Function atom : cq.getBody())
+			predicates.add(atom.getFunctionSymbol());
+		return Optional.of(predicates.build());
+	}
+
+	@Override
+	public Optional<ImmutableSet<Constant>> getContainerConstants(CQIE cq) {
+		ImmutableSet.Builder<Constant> constants = ImmutableSet.builder();
+		HomomorphismUtilities.collectConstants(constants, cq.getHead());
+		for (Function atom : cq.getBody())
+			HomomorphismUtilities.collectConstants(constants, atom);
+		return Optional.of(constants.build());
+	}
+
 }
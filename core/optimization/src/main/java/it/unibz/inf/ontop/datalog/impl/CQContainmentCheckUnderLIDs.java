@@ -1,9 +1,11 @@
 package it.unibz.inf.ontop.datalog.impl;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.datalog.*;
 import it.unibz.inf.ontop.model.atom.AtomPredicate;
 import it.unibz.inf.ontop.model.term.*;
@@ -19,7 +21,8 @@ public class CQContainmentCheckUnderLIDs implements CQContainmentCheck {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(CQContainmentCheckUnderLIDs.class);
 	
-	private final Map<CQIE,IndexedCQ> indexedCQcache = new HashMap<>();
+	// concurrent: the T-mappings are saturated in parallel
+	private final Map<CQIE,IndexedCQ> indexedCQcache = new ConcurrentHashMap<>();
 	
 	private final ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies;
 	private final DatalogFactory datalogFactory;
@@ -66,17 +69,27 @@ public class CQContainmentCheckUnderLIDs implements CQContainmentCheck {
 	 * has only one atom in the body.
 	 * 
 	 * IMPORTANT: each rule is applied only ONCE to each atom
+	 *
+	 * The suffixes of the fresh variables are allocated per chase (and not by the shared counter
+	 * of the datalog factory), so the chase of a query does not depend on the other queries
+	 * being chased concurrently (parallel saturation of the T-mappings).
 	 * 
 	 * @param atoms
 	 * @return set of atoms
 	 */
 	private Set<Function> chaseAtoms(Collection<Function> atoms) {
 
+		int suffix = 0;
 		Set<Function> derivedAtoms = new HashSet<>();
 		for (Function fact : atoms) {
 			derivedAtoms.add(fact);
 			for (LinearInclusionDependency d : dependencies.get(fact.getFunctionSymbol())) {
-				CQIE rule = datalogFactory.getFreshCQIECopy(datalogFactory.getCQIE(d.getHead(), d.getBody()));
+				// avoids the (costly) fresh copy of the dependencies that cannot apply
+				if (!mayUnify(d.getBody(), fact))
+					continue;
+				// the atoms of the dependency are cloned: a new CQIE registers itself as a listener of its atoms
+				CQIE rule = datalogFactory.getFreshCQIECopy(datalogFactory.getCQIE(
+						(Function) d.getHead().clone(), (Function) d.getBody().clone()), ++suffix);
 				Function ruleBody = rule.getBody().get(0);
 				Substitution theta = unifierUtilities.getMGU(ruleBody, fact);
 				if (theta != null && !theta.isEmpty()) {
@@ -91,6 +104,24 @@ public class CQContainmentCheckUnderLIDs implements CQContainmentCheck {
 		}
 		return derivedAtoms;
 	}
+
+	/**
+	 * False only if the two terms have different constants (or function symbols) at the same position
+	 */
+	private static boolean mayUnify(Term t1, Term t2) {
+		if (t1 instanceof Constant && t2 instanceof Constant)
+			return t1.equals(t2);
+
+		if (t1 instanceof Function && t2 instanceof Function) {
+			Function f1 = (Function) t1, f2 = (Function) t2;
+			if (!f1.getFunctionSymbol().equals(f2.getFunctionSymbol()) || f1.getArity() != f2.getArity())
+				return false;
+			for (int i = 0; i < f1.getArity(); i++)
+				if (!mayUnify(f1.getTerm(i), f2.getTerm(i)))
+					return false;
+		}
+		return true;
+	}
 	
 	public final class IndexedCQ {
 		
@@ -161,18 +192,23 @@ public class CQContainmentCheckUnderLIDs implements CQContainmentCheck {
 		return (computeHomomorphsim(q1, q2) != null);
 	}
 	
+	private IndexedCQ getIndexedCQ(CQIE q) {
+		IndexedCQ indexedQ = indexedCQcache.get(q);
+		if (indexedQ == null) {
+			Collection<Function> qbody = q.getBody();
+			if (dependencies != null)
+				qbody = chaseAtoms(qbody);
+
+			indexedQ = new IndexedCQ(q.getHead(), qbody);
+			indexedCQcache.put(q, indexedQ);
+		}
+		return indexedQ;
+	}
+
 	@Override
 	public Substitution computeHomomorphsim(CQIE q1, CQIE q2) {
 
-        IndexedCQ indexedQ1 = indexedCQcache.get(q1);
-        if (indexedQ1 == null) {
-        	Collection<Function> q1body = q1.getBody();
-        	if (dependencies != null)
-        		q1body = chaseAtoms(q1body);
-        	
-        	indexedQ1 = new IndexedCQ(q1.getHead(), q1body);
-    		indexedCQcache.put(q1, indexedQ1);
-        }
+        IndexedCQ indexedQ1 = getIndexedCQ(q1);
            
         // just to speed up the check in case there can be no match
         for (Function q2atom : q2.getBody()) 
@@ -184,6 +220,25 @@ public class CQContainmentCheckUnderLIDs implements CQContainmentCheck {
 		return indexedQ1.computeHomomorphism(q2);
 	}	
 
+	/**
+	 * The atoms of the containing query are mapped into the (indexed) chase of cq
+	 */
+	@Override
+	public Optional<ImmutableSet<Predicate>> getContainerBodyPredicates(CQIE cq) {
+		return Optional.of(ImmutableSet.copyOf(getIndexedCQ(cq).factMap.keySet()));
+	}
+
+	@Override
+	public Optional<ImmutableSet<Constant>> getContainerConstants(CQIE cq) {
+		IndexedCQ indexedCQ = getIndexedCQ(cq);
+		ImmutableSet.Builder<Constant> constants = ImmutableSet.builder();
+		HomomorphismUtilities.collectConstants(constants, indexedCQ.head);
+		for (List<Function> facts : indexedCQ.factMap.values())
+			for (Function fact : facts)
+				HomomorphismUtilities.collectConstants(constants, fact);
+		return Optional.of(constants.build());
+	}
+
 	static int redundantCounter = 0;
 	public static int twoAtomQs = 0;
 	public static int oneAtomQs = 0;
@@ -1,10 +1,13 @@
 package it.unibz.inf.ontop.datalog.impl;
 
 import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Stack;
 
+import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
 import it.unibz.inf.ontop.model.term.Constant;
 import it.unibz.inf.ontop.model.term.Function;
@@ -115,4 +118,19 @@ public class HomomorphismUtilities {
 		// checked all possible substitutions and have not found anything
 		return null;
 	}
+
+	/**
+	 * Adds the constants of the atom, including the ones nested in functional terms
+	 *    (a homomorphism maps each constant to itself)
+	 */
+	public static void collectConstants(ImmutableSet.Builder<Constant> constants, Function atom) {
+		Deque<Term> terms = new LinkedList<>(atom.getTerms());
+		while (!terms.isEmpty()) {
+			Term t = terms.pollFirst();
+			if (t instanceof Constant)
+				constants.add((Constant) t);
+			else if (t instanceof Function)
+				terms.addAll(((Function) t).getTerms());
+		}
+	}
 }
@@ -43,10 +43,10 @@ public class FixedPointJoinLikeOptimizer implements JoinLikeOptimizer {
             do {
                 oldVersionNumber = query.getVersionNumber();
                 query = leftJoinOptimizer.optimize(query);
-                log.debug("New query after left join optimization: \n" + query.toString());
+                log.debug("New query after left join optimization: \n{}", query);
 
                 query = joinOptimizer.optimize(query);
-                log.debug("New query after join optimization: \n" + query.toString());
+                log.debug("New query after join optimization: \n{}", query);
 
             } while (oldVersionNumber != query.getVersionNumber());
 
@@ -0,0 +1,320 @@
+package it.unibz.inf.ontop.dbschema;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Retrieves the primary keys, unique constraints and foreign keys of all the extracted relations
+ * by a single catalog query per constraint kind (instead of three JDBC metadata calls per relation)
+ *
+ * Supported: PostgreSQL, MySQL, MS SQL Server and Oracle
+ *
+ * NB: unlike DatabaseMetaData.getIndexInfo, only the declared UNIQUE constraints are retrieved
+ *     (unique indexes that are not backed by a constraint are ignored)
+ *
+ */
+
+final class BulkConstraintExtractor {
+
+	private static final Logger log = LoggerFactory.getLogger(BulkConstraintExtractor.class);
+
+	private static final String INFORMATION_SCHEMA_KEY_QUERY =
+			"SELECT tc.TABLE_SCHEMA, tc.TABLE_NAME, tc.CONSTRAINT_NAME, tc.CONSTRAINT_TYPE, " +
+			"       kcu.COLUMN_NAME, kcu.ORDINAL_POSITION " +
+			"FROM INFORMATION_SCHEMA.TABLE_CONSTRAINTS tc " +
+			"JOIN INFORMATION_SCHEMA.KEY_COLUMN_USAGE kcu " +
+			"  ON kcu.CONSTRAINT_SCHEMA = tc.CONSTRAINT_SCHEMA AND kcu.CONSTRAINT_NAME = tc.CONSTRAINT_NAME " +
+			"  AND kcu.TABLE_SCHEMA = tc.TABLE_SCHEMA AND kcu.TABLE_NAME = tc.TABLE_NAME " +
+			"WHERE tc.CONSTRAINT_TYPE IN ('PRIMARY KEY', 'UNIQUE')%s " +
+			"ORDER BY tc.TABLE_SCHEMA, tc.TABLE_NAME, tc.CONSTRAINT_NAME, kcu.ORDINAL_POSITION";
+
+	/**
+	 * pg_catalog rather than INFORMATION_SCHEMA:
+	 * PostgreSQL constraint names are unique only within a table
+	 */
+	private static final BulkConstraintExtractor POSTGRESQL = new BulkConstraintExtractor(
+			"SELECT n.nspname, t.relname, c.conname, c.contype, a.attname, k.ord " +
+			"FROM pg_catalog.pg_constraint c " +
+			"JOIN pg_catalog.pg_class t ON t.oid = c.conrelid " +
+			"JOIN pg_catalog.pg_namespace n ON n.oid = t.relnamespace " +
+			"CROSS JOIN LATERAL unnest(c.conkey) WITH ORDINALITY AS k(attnum, ord) " +
+			"JOIN pg_catalog.pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.attnum " +
+			"WHERE c.contype IN ('p', 'u')%s " +
+			"ORDER BY n.nspname, t.relname, c.conname, k.ord",
+			"SELECT n.nspname, t.relname, c.conname, a.attname, k.ord, rn.nspname, rt.relname, ra.attname " +
+			"FROM pg_catalog.pg_constraint c " +
+			"JOIN pg_catalog.pg_class t ON t.oid = c.conrelid " +
+			"JOIN pg_catalog.pg_namespace n ON n.oid = t.relnamespace " +
+			"JOIN pg_catalog.pg_class rt ON rt.oid = c.confrelid " +
+			"JOIN pg_catalog.pg_namespace rn ON rn.oid = rt.relnamespace " +
+			"CROSS JOIN LATERAL unnest(c.conkey, c.confkey) WITH ORDINALITY AS k(attnum, refattnum, ord) " +
+			"JOIN pg_catalog.pg_attribute a ON a.attrelid = c.conrelid AND a.attnum = k.attnum " +
+			"JOIN pg_catalog.pg_attribute ra ON ra.attrelid = c.confrelid AND ra.attnum = k.refattnum " +
+			"WHERE c.contype = 'f'%s " +
+			"ORDER BY n.nspname, t.relname, c.conname, k.ord",
+			"n.nspname");
+
+	private static final BulkConstraintExtractor MYSQL = new BulkConstraintExtractor(
+			INFORMATION_SCHEMA_KEY_QUERY,
+			"SELECT tc.TABLE_SCHEMA, tc.TABLE_NAME, tc.CONSTRAINT_NAME, tc.COLUMN_NAME, tc.ORDINAL_POSITION, " +
+			"       tc.REFERENCED_TABLE_SCHEMA, tc.REFERENCED_TABLE_NAME, tc.REFERENCED_COLUMN_NAME " +
+			"FROM INFORMATION_SCHEMA.KEY_COLUMN_USAGE tc " +
+			"WHERE tc.REFERENCED_TABLE_NAME IS NOT NULL%s " +
+			"ORDER BY tc.TABLE_SCHEMA, tc.TABLE_NAME, tc.CONSTRAINT_NAME, tc.ORDINAL_POSITION",
+			"tc.TABLE_SCHEMA");
+
+	private static final BulkConstraintExtractor SQL_SERVER = new BulkConstraintExtractor(
+			INFORMATION_SCHEMA_KEY_QUERY,
+			"SELECT s.name, t.name, fk.name, c.name, fkc.constraint_column_id, rs.name, rt.name, rc.name " +
+			"FROM sys.foreign_keys fk " +
+			"JOIN sys.foreign_key_columns fkc ON fkc.constraint_object_id = fk.object_id " +
+			"JOIN sys.tables t ON t.object_id = fkc.parent_object_id " +
+			"JOIN sys.schemas s ON s.schema_id = t.schema_id " +
+			"JOIN sys.columns c ON c.object_id = fkc.parent_object_id AND c.column_id = fkc.parent_column_id " +
+			"JOIN sys.tables rt ON rt.object_id = fkc.referenced_object_id " +
+			"JOIN sys.schemas rs ON rs.schema_id = rt.schema_id " +
+			"JOIN sys.columns rc ON rc.object_id = fkc.referenced_object_id AND rc.column_id = fkc.referenced_column_id " +
+			"WHERE 1 = 1%s " +
+			"ORDER BY s.name, t.name, fk.name, fkc.constraint_column_id",
+			"tc.TABLE_SCHEMA", "s.name");
+
+	private static final BulkConstraintExtractor ORACLE = new BulkConstraintExtractor(
+			"SELECT c.owner, c.table_name, c.constraint_name, c.constraint_type, cc.column_name, cc.position " +
+			"FROM all_constraints c " +
+			"JOIN all_cons_columns cc ON cc.owner = c.owner AND cc.constraint_name = c.constraint_name " +
+			"  AND cc.table_name = c.table_name " +
+			"WHERE c.constraint_type IN ('P', 'U')%s " +
+			"ORDER BY c.owner, c.table_name, c.constraint_name, cc.position",
+			"SELECT c.owner, c.table_name, c.constraint_name, cc.column_name, cc.position, " +
+			"       rc.owner, rc.table_name, rcc.column_name " +
+			"FROM all_constraints c " +
+			"JOIN all_cons_columns cc ON cc.owner = c.owner AND cc.constraint_name = c.constraint_name " +
+			"  AND cc.table_name = c.table_name " +
+			"JOIN all_constraints rc ON rc.owner = c.r_owner AND rc.constraint_name = c.r_constraint_name " +
+			"JOIN all_cons_columns rcc ON rcc.owner = rc.owner AND rcc.constraint_name = rc.constraint_name " +
+			"  AND rcc.table_name = rc.table_name AND rcc.position = cc.position " +
+			"WHERE c.constraint_type = 'R'%s " +
+			"ORDER BY c.owner, c.table_name, c.constraint_name, cc.position",
+			"c.owner");
+
+	// columns: schema, table, constraint name, constraint type, column, position
+	private final String keyQuery;
+	// columns: schema, table, constraint name, column, position, referenced schema, table and column
+	private final String foreignKeyQuery;
+	private final String keySchemaColumn;
+	private final String foreignKeySchemaColumn;
+
+	private BulkConstraintExtractor(String keyQuery, String foreignKeyQuery, String schemaColumn) {
+		this(keyQuery, foreignKeyQuery, schemaColumn, schemaColumn);
+	}
+
+	private BulkConstraintExtractor(String keyQuery, String foreignKeyQuery,
+									String keySchemaColumn, String foreignKeySchemaColumn) {
+		this.keyQuery = keyQuery;
+		this.foreignKeyQuery = foreignKeyQuery;
+		this.keySchemaColumn = keySchemaColumn;
+		this.foreignKeySchemaColumn = foreignKeySchemaColumn;
+	}
+
+	/**
+	 * @return empty if the database engine is not supported
+	 */
+	static Optional<BulkConstraintExtractor> getExtractor(String productName) {
+		if (productName.contains("PostgreSQL"))
+			return Optional.of(POSTGRESQL);
+		if (productName.contains("MySQL"))
+			return Optional.of(MYSQL);
+		if (productName.contains("SQL Server"))
+			return Optional.of(SQL_SERVER);
+		if (productName.contains("Oracle"))
+			return Optional.of(ORACLE);
+		return Optional.empty();
+	}
+
+	/**
+	 * Adds the constraints to the extracted relations
+	 *
+	 * Both queries are evaluated before any relation is modified:
+	 * if one of them fails, the relations are left untouched
+	 */
+	void extract(Connection conn, RDBMetadata metadata, Collection<DatabaseRelationDefinition> extractedRelations)
+			throws SQLException {
+
+		QuotedIDFactory idfac = metadata.getQuotedIDFactory();
+		// the catalog tables are filtered by schema names unless some relation has no schema
+		Set<String> schemas = new LinkedHashSet<>();
+		for (DatabaseRelationDefinition relation : extractedRelations) {
+			if (!relation.getID().hasSchema()) {
+				schemas = null;
+				break;
+			}
+			schemas.add(relation.getID().getSchemaName());
+		}
+
+		List<KeyRecord> keys = new ArrayList<>();
+		try (PreparedStatement stmt = prepare(conn, keyQuery, keySchemaColumn, schemas);
+			 ResultSet rs = stmt.executeQuery()) {
+			while (rs.next())
+				keys.add(new KeyRecord(RelationID.createRelationIdFromDatabaseRecord(idfac,
+						rs.getString(1), rs.getString(2)),
+						rs.getString(3), isPrimaryKey(rs.getString(4)), rs.getString(5)));
+		}
+
+		List<ForeignKeyRecord> foreignKeys = new ArrayList<>();
+		try (PreparedStatement stmt = prepare(conn, foreignKeyQuery, foreignKeySchemaColumn, schemas);
+			 ResultSet rs = stmt.executeQuery()) {
+			while (rs.next())
+				foreignKeys.add(new ForeignKeyRecord(RelationID.createRelationIdFromDatabaseRecord(idfac,
+						rs.getString(1), rs.getString(2)),
+						rs.getString(3), rs.getString(4),
+						RelationID.createRelationIdFromDatabaseRecord(idfac, rs.getString(6), rs.getString(7)),
+						rs.getString(8)));
+		}
+
+		Set<DatabaseRelationDefinition> relations = Collections.newSetFromMap(new IdentityHashMap<>());
+		relations.addAll(extractedRelations);
+
+		// primary keys first (as in the per-relation extraction)
+		addUniqueConstraints(metadata, relations, keys, true);
+		addUniqueConstraints(metadata, relations, keys, false);
+		addForeignKeys(metadata, relations, foreignKeys);
+	}
+
+	private static PreparedStatement prepare(Connection conn, String query, String schemaColumn,
+											 Set<String> schemas) throws SQLException {
+		String condition = (schemas == null || schemas.isEmpty())
+				? ""
+				: " AND " + schemaColumn + " IN (" + String.join(", ", Collections.nCopies(schemas.size(), "?")) + ")";
+		PreparedStatement stmt = conn.prepareStatement(String.format(query, condition));
+		if (!condition.isEmpty()) {
+			int i = 1;
+			for (String schema : schemas)
+				stmt.setString(i++, schema);
+		}
+		return stmt;
+	}
+
+	private static boolean isPrimaryKey(String constraintType) {
+		return constraintType.equals("PRIMARY KEY") || constraintType.equalsIgnoreCase("P");
+	}
+
+	/**
+	 * @return null if the relation was not extracted
+	 */
+	private static DatabaseRelationDefinition getRelation(RDBMetadata metadata,
+														  Set<DatabaseRelationDefinition> relations, RelationID id) {
+		DatabaseRelationDefinition relation = metadata.getDatabaseRelation(id);
+		return relations.contains(relation) ? relation : null;
+	}
+
+	private static void addUniqueConstraints(RDBMetadata metadata, Set<DatabaseRelationDefinition> relations,
+											 List<KeyRecord> keys, boolean primary) {
+		QuotedIDFactory idfac = metadata.getQuotedIDFactory();
+		int i = 0;
+		while (i < keys.size()) {
+			KeyRecord first = keys.get(i);
+			int end = i;
+			while (end < keys.size() && keys.get(end).isSameConstraint(first))
+				end++;
+
+			DatabaseRelationDefinition relation = getRelation(metadata, relations, first.relationId);
+			if (first.primary == primary && relation != null) {
+				UniqueConstraint.Builder builder = UniqueConstraint.builder(relation);
+				boolean complete = true;
+				for (KeyRecord key : keys.subList(i, end)) {
+					Attribute attribute = relation.getAttribute(QuotedID.createIdFromDatabaseRecord(idfac, key.column));
+					if (attribute == null) {
+						log.warn("Cannot find attribute: " + key.column + " for constraint " + first.name);
+						complete = false;
+						break;
+					}
+					builder.add(attribute);
+				}
+				if (complete)
+					relation.addUniqueConstraint(builder.build(first.name, primary));
+			}
+			i = end;
+		}
+	}
+
+	private static void addForeignKeys(RDBMetadata metadata, Set<DatabaseRelationDefinition> relations,
+									   List<ForeignKeyRecord> foreignKeys) {
+		QuotedIDFactory idfac = metadata.getQuotedIDFactory();
+		int i = 0;
+		while (i < foreignKeys.size()) {
+			ForeignKeyRecord first = foreignKeys.get(i);
+			int end = i;
+			while (end < foreignKeys.size() && foreignKeys.get(end).isSameConstraint(first))
+				end++;
+
+			DatabaseRelationDefinition relation = getRelation(metadata, relations, first.relationId);
+			if (relation != null) {
+				DatabaseRelationDefinition ref = metadata.getDatabaseRelation(first.refRelationId);
+				if (ref != null) {
+					ForeignKeyConstraint.Builder builder = new ForeignKeyConstraint.Builder(relation, ref);
+					boolean complete = true;
+					for (ForeignKeyRecord fk : foreignKeys.subList(i, end)) {
+						Attribute attribute = relation.getAttribute(QuotedID.createIdFromDatabaseRecord(idfac, fk.column));
+						Attribute refAttribute = ref.getAttribute(QuotedID.createIdFromDatabaseRecord(idfac, fk.refColumn));
+						if (attribute == null || refAttribute == null) {
+							log.warn("Cannot find attributes: " + fk.column + ", " + fk.refColumn + " for FK " + first.name);
+							complete = false;
+							break;
+						}
+						builder.add(attribute, refAttribute);
+					}
+					if (complete)
+						relation.addForeignKeyConstraint(builder.build(first.name));
+				}
+				else
+					log.warn("Cannot find table: " + first.refRelationId + " for FK " + first.name);
+			}
+			i = end;
+		}
+	}
+
+
+	private static final class KeyRecord {
+		private final RelationID relationId;
+		private final String name;
+		private final boolean primary;
+		private final String column;
+
+		KeyRecord(RelationID relationId, String name, boolean primary, String column) {
+			this.relationId = relationId;
+			this.name = name;
+			this.primary = primary;
+			this.column = column;
+		}
+
+		boolean isSameConstraint(KeyRecord other) {
+			return relationId.equals(other.relationId) && name.equals(other.name);
+		}
+	}
+
+	private static final class ForeignKeyRecord {
+		private final RelationID relationId;
+		private final String name;
+		private final String column;
+		private final RelationID refRelationId;
+		private final String refColumn;
+
+		ForeignKeyRecord(RelationID relationId, String name, String column, RelationID refRelationId, String refColumn) {
+			this.relationId = relationId;
+			this.name = name;
+			this.column = column;
+			this.refRelationId = refRelationId;
+			this.refColumn = refColumn;
+		}
+
+		boolean isSameConstraint(ForeignKeyRecord other) {
+			return relationId.equals(other.relationId) && name.equals(other.name);
+		}
+	}
+}
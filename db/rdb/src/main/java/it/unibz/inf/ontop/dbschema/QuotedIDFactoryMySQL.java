@@ -92,4 +92,8 @@ public class QuotedIDFactoryMySQL implements QuotedIDFactory {
 	public String getIDQuotationString() {
 		return quotationString;
 	}	
+
+	boolean areTableNamesCaseSensitive() {
+		return caseSensitiveTableNames;
+	}
 }
@@ -26,8 +26,11 @@ import it.unibz.inf.ontop.model.type.TypeFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.sql.*;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Retrieves the database metadata (table schema and database constraints)
@@ -182,6 +185,31 @@ public class RDBMetadataExtractionTools {
 	 */
 
 	public static void loadMetadata(RDBMetadata metadata, Connection conn, Set<RelationID> realTables) throws SQLException {
+		loadMetadata(metadata, conn, realTables, 1, null, false);
+	}
+
+	/**
+	 * Opens a new connection to the database (closed by the caller)
+	 */
+	@FunctionalInterface
+	public interface ConnectionSupplier {
+		Connection get() throws SQLException;
+	}
+
+	/**
+	 * Retrieves the database metadata (table schema and database constraints)
+	 *
+	 * @param threads number of connections (obtained from the connection supplier) on which the columns
+	 *                and the constraints of the relations are retrieved in parallel;
+	 *                if it is 1 (or there is no connection supplier), the given connection is used
+	 * @param bulkExtraction if true, the columns are retrieved schema by schema (rather than table by table) and,
+	 *                for PostgreSQL, MySQL, MS SQL Server and Oracle, the constraints of all relations are retrieved
+	 *                by one catalog query per constraint kind
+	 */
+
+	public static void loadMetadata(RDBMetadata metadata, Connection conn, Set<RelationID> realTables,
+									int threads, @Nullable ConnectionSupplier connectionSupplier,
+									boolean bulkExtraction) throws SQLException {
 
 		if (printouts)
 			System.out.println("GETTING METADATA WITH " + conn + " ON " + realTables);
@@ -230,58 +258,229 @@ public class RDBMetadataExtractionTools {
 
         String catalog = getCatalog(metadata, conn);
 
-        for (RelationID seedId : seedRelationIds) {
+		List<ColumnRequest> columnRequests = bulkExtraction
+				? getSchemaColumnRequests(seedRelationIds)
+				: getColumnRequests(seedRelationIds);
+
+		final DatatypeNormalizer typeFixer = dt;
+		List<List<ColumnRecord>> columns = execute(columnRequests,
+				(metaData, request) -> request.getColumns(metaData, catalog, idfac, typeFixer),
+				md, threads, connectionSupplier);
+
+		// the relations are created sequentially (RDBMetadata is not thread-safe)
+		for (List<ColumnRecord> requestColumns : columns) {
 			// the same seedId can be mapped to many tables (if the seedId has no schema)
 			// we collect attributes from all of them
 			DatabaseRelationDefinition currentRelation = null;
 
+			for (ColumnRecord column : requestColumns) {
+				if (printouts)
+					System.out.println("         " + column.relationId + "." + column.attributeId);
+
+				if (currentRelation == null || !currentRelation.getID().equals(column.relationId)) {
+					// switch to the next database relation
+					currentRelation = metadata.createDatabaseRelation(column.relationId);
+					extractedRelations.add(currentRelation);
+				}
+				currentRelation.addAttribute(column.attributeId, column.dataType, column.typeName, column.isNullable);
+			}
+		}
+
+		Optional<BulkConstraintExtractor> bulkConstraintExtractor = bulkExtraction
+				? BulkConstraintExtractor.getExtractor(productName)
+				: Optional.empty();
+
+		boolean constraintsExtracted = false;
+		if (bulkConstraintExtractor.isPresent()) {
+			try {
+				bulkConstraintExtractor.get().extract(conn, metadata, extractedRelations);
+				constraintsExtracted = true;
+			}
+			catch (SQLException e) {
+				log.warn("Bulk extraction of the constraints failed (falling back to the per-relation extraction): " + e);
+			}
+		}
+
+		// each relation is modified by one thread only
+		// (the foreign keys only read the referenced relations, which are all created by now)
+		if (!constraintsExtracted)
+			execute(extractedRelations, (metaData, relation) -> {
+					getPrimaryKey(metaData, relation, metadata.getQuotedIDFactory());
+					getUniqueAttributes(metaData, relation, metadata.getQuotedIDFactory());
+					getForeignKeys(metaData, relation, metadata);
+					return null;
+				}, md, threads, connectionSupplier);
+
+		if (printouts) {
+			for (DatabaseRelationDefinition relation : extractedRelations) {
+				System.out.println(relation + ";");
+				for (UniqueConstraint uc : relation.getUniqueConstraints())
+					System.out.println(uc + ";");
+				for (ForeignKeyConstraint fk : relation.getForeignKeys())
+					System.out.println(fk +  ";");
+				System.out.println("");
+			}
+			System.out.println("RESULTING METADATA:\n" + metadata);
+			System.out.println("DBMetadataExtractor END OF REPORT\n=================================");
+		}
+	}
+
+	/**
+	 * One getColumns call per seed relation
+	 */
+	private static List<ColumnRequest> getColumnRequests(List<RelationID> seedRelationIds) {
+		List<ColumnRequest> requests = new ArrayList<>(seedRelationIds.size());
+		for (RelationID seedId : seedRelationIds)
+			requests.add(new ColumnRequest(seedId.getSchemaName(), seedId.getTableName(), null));
+		return requests;
+	}
+
+	/**
+	 * One getColumns call per schema (seed relations without a schema are requested one by one)
+	 */
+	private static List<ColumnRequest> getSchemaColumnRequests(List<RelationID> seedRelationIds) {
+		Map<String, Set<String>> tablesBySchema = new LinkedHashMap<>();
+		List<ColumnRequest> requests = new ArrayList<>();
+		for (RelationID seedId : seedRelationIds) {
+			if (seedId.hasSchema())
+				tablesBySchema.computeIfAbsent(seedId.getSchemaName(), s -> new HashSet<>())
+						.add(seedId.getTableName());
+			else
+				requests.add(new ColumnRequest(null, seedId.getTableName(), null));
+		}
+		for (Map.Entry<String, Set<String>> e : tablesBySchema.entrySet())
+			requests.add(new ColumnRequest(e.getKey(), null, e.getValue()));
+		return requests;
+	}
+
+	private interface MetadataTask<T, R> {
+		R run(DatabaseMetaData md, T item) throws SQLException;
+	}
+
+	/**
+	 * Runs the task on each item and returns the results in the order of the items
+	 *
+	 * The items are split among at most the given number of threads,
+	 * each with its own connection (obtained from the connection supplier)
+	 */
+	private static <T, R> List<R> execute(List<T> items, MetadataTask<T, R> task, DatabaseMetaData md,
+										  int threads, @Nullable ConnectionSupplier connectionSupplier) throws SQLException {
+		int workers = Math.min(threads, items.size());
+		if (workers <= 1 || connectionSupplier == null) {
+			List<R> results = new ArrayList<>(items.size());
+			for (T item : items)
+				results.add(task.run(md, item));
+			return results;
+		}
+
+		List<T> itemList = new ArrayList<>(items);
+		List<R> results = new ArrayList<>(Collections.nCopies(itemList.size(), null));
+		AtomicInteger threadCount = new AtomicInteger();
+		ExecutorService executor = Executors.newFixedThreadPool(workers, r -> {
+			Thread thread = new Thread(r, "ontop-metadata-extraction-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			List<Future<?>> futures = new ArrayList<>(workers);
+			for (int w = 0; w < workers; w++) {
+				final int first = w;
+				futures.add(executor.submit((Callable<Void>) () -> {
+					try (Connection connection = connectionSupplier.get()) {
+						DatabaseMetaData metaData = connection.getMetaData();
+						for (int i = first; i < itemList.size(); i += workers) {
+							// no structural modification: distinct threads set distinct positions
+							results.set(i, task.run(metaData, itemList.get(i)));
+						}
+					}
+					return null;
+				}));
+			}
+			for (Future<?> future : futures)
+				future.get();
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof SQLException)
+				throw (SQLException) cause;
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			throw new SQLException(cause);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted during the metadata extraction", e);
+		}
+		finally {
+			executor.shutdownNow();
+		}
+		// visible: Future.get() happens after the completion of the tasks
+		return results;
+	}
+
+
+	/**
+	 * A getColumns call: either for the tables matching the table name
+	 *    or for all the tables of the schema (if the table name is null)
+	 */
+	private static final class ColumnRequest {
+		@Nullable
+		private final String schemaName;
+		@Nullable
+		private final String tableName;
+		// tables of the schema to keep (only if the table name is null)
+		@Nullable
+		private final Set<String> tableNames;
+
+		ColumnRequest(@Nullable String schemaName, @Nullable String tableName, @Nullable Set<String> tableNames) {
+			this.schemaName = schemaName;
+			this.tableName = tableName;
+			this.tableNames = tableNames;
+		}
+
+		List<ColumnRecord> getColumns(DatabaseMetaData md, String catalog, QuotedIDFactory idfac,
+									  DatatypeNormalizer dt) throws SQLException {
+			List<ColumnRecord> columns = new ArrayList<>();
 			// catalog is ignored for now (rs.getString("TABLE_CAT"))
-            try (ResultSet rs = md.getColumns(catalog, seedId.getSchemaName(), seedId.getTableName(), null)) {
+			try (ResultSet rs = md.getColumns(catalog, schemaName, tableName, null)) {
 				while (rs.next()) {
 					String schema = rs.getString("TABLE_SCHEM");
 					// MySQL workaround
 					if (schema == null)
 						schema = rs.getString("TABLE_CAT");
+					String table = rs.getString("TABLE_NAME");
 
-					RelationID relationId = RelationID.createRelationIdFromDatabaseRecord(idfac, schema,
-										rs.getString("TABLE_NAME"));
-					QuotedID attributeId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("COLUMN_NAME"));
-					if (printouts)
-						System.out.println("         " + relationId + "." + attributeId);
+					if (tableName == null && !(schemaName.equals(schema) && tableNames.contains(table)))
+						continue;
 
-					if (currentRelation == null || !currentRelation.getID().equals(relationId)) {
-						// switch to the next database relation
-						currentRelation = metadata.createDatabaseRelation(relationId);
-						extractedRelations.add(currentRelation);
-					}
+					RelationID relationId = RelationID.createRelationIdFromDatabaseRecord(idfac, schema, table);
+					QuotedID attributeId = QuotedID.createIdFromDatabaseRecord(idfac, rs.getString("COLUMN_NAME"));
 
 					// columnNoNulls, columnNullable, columnNullableUnknown
 					boolean isNullable = rs.getInt("NULLABLE") != DatabaseMetaData.columnNoNulls;
 					String typeName = rs.getString("TYPE_NAME");
 					int dataType = dt.getCorrectedDatatype(rs.getInt("DATA_TYPE"), typeName);
 
-					currentRelation.addAttribute(attributeId, dataType, typeName, isNullable);
+					columns.add(new ColumnRecord(relationId, attributeId, dataType, typeName, isNullable));
 				}
 			}
+			return columns;
 		}
+	}
 
-		for (DatabaseRelationDefinition relation : extractedRelations)	{
-			getPrimaryKey(md, relation, metadata.getQuotedIDFactory());
-			getUniqueAttributes(md, relation, metadata.getQuotedIDFactory());
-			getForeignKeys(md, relation, metadata);
-			if (printouts) {
-				System.out.println(relation + ";");
-				for (UniqueConstraint uc : relation.getUniqueConstraints())
-					System.out.println(uc + ";");
-				for (ForeignKeyConstraint fk : relation.getForeignKeys())
-					System.out.println(fk +  ";");
-				System.out.println("");
-			}
-		}
-
-		if (printouts) {
-			System.out.println("RESULTING METADATA:\n" + metadata);
-			System.out.println("DBMetadataExtractor END OF REPORT\n=================================");
+	private static final class ColumnRecord {
+		private final RelationID relationId;
+		private final QuotedID attributeId;
+		private final int dataType;
+		private final String typeName;
+		private final boolean isNullable;
+
+		ColumnRecord(RelationID relationId, QuotedID attributeId, int dataType, String typeName, boolean isNullable) {
+			this.relationId = relationId;
+			this.attributeId = attributeId;
+			this.dataType = dataType;
+			this.typeName = typeName;
+			this.isNullable = isNullable;
 		}
 	}
 
@@ -0,0 +1,321 @@
+package it.unibz.inf.ontop.dbschema;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Binary encoding of RDBMetadata (tables, integrity constraints and parser views).
+ *
+ * The relations are written in a deterministic order (see getRelations()), so that other serialized structures
+ * (e.g. mapping assertions) can refer to them by their index.
+ */
+public class RDBMetadataSerializer {
+
+    private static final byte STANDARD_SQL_ID_FACTORY = 0;
+    private static final byte LOWER_CASE_ID_FACTORY = 1;
+    private static final byte IDENTITY_ID_FACTORY = 2;
+    private static final byte MYSQL_ID_FACTORY = 3;
+
+    private static final Pattern PARSER_VIEW_NAME = Pattern.compile("view_(\\d+)");
+
+    private RDBMetadataSerializer() {
+    }
+
+    /**
+     * Tables (in their order of creation) followed by the parser views (in their order of creation)
+     */
+    public static ImmutableList<RelationDefinition> getRelations(RDBMetadata metadata) throws NotSerializableException {
+        return ImmutableList.<RelationDefinition>builder()
+                .addAll(metadata.getDatabaseRelations())
+                .addAll(getParserViews(metadata))
+                .build();
+    }
+
+    public static void serialize(RDBMetadata metadata, DataOutput out) throws IOException {
+        writeString(out, metadata.getDriverName());
+        writeString(out, metadata.getDriverVersion());
+        writeString(out, metadata.getDbmsProductName());
+        writeString(out, metadata.getDbmsVersion());
+        writeQuotedIDFactory(out, metadata.getQuotedIDFactory());
+
+        List<DatabaseRelationDefinition> tables = ImmutableList.copyOf(metadata.getDatabaseRelations());
+        out.writeInt(tables.size());
+        for (DatabaseRelationDefinition table : tables) {
+            writeRelationID(out, table.getID());
+            out.writeInt(table.getAttributes().size());
+            for (Attribute attribute : table.getAttributes()) {
+                writeQuotedID(out, attribute.getID());
+                out.writeInt(attribute.getType());
+                writeString(out, attribute.getSQLTypeName());
+                out.writeBoolean(attribute.canNull());
+            }
+        }
+
+        // Constraints may refer to tables declared later
+        for (DatabaseRelationDefinition table : tables) {
+            ImmutableList<UniqueConstraint> uniqueConstraints = table.getUniqueConstraints();
+            out.writeInt(uniqueConstraints.size());
+            for (UniqueConstraint uc : uniqueConstraints) {
+                writeString(out, uc.getName());
+                out.writeBoolean(uc.isPrimaryKey());
+                writeAttributes(out, uc.getAttributes());
+            }
+
+            ImmutableList<FunctionalDependency> dependencies = table.getOtherFunctionalDependencies();
+            out.writeInt(dependencies.size());
+            for (FunctionalDependency fd : dependencies) {
+                writeAttributes(out, fd.getDeterminants());
+                writeAttributes(out, fd.getDependents());
+            }
+
+            ImmutableList<ForeignKeyConstraint> foreignKeys = table.getForeignKeys();
+            out.writeInt(foreignKeys.size());
+            for (ForeignKeyConstraint fk : foreignKeys) {
+                writeString(out, fk.getName());
+                int referencedIndex = tables.indexOf(fk.getReferencedRelation());
+                if (referencedIndex < 0)
+                    throw new NotSerializableException("Foreign key " + fk + " refers to an unknown relation");
+                out.writeInt(referencedIndex);
+                out.writeInt(fk.getComponents().size());
+                for (ForeignKeyConstraint.Component component : fk.getComponents()) {
+                    out.writeInt(component.getAttribute().getIndex() - 1);
+                    out.writeInt(component.getReference().getIndex() - 1);
+                }
+            }
+        }
+
+        ImmutableList<ParserViewDefinition> views = getParserViews(metadata);
+        out.writeInt(views.size());
+        for (ParserViewDefinition view : views) {
+            writeString(out, view.getStatement());
+            out.writeInt(view.getAttributes().size());
+            for (Attribute attribute : view.getAttributes())
+                writeQuotedID(out, attribute.getID());
+        }
+    }
+
+    /**
+     * Returns a frozen RDBMetadata
+     */
+    public static RDBMetadata deserialize(DataInput in, JdbcTypeMapper jdbcTypeMapper, TypeFactory typeFactory)
+            throws IOException {
+        String driverName = readString(in);
+        String driverVersion = readString(in);
+        String productName = readString(in);
+        String productVersion = readString(in);
+        QuotedIDFactory idfac = readQuotedIDFactory(in);
+
+        RDBMetadata metadata = new RDBMetadata(driverName, driverVersion, productName, productVersion, idfac,
+                jdbcTypeMapper, typeFactory);
+
+        int tableCount = in.readInt();
+        ImmutableList.Builder<DatabaseRelationDefinition> tableBuilder = ImmutableList.builder();
+        for (int i = 0; i < tableCount; i++) {
+            DatabaseRelationDefinition table = metadata.createDatabaseRelation(readRelationID(in));
+            int attributeCount = in.readInt();
+            for (int j = 0; j < attributeCount; j++) {
+                QuotedID attributeId = readQuotedID(in);
+                int type = in.readInt();
+                String typeName = readString(in);
+                table.addAttribute(attributeId, type, typeName, in.readBoolean());
+            }
+            tableBuilder.add(table);
+        }
+        ImmutableList<DatabaseRelationDefinition> tables = tableBuilder.build();
+
+        for (DatabaseRelationDefinition table : tables) {
+            int ucCount = in.readInt();
+            for (int i = 0; i < ucCount; i++) {
+                String name = readString(in);
+                boolean isPK = in.readBoolean();
+                UniqueConstraint.Builder builder = UniqueConstraint.builder(table);
+                for (Attribute attribute : readAttributes(in, table))
+                    builder.add(attribute);
+                table.addUniqueConstraint(builder.build(name, isPK));
+            }
+
+            int fdCount = in.readInt();
+            for (int i = 0; i < fdCount; i++) {
+                FunctionalDependency.Builder builder = FunctionalDependency.defaultBuilder();
+                for (Attribute determinant : readAttributes(in, table))
+                    builder.addDeterminant(determinant);
+                for (Attribute dependent : readAttributes(in, table))
+                    builder.addDependent(dependent);
+                table.addFunctionalDependency(builder.build());
+            }
+
+            int fkCount = in.readInt();
+            for (int i = 0; i < fkCount; i++) {
+                String name = readString(in);
+                DatabaseRelationDefinition referencedTable = tables.get(readIndex(in, tables.size()));
+                ForeignKeyConstraint.Builder builder = ForeignKeyConstraint.builder(table, referencedTable);
+                int componentCount = in.readInt();
+                for (int j = 0; j < componentCount; j++) {
+                    Attribute attribute = table.getAttribute(readIndex(in, table.getAttributes().size()) + 1);
+                    Attribute reference = referencedTable.getAttribute(
+                            readIndex(in, referencedTable.getAttributes().size()) + 1);
+                    builder.add(attribute, reference);
+                }
+                table.addForeignKeyConstraint(builder.build(name));
+            }
+        }
+
+        int viewCount = in.readInt();
+        for (int i = 0; i < viewCount; i++) {
+            String statement = readString(in);
+            int attributeCount = in.readInt();
+            ImmutableList.Builder<QuotedID> attributeBuilder = ImmutableList.builder();
+            for (int j = 0; j < attributeCount; j++)
+                attributeBuilder.add(readQuotedID(in));
+            metadata.createParserView(statement, attributeBuilder.build());
+        }
+
+        metadata.freeze();
+        return metadata;
+    }
+
+    /**
+     * Parser views are named after the counter of RDBMetadata: they are sorted by their creation order
+     */
+    private static ImmutableList<ParserViewDefinition> getParserViews(RDBMetadata metadata)
+            throws NotSerializableException {
+        List<ParserViewDefinition> views = metadata.relations.values().stream()
+                .filter(r -> r instanceof ParserViewDefinition)
+                .map(r -> (ParserViewDefinition) r)
+                .distinct()
+                .collect(toList());
+
+        int[] positions = new int[views.size()];
+        for (ParserViewDefinition view : views) {
+            Optional<Integer> position = getParserViewPosition(view);
+            if (!position.isPresent() || position.get() >= views.size() || positions[position.get()] != 0)
+                throw new NotSerializableException("Unexpected parser view " + view.getID());
+            positions[position.get()] = 1;
+        }
+        return views.stream()
+                .sorted(Comparator.comparing(v -> getParserViewPosition(v).get()))
+                .collect(ImmutableCollectors.toList());
+    }
+
+    private static Optional<Integer> getParserViewPosition(ParserViewDefinition view) {
+        Matcher matcher = PARSER_VIEW_NAME.matcher(view.getID().getTableName());
+        return matcher.matches()
+                ? Optional.of(Integer.parseInt(matcher.group(1)))
+                : Optional.empty();
+    }
+
+    private static void writeQuotedIDFactory(DataOutput out, QuotedIDFactory idfac) throws IOException {
+        if (idfac instanceof QuotedIDFactoryStandardSQL)
+            out.writeByte(STANDARD_SQL_ID_FACTORY);
+        else if (idfac instanceof QuotedIDFactoryLowerCase)
+            out.writeByte(LOWER_CASE_ID_FACTORY);
+        else if (idfac instanceof QuotedIDFactoryIdentity)
+            out.writeByte(IDENTITY_ID_FACTORY);
+        else if (idfac instanceof QuotedIDFactoryMySQL)
+            out.writeByte(MYSQL_ID_FACTORY);
+        else
+            throw new NotSerializableException(idfac.getClass().getName());
+
+        writeString(out, idfac.getIDQuotationString());
+        if (idfac instanceof QuotedIDFactoryMySQL)
+            out.writeBoolean(((QuotedIDFactoryMySQL) idfac).areTableNamesCaseSensitive());
+    }
+
+    private static QuotedIDFactory readQuotedIDFactory(DataInput in) throws IOException {
+        byte kind = in.readByte();
+        String quotationString = readString(in);
+        switch (kind) {
+            case STANDARD_SQL_ID_FACTORY:
+                return new QuotedIDFactoryStandardSQL(quotationString);
+            case LOWER_CASE_ID_FACTORY:
+                return new QuotedIDFactoryLowerCase(quotationString);
+            case IDENTITY_ID_FACTORY:
+                return new QuotedIDFactoryIdentity(quotationString);
+            case MYSQL_ID_FACTORY:
+                return new QuotedIDFactoryMySQL(in.readBoolean(), quotationString);
+            default:
+                throw new InvalidObjectException("Unknown QuotedIDFactory: " + kind);
+        }
+    }
+
+    private static void writeRelationID(DataOutput out, RelationID id) throws IOException {
+        writeQuotedID(out, id.getSchemaID());
+        writeQuotedID(out, id.getTableID());
+    }
+
+    private static RelationID readRelationID(DataInput in) throws IOException {
+        QuotedID schema = readQuotedID(in);
+        return new RelationID(schema, readQuotedID(in));
+    }
+
+    private static void writeQuotedID(DataOutput out, QuotedID id) throws IOException {
+        writeString(out, id.getName());
+        writeString(out, id.getQuoteString());
+        out.writeBoolean(id.isCaseSensitive());
+    }
+
+    private static QuotedID readQuotedID(DataInput in) throws IOException {
+        String name = readString(in);
+        String quoteString = readString(in);
+        return new QuotedID(name, quoteString, in.readBoolean());
+    }
+
+    /**
+     * Positions (starting at 0)
+     */
+    private static void writeAttributes(DataOutput out, Iterable<Attribute> attributes) throws IOException {
+        List<Attribute> list = ImmutableList.copyOf(attributes);
+        out.writeInt(list.size());
+        for (Attribute attribute : list)
+            out.writeInt(attribute.getIndex() - 1);
+    }
+
+    private static ImmutableList<Attribute> readAttributes(DataInput in, RelationDefinition relation)
+            throws IOException {
+        int count = in.readInt();
+        ImmutableList.Builder<Attribute> builder = ImmutableList.builder();
+        for (int i = 0; i < count; i++)
+            builder.add(relation.getAttribute(readIndex(in, relation.getAttributes().size()) + 1));
+        return builder.build();
+    }
+
+    private static int readIndex(DataInput in, int size) throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= size)
+            throw new InvalidObjectException("Invalid index: " + index);
+        return index;
+    }
+
+    /**
+     * Nullable strings of arbitrary length (not limited to 64KB like writeUTF)
+     */
+    private static void writeString(DataOutput out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        int length = in.readInt();
+        if (length < 0)
+            return null;
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,211 @@
+package it.unibz.inf.ontop.dbschema;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Types;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Assembly of the constraints from the rows of the catalog queries,
+ * with JDBC objects stubbed out (no database engine involved)
+ */
+public class BulkConstraintExtractorTest {
+
+	private RDBMetadata metadata;
+	private QuotedIDFactory idfac;
+	private DatabaseRelationDefinition table, referencing, other;
+
+	private final List<String> queries = new ArrayList<>();
+	private final List<List<Object>> parameters = new ArrayList<>();
+
+	@Before
+	public void setUp() {
+		metadata = OntopModelConfiguration.defaultBuilder().build().getInjector()
+				.getInstance(DummyRDBMetadata.class);
+		idfac = metadata.getQuotedIDFactory();
+
+		table = createRelation("PUBLIC", "T", "A", "B", "C");
+		referencing = createRelation("PUBLIC", "R", "X", "Y", "Z");
+		// not extracted
+		other = createRelation("OTHER", "T", "A");
+	}
+
+	@Test
+	public void testCompositeKeys() throws Exception {
+		Connection conn = createConnection(
+				ImmutableList.of(
+						// the rows are ordered by constraint name, then by position
+						row("PUBLIC", "R", "R_UNIQUE", "UNIQUE", "Z", 1),
+						row("PUBLIC", "T", "T_C_UNIQUE", "UNIQUE", "C", 1),
+						row("PUBLIC", "T", "T_PK", "PRIMARY KEY", "B", 1),
+						row("PUBLIC", "T", "T_PK", "PRIMARY KEY", "A", 2),
+						row("OTHER", "T", "OTHER_PK", "PRIMARY KEY", "A", 1)),
+				ImmutableList.of(
+						row("PUBLIC", "R", "R_FK", "Y", 1, "PUBLIC", "T", "B"),
+						row("PUBLIC", "R", "R_FK", "X", 2, "PUBLIC", "T", "A")));
+
+		BulkConstraintExtractor.getExtractor("MySQL").get()
+				.extract(conn, metadata, ImmutableList.of(table, referencing));
+
+		// the catalog tables are filtered by the schemas of the extracted relations
+		assertEquals(2, queries.size());
+		assertTrue(queries.get(0).contains("IN (?)"));
+		assertEquals(ImmutableList.of(ImmutableList.of("PUBLIC"), ImmutableList.of("PUBLIC")), parameters);
+
+		// primary key first, columns in the order of their positions in the key
+		ImmutableList<UniqueConstraint> ucs = table.getUniqueConstraints();
+		assertEquals(ImmutableList.of("T_PK", "T_C_UNIQUE"), ucs.stream()
+				.map(UniqueConstraint::getName)
+				.collect(ImmutableCollectors.toList()));
+		assertEquals(table.getPrimaryKey(), ucs.get(0));
+		assertTrue(ucs.get(0).isPrimaryKey());
+		assertEquals(ImmutableList.of("B", "A"), names(ucs.get(0).getAttributes()));
+		assertFalse(ucs.get(1).isPrimaryKey());
+		assertEquals(ImmutableList.of("C"), names(ucs.get(1).getAttributes()));
+
+		assertNull(referencing.getPrimaryKey());
+		assertEquals(ImmutableList.of("Z"), names(referencing.getUniqueConstraints().get(0).getAttributes()));
+
+		ImmutableList<ForeignKeyConstraint> fks = referencing.getForeignKeys();
+		assertEquals(1, fks.size());
+		assertEquals("R_FK", fks.get(0).getName());
+		assertSame(table, fks.get(0).getReferencedRelation());
+		assertEquals(ImmutableList.of("Y", "X"), fks.get(0).getComponents().stream()
+				.map(c -> c.getAttribute().getID().getName())
+				.collect(ImmutableCollectors.toList()));
+		assertEquals(ImmutableList.of("B", "A"), fks.get(0).getComponents().stream()
+				.map(c -> c.getReference().getID().getName())
+				.collect(ImmutableCollectors.toList()));
+		assertTrue(table.getForeignKeys().isEmpty());
+
+		// the relations that are not extracted are left untouched
+		assertTrue(other.getUniqueConstraints().isEmpty());
+	}
+
+	@Test
+	public void testIncompleteConstraints() throws Exception {
+		Connection conn = createConnection(
+				ImmutableList.of(
+						row("PUBLIC", "T", "T_PK", "P", "A", 1),
+						row("PUBLIC", "T", "T_UNIQUE", "U", "B", 1),
+						row("PUBLIC", "T", "T_UNIQUE", "U", "MISSING", 2)),
+				ImmutableList.of(
+						row("PUBLIC", "R", "R_FK", "X", 1, "PUBLIC", "T", "A"),
+						row("PUBLIC", "R", "R_FK", "MISSING", 2, "PUBLIC", "T", "B"),
+						row("PUBLIC", "R", "R_FK2", "Y", 1, "PUBLIC", "MISSING", "A")));
+
+		BulkConstraintExtractor.getExtractor("Oracle").get()
+				.extract(conn, metadata, ImmutableList.of(table, referencing));
+
+		assertEquals(ImmutableList.of("A"), names(table.getPrimaryKey().getAttributes()));
+		assertEquals(1, table.getUniqueConstraints().size());
+		assertTrue(referencing.getForeignKeys().isEmpty());
+	}
+
+	@Test
+	public void testNoSchema() throws Exception {
+		DatabaseRelationDefinition noSchema = createRelation(null, "S", "A");
+		Connection conn = createConnection(
+				ImmutableList.of(row(null, "S", "S_PK", "PRIMARY KEY", "A", 1)),
+				ImmutableList.of());
+
+		BulkConstraintExtractor.getExtractor("PostgreSQL 9.6").get()
+				.extract(conn, metadata, ImmutableList.of(table, noSchema));
+
+		assertFalse(queries.get(0).contains("IN (?)"));
+		assertEquals(ImmutableList.of(ImmutableList.of(), ImmutableList.of()), parameters);
+		assertEquals(ImmutableList.of("A"), names(noSchema.getPrimaryKey().getAttributes()));
+	}
+
+	@Test
+	public void testUnsupported() {
+		assertFalse(BulkConstraintExtractor.getExtractor("H2").isPresent());
+	}
+
+
+	private DatabaseRelationDefinition createRelation(String schema, String name, String... attributes) {
+		DatabaseRelationDefinition relation = metadata.createDatabaseRelation(
+				RelationID.createRelationIdFromDatabaseRecord(idfac, schema, name));
+		for (String attribute : attributes)
+			relation.addAttribute(QuotedID.createIdFromDatabaseRecord(idfac, attribute), Types.INTEGER, "INT", false);
+		return relation;
+	}
+
+	private static ImmutableList<String> names(ImmutableList<Attribute> attributes) {
+		return attributes.stream()
+				.map(a -> a.getID().getName())
+				.collect(ImmutableCollectors.toList());
+	}
+
+	private static List<Object> row(Object... values) {
+		return Arrays.asList(values);
+	}
+
+	/**
+	 * The first prepared statement returns the key rows, the second one the foreign key rows
+	 */
+	private Connection createConnection(List<List<Object>> keyRows, List<List<Object>> foreignKeyRows) {
+		Iterator<List<List<Object>>> results = ImmutableList.of(keyRows, foreignKeyRows).iterator();
+		return stub(Connection.class, (method, args) -> {
+			if (method.equals("prepareStatement")) {
+				queries.add((String) args[0]);
+				List<Object> params = new ArrayList<>();
+				parameters.add(params);
+				return createStatement(results.next(), params);
+			}
+			throw new UnsupportedOperationException(method);
+		});
+	}
+
+	private static PreparedStatement createStatement(List<List<Object>> rows, List<Object> params) {
+		return stub(PreparedStatement.class, (method, args) -> {
+			switch (method) {
+				case "setString":
+					params.add(args[1]);
+					return null;
+				case "executeQuery":
+					return createResultSet(rows);
+				case "close":
+					return null;
+				default:
+					throw new UnsupportedOperationException(method);
+			}
+		});
+	}
+
+	private static ResultSet createResultSet(List<List<Object>> rows) {
+		int[] current = { -1 };
+		return stub(ResultSet.class, (method, args) -> {
+			switch (method) {
+				case "next":
+					return ++current[0] < rows.size();
+				case "getString":
+					Object value = rows.get(current[0]).get((Integer) args[0] - 1);
+					return value == null ? null : value.toString();
+				case "close":
+					return null;
+				default:
+					throw new UnsupportedOperationException(method);
+			}
+		});
+	}
+
+	private interface Handler {
+		Object invoke(String method, Object[] args);
+	}
+
+	private static <T> T stub(Class<T> type, Handler handler) {
+		return type.cast(Proxy.newProxyInstance(BulkConstraintExtractorTest.class.getClassLoader(),
+				new Class<?>[] { type }, (proxy, method, args) -> handler.invoke(method.getName(), args)));
+	}
+}
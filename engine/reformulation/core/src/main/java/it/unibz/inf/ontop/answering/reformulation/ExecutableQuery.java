@@ -11,4 +11,9 @@ public interface ExecutableQuery {
      * TODO: is it needed in general?
      */
     ImmutableList<String> getSignature();
+
+    /**
+     * Native query (e.g. SQL) as sent to the DB, without the values of its parameters
+     */
+    String getNativeQueryString();
 }
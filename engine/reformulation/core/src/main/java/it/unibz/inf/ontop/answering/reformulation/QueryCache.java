@@ -1,6 +1,7 @@
 package it.unibz.inf.ontop.answering.reformulation;
 
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.exception.OntopReformulationException;
 
 /**
  * Cache of queries.
@@ -14,4 +15,27 @@ public interface QueryCache {
     void put(InputQuery inputQuery, ExecutableQuery executableQuery);
 
     void clear();
+
+    /**
+     * Returns the cached executable query or compiles it (and caches it).
+     *
+     * Implementations may guarantee that concurrent requests for equivalent queries only compile once.
+     * By default, no such guarantee is given.
+     */
+    default ExecutableQuery getOrCompile(InputQuery inputQuery, QueryCompiler compiler)
+            throws OntopReformulationException {
+        ExecutableQuery cachedQuery = get(inputQuery);
+        if (cachedQuery != null)
+            return cachedQuery;
+
+        ExecutableQuery executableQuery = compiler.compile(inputQuery);
+        put(inputQuery, executableQuery);
+        return executableQuery;
+    }
+
+
+    @FunctionalInterface
+    interface QueryCompiler {
+        ExecutableQuery compile(InputQuery inputQuery) throws OntopReformulationException;
+    }
 }
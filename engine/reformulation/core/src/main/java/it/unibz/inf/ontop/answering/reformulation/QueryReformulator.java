@@ -3,11 +3,20 @@ package it.unibz.inf.ontop.answering.reformulation;
 
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.report.QueryExecutionRecorder;
 import it.unibz.inf.ontop.exception.OntopReformulationException;
 
 public interface QueryReformulator {
 
-    ExecutableQuery reformulateIntoNativeQuery(InputQuery inputQuery) throws OntopReformulationException;
+    default ExecutableQuery reformulateIntoNativeQuery(InputQuery inputQuery) throws OntopReformulationException {
+        return reformulateIntoNativeQuery(inputQuery, new QueryExecutionRecorder(inputQuery.getInputString(), false));
+    }
+
+    /**
+     * Records the phase timings, the sizes of the intermediate queries and the native query
+     */
+    ExecutableQuery reformulateIntoNativeQuery(InputQuery inputQuery, QueryExecutionRecorder recorder)
+            throws OntopReformulationException;
 
     /**
      * For analysis purposes
@@ -21,8 +21,10 @@ package it.unibz.inf.ontop.answering.reformulation.generation;
  */
 
 import java.io.Serializable;
+import java.util.Optional;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import it.unibz.inf.ontop.exception.OntopReformulationException;
 import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
 import it.unibz.inf.ontop.iq.IntermediateQuery;
@@ -42,4 +44,20 @@ public interface NativeQueryGenerator extends Serializable {
 			throws OntopReformulationException;
 
 	ExecutableQuery generateEmptyQuery(ImmutableList<String> signature);
+
+	/**
+	 * Restricts the executable query of a query template to the solutions where the parameter variables
+	 * are bound to the given IRIs, and projects the given variables.
+	 *
+	 * Several rows of IRIs may be given (like in a VALUES clause): the solutions matching one of them are kept.
+	 *
+	 * The IRIs are turned into parameters of the native query: its string only depends on which
+	 * IRI templates of the template query they match (and, for several rows, on how many rows match each of them).
+	 *
+	 * Returns empty if the template query does not allow it (e.g. the IRI template of a parameter variable
+	 * cannot be inverted).
+	 */
+	Optional<ExecutableQuery> generateParameterizedQuery(ExecutableQuery templateQuery,
+											   ImmutableList<String> projectedVariables,
+											   ImmutableList<ImmutableMap<String, String>> iriParameters);
 }
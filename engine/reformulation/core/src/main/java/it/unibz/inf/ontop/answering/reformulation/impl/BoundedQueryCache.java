@@ -0,0 +1,159 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ExecutionError;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
+import it.unibz.inf.ontop.answering.reformulation.QueryCache;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.exception.OntopReformulationException;
+import it.unibz.inf.ontop.injection.OntopReformulationSettings;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache keyed on the normalized form of the input queries (see {@link InputQuery#getNormalizedForm()}).
+ *
+ * Bounded both by a number of entries and by a total weight (number of characters of the normalized
+ * and of the native queries). Both bounds are enforced through a single weigher: each entry weighs at least
+ * maxWeight/maxEntries.
+ *
+ * Concurrent requests for the same normalized query are compiled only once.
+ *
+ * Thread-safe.
+ */
+@Singleton
+public class BoundedQueryCache implements QueryCache {
+
+    private final Cache<String, CacheEntry> cache;
+
+    @Inject
+    private BoundedQueryCache(OntopReformulationSettings settings) {
+        this(settings.getQueryCacheMaxEntries(), settings.getQueryCacheMaxWeight());
+    }
+
+    BoundedQueryCache(int maxEntries, int maxWeight) {
+        if (maxEntries < 1 || maxWeight < 1)
+            throw new IllegalArgumentException("The bounds of the query cache must be positive");
+
+        int minEntryWeight = (int) Math.max(1, Math.ceil((double) maxWeight / maxEntries));
+        cache = CacheBuilder.newBuilder()
+                .maximumWeight(maxWeight)
+                .weigher((String k, CacheEntry e) -> Math.max(minEntryWeight, k.length() + e.getWeight()))
+                .recordStats()
+                .build();
+    }
+
+    @Override
+    public ExecutableQuery get(InputQuery inputQuery) {
+        CacheEntry entry = cache.getIfPresent(inputQuery.getNormalizedForm());
+        return entry == null ? null : entry.hit();
+    }
+
+    @Override
+    public void put(InputQuery inputQuery, ExecutableQuery executableQuery) {
+        cache.put(inputQuery.getNormalizedForm(), new CacheEntry(executableQuery, 0));
+    }
+
+    @Override
+    public void clear() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public ExecutableQuery getOrCompile(InputQuery inputQuery, QueryCompiler compiler)
+            throws OntopReformulationException {
+        CacheEntry[] compiledEntry = new CacheEntry[1];
+        try {
+            CacheEntry entry = cache.get(inputQuery.getNormalizedForm(), () -> {
+                long startTime = System.nanoTime();
+                ExecutableQuery executableQuery = compiler.compile(inputQuery);
+                compiledEntry[0] = new CacheEntry(executableQuery, System.nanoTime() - startTime);
+                return compiledEntry[0];
+            });
+            // Not a hit if compiled by this thread
+            return entry == compiledEntry[0]
+                    ? entry.getExecutableQuery()
+                    : entry.hit();
+        } catch (ExecutionException e) {
+            // The only checked exception thrown by the compiler
+            throw (OntopReformulationException) e.getCause();
+        } catch (UncheckedExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        } catch (ExecutionError e) {
+            throw (Error) e.getCause();
+        }
+    }
+
+    /**
+     * Global statistics (hits, misses, loading time, evictions)
+     */
+    public CacheStats getStatistics() {
+        return cache.stats();
+    }
+
+    /**
+     * Statistics of the entries currently in the cache, indexed by normalized query
+     */
+    public ImmutableMap<String, EntryStatistics> getEntryStatistics() {
+        return cache.asMap().entrySet().stream()
+                .collect(ImmutableCollectors.toMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public long size() {
+        return cache.size();
+    }
+
+    public interface EntryStatistics {
+
+        long getHitCount();
+
+        /**
+         * 0 when the entry has been directly put in the cache
+         */
+        long getCompilationTimeNanos();
+    }
+
+    private static class CacheEntry implements EntryStatistics {
+        private final ExecutableQuery executableQuery;
+        private final long compilationTimeNanos;
+        private final AtomicLong hitCount;
+
+        private CacheEntry(ExecutableQuery executableQuery, long compilationTimeNanos) {
+            this.executableQuery = executableQuery;
+            this.compilationTimeNanos = compilationTimeNanos;
+            this.hitCount = new AtomicLong();
+        }
+
+        ExecutableQuery getExecutableQuery() {
+            return executableQuery;
+        }
+
+        ExecutableQuery hit() {
+            hitCount.incrementAndGet();
+            return executableQuery;
+        }
+
+        int getWeight() {
+            return executableQuery.toString().length();
+        }
+
+        @Override
+        public long getHitCount() {
+            return hitCount.get();
+        }
+
+        @Override
+        public long getCompilationTimeNanos() {
+            return compilationTimeNanos;
+        }
+    }
+}
@@ -10,10 +10,13 @@ import it.unibz.inf.ontop.answering.reformulation.QueryReformulator;
 import it.unibz.inf.ontop.answering.reformulation.generation.NativeQueryGenerator;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.translation.InputQueryTranslator;
 import it.unibz.inf.ontop.answering.reformulation.rewriting.QueryRewriter;
 import it.unibz.inf.ontop.answering.reformulation.rewriting.SameAsRewriter;
 import it.unibz.inf.ontop.answering.reformulation.unfolding.QueryUnfolder;
+import it.unibz.inf.ontop.answering.report.QueryExecutionRecorder;
+import it.unibz.inf.ontop.answering.report.QueryPlanTracer;
 import it.unibz.inf.ontop.datalog.*;
 import it.unibz.inf.ontop.datalog.impl.CQCUtilities;
 import it.unibz.inf.ontop.dbschema.DBMetadata;
@@ -22,6 +25,7 @@ import it.unibz.inf.ontop.exception.OntopReformulationException;
 import it.unibz.inf.ontop.injection.OntopReformulationSettings;
 import it.unibz.inf.ontop.injection.TranslationFactory;
 import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
 import it.unibz.inf.ontop.iq.IntermediateQuery;
 import it.unibz.inf.ontop.iq.exception.EmptyQueryException;
 import it.unibz.inf.ontop.iq.optimizer.*;
@@ -36,7 +40,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.List;
+import java.util.Optional;
 
+import static it.unibz.inf.ontop.answering.report.ReformulationPhase.*;
 import static it.unibz.inf.ontop.model.atom.PredicateConstants.ONTOP_QUERY;
 
 /**
@@ -69,6 +75,7 @@ public class QuestQueryProcessor implements QueryReformulator {
 	private final CQCUtilities cqcUtilities;
 	private final PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer;
 	private final IQConverter iqConverter;
+	private final QueryPlanTracer planTracer;
 
 	@AssistedInject
 	private QuestQueryProcessor(@Assisted OBDASpecification obdaSpecification,
@@ -85,7 +92,7 @@ public class QuestQueryProcessor implements QueryReformulator {
 								EQNormalizer eqNormalizer, UnifierUtilities unifierUtilities,
 								SubstitutionUtilities substitutionUtilities, CQCUtilities cqcUtilities,
 								PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer,
-								IQConverter iqConverter) {
+								IQConverter iqConverter, QueryPlanTracer planTracer) {
 		this.bindingLiftOptimizer = bindingLiftOptimizer;
 		this.settings = settings;
 		this.joinLikeOptimizer = joinLikeOptimizer;
@@ -99,6 +106,7 @@ public class QuestQueryProcessor implements QueryReformulator {
 		this.cqcUtilities = cqcUtilities;
 		this.pullUpExpressionOptimizer = pullUpExpressionOptimizer;
 		this.iqConverter = iqConverter;
+		this.planTracer = planTracer;
 		this.rewriter = queryRewriter;
 
 		this.rewriter.setTBox(obdaSpecification.getSaturatedTBox());
@@ -126,13 +134,13 @@ public class QuestQueryProcessor implements QueryReformulator {
 		log.info("Ontop has completed the setup and it is ready for query answering!");
 	}
 
-	private DatalogProgram preProcess(InternalSparqlQuery translation) throws OntopInvalidInputQueryException {
+	DatalogProgram preProcess(InternalSparqlQuery translation) throws OntopInvalidInputQueryException {
 		DatalogProgram program = translation.getProgram();
-		log.debug("Datalog program translated from the SPARQL query: \n{}", program);
+		planTracer.trace("Datalog program translated from the SPARQL query", program);
 
 		if(settings.isSameAsInMappingsEnabled()){
 			program = sameAsRewriter.getSameAsRewriting(program);
-			log.debug("Datalog program after SameAs rewriting \n{}", program);
+			planTracer.trace("Datalog program after SameAs rewriting", program);
 		}
 
 		log.debug("Replacing equivalences...");
@@ -159,7 +167,7 @@ public class QuestQueryProcessor implements QueryReformulator {
 			eqNormalizer.enforceEqualities(q);
 			datalogNormalizer.unfoldJoinTrees(q);
 		}
-		log.debug("Normalized program: \n{}", newprogram);
+		planTracer.trace("Normalized program", newprogram);
 
 		if (newprogram.getRules().isEmpty())
 			throw new OntopInvalidInputQueryException("Error, the translation of the query generated 0 rules. " +
@@ -171,68 +179,79 @@ public class QuestQueryProcessor implements QueryReformulator {
 
 
 	@Override
-	public ExecutableQuery reformulateIntoNativeQuery(InputQuery inputQuery)
+	public ExecutableQuery reformulateIntoNativeQuery(InputQuery inputQuery, QueryExecutionRecorder recorder)
 			throws OntopReformulationException {
+		// Set to false if the query is reformulated
+		recorder.setCacheHit(true);
+		ExecutableQuery executableQuery = reformulateIntoNativeQuery(inputQuery, q -> reformulate(q, recorder));
+		recorder.onReformulated(executableQuery.getNativeQueryString());
+		return executableQuery;
+	}
+
+	private ExecutableQuery reformulateIntoNativeQuery(InputQuery inputQuery, QueryCache.QueryCompiler compiler)
+			throws OntopReformulationException {
+		Optional<ParameterizedInputQuery> parameterizedQuery = inputQuery.getParameterizedForm();
+		if (parameterizedQuery.isPresent()
+				&& (settings.isBindingParameterizationEnabled() || !parameterizedQuery.get().isFromExternalBindings())) {
+			Optional<ExecutableQuery> executableQuery = reformulateParameterizedQuery(parameterizedQuery.get(),
+					compiler);
+			if (executableQuery.isPresent())
+				return executableQuery.get();
+		}
+		return queryCache.getOrCompile(inputQuery, compiler);
+	}
 
-		ExecutableQuery cachedQuery = queryCache.get(inputQuery);
-		if (cachedQuery != null)
-			return cachedQuery;
+	/**
+	 * The template is reformulated (and cached) once for all the values of the parameters
+	 *
+	 * Returns empty if the native query of the template cannot be restricted by parameters.
+	 */
+	private Optional<ExecutableQuery> reformulateParameterizedQuery(ParameterizedInputQuery parameterizedQuery,
+																	QueryCache.QueryCompiler compiler)
+			throws OntopReformulationException {
+		ExecutableQuery templateQuery = queryCache.getOrCompile(parameterizedQuery.getTemplate(), compiler);
+		Optional<ExecutableQuery> executableQuery = datasourceQueryGenerator.generateParameterizedQuery(templateQuery,
+				parameterizedQuery.getProjectedVariables(), parameterizedQuery.getIRIParameters());
+		executableQuery.ifPresent(q -> log.debug("Parameterized native query: \n{}", q));
+		return executableQuery;
+	}
 
+	private ExecutableQuery reformulate(InputQuery inputQuery, QueryExecutionRecorder recorder)
+			throws OntopReformulationException {
+		recorder.setCacheHit(false);
 		try {
-			InternalSparqlQuery translation = inputQuery.translate(inputQueryTranslator);
-			DatalogProgram newprogram = preProcess(translation);
+			long start = System.nanoTime();
+			InternalSparqlQuery translation = translate(inputQuery);
+			recorder.recordPhase(TRANSLATION, start);
 
-			log.debug("Start the rewriting process...");
+			start = System.nanoTime();
+			DatalogProgram program = preProcess(translation);
+			recorder.recordPhase(NORMALIZATION, start);
 
-			DatalogProgram programAfterRewriting = datalogFactory.getDatalogProgram(
-					newprogram.getQueryModifiers(),
-					rewriter.rewrite(newprogram.getRules()));
+			start = System.nanoTime();
+			DatalogProgram programAfterRewriting = rewrite(program);
+			recorder.recordPhase(REWRITING, start);
+			recorder.setUCQSizeAfterRewriting(programAfterRewriting.getRules().size());
 
 			try {
-				IQ convertedIQ =  datalogConverter.convertDatalogProgram(programAfterRewriting, ImmutableList.of());
-
-				log.debug("Directly translated (SPARQL) IQ: \n" + convertedIQ.toString());
-
-				log.debug("Start the unfolding...");
-
-				IQ unfoldedIQ = queryUnfolder.optimize(convertedIQ);
-				if (unfoldedIQ.getTree().isDeclaredAsEmpty())
-					throw new EmptyQueryException();
-				log.debug("Unfolded query: \n" + unfoldedIQ.toString());
-
-				// Non-final
-				IntermediateQuery intermediateQuery = iqConverter.convert(unfoldedIQ, dbMetadata, executorRegistry);
-
-				//lift bindings and union when it is possible
-				intermediateQuery = bindingLiftOptimizer.optimize(intermediateQuery);
-				log.debug("New query after substitution lift optimization: \n" + intermediateQuery.toString());
-
-				log.debug("New lifted query: \n" + intermediateQuery.toString());
-
-				intermediateQuery = pullUpExpressionOptimizer.optimize(intermediateQuery);
-				log.debug("After pushing up boolean expressions: \n" + intermediateQuery.toString());
-
-				intermediateQuery = new ProjectionShrinkingOptimizer().optimize(intermediateQuery);
-
-				log.debug("After projection shrinking: \n" + intermediateQuery.toString());
+				start = System.nanoTime();
+				IQ convertedIQ = convert(programAfterRewriting);
+				recorder.recordPhase(IQ_CONVERSION, start);
 
+				start = System.nanoTime();
+				IQ unfoldedIQ = unfold(convertedIQ);
+				recorder.recordPhase(UNFOLDING, start);
+				if (recorder.isMeasuringSizes())
+					recorder.setUnfoldedIQSize(countNodes(unfoldedIQ.getTree()));
 
-				intermediateQuery = joinLikeOptimizer.optimize(intermediateQuery);
-				log.debug("New query after fixed point join optimization: \n" + intermediateQuery.toString());
-
-				intermediateQuery = flattenUnionOptimizer.optimize(intermediateQuery);
-				log.debug("New query after flattening Unions: \n" + intermediateQuery.toString());
-//				BasicLeftJoinOptimizer leftJoinOptimizer = new BasicLeftJoinOptimizer();
-//				intermediateQuery = leftJoinOptimizer.optimize(intermediateQuery);
-//				log.debug("New query after left join optimization: \n" + intermediateQuery.toString());
-//
-//				BasicJoinOptimizer joinOptimizer = new BasicJoinOptimizer();
-//				intermediateQuery = joinOptimizer.optimize(intermediateQuery);
-//				log.debug("New query after join optimization: \n" + intermediateQuery.toString());
+				IntermediateQuery intermediateQuery = optimize(unfoldedIQ, recorder);
+				if (recorder.isMeasuringSizes())
+					recorder.setOptimizedIQSize(intermediateQuery.getNodesInTopDownOrder().size());
 
+				start = System.nanoTime();
 				ExecutableQuery executableQuery = generateExecutableQuery(intermediateQuery,
 						ImmutableList.copyOf(translation.getSignature()));
-				queryCache.put(inputQuery, executableQuery);
+				recorder.recordPhase(NATIVE_QUERY_GENERATION, start);
 				return executableQuery;
 
 			}
@@ -244,7 +263,6 @@ public class QuestQueryProcessor implements QueryReformulator {
 						ImmutableList.copyOf(translation.getSignature()));
 
 				log.debug("Empty query --> no solution.");
-				queryCache.put(inputQuery, emptyQuery);
 				return emptyQuery;
 			}
 
@@ -264,13 +282,95 @@ public class QuestQueryProcessor implements QueryReformulator {
 		}
 	}
 
-	private ExecutableQuery generateExecutableQuery(IntermediateQuery intermediateQuery, ImmutableList<String> signature)
+	/*
+	 * Stages of the reformulation (package-private for the benchmarks)
+	 */
+
+	InternalSparqlQuery translate(InputQuery inputQuery) throws OntopReformulationException {
+		return inputQuery.translate(inputQueryTranslator);
+	}
+
+	DatalogProgram rewrite(DatalogProgram program) throws OntopReformulationException {
+		log.debug("Start the rewriting process...");
+
+		return datalogFactory.getDatalogProgram(
+				program.getQueryModifiers(),
+				rewriter.rewrite(program.getRules()));
+	}
+
+	IQ convert(DatalogProgram programAfterRewriting) throws EmptyQueryException {
+		IQ convertedIQ =  datalogConverter.convertDatalogProgram(programAfterRewriting, ImmutableList.of());
+
+		planTracer.trace("Directly translated (SPARQL) IQ", convertedIQ);
+		return convertedIQ;
+	}
+
+	IQ unfold(IQ convertedIQ) throws EmptyQueryException {
+		log.debug("Start the unfolding...");
+
+		IQ unfoldedIQ = queryUnfolder.optimize(convertedIQ);
+		if (unfoldedIQ.getTree().isDeclaredAsEmpty())
+			throw new EmptyQueryException();
+		planTracer.trace("Unfolded query", unfoldedIQ);
+		return unfoldedIQ;
+	}
+
+	IntermediateQuery optimize(IQ unfoldedIQ, QueryExecutionRecorder recorder) throws EmptyQueryException {
+		long start = System.nanoTime();
+		// Non-final
+		IntermediateQuery intermediateQuery = iqConverter.convert(unfoldedIQ, dbMetadata, executorRegistry);
+		recorder.recordPhase(INTERMEDIATE_QUERY_CONVERSION, start);
+
+		//lift bindings and union when it is possible
+		start = System.nanoTime();
+		intermediateQuery = bindingLiftOptimizer.optimize(intermediateQuery);
+		recorder.recordPhase(BINDING_LIFT, start);
+		planTracer.trace("New query after substitution lift optimization", intermediateQuery);
+
+		start = System.nanoTime();
+		intermediateQuery = pullUpExpressionOptimizer.optimize(intermediateQuery);
+		recorder.recordPhase(BOOLEAN_EXPRESSION_PUSH_UP, start);
+		planTracer.trace("After pushing up boolean expressions", intermediateQuery);
+
+		start = System.nanoTime();
+		intermediateQuery = new ProjectionShrinkingOptimizer().optimize(intermediateQuery);
+		recorder.recordPhase(PROJECTION_SHRINKING, start);
+
+		planTracer.trace("After projection shrinking", intermediateQuery);
+
+
+		start = System.nanoTime();
+		intermediateQuery = joinLikeOptimizer.optimize(intermediateQuery);
+		recorder.recordPhase(JOIN_OPTIMIZATION, start);
+		planTracer.trace("New query after fixed point join optimization", intermediateQuery);
+
+		start = System.nanoTime();
+		intermediateQuery = flattenUnionOptimizer.optimize(intermediateQuery);
+		recorder.recordPhase(UNION_FLATTENING, start);
+		planTracer.trace("New query after flattening Unions", intermediateQuery);
+//		BasicLeftJoinOptimizer leftJoinOptimizer = new BasicLeftJoinOptimizer();
+//		intermediateQuery = leftJoinOptimizer.optimize(intermediateQuery);
+//		log.debug("New query after left join optimization: \n" + intermediateQuery.toString());
+//
+//		BasicJoinOptimizer joinOptimizer = new BasicJoinOptimizer();
+//		intermediateQuery = joinOptimizer.optimize(intermediateQuery);
+//		log.debug("New query after join optimization: \n" + intermediateQuery.toString());
+		return intermediateQuery;
+	}
+
+	private static int countNodes(IQTree tree) {
+		return 1 + tree.getChildren().stream()
+				.mapToInt(QuestQueryProcessor::countNodes)
+				.sum();
+	}
+
+	ExecutableQuery generateExecutableQuery(IntermediateQuery intermediateQuery, ImmutableList<String> signature)
 			throws OntopReformulationException {
 		log.debug("Producing the native query string...");
 
 		ExecutableQuery executableQuery = datasourceQueryGenerator.generateSourceQuery(intermediateQuery, signature);
 
-		log.debug("Resulting native query: \n{}", executableQuery);
+		planTracer.trace("Resulting native query", executableQuery);
 
 		return executableQuery;
 	}
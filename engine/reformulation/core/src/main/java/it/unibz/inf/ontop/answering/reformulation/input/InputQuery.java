@@ -7,6 +7,8 @@ import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
 import it.unibz.inf.ontop.answering.resultset.OBDAResultSet;
 import it.unibz.inf.ontop.datalog.InternalSparqlQuery;
 
+import java.util.Optional;
+
 /**
  * Must throw an OntopInvalidInputQueryException at CONSTRUCTION time if the input query is invalid.
  *
@@ -17,6 +19,21 @@ public interface InputQuery<R extends OBDAResultSet> {
 
     String getInputString();
 
+    /**
+     * Canonical form of the query, insensitive to whitespace, prefixes and to the naming of internal variables.
+     *
+     * Two input queries sharing the same normalized form are reformulated into the same executable query.
+     */
+    String getNormalizedForm();
+
+    /**
+     * Present when the query comes with IRIs bound to some of its variables and when these bindings
+     * can be equivalently applied on top of the query without bindings.
+     */
+    default Optional<ParameterizedInputQuery> getParameterizedForm() {
+        return Optional.empty();
+    }
+
     /**
      * TODO: return an IntermediateQuery instead!
      */
@@ -3,6 +3,8 @@ package it.unibz.inf.ontop.answering.reformulation.input;
 import it.unibz.inf.ontop.exception.OntopInvalidInputQueryException;
 import it.unibz.inf.ontop.exception.OntopUnsupportedInputQueryException;
 
+import java.util.Collection;
+
 /**
  * NB: NOT USED by the Ontop RDF4J repository
  */
@@ -20,6 +22,16 @@ public interface InputQueryFactory {
 
     DescribeQuery createDescribeQuery(String queryString) throws OntopInvalidInputQueryException;
 
+    /**
+     * CONSTRUCT query describing the given resources in the subject position (or in the object position),
+     * as done for evaluating a DESCRIBE query.
+     *
+     * Its parameterized form does not depend on the resources (see {@link InputQuery#getParameterizedForm()}):
+     * it is reformulated once for all the batches of resources.
+     */
+    ConstructQuery createDescribeConstructQuery(Collection<String> iris, boolean isSubjectPosition)
+            throws OntopInvalidInputQueryException;
+
     //-----------------
     // Generic types
     //-----------------
@@ -0,0 +1,38 @@
+package it.unibz.inf.ontop.answering.reformulation.input;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Input query whose bindings have been kept apart from the query itself.
+ *
+ * The template does not depend on the bound values: it can be reformulated once and then be restricted
+ * to the solutions where the parameter variables take the given IRIs.
+ */
+public interface ParameterizedInputQuery {
+
+    /**
+     * Query without bindings, projecting the parameter variables in addition to the projected ones.
+     */
+    InputQuery getTemplate();
+
+    /**
+     * Variables projected by the original query (in the order of the signature)
+     */
+    ImmutableList<String> getProjectedVariables();
+
+    /**
+     * Rows of parameter variable -> IRI, all binding the same variables.
+     *
+     * Like in a VALUES clause, the solutions matching one of the rows are kept.
+     */
+    ImmutableList<ImmutableMap<String, String>> getIRIParameters();
+
+    /**
+     * True if the parameters are the bindings given with the query: it is then only reformulated through this form
+     * if enabled (see OntopReformulationSettings.isBindingParameterizationEnabled()).
+     *
+     * False for the parameters introduced by Ontop itself (e.g. the resources of a DESCRIBE query).
+     */
+    boolean isFromExternalBindings();
+}
@@ -1,5 +1,6 @@
 package it.unibz.inf.ontop.answering.reformulation.input;
 
+import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
 
 /**
@@ -12,6 +13,14 @@ public interface RDF4JInputQueryFactory {
      */
     SelectQuery createSelectQuery(String queryString, ParsedQuery parsedQuery);
 
+    /**
+     * The query string and the parsed query do NOT include the bindings.
+     *
+     * The bindings are inlined on demand, unless the query is reformulated through its parameterized form
+     * (see {@link InputQuery#getParameterizedForm()}).
+     */
+    SelectQuery createSelectQuery(String queryString, ParsedQuery parsedQuery, BindingSet bindings, String baseIRI);
+
     /**
      * TODO: support bindings
      */
@@ -20,6 +20,10 @@ package it.unibz.inf.ontop.answering.reformulation.input;
  * #L%
  */
 
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.model.Literal;
+import org.eclipse.rdf4j.model.Value;
+import org.eclipse.rdf4j.query.BindingSet;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.algebra.TupleExpr;
 import org.eclipse.rdf4j.query.parser.ParsedBooleanQuery;
@@ -28,6 +32,8 @@ import org.eclipse.rdf4j.query.parser.ParsedQuery;
 import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
 import org.eclipse.rdf4j.query.parser.sparql.SPARQLParser;
 
+import java.util.Collection;
+
 public class SPARQLQueryUtility {
 	
 	private String query;
@@ -182,6 +188,39 @@ public class SPARQLQueryUtility {
 				+ constant + "> ?p ?o}";
 	}
 	
+	/**
+	 * All the triples (template of the queries describing resources)
+	 */
+	public static String getConstructTripleQuery() {
+		return "CONSTRUCT { ?s ?p ?o } WHERE { ?s ?p ?o }";
+	}
+
+	/**
+	 * Describes several resources at once: the constants are given in a VALUES clause
+	 */
+	public static String getConstructObjQuery(Collection<String> constants) {
+		if (constants.size() == 1)
+			return getConstructObjQuery(constants.iterator().next());
+		return "CONSTRUCT { ?s ?p ?o } WHERE { " + getValuesClause("?o", constants) + " ?s ?p ?o }";
+	}
+
+	/**
+	 * Describes several resources at once: the constants are given in a VALUES clause
+	 */
+	public static String getConstructSubjQuery(Collection<String> constants) {
+		if (constants.size() == 1)
+			return getConstructSubjQuery(constants.iterator().next());
+		return "CONSTRUCT { ?s ?p ?o } WHERE { " + getValuesClause("?s", constants) + " ?s ?p ?o }";
+	}
+
+	private static String getValuesClause(String variable, Collection<String> constants) {
+		StringBuilder sb = new StringBuilder("VALUES ").append(variable).append(" {");
+		for (String constant : constants) {
+			sb.append(" <").append(constant).append(">");
+		}
+		return sb.append(" }").toString();
+	}
+	
 	public static String getSelectObjQuery(String constant) {
 		return "SELECT * WHERE { ?s ?p <" + constant + "> }";
 }
@@ -202,4 +241,61 @@ public class SPARQLQueryUtility {
 			strquery = bf.toString();
 		return strquery;
 	}
+
+	/**
+	 * Replaces the bound variables by their values in the query string.
+	 * The bound variables are removed from the SELECT clause.
+	 *
+	 * Copied from org.eclipse.rdf4j.repository.sparql.query.SPARQLOperation
+	 */
+	public static String inlineBindings(String query, BindingSet bindings) {
+		if (bindings.size() == 0)
+			return query;
+		int b = query.indexOf('{');
+		String select = query.substring(0, b);
+		String where = query.substring(b);
+		for (String name : bindings.getBindingNames()) {
+			String replacement = getReplacement(bindings.getValue(name));
+			if (replacement != null) {
+				String pattern = "[\\?\\$]" + name + "(?=\\W)";
+				select = select.replaceAll(pattern, "");
+				where = where.replaceAll(pattern, replacement);
+			}
+		}
+		return select + where;
+	}
+
+	private static String getReplacement(Value value) {
+		StringBuilder sb = new StringBuilder();
+		if (value instanceof IRI) {
+			return appendValue(sb, (IRI) value).toString();
+		} else if (value instanceof Literal) {
+			return appendValue(sb, (Literal) value).toString();
+		} else {
+			throw new IllegalArgumentException(
+					"BNode references not supported by SPARQL end-points");
+		}
+	}
+
+	private static StringBuilder appendValue(StringBuilder sb, IRI uri) {
+		sb.append("<").append(uri.stringValue()).append(">");
+		return sb;
+	}
+
+	private static StringBuilder appendValue(StringBuilder sb, Literal lit) {
+		sb.append('"');
+		sb.append(lit.getLabel().replace("\"", "\\\""));
+		sb.append('"');
+
+		if (lit.getLanguage().isPresent()) {
+			sb.append('@');
+			sb.append(lit.getLanguage().get());
+		}
+		else if (lit.getDatatype() != null) {
+			sb.append("^^<");
+			sb.append(lit.getDatatype().stringValue());
+			sb.append('>');
+		}
+		return sb;
+	}
 }
@@ -9,14 +9,21 @@ import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.eclipse.rdf4j.query.QueryLanguage;
 import org.eclipse.rdf4j.query.parser.*;
 
+import java.util.Collection;
+
 
 public class InputQueryFactoryImpl implements InputQueryFactory {
 
     private final RDF4JInputQueryFactory rdf4jFactory;
+    // Template of the queries describing resources
+    private final ConstructQuery describeTemplate;
 
     @Inject
     private InputQueryFactoryImpl(RDF4JInputQueryFactory rdf4jFactory) {
         this.rdf4jFactory = rdf4jFactory;
+        String templateString = SPARQLQueryUtility.getConstructTripleQuery();
+        this.describeTemplate = rdf4jFactory.createConstructQuery(templateString,
+                QueryParserUtil.parseQuery(QueryLanguage.SPARQL, templateString, null));
     }
 
     @Override
@@ -59,6 +66,16 @@ public class InputQueryFactoryImpl implements InputQueryFactory {
             throw new OntopInvalidInputQueryException("Not a valid DESCRIBE query: " + queryString);
     }
 
+    @Override
+    public ConstructQuery createDescribeConstructQuery(Collection<String> iris, boolean isSubjectPosition)
+            throws OntopInvalidInputQueryException {
+        String queryString = isSubjectPosition
+                ? SPARQLQueryUtility.getConstructSubjQuery(iris)
+                : SPARQLQueryUtility.getConstructObjQuery(iris);
+        return new RDF4JDescribeConstructQuery(queryString, parseQueryString(queryString), describeTemplate,
+                isSubjectPosition ? "s" : "o", iris);
+    }
+
     @Override
     public SPARQLQuery createSPARQLQuery(String queryString)
             throws OntopInvalidInputQueryException, OntopUnsupportedInputQueryException {
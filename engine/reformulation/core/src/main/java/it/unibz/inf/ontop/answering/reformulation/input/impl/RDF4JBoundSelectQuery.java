@@ -0,0 +1,88 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.SPARQLQueryUtility;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.model.IRI;
+import org.eclipse.rdf4j.query.Binding;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.QueryLanguage;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+import org.eclipse.rdf4j.query.parser.QueryParserUtil;
+
+import java.util.Optional;
+import java.util.stream.StreamSupport;
+
+/**
+ * SELECT query with external bindings.
+ *
+ * The bindings are only inlined (in the query string, which is then re-parsed) when needed.
+ */
+class RDF4JBoundSelectQuery extends RDF4JSelectQuery {
+
+    private final BindingSet bindings;
+    private final String baseIRI;
+
+    // Lazy (benign races)
+    private String inlinedQueryString;
+    private ParsedQuery inlinedParsedQuery;
+    private Optional<ParameterizedInputQuery> parameterizedForm;
+
+    /**
+     * The query string and the parsed query do not include the bindings
+     */
+    RDF4JBoundSelectQuery(ParsedQuery parsedQuery, String queryString, BindingSet bindings, String baseIRI) {
+        super(parsedQuery, queryString);
+        this.bindings = bindings;
+        this.baseIRI = baseIRI;
+    }
+
+    @Override
+    public String getInputString() {
+        if (inlinedQueryString == null)
+            inlinedQueryString = SPARQLQueryUtility.inlineBindings(super.getInputString(), bindings);
+        return inlinedQueryString;
+    }
+
+    @Override
+    protected ParsedQuery getParsedQuery() {
+        if (inlinedParsedQuery == null)
+            inlinedParsedQuery = QueryParserUtil.parseQuery(QueryLanguage.SPARQL, getInputString(), baseIRI);
+        return inlinedParsedQuery;
+    }
+
+    @Override
+    public Optional<ParameterizedInputQuery> getParameterizedForm() {
+        if (parameterizedForm == null)
+            parameterizedForm = computeParameterizedForm();
+        return parameterizedForm;
+    }
+
+    private Optional<ParameterizedInputQuery> computeParameterizedForm() {
+        ParsedQuery parsedQuery = super.getParsedQuery();
+        if (!(parsedQuery instanceof ParsedTupleQuery)
+                || !StreamSupport.stream(bindings.spliterator(), false)
+                    .allMatch(b -> b.getValue() instanceof IRI))
+            return Optional.empty();
+
+        ImmutableMap<String, String> iriParameters = StreamSupport.stream(bindings.spliterator(), false)
+                .collect(ImmutableCollectors.toMap(Binding::getName, b -> b.getValue().stringValue()));
+
+        // Like when the bindings are inlined, the bound variables are not projected
+        ImmutableList<String> projectedVariables = RDF4JQueryParameterizer
+                .getProjectedVariables((ParsedTupleQuery) parsedQuery).stream()
+                .filter(v -> !iriParameters.containsKey(v))
+                .collect(ImmutableCollectors.toList());
+        if (projectedVariables.isEmpty())
+            return Optional.empty();
+
+        return RDF4JQueryParameterizer.parameterize((ParsedTupleQuery) parsedQuery,
+                ImmutableSet.copyOf(iriParameters.keySet()))
+                .map(t -> new RDF4JParameterizedQuery(new RDF4JSelectQuery(t, super.getInputString()),
+                        projectedVariables, ImmutableList.of(iriParameters), true));
+    }
+}
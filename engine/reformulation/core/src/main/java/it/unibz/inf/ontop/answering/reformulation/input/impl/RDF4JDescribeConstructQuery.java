@@ -0,0 +1,42 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.answering.reformulation.input.ConstructQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+
+import java.util.Collection;
+import java.util.Optional;
+
+/**
+ * CONSTRUCT query describing a batch of resources (DESCRIBE), in the subject or in the object position.
+ *
+ * The query string inlines the resources (VALUES clause), while its parameterized form
+ * passes them to a template shared by all the batches: CONSTRUCT { ?s ?p ?o } WHERE { ?s ?p ?o }.
+ */
+class RDF4JDescribeConstructQuery extends RDF4JConstructQuery {
+
+    private static final ImmutableList<String> TEMPLATE_VARIABLES = ImmutableList.of("s", "p", "o");
+
+    private final ParameterizedInputQuery parameterizedForm;
+
+    /**
+     * variable: "s" or "o"
+     */
+    RDF4JDescribeConstructQuery(String queryString, ParsedQuery parsedQuery, ConstructQuery template,
+                                String variable, Collection<String> iris) {
+        super(queryString, parsedQuery);
+        this.parameterizedForm = new RDF4JParameterizedQuery(template, TEMPLATE_VARIABLES,
+                iris.stream()
+                        .map(iri -> ImmutableMap.of(variable, iri))
+                        .collect(ImmutableCollectors.toList()),
+                false);
+    }
+
+    @Override
+    public Optional<ParameterizedInputQuery> getParameterizedForm() {
+        return Optional.of(parameterizedForm);
+    }
+}
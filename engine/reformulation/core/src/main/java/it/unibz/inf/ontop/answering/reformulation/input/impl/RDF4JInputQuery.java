@@ -14,6 +14,8 @@ class RDF4JInputQuery<R extends OBDAResultSet> implements InputQuery<R> {
 
     private final ParsedQuery parsedQuery;
     private final String inputQueryString;
+    // Lazy (benign race: the normalization is deterministic)
+    private String normalizedForm;
 
     /**
      * TODO: support bindings
@@ -28,13 +30,20 @@ class RDF4JInputQuery<R extends OBDAResultSet> implements InputQuery<R> {
         return inputQueryString;
     }
 
+    @Override
+    public String getNormalizedForm() {
+        if (normalizedForm == null)
+            normalizedForm = RDF4JQueryNormalizer.normalize(getParsedQuery());
+        return normalizedForm;
+    }
+
     @Override
     public InternalSparqlQuery translate(InputQueryTranslator translator)
             throws OntopUnsupportedInputQueryException, OntopInvalidInputQueryException {
         if (!(translator instanceof RDF4JInputQueryTranslator)) {
             throw new IllegalArgumentException("RDF4JInputQueryImpl requires an RDF4JInputQueryTranslator");
         }
-        return ((RDF4JInputQueryTranslator) translator).translate(parsedQuery);
+        return ((RDF4JInputQueryTranslator) translator).translate(getParsedQuery());
     }
 
     protected ParsedQuery getParsedQuery() {
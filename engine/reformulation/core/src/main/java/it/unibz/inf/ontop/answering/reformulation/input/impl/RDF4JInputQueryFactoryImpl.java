@@ -2,6 +2,8 @@ package it.unibz.inf.ontop.answering.reformulation.input.impl;
 
 import com.google.inject.Inject;
 import it.unibz.inf.ontop.answering.reformulation.input.*;
+import org.eclipse.rdf4j.query.BindingSet;
+import org.eclipse.rdf4j.query.impl.MapBindingSet;
 import org.eclipse.rdf4j.query.parser.ParsedQuery;
 
 
@@ -16,6 +18,18 @@ public class RDF4JInputQueryFactoryImpl implements RDF4JInputQueryFactory {
         return new RDF4JSelectQuery(parsedQuery, queryString);
     }
 
+    @Override
+    public SelectQuery createSelectQuery(String queryString, ParsedQuery parsedQuery, BindingSet bindings,
+                                         String baseIRI) {
+        if (bindings.size() == 0)
+            return createSelectQuery(queryString, parsedQuery);
+
+        // The bindings may be modified after the creation of the query
+        MapBindingSet bindingCopy = new MapBindingSet(bindings.size());
+        bindings.forEach(b -> bindingCopy.addBinding(b.getName(), b.getValue()));
+        return new RDF4JBoundSelectQuery(parsedQuery, queryString, bindingCopy, baseIRI);
+    }
+
     @Override
     public AskQuery createAskQuery(String queryString, ParsedQuery parsedQuery) {
         return new RDF4JAskQuery(parsedQuery, queryString);
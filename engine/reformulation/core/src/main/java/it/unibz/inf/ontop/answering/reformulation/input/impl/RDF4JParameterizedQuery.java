@@ -0,0 +1,42 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.ParameterizedInputQuery;
+
+class RDF4JParameterizedQuery implements ParameterizedInputQuery {
+    private final InputQuery template;
+    private final ImmutableList<String> projectedVariables;
+    private final ImmutableList<ImmutableMap<String, String>> iriParameters;
+    private final boolean isFromExternalBindings;
+
+    RDF4JParameterizedQuery(InputQuery template, ImmutableList<String> projectedVariables,
+                            ImmutableList<ImmutableMap<String, String>> iriParameters,
+                            boolean isFromExternalBindings) {
+        this.template = template;
+        this.projectedVariables = projectedVariables;
+        this.iriParameters = iriParameters;
+        this.isFromExternalBindings = isFromExternalBindings;
+    }
+
+    @Override
+    public InputQuery getTemplate() {
+        return template;
+    }
+
+    @Override
+    public ImmutableList<String> getProjectedVariables() {
+        return projectedVariables;
+    }
+
+    @Override
+    public ImmutableList<ImmutableMap<String, String>> getIRIParameters() {
+        return iriParameters;
+    }
+
+    @Override
+    public boolean isFromExternalBindings() {
+        return isFromExternalBindings;
+    }
+}
@@ -0,0 +1,113 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import org.eclipse.rdf4j.query.Dataset;
+import org.eclipse.rdf4j.query.algebra.*;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+import org.eclipse.rdf4j.query.parser.ParsedQuery;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Computes a canonical rendering of the SPARQL algebra of a parsed query.
+ *
+ * Whitespace, comments and prefixes are already erased by the parser. In addition, the variables that
+ * only appear in Var nodes (e.g. non-projected variables, blank nodes and the constant variables generated by RDF4J)
+ * are renamed in the order of their first occurrence.
+ *
+ * The variables whose names are also referred to by other nodes (projections, BIND, GROUP BY, VALUES)
+ * are kept as such: they are part of the signature of the query and renaming them consistently would require
+ * rewriting these nodes too.
+ *
+ * Two queries having the same canonical form are therefore equivalent up to a renaming of their internal variables.
+ */
+class RDF4JQueryNormalizer {
+
+    /**
+     * Cannot appear in a SPARQL variable name (avoids any clash with a preserved variable)
+     */
+    private static final String RENAMED_VARIABLE_PREFIX = "$";
+
+    private RDF4JQueryNormalizer() {
+    }
+
+    static String normalize(ParsedQuery parsedQuery) {
+        TupleExpr tupleExpr = parsedQuery.getTupleExpr().clone();
+
+        Set<String> preservedNames = new HashSet<>(tupleExpr.getBindingNames());
+        tupleExpr.visit(new PreservedNameCollector(preservedNames));
+        tupleExpr.visit(new VariableRenamer(preservedNames));
+
+        StringBuilder sb = new StringBuilder(tupleExpr.toString());
+        Dataset dataset = parsedQuery.getDataset();
+        if (dataset != null)
+            sb.append("\n").append(dataset);
+        return sb.toString();
+    }
+
+    /**
+     * Collects the variable names that are referred to outside Var nodes
+     */
+    private static class PreservedNameCollector extends AbstractQueryModelVisitor<RuntimeException> {
+        private final Set<String> names;
+
+        private PreservedNameCollector(Set<String> names) {
+            this.names = names;
+        }
+
+        @Override
+        public void meet(ProjectionElem node) {
+            names.add(node.getSourceName());
+            names.add(node.getTargetName());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(ExtensionElem node) {
+            names.add(node.getName());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(Group node) {
+            names.addAll(node.getGroupBindingNames());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(GroupElem node) {
+            names.add(node.getName());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(BindingSetAssignment node) {
+            names.addAll(node.getBindingNames());
+            super.meet(node);
+        }
+    }
+
+    private static class VariableRenamer extends AbstractQueryModelVisitor<RuntimeException> {
+        private final Set<String> preservedNames;
+        private final Map<String, String> renaming = new HashMap<>();
+
+        private VariableRenamer(Set<String> preservedNames) {
+            this.preservedNames = preservedNames;
+        }
+
+        @Override
+        public void meet(Var node) {
+            String name = node.getName();
+            if (!preservedNames.contains(name)) {
+                String newName = renaming.get(name);
+                if (newName == null) {
+                    newName = RENAMED_VARIABLE_PREFIX + renaming.size();
+                    renaming.put(name, newName);
+                }
+                node.setName(newName);
+            }
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package it.unibz.inf.ontop.answering.reformulation.input.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.eclipse.rdf4j.query.algebra.*;
+import org.eclipse.rdf4j.query.algebra.helpers.AbstractQueryModelVisitor;
+import org.eclipse.rdf4j.query.parser.ParsedTupleQuery;
+
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Builds, for a SELECT query and some variables bound to IRIs, a template query in which these variables are free
+ * and projected.
+ *
+ * Filtering the solutions of the template on the bound values is equivalent to inlining the values
+ * only if each bound variable is certain (appears in a triple pattern that is neither optional nor in a union)
+ * and does not appear in any other kind of construct (sub-queries, aggregations, OPTIONAL, MINUS, ORDER BY, etc.).
+ * Solution modifiers like LIMIT are not supported either, as they would have to be applied after the filter.
+ */
+class RDF4JQueryParameterizer {
+
+    private RDF4JQueryParameterizer() {
+    }
+
+    /**
+     * Returns the template query, if the bound variables can be parameterized.
+     */
+    static Optional<ParsedTupleQuery> parameterize(ParsedTupleQuery parsedQuery, ImmutableSet<String> boundVariables) {
+        Optional<Projection> projection = getTopProjection(parsedQuery.getTupleExpr());
+        if (!projection.isPresent())
+            return Optional.empty();
+
+        Set<String> certainVariables = new HashSet<>();
+        if (!collectCertainVariables(projection.get().getArg(), boundVariables, certainVariables)
+                || (!certainVariables.containsAll(boundVariables)))
+            return Optional.empty();
+
+        TupleExpr templateExpr = parsedQuery.getTupleExpr().clone();
+        ProjectionElemList projectionElems = getTopProjection(templateExpr)
+                .orElseThrow(() -> new IllegalStateException("The clone should have a projection"))
+                .getProjectionElemList();
+        ImmutableSet<String> projectedNames = projectionElems.getElements().stream()
+                .map(ProjectionElem::getTargetName)
+                .collect(ImmutableCollectors.toSet());
+        boundVariables.stream()
+                .filter(v -> !projectedNames.contains(v))
+                .forEach(v -> projectionElems.addElement(new ProjectionElem(v)));
+
+        ParsedTupleQuery templateQuery = new ParsedTupleQuery(parsedQuery.getSourceString(), templateExpr);
+        templateQuery.setDataset(parsedQuery.getDataset());
+        return Optional.of(templateQuery);
+    }
+
+    /**
+     * Names of the variables projected by the query, in the order of the signature
+     */
+    static ImmutableList<String> getProjectedVariables(ParsedTupleQuery parsedQuery) {
+        return getTopProjection(parsedQuery.getTupleExpr())
+                .map(p -> p.getProjectionElemList().getElements().stream()
+                        .map(ProjectionElem::getTargetName)
+                        .collect(ImmutableCollectors.toList()))
+                .orElseGet(() -> ImmutableList.copyOf(parsedQuery.getTupleExpr().getBindingNames()));
+    }
+
+    private static Optional<Projection> getTopProjection(TupleExpr tupleExpr) {
+        TupleExpr expr = tupleExpr;
+        while ((expr instanceof Distinct) || (expr instanceof Reduced))
+            expr = ((UnaryTupleOperator) expr).getArg();
+
+        return (expr instanceof Projection)
+                ? Optional.of((Projection) expr)
+                : Optional.empty();
+    }
+
+    /**
+     * Returns false if a bound variable appears in an unsupported context
+     */
+    private static boolean collectCertainVariables(TupleExpr expr, ImmutableSet<String> boundVariables,
+                                                   Set<String> certainVariables) {
+        if (expr instanceof StatementPattern) {
+            ((StatementPattern) expr).getVarList().stream()
+                    .filter(v -> !v.hasValue())
+                    .map(Var::getName)
+                    .filter(boundVariables::contains)
+                    .forEach(certainVariables::add);
+            return true;
+        }
+        else if (expr instanceof Join) {
+            Join join = (Join) expr;
+            return collectCertainVariables(join.getLeftArg(), boundVariables, certainVariables)
+                    && collectCertainVariables(join.getRightArg(), boundVariables, certainVariables);
+        }
+        else if (expr instanceof LeftJoin) {
+            LeftJoin leftJoin = (LeftJoin) expr;
+            return collectCertainVariables(leftJoin.getLeftArg(), boundVariables, certainVariables)
+                    && !mentions(leftJoin.getRightArg(), boundVariables)
+                    && (!leftJoin.hasCondition() || !mentions(leftJoin.getCondition(), boundVariables));
+        }
+        else if (expr instanceof Filter) {
+            Filter filter = (Filter) expr;
+            return collectCertainVariables(filter.getArg(), boundVariables, certainVariables)
+                    && !(containsSubQuery(filter.getCondition()) && mentions(filter.getCondition(), boundVariables));
+        }
+        else if (expr instanceof Extension) {
+            Extension extension = (Extension) expr;
+            return collectCertainVariables(extension.getArg(), boundVariables, certainVariables)
+                    && extension.getElements().stream()
+                        .noneMatch(e -> boundVariables.contains(e.getName())
+                                || (containsSubQuery(e.getExpr()) && mentions(e.getExpr(), boundVariables)));
+        }
+        else
+            return !mentions(expr, boundVariables);
+    }
+
+    private static boolean mentions(QueryModelNode node, ImmutableSet<String> variables) {
+        Set<String> names = new HashSet<>();
+        node.visit(new NameCollector(names));
+        return names.stream().anyMatch(variables::contains);
+    }
+
+    private static boolean containsSubQuery(ValueExpr expr) {
+        boolean[] found = { false };
+        expr.visit(new AbstractQueryModelVisitor<RuntimeException>() {
+            @Override
+            protected void meetNode(QueryModelNode node) {
+                if (node instanceof SubQueryValueOperator)
+                    found[0] = true;
+                else
+                    super.meetNode(node);
+            }
+        });
+        return found[0];
+    }
+
+    private static class NameCollector extends AbstractQueryModelVisitor<RuntimeException> {
+        private final Set<String> names;
+
+        private NameCollector(Set<String> names) {
+            this.names = names;
+        }
+
+        @Override
+        public void meet(Var node) {
+            names.add(node.getName());
+        }
+
+        @Override
+        public void meet(ProjectionElem node) {
+            names.add(node.getSourceName());
+            names.add(node.getTargetName());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(ExtensionElem node) {
+            names.add(node.getName());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(Group node) {
+            names.addAll(node.getGroupBindingNames());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(GroupElem node) {
+            names.add(node.getName());
+            super.meet(node);
+        }
+
+        @Override
+        public void meet(BindingSetAssignment node) {
+            names.addAll(node.getBindingNames());
+            super.meet(node);
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package it.unibz.inf.ontop.answering.report;
+
+/**
+ * Notified once per executed query, when its results have been consumed (or the result set has been closed),
+ * or when its reformulation or evaluation has failed.
+ *
+ * Implementations declared in META-INF/services/it.unibz.inf.ontop.answering.report.QueryExecutionListener
+ * are loaded with the {@link java.util.ServiceLoader}.
+ *
+ * May be called concurrently by the threads consuming the results of different queries.
+ * Should not block.
+ */
+public interface QueryExecutionListener {
+
+    void onQueryCompleted(QueryExecutionReport report);
+}
@@ -0,0 +1,264 @@
+package it.unibz.inf.ontop.answering.report;
+
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.Nullable;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records the timings and sizes of one query, from its reception to its completion.
+ *
+ * Not thread-safe: the query is reformulated, evaluated and its results are consumed one step after the other
+ * (possibly by different threads, but not concurrently).
+ */
+public class QueryExecutionRecorder {
+
+    private final String inputQueryString;
+    private final boolean measuringSizes;
+    private final long startNanos;
+    private final Map<ReformulationPhase, Long> phaseNanos = new EnumMap<>(ReformulationPhase.class);
+
+    private boolean cacheHit;
+    @Nullable
+    private Integer ucqSizeAfterRewriting, unfoldedIQSize, optimizedIQSize;
+    @Nullable
+    private String nativeQueryString;
+    private long reformulationNanos;
+
+    private long dbQuerySentNanos = -1, dbFirstRowNanos = -1, dbEndNanos = -1;
+    private long rowCount;
+    private long endNanos = -1;
+    @Nullable
+    private String failureMessage;
+
+    /**
+     * Starts measuring
+     */
+    public QueryExecutionRecorder(String inputQueryString) {
+        this(inputQueryString, true);
+    }
+
+    /**
+     * When measuringSizes is false, the sizes of the intermediate queries are not computed
+     * (useful when nobody consumes the report)
+     */
+    public QueryExecutionRecorder(String inputQueryString, boolean measuringSizes) {
+        this.inputQueryString = inputQueryString;
+        this.measuringSizes = measuringSizes;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * If false, the sizes of the intermediate queries should not be computed (they would be ignored)
+     */
+    public boolean isMeasuringSizes() {
+        return measuringSizes;
+    }
+
+    /**
+     * Records the time elapsed since startNanos (obtained from System.nanoTime())
+     */
+    public void recordPhase(ReformulationPhase phase, long startNanos) {
+        phaseNanos.merge(phase, System.nanoTime() - startNanos, Long::sum);
+    }
+
+    public void setCacheHit(boolean cacheHit) {
+        this.cacheHit = cacheHit;
+    }
+
+    public void setUCQSizeAfterRewriting(int size) {
+        if (measuringSizes)
+            this.ucqSizeAfterRewriting = size;
+    }
+
+    public void setUnfoldedIQSize(int size) {
+        if (measuringSizes)
+            this.unfoldedIQSize = size;
+    }
+
+    public void setOptimizedIQSize(int size) {
+        if (measuringSizes)
+            this.optimizedIQSize = size;
+    }
+
+    /**
+     * End of the reformulation
+     */
+    public void onReformulated(String nativeQueryString) {
+        this.nativeQueryString = nativeQueryString;
+        this.reformulationNanos = System.nanoTime() - startNanos;
+    }
+
+    public void onDBQuerySent() {
+        dbQuerySentNanos = System.nanoTime();
+    }
+
+    /**
+     * Only the first call is taken into account
+     */
+    public void onFirstRow() {
+        if (dbFirstRowNanos < 0 && dbQuerySentNanos >= 0)
+            dbFirstRowNanos = System.nanoTime();
+    }
+
+    public void incrementRowCount() {
+        rowCount++;
+    }
+
+    /**
+     * Only the first failure is kept
+     */
+    public void onFailure(Throwable failure) {
+        if (failureMessage == null)
+            failureMessage = String.valueOf(failure.getMessage());
+    }
+
+    /**
+     * Returns true only the first time (the report can then be built)
+     */
+    public boolean complete() {
+        if (endNanos >= 0)
+            return false;
+        endNanos = System.nanoTime();
+        if (dbQuerySentNanos >= 0) {
+            onFirstRow();
+            dbEndNanos = endNanos;
+        }
+        return true;
+    }
+
+    public QueryExecutionReport buildReport() {
+        long end = (endNanos >= 0) ? endNanos : System.nanoTime();
+        ImmutableMap.Builder<ReformulationPhase, Long> phaseBuilder = ImmutableMap.builder();
+        phaseNanos.forEach((p, t) -> phaseBuilder.put(p, toMicros(t)));
+
+        return new QueryExecutionReportImpl(inputQueryString, Optional.ofNullable(nativeQueryString),
+                phaseBuilder.build(), toMicros(reformulationNanos), cacheHit,
+                Optional.ofNullable(ucqSizeAfterRewriting), Optional.ofNullable(unfoldedIQSize),
+                Optional.ofNullable(optimizedIQSize),
+                (dbFirstRowNanos >= 0) ? Optional.of(toMicros(dbFirstRowNanos - dbQuerySentNanos)) : Optional.empty(),
+                (dbEndNanos >= 0) ? Optional.of(toMicros(dbEndNanos - dbQuerySentNanos)) : Optional.empty(),
+                rowCount, toMicros(end - startNanos), Optional.ofNullable(failureMessage));
+    }
+
+    private static long toMicros(long nanos) {
+        return TimeUnit.NANOSECONDS.toMicros(nanos);
+    }
+
+
+    private static class QueryExecutionReportImpl implements QueryExecutionReport {
+        private final String inputQueryString;
+        private final Optional<String> nativeQueryString;
+        private final ImmutableMap<ReformulationPhase, Long> phaseTimes;
+        private final long reformulationTime;
+        private final boolean cacheHit;
+        private final Optional<Integer> ucqSizeAfterRewriting, unfoldedIQSize, optimizedIQSize;
+        private final Optional<Long> dbFirstRowTime, dbTotalTime;
+        private final long rowCount;
+        private final long totalTime;
+        private final Optional<String> failureMessage;
+
+        private QueryExecutionReportImpl(String inputQueryString, Optional<String> nativeQueryString,
+                                         ImmutableMap<ReformulationPhase, Long> phaseTimes, long reformulationTime,
+                                         boolean cacheHit, Optional<Integer> ucqSizeAfterRewriting,
+                                         Optional<Integer> unfoldedIQSize, Optional<Integer> optimizedIQSize,
+                                         Optional<Long> dbFirstRowTime, Optional<Long> dbTotalTime, long rowCount,
+                                         long totalTime, Optional<String> failureMessage) {
+            this.inputQueryString = inputQueryString;
+            this.nativeQueryString = nativeQueryString;
+            this.phaseTimes = phaseTimes;
+            this.reformulationTime = reformulationTime;
+            this.cacheHit = cacheHit;
+            this.ucqSizeAfterRewriting = ucqSizeAfterRewriting;
+            this.unfoldedIQSize = unfoldedIQSize;
+            this.optimizedIQSize = optimizedIQSize;
+            this.dbFirstRowTime = dbFirstRowTime;
+            this.dbTotalTime = dbTotalTime;
+            this.rowCount = rowCount;
+            this.totalTime = totalTime;
+            this.failureMessage = failureMessage;
+        }
+
+        @Override
+        public String getInputQueryString() {
+            return inputQueryString;
+        }
+
+        @Override
+        public Optional<String> getNativeQueryString() {
+            return nativeQueryString;
+        }
+
+        @Override
+        public ImmutableMap<ReformulationPhase, Long> getPhaseTimesMicros() {
+            return phaseTimes;
+        }
+
+        @Override
+        public long getReformulationTimeMicros() {
+            return reformulationTime;
+        }
+
+        @Override
+        public boolean isCacheHit() {
+            return cacheHit;
+        }
+
+        @Override
+        public Optional<Integer> getUCQSizeAfterRewriting() {
+            return ucqSizeAfterRewriting;
+        }
+
+        @Override
+        public Optional<Integer> getUnfoldedIQSize() {
+            return unfoldedIQSize;
+        }
+
+        @Override
+        public Optional<Integer> getOptimizedIQSize() {
+            return optimizedIQSize;
+        }
+
+        @Override
+        public Optional<Long> getDBFirstRowTimeMicros() {
+            return dbFirstRowTime;
+        }
+
+        @Override
+        public Optional<Long> getDBTotalTimeMicros() {
+            return dbTotalTime;
+        }
+
+        @Override
+        public long getRowCount() {
+            return rowCount;
+        }
+
+        @Override
+        public long getTotalTimeMicros() {
+            return totalTime;
+        }
+
+        @Override
+        public Optional<String> getFailureMessage() {
+            return failureMessage;
+        }
+
+        @Override
+        public String toString() {
+            return "total: " + totalTime + " us, reformulation: " + reformulationTime + " us"
+                    + (cacheHit ? " (cache hit)" : " " + phaseTimes)
+                    + dbFirstRowTime.map(t -> ", DB first row: " + t + " us").orElse("")
+                    + dbTotalTime.map(t -> ", DB total: " + t + " us").orElse("")
+                    + ", rows: " + rowCount
+                    + ucqSizeAfterRewriting.map(s -> ", UCQ size: " + s).orElse("")
+                    + unfoldedIQSize.map(s -> ", unfolded IQ size: " + s).orElse("")
+                    + optimizedIQSize.map(s -> ", optimized IQ size: " + s).orElse("")
+                    + getNativeQueryLength().map(l -> ", native query length: " + l).orElse("")
+                    + failureMessage.map(m -> ", failure: " + m).orElse("");
+        }
+    }
+}
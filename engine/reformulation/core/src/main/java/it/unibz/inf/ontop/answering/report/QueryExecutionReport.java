@@ -0,0 +1,82 @@
+package it.unibz.inf.ontop.answering.report;
+
+import com.google.common.collect.ImmutableMap;
+
+import java.util.Optional;
+
+/**
+ * Timings and sizes recorded while reformulating and evaluating one query.
+ *
+ * Times are in microseconds, measured from the reception of the query.
+ * Sizes are absent when the corresponding step has not been performed (e.g. cache hit, empty query).
+ */
+public interface QueryExecutionReport {
+
+    String getInputQueryString();
+
+    /**
+     * Absent if the reformulation has failed
+     */
+    Optional<String> getNativeQueryString();
+
+    /**
+     * Time spent in each phase of the reformulation (in the order of execution)
+     */
+    ImmutableMap<ReformulationPhase, Long> getPhaseTimesMicros();
+
+    /**
+     * Until the native query is available (includes the cache look-up)
+     */
+    long getReformulationTimeMicros();
+
+    /**
+     * True when the native query has been found in the query cache
+     */
+    boolean isCacheHit();
+
+    /**
+     * Number of conjunctive queries after the rewriting
+     */
+    Optional<Integer> getUCQSizeAfterRewriting();
+
+    /**
+     * Number of nodes of the IQ after the unfolding
+     */
+    Optional<Integer> getUnfoldedIQSize();
+
+    /**
+     * Number of nodes of the IQ after the optimizations
+     */
+    Optional<Integer> getOptimizedIQSize();
+
+    default Optional<Integer> getNativeQueryLength() {
+        return getNativeQueryString().map(String::length);
+    }
+
+    /**
+     * From the submission of the native query to the DB until the first row is available
+     * (or the result set is found to be empty)
+     */
+    Optional<Long> getDBFirstRowTimeMicros();
+
+    /**
+     * From the submission of the native query to the DB until the last row has been fetched.
+     * Includes the time spent by the consumer of the results.
+     */
+    Optional<Long> getDBTotalTimeMicros();
+
+    /**
+     * Number of rows (tuples or triples) returned to the consumer
+     */
+    long getRowCount();
+
+    /**
+     * From the reception of the query to its completion
+     */
+    long getTotalTimeMicros();
+
+    /**
+     * Absent if the query has been successfully evaluated
+     */
+    Optional<String> getFailureMessage();
+}
@@ -0,0 +1,19 @@
+package it.unibz.inf.ontop.answering.report;
+
+/**
+ * Receives the intermediate plans of the reformulation (Datalog programs, IQs, etc.).
+ *
+ * Plans are passed as they are: they are only rendered (or captured) by the tracer if it is enabled.
+ * Callers should check {@link #isEnabled()} before building a plan only meant for the tracer.
+ *
+ * Thread-safe.
+ */
+public interface QueryPlanTracer {
+
+    boolean isEnabled();
+
+    /**
+     * Does nothing if the tracer is disabled
+     */
+    void trace(String stage, Object plan);
+}
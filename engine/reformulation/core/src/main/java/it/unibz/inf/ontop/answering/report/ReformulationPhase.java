@@ -0,0 +1,19 @@
+package it.unibz.inf.ontop.answering.report;
+
+/**
+ * Steps of the reformulation of a SPARQL query into a native query, in their order of execution
+ */
+public enum ReformulationPhase {
+    TRANSLATION,
+    NORMALIZATION,
+    REWRITING,
+    IQ_CONVERSION,
+    UNFOLDING,
+    INTERMEDIATE_QUERY_CONVERSION,
+    BINDING_LIFT,
+    BOOLEAN_EXPRESSION_PUSH_UP,
+    PROJECTION_SHRINKING,
+    JOIN_OPTIMIZATION,
+    UNION_FLATTENING,
+    NATIVE_QUERY_GENERATION
+}
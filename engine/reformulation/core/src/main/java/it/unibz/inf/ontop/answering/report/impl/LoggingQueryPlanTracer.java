@@ -0,0 +1,33 @@
+package it.unibz.inf.ontop.answering.report.impl;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.answering.report.QueryPlanTracer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Logs the plans at the DEBUG level of the "it.unibz.inf.ontop.plans" logger.
+ *
+ * Enabled if and only if this level is enabled.
+ */
+@Singleton
+public class LoggingQueryPlanTracer implements QueryPlanTracer {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("it.unibz.inf.ontop.plans");
+
+    @Inject
+    private LoggingQueryPlanTracer() {
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return LOGGER.isDebugEnabled();
+    }
+
+    @Override
+    public void trace(String stage, Object plan) {
+        // plan.toString() is only called if DEBUG is enabled
+        LOGGER.debug("{}:\n{}", stage, plan);
+    }
+}
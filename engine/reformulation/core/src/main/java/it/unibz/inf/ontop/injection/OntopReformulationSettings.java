@@ -12,6 +12,26 @@ public interface OntopReformulationSettings extends OntopOBDASettings, OntopOpti
 
     boolean isDistinctPostProcessingEnabled();
 
+    /**
+     * Maximal number of executable queries kept by a bounded query cache
+     */
+    int getQueryCacheMaxEntries();
+
+    /**
+     * Maximal total weight (in characters of the normalized input and of the native queries)
+     * of a bounded query cache
+     */
+    int getQueryCacheMaxWeight();
+
+    /**
+     * When enabled, the IRIs bound to the variables of a SELECT query (e.g. through the RDF4J API)
+     * are not inlined into the query before reformulating it. Instead, the query without its bindings
+     * is reformulated once and the IRIs are passed as parameters of the native query.
+     *
+     * The batches of resources of the DESCRIBE queries are always parameterized.
+     */
+    boolean isBindingParameterizationEnabled();
+
 
     //--------------------------
     // Keys
@@ -20,4 +40,7 @@ public interface OntopReformulationSettings extends OntopOBDASettings, OntopOpti
     String SQL_GENERATE_REPLACE = "ontop.iriSafeEncoding";
     String EXISTENTIAL_REASONING = "ontop.existentialReasoning";
     String DISTINCT_RESULTSET = "ontop.distinctResultSet";
+    String QUERY_CACHE_MAX_ENTRIES = "ontop.queryCache.maxEntries";
+    String QUERY_CACHE_MAX_WEIGHT = "ontop.queryCache.maxWeight";
+    String BINDING_PARAMETERIZATION = "ontop.bindingParameterization";
 }
@@ -41,4 +41,19 @@ public class OntopReformulationSettingsImpl extends OntopOBDASettingsImpl implem
     public boolean isDistinctPostProcessingEnabled() {
         return getRequiredBoolean(DISTINCT_RESULTSET);
     }
+
+    @Override
+    public int getQueryCacheMaxEntries() {
+        return getRequiredInteger(QUERY_CACHE_MAX_ENTRIES);
+    }
+
+    @Override
+    public int getQueryCacheMaxWeight() {
+        return getRequiredInteger(QUERY_CACHE_MAX_WEIGHT);
+    }
+
+    @Override
+    public boolean isBindingParameterizationEnabled() {
+        return getRequiredBoolean(BINDING_PARAMETERIZATION);
+    }
 }
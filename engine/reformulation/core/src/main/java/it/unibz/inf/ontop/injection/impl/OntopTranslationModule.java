@@ -4,6 +4,7 @@ package it.unibz.inf.ontop.injection.impl;
 import com.google.inject.util.Providers;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
 import it.unibz.inf.ontop.answering.reformulation.input.RDF4JInputQueryFactory;
+import it.unibz.inf.ontop.answering.report.QueryPlanTracer;
 import it.unibz.inf.ontop.injection.OntopReformulationConfiguration;
 import it.unibz.inf.ontop.injection.OntopReformulationSettings;
 import it.unibz.inf.ontop.answering.reformulation.IRIDictionary;
@@ -29,6 +30,7 @@ public class OntopTranslationModule extends OntopAbstractModule {
         bindFromSettings(RDF4JInputQueryFactory.class);
         bindFromSettings(InputQueryFactory.class);
         bindFromSettings(MappingSameAsPredicateExtractor.class);
+        bindFromSettings(QueryPlanTracer.class);
 
         Optional<IRIDictionary> iriDictionary = configuration.getIRIDictionary();
         if (iriDictionary.isPresent()) {
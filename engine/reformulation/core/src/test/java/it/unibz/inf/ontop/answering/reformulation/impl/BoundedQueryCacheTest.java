@@ -0,0 +1,120 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.RDF4JInputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.impl.InputQueryFactoryImpl;
+import it.unibz.inf.ontop.answering.reformulation.input.impl.RDF4JInputQueryFactoryImpl;
+import org.junit.Test;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class BoundedQueryCacheTest {
+
+    private static final InputQueryFactory INPUT_QUERY_FACTORY = Guice.createInjector(
+            b -> b.bind(RDF4JInputQueryFactory.class).to(RDF4JInputQueryFactoryImpl.class))
+            .getInstance(InputQueryFactoryImpl.class);
+
+    @Test
+    public void testNormalizedKey() throws Exception {
+        BoundedQueryCache cache = new BoundedQueryCache(10, 100000);
+        SelectQuery q1 = INPUT_QUERY_FACTORY.createSelectQuery(
+                "PREFIX : <http://example.org/>\n SELECT ?x WHERE { ?x :p ?y . ?y :q [ :r ?z ] }");
+        SelectQuery q2 = INPUT_QUERY_FACTORY.createSelectQuery(
+                "SELECT ?x\nWHERE {\n  ?x <http://example.org/p> ?other .\n ?other <http://example.org/q> [ <http://example.org/r> ?w ]\n}");
+
+        AtomicInteger compilations = new AtomicInteger();
+        ExecutableQuery e1 = cache.getOrCompile(q1, q -> compile(compilations, "1"));
+        ExecutableQuery e2 = cache.getOrCompile(q2, q -> compile(compilations, "2"));
+
+        assertSame(e1, e2);
+        assertEquals(1, compilations.get());
+        assertEquals(1, cache.getStatistics().hitCount());
+        assertEquals(1, cache.getEntryStatistics().get(q1.getNormalizedForm()).getHitCount());
+    }
+
+    @Test
+    public void testProjectedVariablesAreNotRenamed() throws Exception {
+        SelectQuery q1 = INPUT_QUERY_FACTORY.createSelectQuery("SELECT ?x WHERE { ?x <http://example.org/p> ?y }");
+        SelectQuery q2 = INPUT_QUERY_FACTORY.createSelectQuery("SELECT ?y WHERE { ?y <http://example.org/p> ?x }");
+        assertNotEquals(q1.getNormalizedForm(), q2.getNormalizedForm());
+    }
+
+    @Test
+    public void testDifferentConstants() throws Exception {
+        SelectQuery q1 = INPUT_QUERY_FACTORY.createSelectQuery("SELECT ?x WHERE { ?x <http://example.org/p> 1 }");
+        SelectQuery q2 = INPUT_QUERY_FACTORY.createSelectQuery("SELECT ?x WHERE { ?x <http://example.org/p> 2 }");
+        assertNotEquals(q1.getNormalizedForm(), q2.getNormalizedForm());
+    }
+
+    @Test
+    public void testBoundedNumberOfEntries() throws Exception {
+        BoundedQueryCache cache = new BoundedQueryCache(4, 1000000);
+        AtomicInteger compilations = new AtomicInteger();
+        for (int i = 0; i < 50; i++) {
+            SelectQuery query = INPUT_QUERY_FACTORY.createSelectQuery(
+                    "SELECT ?x WHERE { ?x <http://example.org/p" + i + "> ?y }");
+            cache.getOrCompile(query, q -> compile(compilations, "SQL"));
+        }
+        assertEquals(50, compilations.get());
+        assertTrue(cache.size() <= 4);
+    }
+
+    @Test
+    public void testSingleFlightCompilation() throws Exception {
+        BoundedQueryCache cache = new BoundedQueryCache(10, 100000);
+        AtomicInteger compilations = new AtomicInteger();
+        CountDownLatch startLatch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            ImmutableList.Builder<Future<ExecutableQuery>> futureBuilder = ImmutableList.builder();
+            for (int i = 0; i < 8; i++) {
+                futureBuilder.add(executor.submit(() -> {
+                    SelectQuery query = INPUT_QUERY_FACTORY.createSelectQuery(
+                            "SELECT ?x WHERE { ?x <http://example.org/p> ?y }");
+                    startLatch.await();
+                    return cache.getOrCompile(query, q -> {
+                        try {
+                            Thread.sleep(50);
+                        } catch (InterruptedException e) {
+                            throw new IllegalStateException(e);
+                        }
+                        return compile(compilations, "SQL");
+                    });
+                }));
+            }
+            startLatch.countDown();
+            for (Future<ExecutableQuery> future : futureBuilder.build())
+                assertNotNull(future.get());
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, compilations.get());
+    }
+
+    private static ExecutableQuery compile(AtomicInteger compilations, String nativeQuery) {
+        compilations.incrementAndGet();
+        return new ExecutableQuery() {
+            @Override
+            public ImmutableList<String> getSignature() {
+                return ImmutableList.of("x");
+            }
+
+            @Override
+            public String getNativeQueryString() {
+                return nativeQuery;
+            }
+
+            @Override
+            public String toString() {
+                return nativeQuery;
+            }
+        };
+    }
+}
@@ -0,0 +1,123 @@
+package it.unibz.inf.ontop.answering.reformulation.rewriting;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.datalog.CQContainmentCheck;
+import it.unibz.inf.ontop.datalog.CQIE;
+import it.unibz.inf.ontop.datalog.LinearInclusionDependency;
+import it.unibz.inf.ontop.datalog.impl.CQCUtilities;
+import it.unibz.inf.ontop.datalog.impl.CQContainmentCheckUnderLIDs;
+import it.unibz.inf.ontop.model.term.Function;
+import it.unibz.inf.ontop.model.term.Term;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.spec.ontology.ClassifiedTBox;
+import it.unibz.inf.ontop.spec.ontology.InconsistentOntologyException;
+import it.unibz.inf.ontop.spec.ontology.OClass;
+import it.unibz.inf.ontop.spec.ontology.ObjectPropertyExpression;
+import it.unibz.inf.ontop.spec.ontology.OntologyBuilder;
+import it.unibz.inf.ontop.spec.ontology.impl.OntologyBuilderImpl;
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static it.unibz.inf.ontop.utils.ReformulationTestingTools.*;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Removal of the contained queries from a synthetic union of CQs (over a class and property hierarchy),
+ * compared to the pairwise comparison of all the queries.
+ */
+@Ignore("used only for benchmark tests")
+public class CQCUtilitiesBenchmark {
+
+    private static final int NUM_QUERIES = 5_000;
+    private static final int NUM_CLASSES = 100;
+    private static final int NUM_PROPERTIES = 50;
+    // only the first classes and properties form a hierarchy
+    private static final int NUM_SUB_CLASSES = 15;
+    private static final int NUM_SUB_PROPERTIES = 7;
+    private static final int NUM_RUNS = 3;
+
+    private static final String PREFIX = "http://example.org/voc#";
+
+    private final List<IRI> classes = new ArrayList<>();
+    private final List<IRI> properties = new ArrayList<>();
+    private final ImmutableList<LinearInclusionDependency> dependencies;
+
+    public CQCUtilitiesBenchmark() throws InconsistentOntologyException {
+        OntologyBuilder builder = OntologyBuilderImpl.builder(RDF_FACTORY);
+        List<OClass> oClasses = new ArrayList<>();
+        for (int i = 0; i < NUM_CLASSES; i++) {
+            IRI iri = RDF_FACTORY.createIRI(PREFIX + "C" + i);
+            classes.add(iri);
+            oClasses.add(builder.declareClass(iri.getIRIString()));
+            if (i > 0 && i <= NUM_SUB_CLASSES)
+                builder.addSubClassOfAxiom(oClasses.get(i), oClasses.get((i - 1) / 2));
+        }
+        List<ObjectPropertyExpression> oProperties = new ArrayList<>();
+        for (int i = 0; i < NUM_PROPERTIES; i++) {
+            IRI iri = RDF_FACTORY.createIRI(PREFIX + "p" + i);
+            properties.add(iri);
+            oProperties.add(builder.declareObjectProperty(iri.getIRIString()));
+            if (i > 0 && i <= NUM_SUB_PROPERTIES)
+                builder.addSubPropertyOfAxiom(oProperties.get(i), oProperties.get((i - 1) / 2));
+        }
+        ClassifiedTBox tbox = builder.build().tbox();
+        dependencies = INCLUSION_DEPENDENCY_TOOLS.getABoxDependencies(tbox, false);
+    }
+
+    @Test
+    public void benchmark() {
+        List<CQIE> union = generateUnion(new Random(42));
+
+        for (int run = 0; run < NUM_RUNS; run++) {
+            List<CQIE> expected = new ArrayList<>(union);
+            long start = System.nanoTime();
+            CQCUtilitiesTest.removeContainedQueriesPairwise(expected, createContainmentCheck());
+            long pairwiseTime = System.nanoTime() - start;
+
+            List<CQIE> result = new ArrayList<>(union);
+            start = System.nanoTime();
+            CQCUtilities.removeContainedQueries(result, createContainmentCheck());
+            long indexedTime = System.nanoTime() - start;
+
+            assertEquals(expected.size(), result.size());
+            for (int i = 0; i < expected.size(); i++)
+                assertSame(expected.get(i), result.get(i));
+
+            System.out.printf("run %d: %d -> %d queries, pairwise: %d ms, indexed: %d ms%n", run, union.size(),
+                    result.size(), pairwiseTime / 1_000_000, indexedTime / 1_000_000);
+        }
+    }
+
+    private CQContainmentCheck createContainmentCheck() {
+        return new CQContainmentCheckUnderLIDs(dependencies, DATALOG_FACTORY, UNIFIER_UTILITIES,
+                SUBSTITUTION_UTILITIES, TERM_FACTORY);
+    }
+
+    /**
+     * q(x) :- A(x), P(x, y), B(y), where B(y) is omitted in one query out of ten
+     * (the queries are mostly incomparable, as in the output of the rewriting)
+     */
+    private List<CQIE> generateUnion(Random random) {
+        Variable x = TERM_FACTORY.getVariable("x");
+        Variable y = TERM_FACTORY.getVariable("y");
+        List<CQIE> union = new ArrayList<>(NUM_QUERIES);
+        for (int i = 0; i < NUM_QUERIES; i++) {
+            List<Function> body = new ArrayList<>(3);
+            body.add(ATOM_FACTORY.getMutableTripleBodyAtom(x, classes.get(random.nextInt(NUM_CLASSES))));
+            body.add(ATOM_FACTORY.getMutableTripleBodyAtom(x, properties.get(random.nextInt(NUM_PROPERTIES)), y));
+            if (random.nextInt(10) > 0)
+                body.add(ATOM_FACTORY.getMutableTripleBodyAtom(y, classes.get(random.nextInt(NUM_CLASSES))));
+
+            Function head = TERM_FACTORY.getFunction(ATOM_FACTORY.getRDFAnswerPredicate(1),
+                    ImmutableList.<Term>of(x));
+            union.add(DATALOG_FACTORY.getCQIE(head, body));
+        }
+        return union;
+    }
+}
@@ -21,11 +21,14 @@ package it.unibz.inf.ontop.answering.reformulation.rewriting;
  */
 
 import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.datalog.CQContainmentCheck;
 import it.unibz.inf.ontop.datalog.CQIE;
 import it.unibz.inf.ontop.datalog.LinearInclusionDependency;
+import it.unibz.inf.ontop.datalog.impl.CQCUtilities;
 import it.unibz.inf.ontop.datalog.impl.CQContainmentCheckUnderLIDs;
 import it.unibz.inf.ontop.model.term.Function;
 import it.unibz.inf.ontop.model.term.Term;
+import it.unibz.inf.ontop.model.term.Variable;
 import it.unibz.inf.ontop.model.term.impl.PredicateImpl;
 import it.unibz.inf.ontop.model.type.TermType;
 import it.unibz.inf.ontop.spec.ontology.*;
@@ -38,12 +41,17 @@ import org.junit.Test;
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.ListIterator;
+import java.util.Random;
 import java.util.stream.IntStream;
 
 import static it.unibz.inf.ontop.utils.ReformulationTestingTools.*;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class CQCUtilitiesTest {
@@ -632,6 +640,129 @@ public class CQCUtilitiesTest {
         assertFalse(CQC_UTILITIES.SYNTACTIC_CHECK.isContainedIn(query2, query1));
     }
 
+	/**
+	 * The dependencies are applied to the atoms of their body: q1(x) :- R(x,y) is contained in q2(x) :- S(x,z)
+	 * under S(x,z) :- R(x,y) (e.g. a foreign key), but not the converse
+	 */
+	@Test
+	public void testContainmentUnderForeignKey() {
+		Term z = TERM_FACTORY.getVariable("z");
+		ImmutableList<LinearInclusionDependency> dependencies = ImmutableList.of(
+				new LinearInclusionDependency(getFunction("S", x, z), getFunction("R", x, y)));
+		CQContainmentCheckUnderLIDs cqc = new CQContainmentCheckUnderLIDs(dependencies, DATALOG_FACTORY,
+				UNIFIER_UTILITIES, SUBSTITUTION_UTILITIES, TERM_FACTORY);
+
+		CQIE query1 = DATALOG_FACTORY.getCQIE(getFunction("q", x), getFunction("R", x, y));
+		CQIE query2 = DATALOG_FACTORY.getCQIE(getFunction("q", x), getFunction("S", x, z));
+
+		assertTrue(cqc.isContainedIn(query1, query2));
+		assertFalse(cqc.isContainedIn(query2, query1));
+	}
+
+	/**
+	 * Random unions of CQs over a small class and property hierarchy (many containments and duplicates):
+	 * the indexed removal must keep the same queries, in the same order, as the pairwise comparison
+	 */
+	@Test
+	public void testRemoveContainedQueriesAsPairwise() throws Exception {
+		OntologyBuilder builder = OntologyBuilderImpl.builder(RDF_FACTORY);
+		List<IRI> classes = new ArrayList<>();
+		List<OClass> oClasses = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			IRI iri = RDF_FACTORY.createIRI("http://example.com/C" + i);
+			classes.add(iri);
+			oClasses.add(builder.declareClass(iri.getIRIString()));
+			if (i > 0)
+				builder.addSubClassOfAxiom(oClasses.get(i), oClasses.get((i - 1) / 2));
+		}
+		List<IRI> properties = new ArrayList<>();
+		List<ObjectPropertyExpression> oProperties = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			IRI iri = RDF_FACTORY.createIRI("http://example.com/p" + i);
+			properties.add(iri);
+			oProperties.add(builder.declareObjectProperty(iri.getIRIString()));
+			if (i > 0)
+				builder.addSubPropertyOfAxiom(oProperties.get(i), oProperties.get((i - 1) / 2));
+		}
+		// C5 ISA exists p0
+		builder.addSubClassOfAxiom(oClasses.get(5), oProperties.get(0).getDomain());
+		ImmutableList<LinearInclusionDependency> dependencies =
+				INCLUSION_DEPENDENCY_TOOLS.getABoxDependencies(builder.build().tbox(), false);
+
+		Variable x = TERM_FACTORY.getVariable("x");
+		Variable y = TERM_FACTORY.getVariable("y");
+		for (int seed = 0; seed < 10; seed++) {
+			Random random = new Random(seed);
+			List<CQIE> union = new ArrayList<>();
+			for (int i = 0; i < 150; i++) {
+				// q(x) :- A(x), P(x, y), B(y), where each atom is present with probability 2/3
+				List<Function> body = new ArrayList<>(3);
+				if (random.nextInt(3) > 0)
+					body.add(ATOM_FACTORY.getMutableTripleBodyAtom(x, classes.get(random.nextInt(classes.size()))));
+				if (random.nextInt(3) > 0)
+					body.add(ATOM_FACTORY.getMutableTripleBodyAtom(x,
+							properties.get(random.nextInt(properties.size())), y));
+				if (random.nextInt(3) > 0)
+					body.add(ATOM_FACTORY.getMutableTripleBodyAtom(y, classes.get(random.nextInt(classes.size()))));
+				if (body.isEmpty())
+					continue;
+				union.add(DATALOG_FACTORY.getCQIE(getFunction("q", x), body));
+			}
+
+			for (CQContainmentCheck containment : ImmutableList.<CQContainmentCheck>of(CQCUtilities.SYNTACTIC_CHECK,
+					new CQContainmentCheckUnderLIDs(dependencies, DATALOG_FACTORY, UNIFIER_UTILITIES,
+							SUBSTITUTION_UTILITIES, TERM_FACTORY))) {
+				List<CQIE> expected = new ArrayList<>(union);
+				removeContainedQueriesPairwise(expected, containment);
+
+				List<CQIE> result = new ArrayList<>(union);
+				CQCUtilities.removeContainedQueries(result, containment);
+
+				assertEquals("seed " + seed, expected.size(), result.size());
+				for (int i = 0; i < expected.size(); i++)
+					assertSame("seed " + seed, expected.get(i), result.get(i));
+			}
+		}
+	}
+
+	/**
+	 * Previous implementation of CQCUtilities.removeContainedQueries (all the pairs are compared)
+	 */
+	static void removeContainedQueriesPairwise(List<CQIE> queries, CQContainmentCheck containment) {
+		{
+			Iterator<CQIE> iterator = queries.iterator();
+			while (iterator.hasNext()) {
+				CQIE query = iterator.next();
+				ListIterator<CQIE> iterator2 = queries.listIterator(queries.size());
+				while (iterator2.hasPrevious()) {
+					CQIE query2 = iterator2.previous();
+					if (query2 == query)
+						break;
+					if (containment.isContainedIn(query, query2)) {
+						iterator.remove();
+						break;
+					}
+				}
+			}
+		}
+		{
+			ListIterator<CQIE> iterator = queries.listIterator(queries.size());
+			while (iterator.hasPrevious()) {
+				CQIE query = iterator.previous();
+				Iterator<CQIE> iterator2 = queries.iterator();
+				while (iterator2.hasNext()) {
+					CQIE query2 = iterator2.next();
+					if (query2 == query)
+						break;
+					if (containment.isContainedIn(query, query2)) {
+						iterator.remove();
+						break;
+					}
+				}
+			}
+		}
+	}
+
 	private static class FakeTestPredicate extends PredicateImpl {
 		protected FakeTestPredicate(@Nonnull String name, int arity) {
 			super(name, createExpectedBaseTermTypeList(arity));
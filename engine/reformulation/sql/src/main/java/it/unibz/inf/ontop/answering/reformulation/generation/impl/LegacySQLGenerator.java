@@ -2,10 +2,12 @@ package it.unibz.inf.ontop.answering.reformulation.generation.impl;
 
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
 import it.unibz.inf.ontop.answering.reformulation.IRIDictionary;
 import it.unibz.inf.ontop.answering.reformulation.generation.NativeQueryGenerator;
+import it.unibz.inf.ontop.answering.report.QueryPlanTracer;
 import it.unibz.inf.ontop.datalog.DatalogFactory;
 import it.unibz.inf.ontop.datalog.DatalogNormalizer;
 import it.unibz.inf.ontop.datalog.IQ2DatalogTranslator;
@@ -27,6 +29,8 @@ import it.unibz.inf.ontop.model.type.TypeFactory;
 
 import javax.annotation.Nullable;
 
+import java.util.Optional;
+
 /**
  * Wrapper over a non thread-safe implementation
  *  --> the engine has to be cloned for every query
@@ -50,12 +54,13 @@ public class LegacySQLGenerator implements NativeQueryGenerator {
                                TypeFactory typeFactory, TermFactory termFactory,
                                IQConverter iqConverter, UnionFlattener unionFlattener,
                                PushDownBooleanExpressionOptimizer pushDownExpressionOptimizer,
-                               PushUpBooleanExpressionOptimizer pullUpBooleanExpression) {
+                               PushUpBooleanExpressionOptimizer pullUpBooleanExpression,
+                               QueryPlanTracer planTracer) {
 
         originalEngine = new OneShotSQLGeneratorEngine(metadata, iriDictionary, settings, jdbcTypeMapper,
                 iq2DatalogTranslator, pullOutVariableOptimizer, typeExtractor, relation2Predicate,
                 datalogNormalizer, datalogFactory, typeFactory, termFactory, iqConverter, unionFlattener,
-                pushDownExpressionOptimizer, pullUpBooleanExpression);
+                pushDownExpressionOptimizer, pullUpBooleanExpression, planTracer);
     }
 
     @Override
@@ -70,4 +75,15 @@ public class LegacySQLGenerator implements NativeQueryGenerator {
         // Empty string query
         return new SQLExecutableQuery(signatureContainer);
     }
+
+    @Override
+    public Optional<ExecutableQuery> generateParameterizedQuery(ExecutableQuery templateQuery,
+                                                      ImmutableList<String> projectedVariables,
+                                                      ImmutableList<ImmutableMap<String, String>> iriParameters) {
+        if (!(templateQuery instanceof SQLExecutableQuery))
+            throw new IllegalArgumentException("A SQLExecutableQuery was expected");
+        // No need to clone the engine
+        return originalEngine.generateParameterizedQuery((SQLExecutableQuery) templateQuery, projectedVariables,
+                iriParameters);
+    }
 }
@@ -24,6 +24,7 @@ package it.unibz.inf.ontop.answering.reformulation.generation.impl;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Multimap;
 import it.unibz.inf.ontop.answering.reformulation.IRIDictionary;
@@ -32,7 +33,11 @@ import it.unibz.inf.ontop.answering.reformulation.generation.dialect.SQLDialectA
 import it.unibz.inf.ontop.answering.reformulation.generation.dialect.impl.DB2SQLDialectAdapter;
 import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
 import it.unibz.inf.ontop.answering.reformulation.generation.utils.XsdDatatypeConverter;
+import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
+import it.unibz.inf.ontop.answering.reformulation.impl.ParameterizableRule;
+import it.unibz.inf.ontop.answering.reformulation.impl.PostProcessedIRITemplate;
 import it.unibz.inf.ontop.answering.reformulation.impl.SQLExecutableQuery;
+import it.unibz.inf.ontop.answering.report.QueryPlanTracer;
 import it.unibz.inf.ontop.datalog.*;
 import it.unibz.inf.ontop.dbschema.*;
 import it.unibz.inf.ontop.exception.IncompatibleTermException;
@@ -54,6 +59,7 @@ import it.unibz.inf.ontop.model.term.impl.TermUtils;
 import it.unibz.inf.ontop.model.type.*;
 import it.unibz.inf.ontop.model.vocabulary.XSD;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import it.unibz.inf.ontop.utils.R2RMLIRISafeEncoder;
 import org.eclipse.rdf4j.model.vocabulary.XMLSchema;
 import org.slf4j.LoggerFactory;
 
@@ -87,6 +93,7 @@ public class OneShotSQLGeneratorEngine {
     private static final String VIEW_SUFFIX = "VIEW";
     private static final String VIEW_ANS_SUFFIX = "View";
 	private static final String OUTER_VIEW_NAME = "SUB_QVIEW";
+	private static final String PARAMETERIZED_VIEW_NAME = "PARAMETERIZED_QVIEW";
 
 	private static final String TYPE_COLUMN_SUFFIX = "QuestType";
     private static final String LANG_COLUMN_SUFFIX = "Lang";
@@ -102,6 +109,7 @@ public class OneShotSQLGeneratorEngine {
 
 	private final boolean distinctResultSet;
 	private final boolean isIRISafeEncodingEnabled;
+	private final boolean isIRIConstructionPostProcessingEnabled;
 
 	@Nullable
 	private final IRIDictionary uriRefIds;
@@ -120,11 +128,21 @@ public class OneShotSQLGeneratorEngine {
 	private final UnionFlattener unionFlattener;
 	private final PushDownBooleanExpressionOptimizer pushDownExpressionOptimizer;
 	private final PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer;
+	private final QueryPlanTracer planTracer;
 
 
 	// the only two mutable (query-dependent) fields
 	private boolean isDistinct = false;
 	private boolean isOrderBy = false;
+	/**
+	 * Templates of the IRIs built when reading the results (indexed by their order of insertion)
+	 */
+	private final Map<PostProcessedIRITemplate, Integer> postProcessedIRITemplates = new LinkedHashMap<>();
+	private final Set<String> postProcessedVariables = new HashSet<>();
+	/**
+	 * CQs of the top-level union
+	 */
+	private final List<ParameterizableRule> parameterizableRules = new ArrayList<>();
 
 
 	OneShotSQLGeneratorEngine(DBMetadata metadata,
@@ -137,7 +155,8 @@ public class OneShotSQLGeneratorEngine {
 							  DatalogNormalizer datalogNormalizer, DatalogFactory datalogFactory,
 							  TypeFactory typeFactory, TermFactory termFactory, IQConverter iqConverter, UnionFlattener unionFlattener,
 							  PushDownBooleanExpressionOptimizer pushDownExpressionOptimizer,
-							  PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer) {
+							  PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer,
+							  QueryPlanTracer planTracer) {
 		this.pullOutVariableOptimizer = pullOutVariableOptimizer;
 		this.typeExtractor = typeExtractor;
 		this.relation2Predicate = relation2Predicate;
@@ -149,6 +168,7 @@ public class OneShotSQLGeneratorEngine {
 		this.unionFlattener = unionFlattener;
 		this.pushDownExpressionOptimizer = pushDownExpressionOptimizer;
 		this.pullUpExpressionOptimizer = pullUpExpressionOptimizer;
+		this.planTracer = planTracer;
 
 		String driverURI = settings.getJdbcDriver()
 				.orElseGet(() -> {
@@ -172,6 +192,7 @@ public class OneShotSQLGeneratorEngine {
 		this.distinctResultSet = settings.isDistinctPostProcessingEnabled();
 		this.iq2DatalogTranslator = iq2DatalogTranslator;
 		this.isIRISafeEncodingEnabled = settings.isIRISafeEncodingEnabled();
+		this.isIRIConstructionPostProcessingEnabled = settings.isIRIConstructionPostProcessingEnabled();
 		this.uriRefIds = iriDictionary;
 		this.jdbcTypeMapper = jdbcTypeMapper;
  	}
@@ -180,7 +201,8 @@ public class OneShotSQLGeneratorEngine {
 	 * For clone purposes only
 	 */
 	private OneShotSQLGeneratorEngine(RDBMetadata metadata, SQLDialectAdapter sqlAdapter,
-									  boolean isIRISafeEncodingEnabled, boolean distinctResultSet,
+									  boolean isIRISafeEncodingEnabled, boolean isIRIConstructionPostProcessingEnabled,
+									  boolean distinctResultSet,
 									  IRIDictionary uriRefIds, JdbcTypeMapper jdbcTypeMapper,
 									  ImmutableMap<ExpressionOperation, String> operations,
 									  IQ2DatalogTranslator iq2DatalogTranslator,
@@ -189,12 +211,14 @@ public class OneShotSQLGeneratorEngine {
 									  DatalogNormalizer datalogNormalizer, DatalogFactory datalogFactory,
 									  TypeFactory typeFactory, TermFactory termFactory, IQConverter iqConverter,
 									  UnionFlattener unionFlattener, PushDownBooleanExpressionOptimizer pushDownExpressionOptimizer,
-									  PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer) {
+									  PushUpBooleanExpressionOptimizer pullUpExpressionOptimizer,
+									  QueryPlanTracer planTracer) {
 		this.metadata = metadata;
 		this.idFactory = metadata.getQuotedIDFactory();
 		this.sqladapter = sqlAdapter;
 		this.operations = operations;
 		this.isIRISafeEncodingEnabled = isIRISafeEncodingEnabled;
+		this.isIRIConstructionPostProcessingEnabled = isIRIConstructionPostProcessingEnabled;
 		this.distinctResultSet = distinctResultSet;
 		this.uriRefIds = uriRefIds;
 		this.jdbcTypeMapper = jdbcTypeMapper;
@@ -210,6 +234,7 @@ public class OneShotSQLGeneratorEngine {
 		this.unionFlattener = unionFlattener;
 		this.pushDownExpressionOptimizer = pushDownExpressionOptimizer;
 		this.pullUpExpressionOptimizer = pullUpExpressionOptimizer;
+		this.planTracer = planTracer;
 	}
 
 	private static ImmutableMap<ExpressionOperation, String> buildOperations(SQLDialectAdapter sqladapter) {
@@ -265,9 +290,10 @@ public class OneShotSQLGeneratorEngine {
 	@Override
 	public OneShotSQLGeneratorEngine clone() {
 		return new OneShotSQLGeneratorEngine(metadata, sqladapter,
-				isIRISafeEncodingEnabled, distinctResultSet, uriRefIds, jdbcTypeMapper, operations, iq2DatalogTranslator,
+				isIRISafeEncodingEnabled, isIRIConstructionPostProcessingEnabled, distinctResultSet, uriRefIds, jdbcTypeMapper, operations, iq2DatalogTranslator,
                 pullOutVariableOptimizer, typeExtractor, relation2Predicate, datalogNormalizer, datalogFactory,
-                typeFactory, termFactory, iqConverter, unionFlattener, pushDownExpressionOptimizer, pullUpExpressionOptimizer);
+                typeFactory, termFactory, iqConverter, unionFlattener, pushDownExpressionOptimizer, pullUpExpressionOptimizer,
+				planTracer);
 	}
 
 	/**
@@ -290,7 +316,7 @@ public class OneShotSQLGeneratorEngine {
 			datalogNormalizer.foldJoinTrees(cq);
 			datalogNormalizer.addMinimalEqualityToLeftJoin(cq);
 		}
-		log.debug("Program normalized for SQL translation:\n" + queryProgram);
+		planTracer.trace("Program normalized for SQL translation", queryProgram);
 
 		MutableQueryModifiers queryModifiers = queryProgram.getQueryModifiers();
 		isDistinct = queryModifiers.hasModifiers() && queryModifiers.isDistinct();
@@ -334,7 +360,10 @@ public class OneShotSQLGeneratorEngine {
 		else {
 			resultingQuery = queryString;
 		}
-		return new SQLExecutableQuery(resultingQuery, signature);
+		return new SQLExecutableQuery(resultingQuery, signature, ImmutableList.of(),
+				ImmutableList.copyOf(postProcessedIRITemplates.keySet()), ImmutableSet.copyOf(postProcessedVariables),
+				// The modifiers apply to the whole union
+				queryModifiers.hasModifiers() ? ImmutableList.of() : ImmutableList.copyOf(parameterizableRules));
 	}
 
 	private IQ normalizeIQ(IntermediateQuery intermediateQuery) {
@@ -343,24 +372,24 @@ public class OneShotSQLGeneratorEngine {
 		//   - there the context may be concrete enough for evaluations certain expressions
 		//   - useful for dealing with SPARQL EBVs for instance
 		IntermediateQuery pushedDownQuery = pushDownExpressionOptimizer.optimize(intermediateQuery);
-		log.debug("New query after pushing down the boolean expressions (temporary): \n" + pushedDownQuery);
+		planTracer.trace("New query after pushing down the boolean expressions (temporary)", pushedDownQuery);
 
 		IQ flattenIQ = unionFlattener.optimize(iqConverter.convert(pushedDownQuery));
-		log.debug("New query after flattening the union: \n" + flattenIQ);
+		planTracer.trace("New query after flattening the union", flattenIQ);
 
 		try {
 			IntermediateQuery groundTermFreeQuery = new GroundTermRemovalFromDataNodeReshaper()
 					.optimize(iqConverter.convert(flattenIQ, intermediateQuery.getDBMetadata(),
 							intermediateQuery.getExecutorRegistry()));
-			log.debug("New query after removing ground terms: \n" + groundTermFreeQuery);
+			planTracer.trace("New query after removing ground terms", groundTermFreeQuery);
 
 			IntermediateQuery queryAfterPullOut = pullOutVariableOptimizer.optimize(groundTermFreeQuery);
-			log.debug("New query after pulling out equalities: \n" + queryAfterPullOut);
+			planTracer.trace("New query after pulling out equalities", queryAfterPullOut);
 
 			// Pulling up is needed when filtering conditions appear above a data atom on the left
 			// (causes problems to the IQ2DatalogConverter)
 			IntermediateQuery queryAfterPullUp = pullUpExpressionOptimizer.optimize(queryAfterPullOut);
-			log.debug("New query after pulling up the boolean expressions: \n" + queryAfterPullOut);
+			planTracer.trace("New query after pulling up the boolean expressions", queryAfterPullUp);
 
 			return iqConverter.convert(queryAfterPullUp);
 		} catch (EmptyQueryException e) {
@@ -436,7 +465,7 @@ public class OneShotSQLGeneratorEngine {
 
 				// Creates the body of the subquery
 				String subQuery = generateQueryFromRules(ruleIndex.get(pred), s,
-						subQueryDefinitionsBuilder.build(), termTypeMap, false);
+						subQueryDefinitionsBuilder.build(), termTypeMap, false, false, false);
 
 				RelationID subQueryAlias = createAlias(pred.getName(), VIEW_ANS_SUFFIX, usedAliases);
 				usedAliases.add(subQueryAlias);
@@ -457,12 +486,199 @@ public class OneShotSQLGeneratorEngine {
 		Predicate topLevelPredicate = predicatesInBottomUp.get(topLevel);
 		ImmutableList<SignatureVariable> topSignature = createSignature(signature, castTypeMap.get(topLevelPredicate));
 
+		/*
+		 * Post-processed IRIs are not compatible with modifiers that depend on their values
+		 * (the DB engine only sees the arguments of the templates)
+		 */
+		boolean postProcessIRIs = isIRIConstructionPostProcessingEnabled && !hasIRIDictionary() && !distinctResultSet
+				&& !isDistinct && !isOrderBy;
+
 		return generateQueryFromRules(ruleIndex.get(topLevelPredicate), topSignature,
 				subQueryDefinitionsBuilder.build(), termTypeMap,
-				isDistinct && !distinctResultSet);
+				isDistinct && !distinctResultSet, postProcessIRIs, true);
 	}
 
 
+	/**
+	 * Adds to the CQs of the top-level union of the SQL query of a template the conditions
+	 * that the columns of the IRI templates of the parameter variables match the given IRIs
+	 * (one of the rows of IRIs, if several are given).
+	 * The CQs whose IRI templates cannot match are removed.
+	 *
+	 * The values of the columns (or the ids of the IRIs when an IRI dictionary is used) are passed as parameters.
+	 *
+	 * Returns empty when the arguments of the IRI template of a parameter variable cannot be recovered
+	 * from its IRI.
+	 *
+	 * Does not depend on the state of the engine (no need to clone it).
+	 */
+	Optional<ExecutableQuery> generateParameterizedQuery(SQLExecutableQuery templateQuery,
+													  ImmutableList<String> projectedVariables,
+													  ImmutableList<ImmutableMap<String, String>> iriParameters) {
+		ImmutableList<String> signature = templateQuery.getSignature();
+		if (templateQuery.getSQL().isEmpty() || iriParameters.isEmpty())
+			return Optional.of(new SQLExecutableQuery(projectedVariables));
+		ImmutableList<ParameterizableRule> rules = templateQuery.getParameterizableRules();
+		if (rules.isEmpty())
+			return Optional.empty();
+
+		ImmutableList<ImmutableMap<Integer, String>> iriParametersByIndex = iriParameters.stream()
+				.map(r -> r.entrySet().stream()
+						.collect(ImmutableCollectors.toMap(
+								e -> signature.indexOf(e.getKey()),
+								Map.Entry::getValue)))
+				.collect(ImmutableCollectors.toList());
+		if (iriParametersByIndex.stream().anyMatch(r -> r.containsKey(-1)))
+			throw new IllegalArgumentException("Some parameters are not projected by the template");
+
+		if (rules.stream()
+				.flatMap(r -> iriParametersByIndex.stream()
+						.flatMap(p -> p.keySet().stream())
+						.map(i -> r.getIRITerms().get(i)))
+				.anyMatch(t -> t.getKind() == ParameterizableRule.IRITerm.Kind.NOT_INVERTIBLE))
+			return Optional.empty();
+
+		ImmutableList<ImmutableList<String>> columnAliases = createColumnAliases(signature);
+
+		List<String> selectColumns = new ArrayList<>();
+		for (String variable : projectedVariables) {
+			int index = signature.indexOf(variable);
+			if (index < 0)
+				throw new IllegalArgumentException("The variable " + variable + " is not projected by the template");
+			for (String alias : columnAliases.get(index))
+				selectColumns.add(PARAMETERIZED_VIEW_NAME + "." + alias);
+		}
+
+		List<String> sqls = new ArrayList<>();
+		ImmutableList.Builder<Object> parameterBuilder = ImmutableList.builder();
+		for (ParameterizableRule rule : rules) {
+			List<String> conditions = new ArrayList<>(rule.getWhereConditions());
+			List<Object> ruleParameters = new ArrayList<>();
+			if (!addIRIParameterConditions(rule, iriParametersByIndex, conditions, ruleParameters))
+				continue;
+
+			StringBuilder sb = new StringBuilder(rule.getSelectFromClause());
+			if (!conditions.isEmpty()) {
+				sb.append("\nWHERE \n").append(INDENT);
+				Joiner.on(" AND\n" + INDENT).appendTo(sb, conditions);
+			}
+			sb.append(rule.getGroupByHavingClause());
+			sqls.add(sb.toString());
+			parameterBuilder.addAll(ruleParameters);
+		}
+		if (sqls.isEmpty())
+			return Optional.of(new SQLExecutableQuery(projectedVariables));
+
+		String unionQuery = sqls.size() == 1
+				? sqls.get(0)
+				: inBrackets(Joiner.on(")\n UNION ALL\n (").join(sqls));
+
+		String sql = "SELECT " + String.join(", ", selectColumns)
+				+ "\nFROM (\n" + unionQuery + "\n) " + PARAMETERIZED_VIEW_NAME;
+
+		return Optional.of(new SQLExecutableQuery(sql, projectedVariables, parameterBuilder.build(),
+				templateQuery.getPostProcessedIRITemplates(), templateQuery.getPostProcessedVariables()));
+	}
+
+	/**
+	 * Adds the conditions under which the rule builds the IRIs of one of the rows (disjunction of the rows).
+	 *
+	 * Returns false if the rule cannot build the IRIs of any row.
+	 */
+	private boolean addIRIParameterConditions(ParameterizableRule rule,
+											  ImmutableList<ImmutableMap<Integer, String>> iriParametersByIndex,
+											  List<String> conditions, List<Object> parameters) {
+		List<List<String>> rowConditions = new ArrayList<>();
+		List<Object> rowParameters = new ArrayList<>();
+		for (ImmutableMap<Integer, String> row : iriParametersByIndex) {
+			List<String> currentConditions = new ArrayList<>();
+			List<Object> currentParameters = new ArrayList<>();
+			if (!row.entrySet().stream()
+					.allMatch(e -> addIRIConditions(rule.getIRITerms().get(e.getKey()), e.getValue(),
+							currentConditions, currentParameters)))
+				continue;
+			// The rule builds these IRIs whatever the values of its columns
+			if (currentConditions.isEmpty())
+				return true;
+			rowConditions.add(currentConditions);
+			rowParameters.addAll(currentParameters);
+		}
+		if (rowConditions.isEmpty())
+			return false;
+
+		if (rowConditions.size() == 1)
+			conditions.addAll(rowConditions.get(0));
+		else
+			conditions.add(inBrackets(rowConditions.stream()
+					.map(c -> inBrackets(String.join(" AND ", c)))
+					.collect(Collectors.joining(" OR "))));
+		parameters.addAll(rowParameters);
+		return true;
+	}
+
+	/**
+	 * Adds the conditions on the arguments of the IRI term for building the given IRI.
+	 *
+	 * Returns false if the IRI term cannot build this IRI.
+	 */
+	private boolean addIRIConditions(ParameterizableRule.IRITerm iriTerm, String iri, List<String> conditions,
+									 List<Object> parameters) {
+		Optional<ImmutableList<String>> optionalValues = iriTerm.extractArgumentValues(iri);
+		if (!optionalValues.isPresent())
+			return false;
+		ImmutableList<String> values = optionalValues.get();
+		ImmutableList<ParameterizableRule.Argument> arguments = iriTerm.getArguments();
+
+		if (hasIRIDictionary()) {
+			// Only uri(x) templates, where x is the id of the IRI
+			if (arguments.isEmpty())
+				return true;
+			int id = getUriid(iri);
+			if (id < 0)
+				return false;
+			conditions.add(arguments.get(0).getExpression() + " = ?");
+			parameters.add(id);
+			return true;
+		}
+
+		for (int i = 0; i < arguments.size(); i++) {
+			ParameterizableRule.Argument argument = arguments.get(i);
+			String value = values.get(i);
+			switch (argument.getJdbcType()) {
+				case Types.VARCHAR:
+				case Types.CHAR:
+				case Types.LONGNVARCHAR:
+				case Types.LONGVARCHAR:
+				case Types.NVARCHAR:
+				case Types.NCHAR:
+					conditions.add(argument.getExpression() + " = ?");
+					parameters.add(value);
+					break;
+				case Types.BIGINT:
+				case Types.INTEGER:
+				case Types.SMALLINT:
+				case Types.TINYINT:
+					long number;
+					try {
+						number = Long.parseLong(value);
+					} catch (NumberFormatException e) {
+						return false;
+					}
+					// Only the canonical form is produced by the cast
+					if (!Long.toString(number).equals(value))
+						return false;
+					conditions.add(argument.getExpression() + " = ?");
+					parameters.add(number);
+					break;
+				default:
+					// Compares with the value as cast when building the IRI (no index is used)
+					conditions.add(argument.getStringExpression() + " = ?");
+					parameters.add(value);
+			}
+		}
+		return true;
+	}
+
 	/**
 	 * Takes a union of CQs and returns its SQL translation.
 	 * It is a helper method for{@link #generateQuery}
@@ -472,12 +688,15 @@ public class OneShotSQLGeneratorEngine {
 	 * @param subQueryDefinitions
 	 * @param termTypeMap
 	 * @param unionNoDuplicates
+	 * @param postProcessIRIs projects the arguments of the single-column IRI templates instead of the IRIs
+	 * @param recordParameterizableRules stores the SQL queries of the CQs into parameterizableRules
 	 */
 	private String generateQueryFromRules(Collection<CQIE> cqs,
 										  ImmutableList<SignatureVariable> signature,
 										  ImmutableMap<Predicate, FromItem> subQueryDefinitions,
 										  ImmutableMap<CQIE, ImmutableList<Optional<TermType>>> termTypeMap,
-										  boolean unionNoDuplicates) {
+										  boolean unionNoDuplicates, boolean postProcessIRIs,
+										  boolean recordParameterizableRules) {
 
 		List<String> sqls = Lists.newArrayListWithExpectedSize(cqs.size());
 		for (CQIE cq : cqs) {
@@ -496,7 +715,8 @@ public class OneShotSQLGeneratorEngine {
 				List<Optional<TermType>> termTypes = termTypeMap.get(cq);
 				select = Lists.newArrayListWithCapacity(signature.size());
 				for (int i = 0; i < signature.size(); i++) {
-					select.add(getSelectClauseFragment(signature.get(i), terms.get(i), termTypes.get(i), index));
+					select.add(getSelectClauseFragment(signature.get(i), terms.get(i), termTypes.get(i), index,
+							postProcessIRIs));
 				}
 			}
 			else {
@@ -511,12 +731,14 @@ public class OneShotSQLGeneratorEngine {
 				from = ImmutableList.of(inBrackets(sqladapter.getDummyTable()) + " tdummy");
 			}
 			Joiner.on(",\n" + INDENT).appendTo(sb, from);
+			String selectFromClause = sb.toString();
 
 			Set<String> where = getConditionsSet(body, index, false);
 			if (!where.isEmpty()) {
 				sb.append("\nWHERE \n").append(INDENT);
 				Joiner.on(" AND\n" + INDENT).appendTo(sb, where);
 			}
+			int groupByHavingStart = sb.length();
 
 			ImmutableList<QualifiedAttributeID> groupBy = getGroupBy(body, index);
 			if (!groupBy.isEmpty()) {
@@ -533,6 +755,17 @@ public class OneShotSQLGeneratorEngine {
 				sb.append(") ");
 			}
 
+			if (recordParameterizableRules) {
+				List<Term> terms = cq.getHead().getTerms();
+				parameterizableRules.add(new ParameterizableRule(selectFromClause, ImmutableList.copyOf(where),
+						sb.substring(groupByHavingStart),
+						signature.isEmpty()
+								? ImmutableList.of()
+								: terms.stream()
+									.map(t -> getIRITerm(t, index))
+									.collect(ImmutableCollectors.toList())));
+			}
+
 			sqls.add(sb.toString());
 		}
 		return sqls.size() == 1
@@ -942,7 +1175,14 @@ public class OneShotSQLGeneratorEngine {
 	private String getSelectClauseFragment(SignatureVariable var,
 										   Term term,
 										   Optional<TermType> termType,
-										   AliasIndex index) {
+										   AliasIndex index,
+										   boolean postProcessIRIs) {
+		if (postProcessIRIs) {
+			Optional<String> postProcessedFragment = getPostProcessedIRISelectClauseFragment(var, term, index);
+			if (postProcessedFragment.isPresent())
+				return postProcessedFragment.get();
+		}
+
 		/*
 		 * Datatype for the main column (to which it is cast).
 		 * Beware, it may defer the RDF datatype (the one of the type column).
@@ -962,17 +1202,79 @@ public class OneShotSQLGeneratorEngine {
 				.toString();
 	}
 
+	/**
+	 * For IRI templates with one column argument: projects the column and a type code identifying the template
+	 * (see {@link PostProcessedIRITemplate})
+	 *
+	 * Only the single-column templates are covered: the result set has one value column per variable
+	 * (shared by all the CQs of the union), so the templates with several placeholders are still
+	 * instantiated by the DB engine (returns empty).
+	 */
+	private Optional<String> getPostProcessedIRISelectClauseFragment(SignatureVariable var, Term term,
+																	 AliasIndex index) {
+		if (!(term instanceof Function))
+			return Optional.empty();
+		Function function = (Function) term;
+		if (!(function.getFunctionSymbol() instanceof URITemplatePredicate) || function.getArity() != 2)
+			return Optional.empty();
+
+		Term templateTerm = function.getTerm(0);
+		Term argument = function.getTerm(1);
+		if (!(templateTerm instanceof ValueConstant) || !(argument instanceof Variable))
+			return Optional.empty();
+
+		String template = stripQuotes(((ValueConstant) templateTerm).getValue());
+		int placeholderIndex = template.indexOf("{}");
+		if (placeholderIndex < 0 || template.indexOf("{}", placeholderIndex + 2) >= 0)
+			return Optional.empty();
+
+		String prefix = template.substring(0, placeholderIndex);
+		String suffix = template.substring(placeholderIndex + 2);
+		// Same condition as in getSQLStringForTemplateFunction
+		boolean isEncoded = isIRISafeEncodingEnabled && !(prefix.isEmpty() && suffix.isEmpty());
+		PostProcessedIRITemplate iriTemplate = new PostProcessedIRITemplate(prefix, suffix, isEncoded);
+
+		Integer templateIndex = postProcessedIRITemplates.get(iriTemplate);
+		if (templateIndex == null) {
+			templateIndex = postProcessedIRITemplates.size();
+			postProcessedIRITemplates.put(iriTemplate, templateIndex);
+		}
+		postProcessedVariables.add(var.name);
+
+		String column = getSQLString(argument, index, false);
+		String mainColumn = isStringColType(argument, index)
+				? column
+				: sqladapter.sqlCast(column, Types.VARCHAR);
+
+		return Optional.of(new StringBuilder().append("\n   ")
+				.append(PostProcessedIRITemplate.TYPE_CODE_OFFSET + templateIndex)
+				.append(" AS ").append(var.columnAliases.get(0)).append(", ")
+				.append(sqladapter.getNullForLang()).append(" AS ").append(var.columnAliases.get(1)).append(", ")
+				.append(mainColumn).append(" AS ").append(var.columnAliases.get(2))
+				.toString());
+	}
+
 	private ImmutableList<SignatureVariable> createSignature(List<String> names, ImmutableList<TermType> castTypes) {
+		ImmutableList<ImmutableList<String>> columnAliases = createColumnAliases(names);
+		ImmutableList.Builder<SignatureVariable> builder = ImmutableList.builder();
+		for (int i = 0; i < names.size(); i++) {
+			builder.add(new SignatureVariable(names.get(i), columnAliases.get(i), castTypes.get(i)));
+		}
+		return builder.build();
+	}
+
+	/**
+	 * For each name: the aliases of the type, lang and main columns
+	 */
+	private ImmutableList<ImmutableList<String>> createColumnAliases(List<String> names) {
 		/**
 		 * Set that contains all the variable names created on the top query.
 		 * It helps the dialect adapter to generate variable names according to its possible restrictions.
 		 * Currently, this is needed for the Oracle adapter (max. length of 30 characters).
 		 */
 		Set<String> columnAliases = new HashSet<>();
-		ImmutableList.Builder<SignatureVariable> builder = ImmutableList.builder();
-		for (int i = 0; i < names.size(); i++) {
-			String name = names.get(i);
-
+		ImmutableList.Builder<ImmutableList<String>> builder = ImmutableList.builder();
+		for (String name : names) {
 			// Creates name names that satisfy the restrictions of the SQL dialect.
 			String typeAlias = sqladapter.nameTopVariable(name, TYPE_COLUMN_SUFFIX, columnAliases);
 			columnAliases.add(typeAlias);
@@ -983,9 +1285,7 @@ public class OneShotSQLGeneratorEngine {
 			String mainAlias = sqladapter.nameTopVariable(name, MAIN_COLUMN_SUFFIX, columnAliases);
 			columnAliases.add(mainAlias);
 
-			builder.add(new SignatureVariable(name,
-					ImmutableList.of(typeAlias, langAlias, mainAlias),
-					castTypes.get(i)));
+			builder.add(ImmutableList.of(typeAlias, langAlias, mainAlias));
 		}
 		return builder.build();
 	}
@@ -1060,8 +1360,80 @@ public class OneShotSQLGeneratorEngine {
 	}
 
 
+	/**
+	 * Describes how the IRI of a projected term is built, for recovering the values of its columns from an IRI
+	 */
+	private ParameterizableRule.IRITerm getIRITerm(Term term, AliasIndex index) {
+		if (term instanceof IRIConstant)
+			return ParameterizableRule.IRITerm.constant(((IRIConstant) term).getValue());
+		// Literals, null and blank nodes
+		if (term instanceof Constant)
+			return ParameterizableRule.IRITerm.notAnIRI();
+		if (!(term instanceof Function))
+			return ParameterizableRule.IRITerm.notInvertible();
+
+		Function function = (Function) term;
+		Predicate functionSymbol = function.getFunctionSymbol();
+		if (function.isDataTypeFunction() || functionSymbol instanceof BNodePredicate)
+			return ParameterizableRule.IRITerm.notAnIRI();
+		if (!(functionSymbol instanceof URITemplatePredicate))
+			return ParameterizableRule.IRITerm.notInvertible();
+
+		// Same cases as in getSQLStringForTemplateFunction
+		Term term0 = function.getTerm(0);
+		if (term0 instanceof Variable && function.getArity() == 1) {
+			// The IRI (or its id) is the value of the column
+			return ParameterizableRule.IRITerm.template(ImmutableList.of("", ""), false,
+					ImmutableList.of(getTemplateArgument(term0, index)));
+		}
+		if (!(term0 instanceof ValueConstant))
+			return ParameterizableRule.IRITerm.notInvertible();
+
+		String template = stripQuotes(((ValueConstant) term0).getValue());
+		ImmutableList<String> fragments = ImmutableList.copyOf(template.split("[{][}]", -1));
+		if (fragments.size() == 1)
+			return ParameterizableRule.IRITerm.constant(template);
+		if (hasIRIDictionary() || fragments.size() != function.getArity())
+			return ParameterizableRule.IRITerm.notInvertible();
+
+		boolean isEncoded = isIRISafeEncodingEnabled && template.split("[{][}]").length > 0;
+		/*
+		 * The positions of the placeholders are only determined by the IRI if the fragments between them
+		 * contain a character that cannot appear in the encoded values
+		 */
+		if (fragments.size() > 2 && !(isEncoded && fragments.subList(1, fragments.size() - 1).stream()
+				.allMatch(f -> R2RMLIRISafeEncoder.TABLE.values().stream().anyMatch(f::contains))))
+			return ParameterizableRule.IRITerm.notInvertible();
+
+		return ParameterizableRule.IRITerm.template(fragments, isEncoded,
+				function.getTerms().subList(1, function.getArity()).stream()
+						.map(t -> getTemplateArgument(t, index))
+						.collect(ImmutableCollectors.toList()));
+	}
+
+	private ParameterizableRule.Argument getTemplateArgument(Term term, AliasIndex index) {
+		String expression = getSQLString(term, index, false);
+		String stringExpression = isStringColType(term, index)
+				? expression
+				: sqladapter.sqlCast(expression, Types.VARCHAR);
+		int jdbcType = (term instanceof Variable)
+				? getColumnType((Variable) term, index).orElse(Types.OTHER)
+				: Types.OTHER;
+		return new ParameterizableRule.Argument(expression, stringExpression, jdbcType);
+	}
+
 	private static final Pattern pQuotes = Pattern.compile("[\"`\\['][^\\.]*[\"`\\]']");
 
+	/**
+	 * Strips the template of all quotation marks (dubious step)
+	 */
+	private static String stripQuotes(String template) {
+		while (pQuotes.matcher(template).matches()) {
+			template = template.substring(1, template.length() - 1);
+		}
+		return template;
+	}
+
 	private String getSQLStringForTemplateFunction(List<Term> terms, AliasIndex index) {
 
 		// The first argument determines the form of the result
@@ -1071,13 +1443,9 @@ public class OneShotSQLGeneratorEngine {
 			// http://.../.../ or empty "{}" with placeholders of the form {}
 			// The other terms are variables or constants that should replace
 			// the placeholders. We need to tokenize and form the CONCAT
-			String template = (term0 instanceof BNode)
+			String template = stripQuotes((term0 instanceof BNode)
 					? ((BNode) term0).getName()   // getValue should be removed from Constant
-					: ((ValueConstant) term0).getValue();
-			// strip the template of all quotation marks (dubious step)
-			while (pQuotes.matcher(template).matches()) {
-				template = template.substring(1, template.length() - 1);
-			}
+					: ((ValueConstant) term0).getValue());
 			String[] split = template.split("[{][}]");
 
 			List<String> vex = new ArrayList<>();
@@ -1155,15 +1523,9 @@ public class OneShotSQLGeneratorEngine {
 			}
 		}
 		else if (term instanceof Variable) {
-			Set<QualifiedAttributeID> columns = index.getColumns((Variable) term);
-			QualifiedAttributeID column0 = columns.iterator().next();
-
-			RelationDefinition relation = index.relationsForAliases.get(column0.getRelation());
-			if (relation != null) {
-				QuotedID columnId = column0.getAttribute();
-				for (Attribute a : relation.getAttributes()) {
-					if (a.getID().equals(columnId)) {
-						switch (a.getType()) {
+			return getColumnType((Variable) term, index)
+					.filter(t -> {
+						switch (t) {
 							case Types.VARCHAR:
 							case Types.CHAR:
 							case Types.LONGNVARCHAR:
@@ -1174,13 +1536,30 @@ public class OneShotSQLGeneratorEngine {
 							default:
 								return false;
 						}
-					}
-				}
-			}
+					})
+					.isPresent();
 		}
 		return false;
 	}
 
+	/**
+	 * JDBC type of the column of the variable, if it belongs to a DB relation
+	 */
+	private Optional<Integer> getColumnType(Variable variable, AliasIndex index) {
+		Set<QualifiedAttributeID> columns = index.getColumns(variable);
+		QualifiedAttributeID column0 = columns.iterator().next();
+
+		RelationDefinition relation = index.relationsForAliases.get(column0.getRelation());
+		if (relation != null) {
+			QuotedID columnId = column0.getAttribute();
+			for (Attribute a : relation.getAttributes()) {
+				if (a.getID().equals(columnId))
+					return Optional.of(a.getType());
+			}
+		}
+		return Optional.empty();
+	}
+
 	/**
 	 * Generates the SQL string that forms or retrieves the given term. The
 	 * function takes as input either: a constant (value or URI), a variable, or
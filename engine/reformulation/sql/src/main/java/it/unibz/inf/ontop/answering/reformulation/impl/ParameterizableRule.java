@@ -0,0 +1,224 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.utils.R2RMLIRISafeEncoder;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * SQL query of one of the CQs of the top-level union of a SQL query, split so that conditions
+ * can be added to its WHERE clause (see {@link SQLExecutableQuery#getParameterizableRules()}).
+ *
+ * For each variable of the signature, describes how its IRI is built from the columns of the FROM clause,
+ * so that an IRI can be turned into conditions on these columns.
+ *
+ * Immutable.
+ */
+public class ParameterizableRule {
+
+    private final String selectFromClause;
+    private final ImmutableList<String> whereConditions;
+    private final String groupByHavingClause;
+    private final ImmutableList<IRITerm> iriTerms;
+
+    /**
+     * iriTerms: indexed like the signature of the query
+     */
+    public ParameterizableRule(String selectFromClause, ImmutableList<String> whereConditions,
+                               String groupByHavingClause, ImmutableList<IRITerm> iriTerms) {
+        this.selectFromClause = selectFromClause;
+        this.whereConditions = whereConditions;
+        this.groupByHavingClause = groupByHavingClause;
+        this.iriTerms = iriTerms;
+    }
+
+    public String getSelectFromClause() {
+        return selectFromClause;
+    }
+
+    public ImmutableList<String> getWhereConditions() {
+        return whereConditions;
+    }
+
+    public String getGroupByHavingClause() {
+        return groupByHavingClause;
+    }
+
+    public ImmutableList<IRITerm> getIRITerms() {
+        return iriTerms;
+    }
+
+    @Override
+    public String toString() {
+        return selectFromClause + "\nWHERE " + whereConditions + groupByHavingClause + "\nIRI terms: " + iriTerms;
+    }
+
+
+    /**
+     * How the IRI of a variable is built by the DB engine in a rule.
+     *
+     * A constant IRI is a template without placeholder.
+     */
+    public static class IRITerm {
+
+        public enum Kind {
+            /**
+             * The term is never an IRI (e.g. a literal or a blank node)
+             */
+            NOT_AN_IRI,
+            /**
+             * The arguments of the template can be recovered from the IRI
+             */
+            TEMPLATE,
+            /**
+             * The arguments cannot be recovered from the IRI (e.g. ambiguous template or complex expression)
+             */
+            NOT_INVERTIBLE
+        }
+
+        private static final IRITerm NOT_AN_IRI = new IRITerm(Kind.NOT_AN_IRI, ImmutableList.of(), false,
+                ImmutableList.of());
+        private static final IRITerm NOT_INVERTIBLE = new IRITerm(Kind.NOT_INVERTIBLE, ImmutableList.of(), false,
+                ImmutableList.of());
+
+        private final Kind kind;
+        // Fragments around the placeholders
+        private final ImmutableList<String> fragments;
+        private final boolean isIRISafeEncoded;
+        private final ImmutableList<Argument> arguments;
+        // Null for constant IRIs
+        @Nullable
+        private final Pattern pattern;
+
+        private IRITerm(Kind kind, ImmutableList<String> fragments, boolean isIRISafeEncoded,
+                        ImmutableList<Argument> arguments) {
+            this.kind = kind;
+            this.fragments = fragments;
+            this.isIRISafeEncoded = isIRISafeEncoded;
+            this.arguments = arguments;
+            this.pattern = arguments.isEmpty()
+                    ? null
+                    : Pattern.compile(fragments.stream()
+                        .map(f -> f.isEmpty() ? "" : Pattern.quote(f))
+                        .collect(Collectors.joining("(.*)")), Pattern.DOTALL);
+        }
+
+        public static IRITerm notAnIRI() {
+            return NOT_AN_IRI;
+        }
+
+        public static IRITerm notInvertible() {
+            return NOT_INVERTIBLE;
+        }
+
+        public static IRITerm constant(String iri) {
+            return new IRITerm(Kind.TEMPLATE, ImmutableList.of(iri), false, ImmutableList.of());
+        }
+
+        /**
+         * fragments: one more than the arguments.
+         *
+         * The caller is responsible for checking that the template can be inverted:
+         * the IRI must determine the positions of the placeholders.
+         */
+        public static IRITerm template(ImmutableList<String> fragments, boolean isIRISafeEncoded,
+                                       ImmutableList<Argument> arguments) {
+            if (fragments.size() != arguments.size() + 1)
+                throw new IllegalArgumentException("One more fragment than arguments is expected");
+            return new IRITerm(Kind.TEMPLATE, fragments, isIRISafeEncoded, arguments);
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public ImmutableList<Argument> getArguments() {
+            return arguments;
+        }
+
+        /**
+         * Values (not encoded) of the arguments from which the DB engine builds the given IRI.
+         *
+         * Empty if the IRI cannot be built by this term.
+         */
+        public Optional<ImmutableList<String>> extractArgumentValues(String iri) {
+            if (kind != Kind.TEMPLATE)
+                return Optional.empty();
+            if (pattern == null)
+                return fragments.get(0).equals(iri)
+                        ? Optional.of(ImmutableList.of())
+                        : Optional.empty();
+
+            Matcher matcher = pattern.matcher(iri);
+            if (!matcher.matches())
+                return Optional.empty();
+
+            ImmutableList.Builder<String> valueBuilder = ImmutableList.builder();
+            for (int i = 1; i <= arguments.size(); i++) {
+                String encodedValue = matcher.group(i);
+                if (isIRISafeEncoded) {
+                    String value;
+                    try {
+                        value = R2RMLIRISafeEncoder.decode(encodedValue);
+                    } catch (RuntimeException e) {
+                        return Optional.empty();
+                    }
+                    // Only the canonical encoding is built by the DB engine
+                    if (!R2RMLIRISafeEncoder.encode(value).equals(encodedValue))
+                        return Optional.empty();
+                    valueBuilder.add(value);
+                }
+                else
+                    valueBuilder.add(encodedValue);
+            }
+            return Optional.of(valueBuilder.build());
+        }
+
+        @Override
+        public String toString() {
+            return kind == Kind.TEMPLATE
+                    ? String.join("{}", fragments) + arguments
+                    : kind.toString();
+        }
+    }
+
+    /**
+     * Argument of an IRI template
+     */
+    public static class Argument {
+        private final String expression;
+        private final String stringExpression;
+        private final int jdbcType;
+
+        /**
+         * stringExpression: expression converted into a string as when building the IRI (not encoded)
+         * jdbcType: type of the column, Types.OTHER if the expression is not a column of a DB relation
+         */
+        public Argument(String expression, String stringExpression, int jdbcType) {
+            this.expression = expression;
+            this.stringExpression = stringExpression;
+            this.jdbcType = jdbcType;
+        }
+
+        public String getExpression() {
+            return expression;
+        }
+
+        public String getStringExpression() {
+            return stringExpression;
+        }
+
+        public int getJdbcType() {
+            return jdbcType;
+        }
+
+        @Override
+        public String toString() {
+            return expression;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import it.unibz.inf.ontop.utils.R2RMLIRISafeEncoder;
+
+/**
+ * IRI template with one placeholder, instantiated when reading the results
+ * instead of in the SQL query (see {@link SQLExecutableQuery#getPostProcessedIRITemplates()}).
+ *
+ * The templates with several placeholders are not post-processed (they are instantiated by the DB engine).
+ *
+ * In the result set, the type column of such an IRI contains TYPE_CODE_OFFSET + the index of its template
+ * and the main column contains the (non-encoded) value of the placeholder.
+ *
+ * Immutable.
+ */
+public class PostProcessedIRITemplate {
+
+    /**
+     * Greater than all the COL_TYPE codes
+     */
+    public static final int TYPE_CODE_OFFSET = 1000;
+
+    private final String prefix;
+    private final String suffix;
+    private final boolean isIRISafeEncoded;
+
+    public PostProcessedIRITemplate(String prefix, String suffix, boolean isIRISafeEncoded) {
+        this.prefix = prefix;
+        this.suffix = suffix;
+        this.isIRISafeEncoded = isIRISafeEncoded;
+    }
+
+    /**
+     * Same string as the one that would have been built by the DB engine
+     */
+    public String instantiate(String value) {
+        String argument = isIRISafeEncoded ? R2RMLIRISafeEncoder.encode(value) : value;
+        return prefix + argument + suffix;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        PostProcessedIRITemplate that = (PostProcessedIRITemplate) o;
+        return isIRISafeEncoded == that.isIRISafeEncoded
+                && prefix.equals(that.prefix)
+                && suffix.equals(that.suffix);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = prefix.hashCode();
+        result = 31 * result + suffix.hashCode();
+        result = 31 * result + (isIRISafeEncoded ? 1 : 0);
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return prefix + "{}" + suffix;
+    }
+}
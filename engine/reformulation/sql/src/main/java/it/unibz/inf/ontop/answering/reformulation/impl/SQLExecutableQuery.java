@@ -1,27 +1,68 @@
 package it.unibz.inf.ontop.answering.reformulation.impl;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
 
 /**
  * SQL-query string, signature and optional construct template
  * (for SPARQL CONSTRUCT queries).
+ *
+ * May contain placeholders ("?"), to be bound to the parameters (in that order) when executing the query.
+ *
+ * The IRIs of some variables may have to be post-processed (see {@link PostProcessedIRITemplate}).
+ *
+ * Queries without modifiers also describe the CQs of their top-level union (see {@link ParameterizableRule}).
  */
 public class SQLExecutableQuery implements ExecutableQuery {
 
     private final String sqlQuery;
     private final ImmutableList<String> signature;
+    private final ImmutableList<Object> parameters;
+    private final ImmutableList<PostProcessedIRITemplate> postProcessedIRITemplates;
+    private final ImmutableSet<String> postProcessedVariables;
+    private final ImmutableList<ParameterizableRule> parameterizableRules;
 
     public SQLExecutableQuery(String sqlQuery, ImmutableList<String> signature) {
+        this(sqlQuery, signature, ImmutableList.of());
+    }
+
+    /**
+     * Parameters are objects that can be passed to PreparedStatement.setObject(...)
+     */
+    public SQLExecutableQuery(String sqlQuery, ImmutableList<String> signature, ImmutableList<Object> parameters) {
+        this(sqlQuery, signature, parameters, ImmutableList.of(), ImmutableSet.of());
+    }
+
+    /**
+     * postProcessedVariables: variables whose IRIs may be built from the postProcessedIRITemplates
+     */
+    public SQLExecutableQuery(String sqlQuery, ImmutableList<String> signature, ImmutableList<Object> parameters,
+                              ImmutableList<PostProcessedIRITemplate> postProcessedIRITemplates,
+                              ImmutableSet<String> postProcessedVariables) {
+        this(sqlQuery, signature, parameters, postProcessedIRITemplates, postProcessedVariables, ImmutableList.of());
+    }
+
+    /**
+     * parameterizableRules: the CQs of the top-level union (empty if not available)
+     */
+    public SQLExecutableQuery(String sqlQuery, ImmutableList<String> signature, ImmutableList<Object> parameters,
+                              ImmutableList<PostProcessedIRITemplate> postProcessedIRITemplates,
+                              ImmutableSet<String> postProcessedVariables,
+                              ImmutableList<ParameterizableRule> parameterizableRules) {
         this.sqlQuery = sqlQuery;
         this.signature = signature;
+        this.parameters = parameters;
+        this.postProcessedIRITemplates = postProcessedIRITemplates;
+        this.postProcessedVariables = postProcessedVariables;
+        this.parameterizableRules = parameterizableRules;
     }
+
     /**
      * Empty SQL
      */
     public SQLExecutableQuery(ImmutableList<String> signature) {
-        this.sqlQuery = "";
-        this.signature = signature;
+        this("", signature);
     }
 
     @Override
@@ -34,7 +75,48 @@ public class SQLExecutableQuery implements ExecutableQuery {
     }
 
     @Override
-    public String toString() {
+    public String getNativeQueryString() {
         return sqlQuery;
     }
+
+    public ImmutableList<Object> getParameters() {
+        return parameters;
+    }
+
+    public boolean isParameterized() {
+        return !parameters.isEmpty();
+    }
+
+    /**
+     * Indexed by type code (minus {@link PostProcessedIRITemplate#TYPE_CODE_OFFSET})
+     */
+    public ImmutableList<PostProcessedIRITemplate> getPostProcessedIRITemplates() {
+        return postProcessedIRITemplates;
+    }
+
+    public ImmutableSet<String> getPostProcessedVariables() {
+        return postProcessedVariables;
+    }
+
+    /**
+     * Empty if the query cannot be restricted by adding conditions to the CQs of its top-level union
+     * (e.g. when it has modifiers)
+     */
+    public ImmutableList<ParameterizableRule> getParameterizableRules() {
+        return parameterizableRules;
+    }
+
+    public boolean hasPostProcessedIRIs() {
+        return !postProcessedIRITemplates.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(sqlQuery);
+        if (!parameters.isEmpty())
+            sb.append("\nParameters: ").append(parameters);
+        if (!postProcessedIRITemplates.isEmpty())
+            sb.append("\nPost-processed IRI templates: ").append(postProcessedIRITemplates);
+        return sb.toString();
+    }
 }
@@ -3,4 +3,20 @@ package it.unibz.inf.ontop.injection;
 
 public interface OntopReformulationSQLSettings extends OntopReformulationSettings, OntopSQLCoreSettings {
 
+    /**
+     * When enabled, the IRIs built from a single-column template are not constructed by the DB engine
+     * (concatenation and IRI-safe encoding): the SQL query only projects the column
+     * and the IRI is built when reading the results.
+     * The IRIs built from a template with several columns are always constructed by the DB engine.
+     *
+     * Otherwise (default), the IRI construction is delegated to the DB engine.
+     */
+    boolean isIRIConstructionPostProcessingEnabled();
+
+    //--------------------------
+    // Keys
+    //--------------------------
+
+    String POST_PROCESS_IRI_CONSTRUCTION = "ontop.postProcessIRIConstruction";
+
 }
@@ -42,4 +42,9 @@ public class OntopReformulationSQLSettingsImpl extends OntopReformulationSetting
     public Optional<String> getJdbcDriver() {
         return sqlSettings.getJdbcDriver();
     }
+
+    @Override
+    public boolean isIRIConstructionPostProcessingEnabled() {
+        return getRequiredBoolean(POST_PROCESS_IRI_CONSTRUCTION);
+    }
 }
@@ -2,8 +2,11 @@ package it.unibz.inf.ontop.answering;
 
 
 import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
 
+import java.util.Optional;
+
 public interface OntopQueryEngine extends AutoCloseable {
 
     /**
@@ -17,4 +20,9 @@ public interface OntopQueryEngine extends AutoCloseable {
      * Gets a OntopConnection usually coming from a connection pool.
      */
     OntopConnection getConnection() throws OntopConnectionException;
+
+    /**
+     * Snapshot of the DB connection pool (if instrumented)
+     */
+    Optional<ConnectionPoolStatistics> getConnectionPoolStatistics();
 }
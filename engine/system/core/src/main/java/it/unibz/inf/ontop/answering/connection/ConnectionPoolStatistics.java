@@ -0,0 +1,100 @@
+package it.unibz.inf.ontop.answering.connection;
+
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Immutable snapshot of the state of a DB connection pool.
+ *
+ * The gauges (active, idle, waiting) describe the pool at the time of the snapshot,
+ * while the counters and the histogram are cumulative since the creation of the pool.
+ */
+public class ConnectionPoolStatistics {
+
+    private final int activeConnectionCount;
+    private final int idleConnectionCount;
+    private final int waitingThreadCount;
+    private final long acquisitionCount;
+    private final long waitCount;
+    private final long failedAcquisitionCount;
+    private final long totalAcquisitionLatencyMicros;
+    private final ImmutableSortedMap<Long, Long> acquisitionLatencyHistogram;
+
+    public ConnectionPoolStatistics(int activeConnectionCount, int idleConnectionCount, int waitingThreadCount,
+                                    long acquisitionCount, long waitCount, long failedAcquisitionCount,
+                                    long totalAcquisitionLatencyMicros,
+                                    ImmutableSortedMap<Long, Long> acquisitionLatencyHistogram) {
+        this.activeConnectionCount = activeConnectionCount;
+        this.idleConnectionCount = idleConnectionCount;
+        this.waitingThreadCount = waitingThreadCount;
+        this.acquisitionCount = acquisitionCount;
+        this.waitCount = waitCount;
+        this.failedAcquisitionCount = failedAcquisitionCount;
+        this.totalAcquisitionLatencyMicros = totalAcquisitionLatencyMicros;
+        this.acquisitionLatencyHistogram = acquisitionLatencyHistogram;
+    }
+
+    /**
+     * Connections currently lent to the clients
+     */
+    public int getActiveConnectionCount() {
+        return activeConnectionCount;
+    }
+
+    /**
+     * Connections currently available in the pool
+     */
+    public int getIdleConnectionCount() {
+        return idleConnectionCount;
+    }
+
+    /**
+     * Threads currently waiting for a connection
+     */
+    public int getWaitingThreadCount() {
+        return waitingThreadCount;
+    }
+
+    /**
+     * Number of connection requests (successful or not)
+     */
+    public long getAcquisitionCount() {
+        return acquisitionCount;
+    }
+
+    /**
+     * Number of connection requests that found no idle connection in the pool
+     */
+    public long getWaitCount() {
+        return waitCount;
+    }
+
+    /**
+     * Number of connection requests that failed (e.g. timeout)
+     */
+    public long getFailedAcquisitionCount() {
+        return failedAcquisitionCount;
+    }
+
+    public double getMeanAcquisitionLatencyMicros() {
+        return acquisitionCount == 0
+                ? 0
+                : ((double) totalAcquisitionLatencyMicros) / acquisitionCount;
+    }
+
+    /**
+     * Upper bound of each bucket (in microseconds, inclusive) -> number of connection requests.
+     *
+     * The last bucket is unbounded (Long.MAX_VALUE).
+     */
+    public ImmutableSortedMap<Long, Long> getAcquisitionLatencyHistogram() {
+        return acquisitionLatencyHistogram;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPoolStatistics{active=%d, idle=%d, waiting=%d, acquisitions=%d, " +
+                        "waits=%d, failures=%d, meanLatencyMicros=%.1f, latencyHistogram=%s}",
+                activeConnectionCount, idleConnectionCount, waitingThreadCount, acquisitionCount,
+                waitCount, failedAcquisitionCount, getMeanAcquisitionLatencyMicros(), acquisitionLatencyHistogram);
+    }
+}
@@ -2,6 +2,8 @@ package it.unibz.inf.ontop.answering.connection;
 
 import it.unibz.inf.ontop.exception.OntopConnectionException;
 
+import java.util.Optional;
+
 /**
  * High-level component in charge of abstracting the interaction with the DB.
  * This interface is agnostic regarding the native query language.
@@ -20,4 +22,9 @@ public interface DBConnector extends AutoCloseable {
      */
     OntopConnection getConnection() throws OntopConnectionException;
 
+    /**
+     * Empty if the connections are not pooled or if the pool is not instrumented
+     */
+    Optional<ConnectionPoolStatistics> getConnectionPoolStatistics();
+
 }
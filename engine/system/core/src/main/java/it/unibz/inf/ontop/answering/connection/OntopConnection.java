@@ -1,6 +1,8 @@
 package it.unibz.inf.ontop.answering.connection;
 
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSetPublisher;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
 
 public interface OntopConnection extends OBDAConnection {
@@ -10,4 +12,12 @@ public interface OntopConnection extends OBDAConnection {
 
 	InputQueryFactory getInputQueryFactory();
 
+	/**
+	 * Publishes the results of the query (see {@link OntopStatement#publish(SelectQuery)})
+	 * using a dedicated statement, which is closed when the publication terminates.
+	 *
+	 * Several queries can therefore be published concurrently on the same connection.
+	 */
+	OntopBindingSetPublisher publish(SelectQuery selectQuery) throws OntopConnectionException;
+
 }
@@ -2,8 +2,13 @@ package it.unibz.inf.ontop.answering.connection;
 
 import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OBDAResultSet;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSetPublisher;
 import it.unibz.inf.ontop.exception.*;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * OBDAStatement specific to Ontop.
  *
@@ -18,4 +23,19 @@ public interface OntopStatement extends OBDAStatement {
     String getRewritingRendering(InputQuery inputQuery) throws OntopReformulationException;
 
     ExecutableQuery getExecutableQuery(InputQuery inputQuery) throws OntopReformulationException;
+
+    /**
+     * Asynchronous variant of {@link #execute(InputQuery)}: the reformulation and the evaluation are performed
+     * by the QueryExecutionService, as two successive tasks.
+     * The future completes exceptionally with the exception that execute(...) would have thrown.
+     *
+     * Like for execute(...), executing another query on the same statement closes the previous results.
+     */
+    <R extends OBDAResultSet> CompletableFuture<R> executeAsync(InputQuery<R> inputQuery);
+
+    /**
+     * The query is executed asynchronously (see {@link #executeAsync(InputQuery)}) and its results
+     * are fetched on demand.
+     */
+    OntopBindingSetPublisher publish(SelectQuery selectQuery);
 }
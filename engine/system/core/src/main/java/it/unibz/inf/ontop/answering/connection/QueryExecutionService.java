@@ -0,0 +1,58 @@
+package it.unibz.inf.ontop.answering.connection;
+
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * Evaluates the reformulated queries on behalf of the statements.
+ *
+ * Shared by all the statements of a query engine: implementations are thread-safe.
+ */
+public interface QueryExecutionService {
+
+    /**
+     * Blocks the caller until the evaluation completes.
+     *
+     * If timeoutMillis is positive, the canceller is called when the deadline is reached
+     * (cancellation is cooperative) and the evaluation fails.
+     */
+    <R> R execute(QueryEvaluation<R> evaluation, QueryCanceller canceller, long timeoutMillis)
+            throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
+
+    /**
+     * Non-blocking variant of {@link #execute(QueryEvaluation, QueryCanceller, long)}.
+     *
+     * The future completes exceptionally with the exception thrown by the evaluation.
+     */
+    <R> CompletableFuture<R> executeAsync(QueryEvaluation<R> evaluation, QueryCanceller canceller, long timeoutMillis);
+
+    /**
+     * For the other asynchronous tasks (e.g. reformulating a query, fetching results)
+     */
+    Executor getExecutor();
+
+    /**
+     * Number of queries waiting for being evaluated
+     */
+    int getQueueDepth();
+
+    /**
+     * Number of queries being evaluated
+     */
+    int getInFlightQueryCount();
+
+
+    @FunctionalInterface
+    interface QueryEvaluation<R> {
+        R evaluate() throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
+    }
+
+    @FunctionalInterface
+    interface QueryCanceller {
+        void cancel() throws OntopQueryEvaluationException;
+    }
+}
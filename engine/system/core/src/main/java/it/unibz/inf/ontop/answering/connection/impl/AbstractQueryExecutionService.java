@@ -0,0 +1,153 @@
+package it.unibz.inf.ontop.answering.connection.impl;
+
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Enforces the deadlines and counts the in-flight queries.
+ *
+ * Deadlines are enforced by a timer thread calling the canceller (e.g. a JDBC cancel).
+ */
+abstract class AbstractQueryExecutionService implements QueryExecutionService {
+
+    private static final Logger log = LoggerFactory.getLogger(AbstractQueryExecutionService.class);
+
+    private static final int RUNNING = 0;
+    private static final int COMPLETED = 1;
+    private static final int EXPIRED = 2;
+
+    private final AtomicInteger inFlightQueryCount = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor deadlineTimer;
+
+    protected AbstractQueryExecutionService() {
+        deadlineTimer = new ScheduledThreadPoolExecutor(1, createDaemonThreadFactory("ontop-query-deadline"));
+        deadlineTimer.setRemoveOnCancelPolicy(true);
+        deadlineTimer.setKeepAliveTime(1, TimeUnit.MINUTES);
+        deadlineTimer.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Evaluates the task, on the caller thread or not
+     */
+    protected abstract <R> R run(QueryEvaluation<R> evaluation, QueryCanceller canceller)
+            throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
+
+    @Override
+    public <R> R execute(QueryEvaluation<R> evaluation, QueryCanceller canceller, long timeoutMillis)
+            throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
+        DeadlineGuard<R> guard = new DeadlineGuard<>(evaluation, canceller, timeoutMillis);
+        try {
+            return run(guard, canceller);
+        } finally {
+            guard.close();
+        }
+    }
+
+    @Override
+    public <R> CompletableFuture<R> executeAsync(QueryEvaluation<R> evaluation, QueryCanceller canceller,
+                                                 long timeoutMillis) {
+        DeadlineGuard<R> guard = new DeadlineGuard<>(evaluation, canceller, timeoutMillis);
+        CompletableFuture<R> future = new CompletableFuture<>();
+        try {
+            getExecutor().execute(() -> {
+                try {
+                    future.complete(guard.evaluate());
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            guard.close();
+            future.completeExceptionally(createRejectionException(e));
+        }
+        return future;
+    }
+
+    @Override
+    public int getInFlightQueryCount() {
+        return inFlightQueryCount.get();
+    }
+
+    protected static OntopQueryEvaluationException createRejectionException(RejectedExecutionException e) {
+        return new OntopQueryEvaluationException("Too many queries are waiting for being evaluated", e);
+    }
+
+    private static String createDeadlineMessage(long timeoutMillis) {
+        return "Query deadline exceeded (" + timeoutMillis + " ms)";
+    }
+
+    protected static ThreadFactory createDaemonThreadFactory(String prefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+
+    /**
+     * Counts the in-flight queries and cancels the evaluation when the deadline (if any) is reached
+     */
+    private class DeadlineGuard<R> implements QueryEvaluation<R> {
+
+        private final QueryEvaluation<R> evaluation;
+        private final long timeoutMillis;
+        private final AtomicInteger state = new AtomicInteger(RUNNING);
+        @Nullable
+        private final ScheduledFuture<?> timer;
+
+        DeadlineGuard(QueryEvaluation<R> evaluation, QueryCanceller canceller, long timeoutMillis) {
+            this.evaluation = evaluation;
+            this.timeoutMillis = timeoutMillis;
+            this.timer = (timeoutMillis > 0)
+                    ? deadlineTimer.schedule(() -> expire(canceller), timeoutMillis, TimeUnit.MILLISECONDS)
+                    : null;
+        }
+
+        private void expire(QueryCanceller canceller) {
+            if (state.compareAndSet(RUNNING, EXPIRED)) {
+                try {
+                    canceller.cancel();
+                } catch (OntopQueryEvaluationException e) {
+                    log.warn("Could not cancel a query after its deadline: " + e.getMessage());
+                }
+            }
+        }
+
+        @Override
+        public R evaluate() throws OntopQueryEvaluationException, OntopResultConversionException,
+                OntopConnectionException {
+            inFlightQueryCount.incrementAndGet();
+            try {
+                // The deadline may have been reached while waiting in the queue
+                if (state.get() == EXPIRED)
+                    throw new OntopQueryEvaluationException(createDeadlineMessage(timeoutMillis));
+                R result = evaluation.evaluate();
+                if (!state.compareAndSet(RUNNING, COMPLETED))
+                    throw new OntopQueryEvaluationException(createDeadlineMessage(timeoutMillis));
+                return result;
+            } catch (OntopQueryEvaluationException | OntopResultConversionException | OntopConnectionException e) {
+                if (state.compareAndSet(RUNNING, COMPLETED))
+                    throw e;
+                throw new OntopQueryEvaluationException(createDeadlineMessage(timeoutMillis), e);
+            } finally {
+                inFlightQueryCount.decrementAndGet();
+                close();
+            }
+        }
+
+        void close() {
+            if (timer != null)
+                timer.cancel(false);
+        }
+    }
+}
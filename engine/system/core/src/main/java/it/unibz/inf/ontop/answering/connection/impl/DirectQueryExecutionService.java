@@ -0,0 +1,42 @@
+package it.unibz.inf.ontop.answering.connection.impl;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Evaluates the queries directly on the caller thread.
+ *
+ * No thread hand-off: the number of concurrent queries is only bounded by the number of client threads
+ * (and by the size of the JDBC connection pool).
+ */
+@Singleton
+public class DirectQueryExecutionService extends AbstractQueryExecutionService {
+
+    @Inject
+    private DirectQueryExecutionService() {
+    }
+
+    @Override
+    protected <R> R run(QueryEvaluation<R> evaluation, QueryCanceller canceller)
+            throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
+        return evaluation.evaluate();
+    }
+
+    /**
+     * Runs the tasks on the calling thread: the asynchronous methods complete before returning
+     */
+    @Override
+    public Executor getExecutor() {
+        return Runnable::run;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return 0;
+    }
+}
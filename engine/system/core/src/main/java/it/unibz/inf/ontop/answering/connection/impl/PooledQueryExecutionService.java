@@ -0,0 +1,74 @@
+package it.unibz.inf.ontop.answering.connection.impl;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
+
+import java.util.concurrent.*;
+
+/**
+ * Evaluates the queries in a bounded pool of daemon threads.
+ *
+ * Bounds the number of concurrent queries (see {@link OntopSystemSettings#QUERY_EXECUTION_THREADS})
+ * and of waiting ones (see {@link OntopSystemSettings#QUERY_EXECUTION_QUEUE_SIZE}).
+ * The caller thread blocks until the evaluation completes.
+ */
+@Singleton
+public class PooledQueryExecutionService extends AbstractQueryExecutionService {
+
+    private final ThreadPoolExecutor executor;
+
+    @Inject
+    private PooledQueryExecutionService(OntopSystemSettings settings) {
+        int threadCount = settings.getQueryExecutionThreadCount();
+        executor = new ThreadPoolExecutor(threadCount, threadCount, 1, TimeUnit.MINUTES,
+                new LinkedBlockingQueue<>(settings.getQueryExecutionQueueSize()),
+                createDaemonThreadFactory("ontop-query-execution"));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    protected <R> R run(QueryEvaluation<R> evaluation, QueryCanceller canceller)
+            throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
+        Future<R> future;
+        try {
+            future = executor.submit(evaluation::evaluate);
+        } catch (RejectedExecutionException e) {
+            throw createRejectionException(e);
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            // Cooperative: the evaluation ends by itself once cancelled
+            future.cancel(false);
+            canceller.cancel();
+            Thread.currentThread().interrupt();
+            throw new OntopQueryEvaluationException("Interrupted while waiting for the query evaluation");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof OntopQueryEvaluationException)
+                throw (OntopQueryEvaluationException) cause;
+            else if (cause instanceof OntopResultConversionException)
+                throw (OntopResultConversionException) cause;
+            else if (cause instanceof OntopConnectionException)
+                throw (OntopConnectionException) cause;
+            else if (cause instanceof Error)
+                throw (Error) cause;
+            throw new OntopQueryEvaluationException((Exception) cause);
+        }
+    }
+
+    @Override
+    public Executor getExecutor() {
+        return executor;
+    }
+
+    @Override
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+}
@@ -20,20 +20,34 @@ package it.unibz.inf.ontop.answering.connection.impl;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
 import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
 import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
 import it.unibz.inf.ontop.answering.reformulation.QueryReformulator;
 import it.unibz.inf.ontop.answering.reformulation.input.*;
+import it.unibz.inf.ontop.answering.report.QueryExecutionRecorder;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
 import it.unibz.inf.ontop.answering.resultset.*;
+import it.unibz.inf.ontop.answering.resultset.impl.DescribeGraphResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.ReportingGraphResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.ReportingTupleResultSet;
+import it.unibz.inf.ontop.answering.resultset.impl.TupleResultSetPublisher;
 import it.unibz.inf.ontop.exception.*;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
 import it.unibz.inf.ontop.model.term.Constant;
 import it.unibz.inf.ontop.model.term.IRIConstant;
 import org.eclipse.rdf4j.query.MalformedQueryException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.concurrent.CountDownLatch;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 
 /**
@@ -44,17 +58,26 @@ public abstract class QuestStatement implements OntopStatement {
 
 	private final QueryReformulator engine;
 	private final InputQueryFactory inputQueryFactory;
+	private final int describeBatchSize;
 
-	private QueryExecutionThread executionThread;
-	private boolean canceled = false;
+	private final QueryExecutionService executionService;
+	private final QueryExecutionReporter reporter;
+
+	private volatile boolean executing = false;
+	private volatile boolean canceled = false;
 
 
 	private static final Logger log = LoggerFactory.getLogger(QuestStatement.class);
 
 
-	public QuestStatement(QueryReformulator queryProcessor, InputQueryFactory inputQueryFactory) {
+	public QuestStatement(QueryReformulator queryProcessor, InputQueryFactory inputQueryFactory,
+						  QueryExecutionService executionService, QueryExecutionReporter reporter,
+						  OntopSystemSettings settings) {
 		this.engine = queryProcessor;
 		this.inputQueryFactory = inputQueryFactory;
+		this.executionService = executionService;
+		this.reporter = reporter;
+		this.describeBatchSize = settings.getDescribeBatchSize();
 	}
 
 	/**
@@ -67,79 +90,6 @@ public abstract class QuestStatement implements OntopStatement {
 				throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
 	}
 
-	/**
-	 * Execution thread
-	 */
-	private class QueryExecutionThread<R extends OBDAResultSet, Q extends InputQuery<R>> extends Thread {
-
-		private final Q inputQuery;
-		private final QuestStatement.Evaluator<R, Q> evaluator;
-		private final CountDownLatch monitor;
-		private final ExecutableQuery executableQuery;
-
-		private R resultSet;	  // only for SELECT and ASK queries
-		private Exception exception;
-		private boolean executingTargetQuery;
-
-		QueryExecutionThread(Q inputQuery, ExecutableQuery executableQuery, Evaluator<R,Q> evaluator,
-							 CountDownLatch monitor) {
-			this.executableQuery = executableQuery;
-			this.inputQuery = inputQuery;
-			this.evaluator = evaluator;
-			this.monitor = monitor;
-			this.exception = null;
-			this.executingTargetQuery = false;
-		}
-
-		public boolean errorStatus() {
-			return exception != null;
-		}
-
-		public Exception getException() {
-			return exception;
-		}
-
-		public R getResultSet() {
-			return resultSet;
-		}
-
-		public void cancel() throws OntopQueryEvaluationException {
-			canceled = true;
-			if (!executingTargetQuery) {
-				this.stop();
-			} else {
-				cancelExecution();
-			}
-		}
-
-		@Override
-		public void run() {
-			//                        FOR debugging H2 in-memory database
-//			try {
-//				org.h2.tools.Server.startWebServer(((QuestConnection)conn).getSQLConnection());
-//			} catch (SQLException e) {
-//				e.printStackTrace();
-//			}
-			try {
-				/**
-				 * Executes the target query.
-				 */
-				log.debug("Executing the query and get the result...");
-				executingTargetQuery = true;
-				resultSet = evaluator.evaluate(inputQuery, executableQuery);
-				log.debug("Execution finished.\n");
-				/*
-				 * TODO: re-handle the timeout exception.
-				 */
-			} catch (Exception e) {
-				exception = e;
-				log.error(e.getMessage(), e);
-			} finally {
-				monitor.countDown();
-			}
-		}
-	}
-
 	protected abstract TupleResultSet executeSelectQuery(ExecutableQuery executableQuery)
 			throws OntopQueryEvaluationException;
 
@@ -156,27 +106,18 @@ public abstract class QuestStatement implements OntopStatement {
 		return executeBooleanQuery(executableQuery);
 	}
 
-	/**
-	 * TODO: describe
-	 */
-	private SimpleGraphResultSet executeDescribeConstructQuery(ConstructQuery constructQuery, ExecutableQuery executableQuery)
-			throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
-		return executeGraphQuery(constructQuery, executableQuery, true);
-	}
-
 	/**
 	 * TODO: describe
 	 */
 	private SimpleGraphResultSet executeConstructQuery(ConstructQuery constructQuery, ExecutableQuery executableQuery)
 			throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
-		return executeGraphQuery(constructQuery, executableQuery, false);
+		return executeGraphQuery(constructQuery, executableQuery);
 	}
 
 	/**
-	 * TODO: refactor
+	 * Streams the results (no buffering)
 	 */
-	protected abstract SimpleGraphResultSet executeGraphQuery(ConstructQuery query, ExecutableQuery executableQuery,
-															  boolean collectResults)
+	protected abstract SimpleGraphResultSet executeGraphQuery(ConstructQuery query, ExecutableQuery executableQuery)
 			throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException;
 
 	/**
@@ -208,54 +149,171 @@ public abstract class QuestStatement implements OntopStatement {
 		}
 	}
 
+	@Override
+	public <R extends OBDAResultSet> CompletableFuture<R> executeAsync(InputQuery<R> inputQuery) {
+		if (inputQuery instanceof SelectQuery) {
+			return (CompletableFuture<R>) executeAsync((SelectQuery) inputQuery, this::executeSelectQuery);
+		}
+		else if (inputQuery instanceof AskQuery) {
+			return (CompletableFuture<R>) executeAsync((AskQuery) inputQuery, this::executeBooleanQuery);
+		}
+		else if (inputQuery instanceof ConstructQuery) {
+			return (CompletableFuture<R>) executeAsync((ConstructQuery) inputQuery, this::executeConstructQuery);
+		}
+		else if (inputQuery instanceof DescribeQuery) {
+			return (CompletableFuture<R>) executeDescribeQueryAsync((DescribeQuery) inputQuery);
+		}
+		else {
+			return failedFuture(new OntopUnsupportedInputQueryException("Unsupported query type: " + inputQuery));
+		}
+	}
+
+	@Override
+	public OntopBindingSetPublisher publish(SelectQuery selectQuery) {
+		return publish(selectQuery, () -> {});
+	}
+
+	/**
+	 * onTermination is closed after the result set
+	 */
+	OntopBindingSetPublisher publish(SelectQuery selectQuery, AutoCloseable onTermination) {
+		return new TupleResultSetPublisher(executeAsync(selectQuery), executionService.getExecutor(), onTermination);
+	}
+
 	/**
-	 * TODO: completely refactor this old-way of processing DESCRIBE.
-	 *  ---> should be converted into 1 CONSTRUCT query
+	 * Two tasks: the reformulation and the evaluation.
+	 * Therefore, the reformulation of the next query can be performed while the current one is being evaluated.
+	 */
+	private <R extends OBDAResultSet, Q extends InputQuery<R>> CompletableFuture<R> executeAsync(
+			Q inputQuery, Evaluator<R, Q> evaluator) {
+		long timeoutMillis;
+		try {
+			timeoutMillis = getTimeoutMillis();
+		} catch (OntopQueryEvaluationException e) {
+			return failedFuture(e);
+		}
+
+		QueryExecutionRecorder recorder = new QueryExecutionRecorder(inputQuery.getInputString(),
+				reporter.isMeasuringSizes());
+
+		return supplyAsync(() -> engine.reformulateIntoNativeQuery(inputQuery, recorder))
+				.thenCompose(executableQuery -> {
+					if (canceled) {
+						canceled = false;
+						return failedFuture(new OntopQueryEvaluationException("Query execution was cancelled"));
+					}
+					return executionService.executeAsync(
+						() -> {
+							executing = true;
+							try {
+								recorder.onDBQuerySent();
+								return evaluator.evaluate(inputQuery, executableQuery);
+							} finally {
+								executing = false;
+							}
+						},
+						this::cancelExecution,
+						timeoutMillis);
+				})
+				.whenComplete((r, e) -> {
+					if (e != null)
+						fail(recorder, (e instanceof CompletionException && e.getCause() != null)
+								? e.getCause()
+								: e);
+				})
+				.thenApply(r -> report(r, recorder));
+	}
+
+	private static <T> CompletableFuture<T> failedFuture(Throwable e) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		future.completeExceptionally(e);
+		return future;
+	}
+
+	@FunctionalInterface
+	private interface AsyncTask<T> {
+		T run() throws Exception;
+	}
+
+	private <T> CompletableFuture<T> supplyAsync(AsyncTask<T> task) {
+		CompletableFuture<T> future = new CompletableFuture<>();
+		try {
+			executionService.getExecutor().execute(() -> {
+				try {
+					future.complete(task.run());
+				} catch (Throwable e) {
+					future.completeExceptionally(e);
+				}
+			});
+		} catch (RejectedExecutionException e) {
+			future.completeExceptionally(new OntopQueryEvaluationException(e));
+		}
+		return future;
+	}
+
+	/**
+	 * Same steps as {@link #executeDescribeQuery(DescribeQuery)}, but the SELECT query collecting the described
+	 * resources and the first CONSTRUCT query are executed asynchronously, as separate tasks:
+	 * the tasks of the execution service never wait for other tasks (which may be queued behind them).
+	 */
+	private CompletableFuture<SimpleGraphResultSet> executeDescribeQueryAsync(DescribeQuery inputQuery) {
+		Optional<SelectQuery> selectQuery;
+		try {
+			selectQuery = createDescribeSelectQuery(inputQuery);
+		} catch (OntopReformulationException e) {
+			return failedFuture(e);
+		}
+
+		CompletableFuture<ImmutableSet<String>> constants = selectQuery.isPresent()
+				? executeAsync(selectQuery.get(), this::executeSelectQuery)
+					.thenCompose(resultSet -> supplyAsync(() -> collectDescribedConstants(resultSet)))
+				: supplyAsync(() -> extractDescribeQueryConstants(inputQuery));
+
+		return constants
+				.thenCompose(c -> supplyAsync(() -> createDescribeConstructQueries(c)))
+				.thenCompose(constructQueries -> constructQueries.isEmpty()
+						? supplyAsync(() -> new DescribeGraphResultSet(constructQueries,
+								q -> executeInThread(q, this::executeConstructQuery)))
+						: executeAsync(constructQueries.get(0), this::executeConstructQuery)
+							.thenApply(resultSet -> new DescribeGraphResultSet(resultSet,
+									constructQueries.subList(1, constructQueries.size()),
+									q -> executeInThread(q, this::executeConstructQuery))));
+	}
+
+	/**
+	 * The described resources are grouped into batches of at most describeBatchSize constants.
+	 * Each batch is described by two VALUES-driven CONSTRUCT queries (subject and object positions).
+	 * The resources are parameters of these queries, whose template is only reformulated once.
+	 *
+	 * The CONSTRUCT queries are executed lazily, one after the other (see {@link DescribeGraphResultSet}).
 	 */
 	private SimpleGraphResultSet executeDescribeQuery(DescribeQuery inputQuery)
 			throws OntopReformulationException, OntopResultConversionException, OntopConnectionException,
 			OntopQueryEvaluationException {
 
-		ImmutableSet<String> constants = extractDescribeQueryConstants(inputQuery);
+		return new DescribeGraphResultSet(createDescribeConstructQueries(extractDescribeQueryConstants(inputQuery)),
+				q -> executeInThread(q, this::executeConstructQuery));
+	}
 
-		SimpleGraphResultSet describeResultSet = null;
+	private ImmutableList<ConstructQuery> createDescribeConstructQueries(ImmutableSet<String> constants)
+			throws OntopReformulationException {
+		Iterable<List<String>> batches = Iterables.partition(constants, describeBatchSize);
 
+		ImmutableList.Builder<ConstructQuery> constructQueryBuilder = ImmutableList.builder();
 		try {
-			// execute describe <uriconst> in subject position
-			for (String constant : constants) {
-				// for each constant we execute a construct with
-				// the uri as subject, and collect the results
-				String str = SPARQLQueryUtility.getConstructSubjQuery(constant);
-				ConstructQuery constructQuery = inputQueryFactory.createConstructQuery(str);
-
-				SimpleGraphResultSet set = executeInThread(constructQuery, this::executeDescribeConstructQuery);
-				if (describeResultSet == null) { // just for the first time
-					describeResultSet = set;
-				} else if (set != null) {
-					// 2nd and manyth times execute, but collect result into one object
-					while (set.hasNext())
-						describeResultSet.addNewResult(set.next());
-				}
+			// describe <uriconst> in subject position
+			for (List<String> batch : batches) {
+				constructQueryBuilder.add(inputQueryFactory.createDescribeConstructQuery(batch, true));
 			}
-			// execute describe <uriconst> in object position
-			for (String constant : constants) {
-				String str = SPARQLQueryUtility.getConstructObjQuery(constant);
-
-				ConstructQuery constructQuery = inputQueryFactory.createConstructQuery(str);
-				SimpleGraphResultSet set = executeInThread(constructQuery, this::executeDescribeConstructQuery);
-
-				if (describeResultSet == null) { // just for the first time
-					describeResultSet = set;
-				} else if (set != null) {
-					while (set.hasNext())
-						describeResultSet.addNewResult(set.next());
-				}
+			// describe <uriconst> in object position
+			for (List<String> batch : batches) {
+				constructQueryBuilder.add(inputQueryFactory.createDescribeConstructQuery(batch, false));
 			}
 			// Exception is re-cast because not due to the initial input query
 		} catch (OntopInvalidInputQueryException e) {
 			throw new OntopReformulationException(e);
 		}
-		return describeResultSet;
+		return constructQueryBuilder.build();
 	}
 
 	private ImmutableSet<String> extractDescribeQueryConstants(DescribeQuery inputQuery)
@@ -264,27 +322,9 @@ public abstract class QuestStatement implements OntopStatement {
 		String inputQueryString = inputQuery.getInputString();
 
 		// create list of URI constants we want to describe
-		if (SPARQLQueryUtility.isVarDescribe(inputQueryString)) {
-			// if describe ?var, we have to do select distinct ?var first
-			String sel = SPARQLQueryUtility.getSelectVarDescribe(inputQueryString);
-			try {
-				SelectQuery selectQuery = inputQueryFactory.createSelectQuery(sel);
-				TupleResultSet resultSet = execute(selectQuery);
-
-				ImmutableSet.Builder<String> constantSetBuilder = ImmutableSet.builder();
-				while (resultSet.hasNext()) {
-                    final OntopBindingSet bindingSet = resultSet.next();
-                    Constant constant = bindingSet.getConstant(1);
-					if (constant instanceof IRIConstant) {
-						// collect constants in list
-						constantSetBuilder.add(((IRIConstant) constant).getIRI().getIRIString());
-					}
-				}
-				return constantSetBuilder.build();
-				// Exception is re-cast because not due to the initial input query
-			} catch (OntopInvalidInputQueryException e) {
-				throw new OntopReformulationException(e);
-			}
+		Optional<SelectQuery> selectQuery = createDescribeSelectQuery(inputQuery);
+		if (selectQuery.isPresent()) {
+			return collectDescribedConstants(execute(selectQuery.get()));
 		}
 		else if (SPARQLQueryUtility.isURIDescribe(inputQueryString)) {
 			// DESCRIBE <uri> gives direct results, so we put the
@@ -299,57 +339,149 @@ public abstract class QuestStatement implements OntopStatement {
 			return ImmutableSet.of();
 	}
 
+	/**
+	 * If describe ?var, we have to do select distinct ?var first
+	 */
+	private Optional<SelectQuery> createDescribeSelectQuery(DescribeQuery inputQuery)
+			throws OntopReformulationException {
+		String inputQueryString = inputQuery.getInputString();
+		if (!SPARQLQueryUtility.isVarDescribe(inputQueryString))
+			return Optional.empty();
+
+		String sel = SPARQLQueryUtility.getSelectVarDescribe(inputQueryString);
+		try {
+			return Optional.of(inputQueryFactory.createSelectQuery(sel));
+			// Exception is re-cast because not due to the initial input query
+		} catch (OntopInvalidInputQueryException e) {
+			throw new OntopReformulationException(e);
+		}
+	}
+
+	private ImmutableSet<String> collectDescribedConstants(TupleResultSet resultSet)
+			throws OntopConnectionException, OntopResultConversionException {
+		ImmutableSet.Builder<String> constantSetBuilder = ImmutableSet.builder();
+		while (resultSet.hasNext()) {
+			final OntopBindingSet bindingSet = resultSet.next();
+			Constant constant = bindingSet.getConstant(1);
+			if (constant instanceof IRIConstant) {
+				// collect constants in list
+				constantSetBuilder.add(((IRIConstant) constant).getIRI().getIRIString());
+			}
+		}
+		return constantSetBuilder.build();
+	}
+
 
 	/**
-	 * Internal method to start a new query execution thread type defines the
-	 * query type SELECT, ASK, CONSTRUCT, or DESCRIBE
+	 * Internal method to reformulate the query and to evaluate it with the execution service.
+	 * Type defines the query type SELECT, ASK, CONSTRUCT, or DESCRIBE
 	 */
 	private <R extends OBDAResultSet, Q extends InputQuery<R>> R executeInThread(Q inputQuery, Evaluator<R, Q> evaluator)
 			throws OntopReformulationException, OntopQueryEvaluationException {
+		QueryExecutionRecorder recorder = new QueryExecutionRecorder(inputQuery.getInputString(),
+				reporter.isMeasuringSizes());
+		R resultSet;
+		try {
+			resultSet = executeInThread(inputQuery, evaluator, recorder);
+		} catch (OntopReformulationException | OntopQueryEvaluationException | RuntimeException e) {
+			fail(recorder, e);
+			throw e;
+		}
+		return report(resultSet, recorder);
+	}
+
+	private <R extends OBDAResultSet, Q extends InputQuery<R>> R executeInThread(Q inputQuery, Evaluator<R, Q> evaluator,
+																				 QueryExecutionRecorder recorder)
+			throws OntopReformulationException, OntopQueryEvaluationException {
 
 		log.debug("Executing SPARQL query: \n{}", inputQuery);
 
-		CountDownLatch monitor = new CountDownLatch(1);
-		ExecutableQuery executableQuery = engine.reformulateIntoNativeQuery(inputQuery);
+		ExecutableQuery executableQuery = engine.reformulateIntoNativeQuery(inputQuery, recorder);
 
-		QueryExecutionThread<R, Q> executionthread = new QueryExecutionThread<>(inputQuery, executableQuery, evaluator,
-				monitor);
+		if (canceled) {
+			canceled = false;
+			throw new OntopQueryEvaluationException("Query execution was cancelled");
+		}
 
-		this.executionThread = executionthread;
-		executionthread.start();
+		R resultSet;
+		executing = true;
 		try {
-			monitor.await();
-		} catch (InterruptedException e) {
-			e.printStackTrace();
-		}
-		if (executionthread.errorStatus()) {
-			Exception ex = executionthread.getException();
-			if (ex instanceof OntopReformulationException) {
-				throw (OntopReformulationException) ex;
-			}
-			else if (ex instanceof OntopQueryEvaluationException) {
-				throw (OntopQueryEvaluationException) ex;
-			}
-			else {
-				throw new OntopQueryEvaluationException(ex);
+			log.debug("Executing the query and get the result...");
+			resultSet = executionService.execute(
+					() -> {
+						recorder.onDBQuerySent();
+						return evaluator.evaluate(inputQuery, executableQuery);
+					},
+					this::cancelExecution,
+					getTimeoutMillis());
+			log.debug("Execution finished.\n");
+		} catch (OntopQueryEvaluationException e) {
+			if (canceled) {
+				canceled = false;
+				throw new OntopQueryEvaluationException("Query execution was cancelled", e);
 			}
+			log.error(e.getMessage(), e);
+			throw e;
+		} catch (OntopResultConversionException | OntopConnectionException e) {
+			log.error(e.getMessage(), e);
+			throw new OntopQueryEvaluationException(e);
+		} finally {
+			executing = false;
 		}
 
 		if (canceled) {
 			canceled = false;
 			throw new OntopQueryEvaluationException("Query execution was cancelled");
 		}
-		return executionthread.getResultSet();
+		return resultSet;
+	}
+
+	/**
+	 * Tuple and graph results: the query is reported once its results have been consumed (or closed).
+	 * Boolean results are already complete.
+	 */
+	@SuppressWarnings("unchecked")
+	private <R extends OBDAResultSet> R report(R resultSet, QueryExecutionRecorder recorder) {
+		if (resultSet instanceof TupleResultSet)
+			return (R) new ReportingTupleResultSet((TupleResultSet) resultSet, recorder, reporter);
+		else if (resultSet instanceof SimpleGraphResultSet)
+			return (R) new ReportingGraphResultSet((SimpleGraphResultSet) resultSet, recorder, reporter);
+
+		if (recorder.complete())
+			reporter.report(recorder.buildReport());
+		return resultSet;
 	}
 
-	
+	private void fail(QueryExecutionRecorder recorder, Throwable failure) {
+		recorder.onFailure(failure);
+		if (recorder.complete())
+			reporter.report(recorder.buildReport());
+	}
+
+	/**
+	 * The query timeout of the statement, in ms (0 if none).
+	 * The execution service starts counting when the evaluation is submitted.
+	 */
+	private long getTimeoutMillis() throws OntopQueryEvaluationException {
+		try {
+			return getQueryTimeout() * 1000L;
+		} catch (OntopConnectionException e) {
+			throw new OntopQueryEvaluationException(e);
+		}
+	}
+
+	/**
+	 * Cooperative: the execution of the current query is cancelled (e.g. by the JDBC driver).
+	 */
 	@Override
 	public void cancel() throws OntopConnectionException {
 		canceled = true;
-		try {
-			QuestStatement.this.executionThread.cancel();
-		} catch (Exception e) {
-			throw new OntopConnectionException(e);
+		if (executing) {
+			try {
+				cancelExecution();
+			} catch (Exception e) {
+				throw new OntopConnectionException(e);
+			}
 		}
 	}
 
@@ -8,11 +8,14 @@ import it.unibz.inf.ontop.answering.reformulation.QueryReformulator;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
 import it.unibz.inf.ontop.injection.OntopSystemFactory;
 import it.unibz.inf.ontop.injection.ReformulationFactory;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
 import it.unibz.inf.ontop.answering.connection.DBConnector;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
 import it.unibz.inf.ontop.iq.tools.ExecutorRegistry;
 import it.unibz.inf.ontop.spec.OBDASpecification;
 
+import java.util.Optional;
+
 public class OntopQueryEngineImpl implements OntopQueryEngine {
 
     private final DBConnector dbConnector;
@@ -40,4 +43,9 @@ public class OntopQueryEngineImpl implements OntopQueryEngine {
     public OntopConnection getConnection() throws OntopConnectionException {
         return dbConnector.getConnection();
     }
+
+    @Override
+    public Optional<ConnectionPoolStatistics> getConnectionPoolStatistics() {
+        return dbConnector.getConnectionPoolStatistics();
+    }
 }
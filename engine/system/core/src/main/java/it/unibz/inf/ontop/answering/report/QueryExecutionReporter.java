@@ -0,0 +1,30 @@
+package it.unibz.inf.ontop.answering.report;
+
+/**
+ * Receives the report of each executed query and dispatches it to the listeners
+ * (and to the slow-query log and the JMX statistics, if enabled).
+ *
+ * Thread-safe.
+ */
+public interface QueryExecutionReporter {
+
+    void report(QueryExecutionReport report);
+
+    /**
+     * In addition to the listeners loaded with the {@link java.util.ServiceLoader}
+     */
+    void addListener(QueryExecutionListener listener);
+
+    void removeListener(QueryExecutionListener listener);
+
+    /**
+     * False when no listener, no slow-query log, no statistics and no debug log consume the sizes
+     * of the intermediate queries: computing them can then be skipped.
+     */
+    boolean isMeasuringSizes();
+
+    /**
+     * Releases the resources (e.g. unregisters the JMX statistics)
+     */
+    void close();
+}
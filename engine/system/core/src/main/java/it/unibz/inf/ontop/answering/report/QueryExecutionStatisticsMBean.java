@@ -0,0 +1,30 @@
+package it.unibz.inf.ontop.answering.report;
+
+/**
+ * Aggregated over all the queries executed by one query engine.
+ *
+ * Registered in the platform MBean server (if enabled in the settings),
+ * under the domain "it.unibz.inf.ontop" and the type "QueryExecutionStatistics".
+ */
+public interface QueryExecutionStatisticsMBean {
+
+    long getQueryCount();
+
+    long getFailedQueryCount();
+
+    long getCacheHitCount();
+
+    long getSlowQueryCount();
+
+    long getRowCount();
+
+    double getAverageReformulationTimeMicros();
+
+    double getAverageDBFirstRowTimeMicros();
+
+    double getAverageTotalTimeMicros();
+
+    long getMaxTotalTimeMicros();
+
+    void reset();
+}
@@ -0,0 +1,134 @@
+package it.unibz.inf.ontop.answering.report.impl;
+
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.answering.report.QueryExecutionListener;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReport;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
+import it.unibz.inf.ontop.answering.report.QueryExecutionStatisticsMBean;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Listeners are loaded once, with the ServiceLoader of the class loader of this class.
+ *
+ * The slow queries are logged (level WARN) by the logger "it.unibz.inf.ontop.slowqueries", so that they can be
+ * redirected to a dedicated file.
+ */
+@Singleton
+public class DefaultQueryExecutionReporter implements QueryExecutionReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DefaultQueryExecutionReporter.class);
+    private static final Logger SLOW_QUERY_LOGGER = LoggerFactory.getLogger("it.unibz.inf.ontop.slowqueries");
+    private static final String MBEAN_NAME_PREFIX = "it.unibz.inf.ontop:type=QueryExecutionStatistics,name=engine";
+    private static final AtomicInteger MBEAN_COUNTER = new AtomicInteger();
+
+    private final List<QueryExecutionListener> listeners = new CopyOnWriteArrayList<>();
+    private final long slowQueryThresholdMicros;
+    @Nullable
+    private final QueryExecutionStatisticsImpl statistics;
+    @Nullable
+    private final ObjectName statisticsName;
+
+    @Inject
+    private DefaultQueryExecutionReporter(OntopSystemSettings settings) {
+        for (QueryExecutionListener listener : ServiceLoader.load(QueryExecutionListener.class,
+                DefaultQueryExecutionReporter.class.getClassLoader()))
+            listeners.add(listener);
+
+        int threshold = settings.getSlowQueryThreshold();
+        this.slowQueryThresholdMicros = threshold < 0 ? -1 : TimeUnit.MILLISECONDS.toMicros(threshold);
+
+        if (settings.isQueryStatisticsMBeanEnabled()) {
+            QueryExecutionStatisticsImpl newStatistics = new QueryExecutionStatisticsImpl();
+            this.statisticsName = registerStatistics(newStatistics);
+            this.statistics = statisticsName == null ? null : newStatistics;
+        }
+        else {
+            this.statisticsName = null;
+            this.statistics = null;
+        }
+    }
+
+    /**
+     * Returns the name of the registered MBean (null if the registration has failed)
+     */
+    @Nullable
+    private static ObjectName registerStatistics(QueryExecutionStatisticsImpl statistics) {
+        try {
+            ObjectName name = new ObjectName(MBEAN_NAME_PREFIX + MBEAN_COUNTER.incrementAndGet());
+            ManagementFactory.getPlatformMBeanServer().registerMBean(
+                    new StandardMBean(statistics, QueryExecutionStatisticsMBean.class), name);
+            return name;
+        } catch (JMException e) {
+            LOGGER.warn("Cannot register the query execution statistics MBean: " + e);
+            return null;
+        }
+    }
+
+    @Override
+    public void report(QueryExecutionReport report) {
+        boolean isSlow = slowQueryThresholdMicros >= 0 && report.getTotalTimeMicros() >= slowQueryThresholdMicros;
+        if (isSlow)
+            SLOW_QUERY_LOGGER.warn("Slow query ({})\nSPARQL query:\n{}\nNative query:\n{}", report,
+                    report.getInputQueryString(), report.getNativeQueryString().orElse("(none)"));
+        else
+            LOGGER.debug("Query executed: {}", report);
+
+        if (statistics != null)
+            statistics.update(report, isSlow);
+
+        for (QueryExecutionListener listener : listeners) {
+            try {
+                listener.onQueryCompleted(report);
+            } catch (RuntimeException e) {
+                LOGGER.warn("Query execution listener " + listener + " has failed: " + e);
+            }
+        }
+    }
+
+    @Override
+    public void addListener(QueryExecutionListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public void removeListener(QueryExecutionListener listener) {
+        listeners.remove(listener);
+    }
+
+    @Override
+    public boolean isMeasuringSizes() {
+        return !listeners.isEmpty() || slowQueryThresholdMicros >= 0 || statistics != null
+                || LOGGER.isDebugEnabled();
+    }
+
+    /**
+     * Idempotent
+     */
+    @Override
+    public void close() {
+        if (statisticsName == null)
+            return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (server.isRegistered(statisticsName))
+                server.unregisterMBean(statisticsName);
+        } catch (JMException e) {
+            LOGGER.warn("Cannot unregister the query execution statistics MBean: " + e);
+        }
+    }
+}
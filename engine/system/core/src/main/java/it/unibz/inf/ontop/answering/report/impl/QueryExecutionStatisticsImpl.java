@@ -0,0 +1,106 @@
+package it.unibz.inf.ontop.answering.report.impl;
+
+import it.unibz.inf.ontop.answering.report.QueryExecutionReport;
+import it.unibz.inf.ontop.answering.report.QueryExecutionStatisticsMBean;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lock-free: updated concurrently by the threads completing the queries
+ */
+class QueryExecutionStatisticsImpl implements QueryExecutionStatisticsMBean {
+
+    private final LongAdder queryCount = new LongAdder();
+    private final LongAdder failedQueryCount = new LongAdder();
+    private final LongAdder cacheHitCount = new LongAdder();
+    private final LongAdder slowQueryCount = new LongAdder();
+    private final LongAdder rowCount = new LongAdder();
+    private final LongAdder reformulationTime = new LongAdder();
+    private final LongAdder dbFirstRowTime = new LongAdder();
+    private final LongAdder dbQueryCount = new LongAdder();
+    private final LongAdder totalTime = new LongAdder();
+    private final LongAccumulator maxTotalTime = new LongAccumulator(Math::max, 0);
+
+    void update(QueryExecutionReport report, boolean isSlow) {
+        queryCount.increment();
+        if (report.getFailureMessage().isPresent())
+            failedQueryCount.increment();
+        if (report.isCacheHit())
+            cacheHitCount.increment();
+        if (isSlow)
+            slowQueryCount.increment();
+        rowCount.add(report.getRowCount());
+        reformulationTime.add(report.getReformulationTimeMicros());
+        report.getDBFirstRowTimeMicros().ifPresent(t -> {
+            dbFirstRowTime.add(t);
+            dbQueryCount.increment();
+        });
+        totalTime.add(report.getTotalTimeMicros());
+        maxTotalTime.accumulate(report.getTotalTimeMicros());
+    }
+
+    @Override
+    public long getQueryCount() {
+        return queryCount.sum();
+    }
+
+    @Override
+    public long getFailedQueryCount() {
+        return failedQueryCount.sum();
+    }
+
+    @Override
+    public long getCacheHitCount() {
+        return cacheHitCount.sum();
+    }
+
+    @Override
+    public long getSlowQueryCount() {
+        return slowQueryCount.sum();
+    }
+
+    @Override
+    public long getRowCount() {
+        return rowCount.sum();
+    }
+
+    @Override
+    public double getAverageReformulationTimeMicros() {
+        return average(reformulationTime, queryCount);
+    }
+
+    @Override
+    public double getAverageDBFirstRowTimeMicros() {
+        return average(dbFirstRowTime, dbQueryCount);
+    }
+
+    @Override
+    public double getAverageTotalTimeMicros() {
+        return average(totalTime, queryCount);
+    }
+
+    @Override
+    public long getMaxTotalTimeMicros() {
+        return maxTotalTime.get();
+    }
+
+    @Override
+    public void reset() {
+        queryCount.reset();
+        failedQueryCount.reset();
+        cacheHitCount.reset();
+        slowQueryCount.reset();
+        rowCount.reset();
+        reformulationTime.reset();
+        dbFirstRowTime.reset();
+        dbQueryCount.reset();
+        totalTime.reset();
+        maxTotalTime.reset();
+    }
+
+    private static double average(LongAdder sum, LongAdder count) {
+        long c = count.sum();
+        return c == 0 ? 0 : (double) sum.sum() / c;
+    }
+}
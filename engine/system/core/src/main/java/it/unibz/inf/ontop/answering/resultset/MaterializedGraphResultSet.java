@@ -3,6 +3,7 @@ package it.unibz.inf.ontop.answering.resultset;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
 import org.apache.commons.rdf.api.IRI;
 
 /**
@@ -44,4 +45,12 @@ public interface MaterializedGraphResultSet extends GraphResultSet<OntopQueryAns
      * NB: It is possible that for some predicate/classes, no RDF triple is produced (empty answer)
      */
     ImmutableSet<IRI> getSelectedVocabulary();
+
+    /**
+     * Throughput metrics of the RDF predicates/classes whose materialization has started so far
+     * (in the order they have been started).
+     *
+     * May evolve until the materialization completes.
+     */
+    ImmutableList<PredicateMaterializationStatistics> getPredicateStatisticsSoFar();
 }
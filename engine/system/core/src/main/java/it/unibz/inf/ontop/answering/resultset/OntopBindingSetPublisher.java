@@ -0,0 +1,40 @@
+package it.unibz.inf.ontop.answering.resultset;
+
+/**
+ * Publishes the results of a SELECT query with demand-driven backpressure:
+ * the binding sets are only fetched when requested by the subscriber.
+ *
+ * Follows the contract of java.util.concurrent.Flow (Java 9) and of Reactive Streams,
+ * so that it can be trivially adapted to them.
+ *
+ * Only one subscriber per publisher.
+ */
+public interface OntopBindingSetPublisher {
+
+    void subscribe(Subscriber subscriber);
+
+
+    interface Subscriber {
+
+        void onSubscribe(Subscription subscription);
+
+        void onNext(OntopBindingSet bindingSet);
+
+        void onError(Throwable throwable);
+
+        void onComplete();
+    }
+
+    interface Subscription {
+
+        /**
+         * Requests n more binding sets (n > 0). Long.MAX_VALUE means no bound.
+         */
+        void request(long n);
+
+        /**
+         * Stops the publication and releases the results
+         */
+        void cancel();
+    }
+}
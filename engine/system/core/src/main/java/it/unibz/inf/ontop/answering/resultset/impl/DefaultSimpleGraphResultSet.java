@@ -20,6 +20,7 @@ package it.unibz.inf.ontop.answering.resultset.impl;
  * #L%
  */
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import it.unibz.inf.ontop.answering.reformulation.input.ConstructTemplate;
 import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
@@ -39,48 +40,48 @@ import org.eclipse.rdf4j.model.IRI;
 import org.eclipse.rdf4j.model.Literal;
 import org.eclipse.rdf4j.query.algebra.*;
 
-import java.util.ArrayList;
-import java.util.List;
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.NoSuchElementException;
 
+/**
+ * Streams the assertions built from the tuple result set: only the assertions of the current row are buffered.
+ *
+ * The construct template is compiled once: its constants are built in the constructor.
+ */
 public class DefaultSimpleGraphResultSet implements SimpleGraphResultSet {
 
-	private final List<Assertion> results = new ArrayList<>();
+	private final Deque<Assertion> results = new ArrayDeque<>();
 
 	private final TupleResultSet tupleResultSet;
 
-	private final ConstructTemplate constructTemplate;
-
-	private final ImmutableMap<String, ValueExpr> extMap;
+	private final ImmutableList<TemplateTriple> templateTriples;
 
-	// store results in case of describe queries
-	private final boolean storeResults;
-    private final TermFactory termFactory;
-    private final org.apache.commons.rdf.api.RDF rdfFactory;
+	private final ABoxAssertionSupplier builder;
 
     public DefaultSimpleGraphResultSet(TupleResultSet tupleResultSet, ConstructTemplate constructTemplate,
-                                       boolean storeResults, TermFactory termFactory,
-                                       org.apache.commons.rdf.api.RDF rdfFactory) throws OntopResultConversionException, OntopConnectionException {
+                                       TermFactory termFactory, org.apache.commons.rdf.api.RDF rdfFactory) {
 		this.tupleResultSet = tupleResultSet;
-		this.constructTemplate = constructTemplate;
-        this.termFactory = termFactory;
-        this.rdfFactory = rdfFactory;
+        this.builder = OntologyBuilderImpl.assertionSupplier(rdfFactory);
+
         Extension ex = constructTemplate.getExtension();
-        if (ex != null) {
-            extMap = ex.getElements().stream()
-                    .collect(ImmutableCollectors.toMap(e -> e.getName(), e -> e.getExpr()));
-        }
-        else
-            extMap = null;
-
-        this.storeResults = storeResults;
-        if (storeResults) {
-            //process current result set into local buffer,
-            //since additional results will be collected
-            while (tupleResultSet.hasNext()) {
-                results.addAll(processResults(tupleResultSet.next()));
+        ImmutableMap<String, ValueExpr> extMap = (ex != null)
+                ? ex.getElements().stream()
+                    .collect(ImmutableCollectors.toMap(e -> e.getName(), e -> e.getExpr()))
+                : ImmutableMap.of();
+
+        ImmutableList.Builder<TemplateTriple> tripleBuilder = ImmutableList.builder();
+        for (ProjectionElemList peList : constructTemplate.getProjectionElemList()) {
+            ImmutableList<ProjectionElem> elements = ImmutableList.copyOf(peList.getElements());
+            for (int i = 0; i < elements.size() / 3; i++) {
+                tripleBuilder.add(new TemplateTriple(
+                        compile(elements.get(i * 3), extMap, termFactory, rdfFactory),
+                        compile(elements.get(i * 3 + 1), extMap, termFactory, rdfFactory),
+                        compile(elements.get(i * 3 + 2), extMap, termFactory, rdfFactory)));
             }
         }
+        this.templateTriples = tripleBuilder.build();
 	}
 
 
@@ -92,107 +93,81 @@ public class DefaultSimpleGraphResultSet implements SimpleGraphResultSet {
     @Override
 	public void addNewResult(Assertion assertion)
 	{
-		results.add(assertion);
+		results.addLast(assertion);
 	}
 
 	/**
 	 * The method to actually process the current result set Row.
-	 * Construct a list of assertions from the current result set row.
-	 * In case of describe it is called to process and store all 
-	 * the results from a resultset.
-	 * In case of construct it is called upon next, to process
-	 * the only current result set.
+	 * Adds to the buffer the assertions constructed from the current result set row.
 	 */
-    private List<Assertion> processResults(OntopBindingSet bindingSet)
+    private void processResults(OntopBindingSet bindingSet)
             throws OntopResultConversionException, OntopConnectionException {
 
-        List<Assertion> tripleAssertions = new ArrayList<>();
-        ABoxAssertionSupplier builder = OntologyBuilderImpl.assertionSupplier(rdfFactory);
+        for (TemplateTriple triple : templateTriples) {
 
-        for (ProjectionElemList peList : constructTemplate.getProjectionElemList()) {
-            int size = peList.getElements().size();
-
-            for (int i = 0; i < size / 3; i++) {
+            ObjectConstant subjectConstant = (ObjectConstant) triple.subject.getConstant(bindingSet);
+            Constant predicateConstant = triple.predicate.getConstant(bindingSet);
+            Constant objectConstant = triple.object.getConstant(bindingSet);
 
-                ObjectConstant subjectConstant = (ObjectConstant) getConstant(peList.getElements().get(i * 3), bindingSet);
-                Constant predicateConstant = getConstant(peList.getElements().get(i * 3 + 1), bindingSet);
-                Constant objectConstant = getConstant(peList.getElements().get(i * 3 + 2), bindingSet);
+            // A triple can only be constructed when none of bindings is missing
+            if (subjectConstant == null || predicateConstant == null || objectConstant==null) {
+                continue;
+            }
 
-                // A triple can only be constructed when none of bindings is missing
-                if (subjectConstant == null || predicateConstant == null || objectConstant==null) {
-                    continue;
+            // Determines the type of assertion
+            String predicateName = predicateConstant.getValue();
+            try {
+                Assertion assertion;
+                if (predicateName.equals(RDF.TYPE.getIRIString())) {
+                    assertion = builder.createClassAssertion(objectConstant.getValue(), subjectConstant);
                 }
-
-                // Determines the type of assertion
-                String predicateName = predicateConstant.getValue();
-                try {
-                    Assertion assertion;
-                    if (predicateName.equals(RDF.TYPE.getIRIString())) {
-                        assertion = builder.createClassAssertion(objectConstant.getValue(), subjectConstant);
+                else {
+                    if ((objectConstant instanceof IRIConstant) || (objectConstant instanceof BNode)) {
+                        assertion = builder.createObjectPropertyAssertion(predicateName,
+                                subjectConstant, (ObjectConstant) objectConstant);
                     }
                     else {
-                        if ((objectConstant instanceof IRIConstant) || (objectConstant instanceof BNode)) {
-                            assertion = builder.createObjectPropertyAssertion(predicateName,
-                                    subjectConstant, (ObjectConstant) objectConstant);
-                        }
-                        else {
-                            assertion = builder.createDataPropertyAssertion(predicateName,
-                                    subjectConstant, (ValueConstant) objectConstant);
-                        }
+                        assertion = builder.createDataPropertyAssertion(predicateName,
+                                subjectConstant, (ValueConstant) objectConstant);
                     }
-                    if (assertion != null)
-                        tripleAssertions.add(assertion);
-                }
-                catch (InconsistentOntologyException e) {
-                    throw new OntopResultConversionException("InconsistentOntologyException: " +
-                            predicateName + " " + subjectConstant + " " + objectConstant);
                 }
+                if (assertion != null)
+                    results.addLast(assertion);
+            }
+            catch (InconsistentOntologyException e) {
+                throw new OntopResultConversionException("InconsistentOntologyException: " +
+                        predicateName + " " + subjectConstant + " " + objectConstant);
             }
         }
-        return tripleAssertions;
     }
 
     @Override
     public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
-        if (results.size() > 0)
-            return true;
-        //in case of describe, we return the collected results list information
-        if (storeResults)
-            return false;
-        // construct
-        while(tupleResultSet.hasNext()) {
-            List<Assertion> newTriples = processResults(tupleResultSet.next());
-            if (!newTriples.isEmpty()) {
-                results.addAll(newTriples);
-                return true;
-            }
+        while (results.isEmpty() && tupleResultSet.hasNext()) {
+            processResults(tupleResultSet.next());
         }
-        return false;
+        return !results.isEmpty();
     }
 
     @Override
     public Assertion next() {
-        if (results.size() > 0)
-            return results.remove(0);
+        if (!results.isEmpty())
+            return results.removeFirst();
         else
             throw new NoSuchElementException("Please call hasNext() before calling next()");
     }
 
-    private Constant getConstant(ProjectionElem node, OntopBindingSet bindingSet)
-            throws OntopResultConversionException, OntopConnectionException {
-        Constant constant = null;
+    private static TemplateTerm compile(ProjectionElem node, ImmutableMap<String, ValueExpr> extMap,
+                                        TermFactory termFactory, org.apache.commons.rdf.api.RDF rdfFactory) {
         String node_name = node.getSourceName();
-        ValueExpr ve = null;
+        ValueExpr ve = extMap.get(node_name);
 
-        if (extMap != null) {
-            ve = extMap.get(node_name);
-            if (ve != null && ve instanceof Var)
-                throw new OntopResultConversionException("Invalid query. Found unbound variable: " + ve);
-        }
+        if (ve instanceof Var)
+            return new TemplateTerm(null, null, "Invalid query. Found unbound variable: " + ve);
 
-//		if (node_name.charAt(0) == '-') {
         if (ve instanceof org.eclipse.rdf4j.query.algebra.ValueConstant) {
             org.eclipse.rdf4j.query.algebra.ValueConstant vc = (org.eclipse.rdf4j.query.algebra.ValueConstant) ve;
+            Constant constant;
             if (vc.getValue() instanceof IRI) {
                 constant = termFactory.getConstantIRI(rdfFactory.createIRI(vc.getValue().stringValue()));
             }
@@ -202,14 +177,55 @@ public class DefaultSimpleGraphResultSet implements SimpleGraphResultSet {
             else {
                 constant = termFactory.getConstantBNode(vc.getValue().stringValue());
             }
-        } else {
-            constant = bindingSet.getConstant(node_name);
+            return new TemplateTerm(constant, null, null);
         }
-        return constant;
+        return new TemplateTerm(null, node_name, null);
     }
 
     @Override
 	public void close() throws OntopConnectionException {
 		tupleResultSet.close();
 	}
+
+
+    /**
+     * Constant of the template, variable or invalid term (the error is only reported if the term is evaluated)
+     */
+    private static class TemplateTerm {
+        @Nullable
+        private final Constant constant;
+        @Nullable
+        private final String variableName;
+        @Nullable
+        private final String errorMessage;
+
+        private TemplateTerm(@Nullable Constant constant, @Nullable String variableName,
+                             @Nullable String errorMessage) {
+            this.constant = constant;
+            this.variableName = variableName;
+            this.errorMessage = errorMessage;
+        }
+
+        @Nullable
+        Constant getConstant(OntopBindingSet bindingSet)
+                throws OntopResultConversionException, OntopConnectionException {
+            if (errorMessage != null)
+                throw new OntopResultConversionException(errorMessage);
+            return (constant != null)
+                    ? constant
+                    : bindingSet.getConstant(variableName);
+        }
+    }
+
+    private static class TemplateTriple {
+        private final TemplateTerm subject;
+        private final TemplateTerm predicate;
+        private final TemplateTerm object;
+
+        private TemplateTriple(TemplateTerm subject, TemplateTerm predicate, TemplateTerm object) {
+            this.subject = subject;
+            this.predicate = predicate;
+            this.object = object;
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.reformulation.input.ConstructQuery;
+import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryEvaluationException;
+import it.unibz.inf.ontop.exception.OntopReformulationException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Concatenates the results of the CONSTRUCT queries of a DESCRIBE query.
+ *
+ * The queries are executed one after the other, when the results of the previous one have been consumed
+ * (they may share the same native statement), so the results are never buffered.
+ */
+public class DescribeGraphResultSet implements SimpleGraphResultSet {
+
+    @FunctionalInterface
+    public interface ConstructQueryExecutor {
+        SimpleGraphResultSet execute(ConstructQuery query)
+                throws OntopReformulationException, OntopQueryEvaluationException;
+    }
+
+    private final Iterator<ConstructQuery> pendingQueries;
+    private final ConstructQueryExecutor executor;
+    // Added through the deprecated addNewResult()
+    private final Deque<Assertion> additionalResults = new ArrayDeque<>();
+
+    @Nullable
+    private SimpleGraphResultSet currentResultSet;
+
+    /**
+     * Executes the first query right away (so that its errors are reported by the statement)
+     */
+    public DescribeGraphResultSet(ImmutableList<ConstructQuery> constructQueries, ConstructQueryExecutor executor)
+            throws OntopReformulationException, OntopQueryEvaluationException {
+        this.pendingQueries = constructQueries.iterator();
+        this.executor = executor;
+        this.currentResultSet = pendingQueries.hasNext()
+                ? executor.execute(pendingQueries.next())
+                : null;
+    }
+
+    /**
+     * The first query has already been executed (e.g. asynchronously): firstResultSet is its result set
+     */
+    public DescribeGraphResultSet(SimpleGraphResultSet firstResultSet, ImmutableList<ConstructQuery> remainingQueries,
+                                  ConstructQueryExecutor executor) {
+        this.pendingQueries = remainingQueries.iterator();
+        this.executor = executor;
+        this.currentResultSet = firstResultSet;
+    }
+
+    @Override
+    public int getFetchSize() throws OntopConnectionException {
+        return currentResultSet == null ? 0 : currentResultSet.getFetchSize();
+    }
+
+    @Override
+    public void addNewResult(Assertion assertion) {
+        additionalResults.addLast(assertion);
+    }
+
+    @Override
+    public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
+        while (currentResultSet != null) {
+            if (currentResultSet.hasNext())
+                return true;
+            currentResultSet.close();
+            currentResultSet = null;
+            if (pendingQueries.hasNext()) {
+                try {
+                    currentResultSet = executor.execute(pendingQueries.next());
+                } catch (OntopReformulationException | OntopQueryEvaluationException e) {
+                    throw new OntopConnectionException(e);
+                }
+            }
+        }
+        return !additionalResults.isEmpty();
+    }
+
+    @Override
+    public Assertion next() throws OntopResultConversionException {
+        // hasNext() has moved to a result set that has a next element
+        if (currentResultSet != null)
+            return currentResultSet.next();
+        if (!additionalResults.isEmpty())
+            return additionalResults.removeFirst();
+        throw new NoSuchElementException("Please call hasNext() before calling next()");
+    }
+
+    @Override
+    public void close() throws OntopConnectionException {
+        if (currentResultSet != null) {
+            currentResultSet.close();
+            currentResultSet = null;
+        }
+    }
+}
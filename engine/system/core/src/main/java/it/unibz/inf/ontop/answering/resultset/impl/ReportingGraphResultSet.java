@@ -0,0 +1,85 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import it.unibz.inf.ontop.answering.report.QueryExecutionRecorder;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
+import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+
+/**
+ * Records the triples consumed from the wrapped result set (one "row" per triple).
+ *
+ * The query is reported once the result set is exhausted, fails or is closed.
+ */
+public class ReportingGraphResultSet implements SimpleGraphResultSet {
+
+    private final SimpleGraphResultSet resultSet;
+    private final QueryExecutionRecorder recorder;
+    private final QueryExecutionReporter reporter;
+
+    public ReportingGraphResultSet(SimpleGraphResultSet resultSet, QueryExecutionRecorder recorder,
+                                   QueryExecutionReporter reporter) {
+        this.resultSet = resultSet;
+        this.recorder = recorder;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public int getFetchSize() throws OntopConnectionException {
+        return resultSet.getFetchSize();
+    }
+
+    @Deprecated
+    @Override
+    public void addNewResult(Assertion assertion) {
+        resultSet.addNewResult(assertion);
+    }
+
+    @Override
+    public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
+        try {
+            boolean hasNext = resultSet.hasNext();
+            if (hasNext)
+                recorder.onFirstRow();
+            else
+                complete();
+            return hasNext;
+        } catch (OntopConnectionException | OntopResultConversionException | RuntimeException e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public Assertion next() throws OntopResultConversionException {
+        try {
+            Assertion assertion = resultSet.next();
+            recorder.onFirstRow();
+            recorder.incrementRowCount();
+            return assertion;
+        } catch (OntopResultConversionException | RuntimeException e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws OntopConnectionException {
+        try {
+            resultSet.close();
+        } finally {
+            complete();
+        }
+    }
+
+    private void fail(Exception e) {
+        recorder.onFailure(e);
+        complete();
+    }
+
+    private void complete() {
+        if (recorder.complete())
+            reporter.report(recorder.buildReport());
+    }
+}
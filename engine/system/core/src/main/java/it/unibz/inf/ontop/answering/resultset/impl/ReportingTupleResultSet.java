@@ -0,0 +1,91 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import it.unibz.inf.ontop.answering.report.QueryExecutionRecorder;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopResultConversionException;
+
+import java.util.List;
+
+/**
+ * Records the rows consumed from the wrapped result set.
+ *
+ * The query is reported once the result set is exhausted, fails or is closed.
+ */
+public class ReportingTupleResultSet implements TupleResultSet {
+
+    private final TupleResultSet resultSet;
+    private final QueryExecutionRecorder recorder;
+    private final QueryExecutionReporter reporter;
+
+    public ReportingTupleResultSet(TupleResultSet resultSet, QueryExecutionRecorder recorder,
+                                   QueryExecutionReporter reporter) {
+        this.resultSet = resultSet;
+        this.recorder = recorder;
+        this.reporter = reporter;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return resultSet.getColumnCount();
+    }
+
+    @Override
+    public List<String> getSignature() throws OntopConnectionException {
+        return resultSet.getSignature();
+    }
+
+    @Override
+    public int getFetchSize() throws OntopConnectionException {
+        return resultSet.getFetchSize();
+    }
+
+    @Override
+    public boolean hasNext() throws OntopConnectionException, OntopResultConversionException {
+        try {
+            boolean hasNext = resultSet.hasNext();
+            if (hasNext)
+                recorder.onFirstRow();
+            else
+                complete();
+            return hasNext;
+        } catch (OntopConnectionException | OntopResultConversionException | RuntimeException e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public OntopBindingSet next() throws OntopConnectionException, OntopResultConversionException {
+        try {
+            OntopBindingSet bindingSet = resultSet.next();
+            recorder.onFirstRow();
+            recorder.incrementRowCount();
+            return bindingSet;
+        } catch (OntopConnectionException | OntopResultConversionException | RuntimeException e) {
+            fail(e);
+            throw e;
+        }
+    }
+
+    @Override
+    public void close() throws OntopConnectionException {
+        try {
+            resultSet.close();
+        } finally {
+            complete();
+        }
+    }
+
+    private void fail(Exception e) {
+        recorder.onFailure(e);
+        complete();
+    }
+
+    private void complete() {
+        if (recorder.complete())
+            reporter.report(recorder.buildReport());
+    }
+}
@@ -0,0 +1,191 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSetPublisher;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes a tuple result set that may not have been obtained yet.
+ *
+ * The binding sets are fetched by tasks submitted to the executor, only when there is some demand.
+ * These tasks are serialized (at most one at a time) so the subscriber receives its signals sequentially.
+ * If the executor rejects such a task, the binding sets are fetched by the thread requesting them.
+ *
+ * The result set (and the onTermination resource) are closed once the publication completes, fails
+ * or is cancelled.
+ */
+public class TupleResultSetPublisher implements OntopBindingSetPublisher {
+
+    private static final Logger log = LoggerFactory.getLogger(TupleResultSetPublisher.class);
+
+    private final CompletableFuture<? extends TupleResultSet> resultSetFuture;
+    private final Executor executor;
+    private final AutoCloseable onTermination;
+    private final AtomicBoolean subscribed = new AtomicBoolean(false);
+
+    public TupleResultSetPublisher(CompletableFuture<? extends TupleResultSet> resultSetFuture, Executor executor,
+                                   AutoCloseable onTermination) {
+        this.resultSetFuture = resultSetFuture;
+        this.executor = executor;
+        this.onTermination = onTermination;
+    }
+
+    @Override
+    public void subscribe(Subscriber subscriber) {
+        Objects.requireNonNull(subscriber);
+        if (!subscribed.compareAndSet(false, true)) {
+            subscriber.onSubscribe(new Subscription() {
+                @Override
+                public void request(long n) {
+                }
+
+                @Override
+                public void cancel() {
+                }
+            });
+            subscriber.onError(new IllegalStateException("Only one subscriber is supported"));
+            return;
+        }
+        ResultSetSubscription subscription = new ResultSetSubscription(subscriber);
+        subscriber.onSubscribe(subscription);
+        resultSetFuture.whenComplete(subscription::onResultSet);
+    }
+
+
+    private class ResultSetSubscription implements Subscription {
+
+        private final Subscriber subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger pendingDrains = new AtomicInteger();
+
+        private volatile TupleResultSet resultSet;
+        private volatile Throwable failure;
+        private volatile boolean cancelled;
+        private volatile boolean resultSetReceived;
+
+        // Only accessed by the (serialized) drains
+        private boolean done;
+        private boolean released;
+
+        ResultSetSubscription(Subscriber subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        void onResultSet(TupleResultSet resultSet, Throwable exception) {
+            if (exception != null)
+                failure = (exception instanceof CompletionException && exception.getCause() != null)
+                        ? exception.getCause()
+                        : exception;
+            else
+                this.resultSet = resultSet;
+            resultSetReceived = true;
+            scheduleDrain();
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0)
+                failure = new IllegalArgumentException("The number of requested binding sets must be positive");
+            else
+                demand.getAndUpdate(d -> (Long.MAX_VALUE - d < n) ? Long.MAX_VALUE : d + n);
+            scheduleDrain();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            scheduleDrain();
+        }
+
+        /**
+         * Before receiving the result set, only records the signals
+         */
+        private void scheduleDrain() {
+            if (!resultSetReceived || pendingDrains.getAndIncrement() != 0)
+                return;
+            try {
+                executor.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // The query has already been admitted: its results are fetched by the requesting thread
+                drain();
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (done)
+                    release();
+                else if (cancelled)
+                    terminate();
+                else if (failure != null) {
+                    terminate();
+                    subscriber.onError(failure);
+                }
+                else if (resultSet != null)
+                    emit();
+                missed = pendingDrains.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void emit() {
+            long requested = demand.get();
+            long emitted = 0;
+            try {
+                while (emitted < requested && !cancelled) {
+                    if (!resultSet.hasNext()) {
+                        terminate();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(resultSet.next());
+                    emitted++;
+                }
+            } catch (Exception e) {
+                terminate();
+                subscriber.onError(e);
+                return;
+            }
+            if (cancelled)
+                terminate();
+            else if (requested != Long.MAX_VALUE)
+                demand.addAndGet(-emitted);
+        }
+
+        private void terminate() {
+            done = true;
+            release();
+        }
+
+        /**
+         * The result set may arrive after the termination (e.g. after a cancellation)
+         */
+        private void release() {
+            if (released || !resultSetReceived)
+                return;
+            released = true;
+            TupleResultSet resultSet = this.resultSet;
+            try {
+                if (resultSet != null)
+                    resultSet.close();
+            } catch (Exception e) {
+                log.warn("Could not close a result set: " + e.getMessage());
+            }
+            try {
+                onTermination.close();
+            } catch (Exception e) {
+                log.warn("Could not release the resources of a result set: " + e.getMessage());
+            }
+        }
+    }
+}
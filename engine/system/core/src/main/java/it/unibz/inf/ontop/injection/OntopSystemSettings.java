@@ -9,11 +9,44 @@ public interface OntopSystemSettings extends OntopReformulationSettings {
      */
     boolean isPermanentDBConnectionEnabled();
 
+    /**
+     * Maximum number of resources described by one CONSTRUCT query
+     * when evaluating a DESCRIBE query
+     */
+    int getDescribeBatchSize();
+
+    /**
+     * Only used by the pooled query execution service
+     */
+    int getQueryExecutionThreadCount();
+
+    /**
+     * Only used by the pooled query execution service
+     */
+    int getQueryExecutionQueueSize();
+
+    /**
+     * In milliseconds. The queries taking longer (from their reception to their completion) are logged.
+     *
+     * Negative: the slow-query log is disabled.
+     */
+    int getSlowQueryThreshold();
+
+    /**
+     * If enabled, aggregated statistics of the executed queries are exposed as a JMX MBean
+     */
+    boolean isQueryStatisticsMBeanEnabled();
+
     //--------------------------
     // Keys
     //--------------------------
 
     String PERMANENT_DB_CONNECTION = "ontop.permanentConnection";
+    String DESCRIBE_BATCH_SIZE = "ontop.describeBatchSize";
+    String QUERY_EXECUTION_THREADS = "ontop.queryExecution.threads";
+    String QUERY_EXECUTION_QUEUE_SIZE = "ontop.queryExecution.queueSize";
+    String SLOW_QUERY_THRESHOLD = "ontop.slowQueryLog.threshold";
+    String QUERY_STATISTICS_MBEAN = "ontop.queryReport.jmx";
 
 
 }
@@ -1,6 +1,7 @@
 package it.unibz.inf.ontop.injection.impl;
 
-
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
 import it.unibz.inf.ontop.injection.OntopSystemSettings;
 
 public class OntopSystemModule extends OntopAbstractModule {
@@ -15,5 +16,7 @@ public class OntopSystemModule extends OntopAbstractModule {
     @Override
     protected void configure() {
         bind(OntopSystemSettings.class).toInstance(settings);
+        bindFromSettings(QueryExecutionService.class);
+        bindFromSettings(QueryExecutionReporter.class);
     }
 }
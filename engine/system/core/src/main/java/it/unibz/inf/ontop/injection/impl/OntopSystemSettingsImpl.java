@@ -1,5 +1,6 @@
 package it.unibz.inf.ontop.injection.impl;
 
+import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.injection.OntopOBDASettings;
 import it.unibz.inf.ontop.injection.OntopSystemSettings;
 
@@ -9,8 +10,14 @@ public class OntopSystemSettingsImpl extends OntopReformulationSettingsImpl impl
 
     private static final String DEFAULT_FILE = "system-default.properties";
 
+    private final int describeBatchSize;
+
     OntopSystemSettingsImpl(Properties userProperties) {
         super(loadProperties(userProperties));
+        describeBatchSize = getRequiredInteger(DESCRIBE_BATCH_SIZE);
+        if (describeBatchSize < 1)
+            throw new InvalidOntopConfigurationException("Invalid value for " + DESCRIBE_BATCH_SIZE
+                    + ": at least one resource per batch is expected, is " + describeBatchSize);
     }
 
     private static Properties loadProperties(Properties userProperties) {
@@ -27,4 +34,29 @@ public class OntopSystemSettingsImpl extends OntopReformulationSettingsImpl impl
     public boolean isPermanentDBConnectionEnabled() {
         return getRequiredBoolean(PERMANENT_DB_CONNECTION);
     }
+
+    @Override
+    public int getDescribeBatchSize() {
+        return describeBatchSize;
+    }
+
+    @Override
+    public int getQueryExecutionThreadCount() {
+        return getRequiredInteger(QUERY_EXECUTION_THREADS);
+    }
+
+    @Override
+    public int getQueryExecutionQueueSize() {
+        return getRequiredInteger(QUERY_EXECUTION_QUEUE_SIZE);
+    }
+
+    @Override
+    public int getSlowQueryThreshold() {
+        return getRequiredInteger(SLOW_QUERY_THRESHOLD);
+    }
+
+    @Override
+    public boolean isQueryStatisticsMBeanEnabled() {
+        return getRequiredBoolean(QUERY_STATISTICS_MBEAN);
+    }
 }
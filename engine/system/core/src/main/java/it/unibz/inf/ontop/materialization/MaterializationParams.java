@@ -23,6 +23,33 @@ public interface MaterializationParams {
      */
     boolean canMaterializationBeIncomplete();
 
+    /**
+     * Number of RDF properties/classes materialized concurrently,
+     * each on its own connection.
+     *
+     * 1 by default (sequential materialization).
+     */
+    int getParallelism();
+
+    /**
+     * Maximum number of triples fetched ahead of the consumer (parallel materialization only).
+     * If the vocabulary order is preserved, the bound applies to each RDF property/class.
+     *
+     * 10000 by default.
+     */
+    int getBufferSize();
+
+    /**
+     * If true, the triples produced by the parallel materialization are grouped
+     * by RDF property/class, following the order of the vocabulary (as in the sequential materialization).
+     * Otherwise, the triples of different properties/classes may be interleaved.
+     *
+     * In both cases, the triples of a property/class are returned in the order of its query.
+     *
+     * False by default.
+     */
+    boolean isVocabularyOrderPreserved();
+
 
     static Builder defaultBuilder() {
         return new MaterializationParamsImpl.DefaultBuilder<>();
@@ -35,6 +62,12 @@ public interface MaterializationParams {
 
         B enableIncompleteMaterialization(boolean enable);
 
+        B parallelism(int threads);
+
+        B bufferSize(int tripleCount);
+
+        B preserveVocabularyOrder(boolean preserve);
+
         MaterializationParams build();
 
     }
@@ -0,0 +1,37 @@
+package it.unibz.inf.ontop.materialization;
+
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import org.apache.commons.rdf.api.IRI;
+
+import javax.annotation.Nonnull;
+
+/**
+ * OBDA specification loaded once and query engine shared by all the materializations of the session.
+ *
+ * Thread-safe: several result sets can be consumed concurrently (each one uses its own connections).
+ *
+ * Closing the session releases the connection pool. The result sets must be closed before.
+ */
+public interface MaterializationSession extends AutoCloseable {
+
+    /**
+     * Classes and properties that can be materialized
+     */
+    ImmutableSet<IRI> getVocabulary();
+
+    /**
+     * Materializes the saturated RDF graph
+     */
+    MaterializedGraphResultSet materialize(@Nonnull MaterializationParams params);
+
+    /**
+     * Materializes a sub-set of the saturated RDF graph corresponding the selected vocabulary
+     */
+    MaterializedGraphResultSet materialize(@Nonnull ImmutableSet<IRI> selectedVocabulary,
+                                           @Nonnull MaterializationParams params);
+
+    @Override
+    void close() throws OntopConnectionException;
+}
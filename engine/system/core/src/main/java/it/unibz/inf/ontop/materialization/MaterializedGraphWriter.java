@@ -0,0 +1,81 @@
+package it.unibz.inf.ontop.materialization;
+
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
+import it.unibz.inf.ontop.materialization.impl.MaterializedGraphWriterBuilderImpl;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+import org.apache.commons.rdf.api.IRI;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes the materialized triples directly into an output stream (constant memory)
+ *
+ * The output stream is buffered (and possibly gzip-compressed) by the writer and closed with it.
+ */
+public interface MaterializedGraphWriter extends AutoCloseable {
+
+    enum Format {
+        NTRIPLES,
+        NQUADS,
+        TURTLE
+    }
+
+    void write(Assertion assertion) throws IOException;
+
+    /**
+     * Writes all the remaining triples of the result set (but does not close it)
+     *
+     * @return the number of triples written
+     */
+    long write(MaterializedGraphResultSet resultSet)
+            throws IOException, OntopQueryAnsweringException, OntopConnectionException;
+
+    /**
+     * Number of triples written so far
+     */
+    long getTripleCount();
+
+    /**
+     * Completes the document and closes the output stream
+     */
+    @Override
+    void close() throws IOException;
+
+
+    static Builder<? extends Builder> defaultBuilder(Format format) {
+        return new MaterializedGraphWriterBuilderImpl<>(format);
+    }
+
+
+    interface Builder<B extends Builder<B>> {
+
+        /**
+         * gzip compression. False by default.
+         */
+        B enableCompression(boolean enable);
+
+        /**
+         * Prefixes used for abbreviating the IRIs (Turtle only).
+         * The prefix keys may include the final colon (as in the mapping prefix manager).
+         */
+        B prefixes(ImmutableMap<String, String> prefixes);
+
+        /**
+         * Consecutive triples sharing the same subject (and predicate) are grouped
+         * with ";" (and ","). Turtle only, false by default.
+         */
+        B enableSubjectGrouping(boolean enable);
+
+        /**
+         * Named graph of the quads (N-Quads only). If absent, the quads are in the default graph
+         * (i.e. they are plain triples) and a warning is logged.
+         */
+        B graph(IRI graph);
+
+        MaterializedGraphWriter build(OutputStream outputStream) throws IOException;
+    }
+}
@@ -26,6 +26,12 @@ public interface OntopRDFMaterializer {
                                            @Nonnull MaterializationParams params)
             throws OBDASpecificationException;
 
+    /**
+     * Loads the OBDA specification and starts the query engine only once for many materializations
+     */
+    MaterializationSession createSession(@Nonnull OntopSystemConfiguration configuration)
+            throws OBDASpecificationException;
+
     /**
      * Default implementation
      */
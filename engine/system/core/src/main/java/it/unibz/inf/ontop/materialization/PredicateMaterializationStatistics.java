@@ -0,0 +1,42 @@
+package it.unibz.inf.ontop.materialization;
+
+import org.apache.commons.rdf.api.IRI;
+
+/**
+ * Throughput metrics for the materialization of one RDF class or property
+ */
+public interface PredicateMaterializationStatistics {
+
+    IRI getPredicate();
+
+    /**
+     * Number of RDF triples fetched so far
+     */
+    long getTripleCount();
+
+    /**
+     * Time elapsed since the query has been sent to the DB (until its last triple has been fetched)
+     */
+    long getElapsedTimeMillis();
+
+    /**
+     * Part of the elapsed time spent waiting for the consumer of the triples
+     * (only in the parallel mode, when the buffer is full)
+     */
+    long getBlockedTimeMillis();
+
+    /**
+     * True when all the triples have been fetched (or the materialization of the class/property has failed)
+     */
+    boolean isCompleted();
+
+    /**
+     * Triples per second, not counting the time spent waiting for the consumer
+     */
+    default double getTriplesPerSecond() {
+        long activeTime = getElapsedTimeMillis() - getBlockedTimeMillis();
+        return activeTime > 0
+                ? getTripleCount() * 1000.0 / activeTime
+                : 0;
+    }
+}
@@ -0,0 +1,176 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
+import it.unibz.inf.ontop.materialization.MaterializedGraphWriter;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.type.RDFDatatype;
+import it.unibz.inf.ontop.model.type.TermType;
+import it.unibz.inf.ontop.model.vocabulary.RDF;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import it.unibz.inf.ontop.spec.ontology.*;
+import org.apache.commons.rdf.api.IRI;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Encodes the terms (N-Triples syntax by default) and leaves the layout of the triples to the sub-classes
+ */
+abstract class AbstractMaterializedGraphWriter implements MaterializedGraphWriter {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    protected final Writer writer;
+    private long tripleCount;
+
+    AbstractMaterializedGraphWriter(OutputStream outputStream, boolean compress) throws IOException {
+        OutputStream stream = compress
+                ? new GZIPOutputStream(outputStream, BUFFER_SIZE)
+                : outputStream;
+        this.writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.tripleCount = 0;
+    }
+
+    protected abstract void writeTriple(String subject, String predicate, String object) throws IOException;
+
+    @Override
+    public void write(Assertion assertion) throws IOException {
+        if (assertion instanceof ClassAssertion) {
+            ClassAssertion a = (ClassAssertion) assertion;
+            writeTriple(encodeResource(a.getIndividual()), encodePredicate(RDF.TYPE),
+                    encodeIRI(a.getConcept().getIRI()));
+        }
+        else if (assertion instanceof ObjectPropertyAssertion) {
+            ObjectPropertyAssertion a = (ObjectPropertyAssertion) assertion;
+            writeTriple(encodeResource(a.getSubject()), encodePredicate(a.getProperty().getIRI()),
+                    encodeResource(a.getObject()));
+        }
+        else if (assertion instanceof DataPropertyAssertion) {
+            DataPropertyAssertion a = (DataPropertyAssertion) assertion;
+            writeTriple(encodeResource(a.getSubject()), encodePredicate(a.getProperty().getIRI()),
+                    encodeLiteral(a.getValue()));
+        }
+        else if (assertion instanceof AnnotationAssertion) {
+            AnnotationAssertion a = (AnnotationAssertion) assertion;
+            Constant value = a.getValue();
+            String object;
+            if (value instanceof ValueConstant)
+                object = encodeLiteral((ValueConstant) value);
+            else if (value instanceof ObjectConstant)
+                object = encodeResource((ObjectConstant) value);
+            else
+                throw new IllegalArgumentException("Unsupported constant for an annotation property: " + value);
+            writeTriple(encodeResource(a.getSubject()), encodePredicate(a.getProperty().getIRI()), object);
+        }
+        else
+            throw new IllegalArgumentException("Unsupported assertion: " + assertion);
+
+        tripleCount++;
+    }
+
+    @Override
+    public long write(MaterializedGraphResultSet resultSet)
+            throws IOException, OntopQueryAnsweringException, OntopConnectionException {
+        long count = 0;
+        while (resultSet.hasNext()) {
+            write(resultSet.next());
+            count++;
+        }
+        return count;
+    }
+
+    @Override
+    public long getTripleCount() {
+        return tripleCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    protected String encodePredicate(IRI iri) {
+        return encodeIRI(iri);
+    }
+
+    protected String encodeIRI(IRI iri) {
+        return encodeFullIRI(iri.getIRIString());
+    }
+
+    protected static String encodeFullIRI(String iri) {
+        StringBuilder sb = new StringBuilder(iri.length() + 2).append('<');
+        for (int i = 0; i < iri.length(); i++) {
+            char c = iri.charAt(i);
+            if (c <= 0x20 || c == '<' || c == '>' || c == '"' || c == '{' || c == '}' || c == '|'
+                    || c == '^' || c == '`' || c == '\\')
+                sb.append(String.format("\\u%04X", (int) c));
+            else
+                sb.append(c);
+        }
+        return sb.append('>').toString();
+    }
+
+    private String encodeResource(ObjectConstant constant) {
+        if (constant instanceof IRIConstant)
+            return encodeIRI(((IRIConstant) constant).getIRI());
+        if (constant instanceof BNode)
+            return encodeBNode(((BNode) constant).getName());
+        throw new IllegalArgumentException("Unsupported resource: " + constant);
+    }
+
+    /**
+     * Only letters and digits are kept in the label: the other characters (including "_") are escaped
+     */
+    private static String encodeBNode(String name) {
+        StringBuilder sb = new StringBuilder(name.length() + 2).append("_:b");
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9'))
+                sb.append(c);
+            else
+                sb.append(String.format("_%04X", (int) c));
+        }
+        return sb.toString();
+    }
+
+    private String encodeLiteral(ValueConstant literal) {
+        TermType type = literal.getType();
+        if (!(type instanceof RDFDatatype))
+            throw new IllegalArgumentException("A literal must have a RDF datatype: " + literal);
+        RDFDatatype datatype = (RDFDatatype) type;
+
+        String lexicalForm = encodeString(literal.getValue());
+        if (datatype.getLanguageTag().isPresent())
+            return lexicalForm + "@" + datatype.getLanguageTag().get().getFullString();
+        if (datatype.getIRI().equals(XSD.STRING))
+            return lexicalForm;
+        return lexicalForm + "^^" + encodeIRI(datatype.getIRI());
+    }
+
+    private static String encodeString(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                default:
+                    sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+}
@@ -0,0 +1,67 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.materialization.MaterializationSession;
+import it.unibz.inf.ontop.materialization.impl.DefaultOntopRDFMaterializer.VocabularyEntry;
+import org.apache.commons.rdf.api.IRI;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The vocabulary is extracted once from the saturated mapping.
+ * The result sets take their connections from the pool of the shared query engine.
+ */
+class DefaultMaterializationSession implements MaterializationSession {
+
+    private final ImmutableMap<IRI, VocabularyEntry> vocabulary;
+    private final OntopQueryEngine queryEngine;
+    private final InputQueryFactory inputQueryFactory;
+    private volatile boolean closed;
+
+    DefaultMaterializationSession(ImmutableMap<IRI, VocabularyEntry> vocabulary, OntopQueryEngine queryEngine,
+                                  InputQueryFactory inputQueryFactory) {
+        this.vocabulary = vocabulary;
+        this.queryEngine = queryEngine;
+        this.inputQueryFactory = inputQueryFactory;
+        this.closed = false;
+    }
+
+    @Override
+    public ImmutableSet<IRI> getVocabulary() {
+        return vocabulary.keySet();
+    }
+
+    @Override
+    public MaterializedGraphResultSet materialize(@Nonnull MaterializationParams params) {
+        checkOpen();
+        return DefaultOntopRDFMaterializer.createResultSet(vocabulary, params, queryEngine, inputQueryFactory);
+    }
+
+    @Override
+    public MaterializedGraphResultSet materialize(@Nonnull ImmutableSet<IRI> selectedVocabulary,
+                                                  @Nonnull MaterializationParams params) {
+        checkOpen();
+        return DefaultOntopRDFMaterializer.createResultSet(
+                DefaultOntopRDFMaterializer.filterVocabulary(vocabulary, selectedVocabulary),
+                params, queryEngine, inputQueryFactory);
+    }
+
+    private void checkOpen() {
+        if (closed)
+            throw new IllegalStateException("The materialization session is closed");
+    }
+
+    @Override
+    public void close() throws OntopConnectionException {
+        if (!closed) {
+            closed = true;
+            queryEngine.close();
+        }
+    }
+}
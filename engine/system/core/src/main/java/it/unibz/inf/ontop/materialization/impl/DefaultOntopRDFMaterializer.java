@@ -36,7 +36,9 @@ import it.unibz.inf.ontop.exception.*;
 import it.unibz.inf.ontop.injection.OntopSystemConfiguration;
 import it.unibz.inf.ontop.injection.OntopSystemFactory;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.materialization.MaterializationSession;
 import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
 import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
 import it.unibz.inf.ontop.model.atom.TriplePredicate;
 import it.unibz.inf.ontop.spec.OBDASpecification;
@@ -62,10 +64,10 @@ import java.util.stream.Stream;
  */
 public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 
-	private static int FETCH_SIZE = 50000;
+	static final int FETCH_SIZE = 50000;
 
-	private static final class VocabularyEntry {
-        private final IRI name;
+	static final class VocabularyEntry {
+        final IRI name;
         private final int arity;
 
         VocabularyEntry(IRI predicate, int arity) {
@@ -99,22 +101,48 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 			throws OBDASpecificationException {
 		OBDASpecification obdaSpecification = configuration.loadSpecification();
 
-		ImmutableMap<IRI, VocabularyEntry> vocabularyMap = extractVocabulary(obdaSpecification.getSaturatedMapping()).entrySet().stream()
-                .filter(e -> selectedVocabulary.contains(e.getKey()))
-				.collect(ImmutableCollectors.toMap());
+		ImmutableMap<IRI, VocabularyEntry> vocabularyMap = filterVocabulary(
+				extractVocabulary(obdaSpecification.getSaturatedMapping()), selectedVocabulary);
 
 		return apply(obdaSpecification, vocabularyMap, params, configuration);
 	}
 
+	@Override
+	public MaterializationSession createSession(@Nonnull OntopSystemConfiguration configuration)
+			throws OBDASpecificationException {
+		OBDASpecification obdaSpecification = configuration.loadSpecification();
+		ImmutableMap<IRI, VocabularyEntry> vocabulary = extractVocabulary(obdaSpecification.getSaturatedMapping());
+		return new DefaultMaterializationSession(vocabulary, createQueryEngine(obdaSpecification, configuration),
+				configuration.getInjector().getInstance(InputQueryFactory.class));
+	}
+
 	private MaterializedGraphResultSet apply(OBDASpecification obdaSpecification, ImmutableMap<IRI, VocabularyEntry> selectedVocabulary,
 											 MaterializationParams params, OntopSystemConfiguration configuration) {
+		OntopQueryEngine queryEngine = createQueryEngine(obdaSpecification, configuration);
+		InputQueryFactory inputQueryFactory = configuration.getInjector().getInstance(InputQueryFactory.class);
+		return createResultSet(selectedVocabulary, params, queryEngine, inputQueryFactory);
+	}
 
+	private static OntopQueryEngine createQueryEngine(OBDASpecification obdaSpecification,
+													  OntopSystemConfiguration configuration) {
 		Injector injector = configuration.getInjector();
 		OntopSystemFactory engineFactory = injector.getInstance(OntopSystemFactory.class);
-		OntopQueryEngine queryEngine = engineFactory.create(obdaSpecification, configuration.getExecutorRegistry());
-		InputQueryFactory inputQueryFactory = injector.getInstance(InputQueryFactory.class);
+		return engineFactory.create(obdaSpecification, configuration.getExecutorRegistry());
+	}
 
-		return new DefaultMaterializedGraphResultSet(selectedVocabulary, params, queryEngine, inputQueryFactory);
+	static MaterializedGraphResultSet createResultSet(ImmutableMap<IRI, VocabularyEntry> selectedVocabulary,
+													  MaterializationParams params, OntopQueryEngine queryEngine,
+													  InputQueryFactory inputQueryFactory) {
+		return (params.getParallelism() > 1 && selectedVocabulary.size() > 1)
+				? new ParallelMaterializedGraphResultSet(selectedVocabulary, params, queryEngine, inputQueryFactory)
+				: new DefaultMaterializedGraphResultSet(selectedVocabulary, params, queryEngine, inputQueryFactory);
+	}
+
+	static ImmutableMap<IRI, VocabularyEntry> filterVocabulary(ImmutableMap<IRI, VocabularyEntry> vocabulary,
+															   ImmutableSet<IRI> selectedVocabulary) {
+		return vocabulary.entrySet().stream()
+				.filter(e -> selectedVocabulary.contains(e.getKey()))
+				.collect(ImmutableCollectors.toMap());
 	}
 
 	/**
@@ -158,10 +186,13 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 		@Nullable
 		private SimpleGraphResultSet tmpGraphResultSet;
 		@Nullable
+		private PredicateStatisticsRecorder tmpStatistics;
+		@Nullable
 //		private Assertion nextAssertion;
 
 		private Logger LOGGER = LoggerFactory.getLogger(DefaultMaterializedGraphResultSet.class);
 		private final List<IRI> possiblyIncompleteClassesAndProperties;
+		private final List<PredicateStatisticsRecorder> statistics;
 
 
 		DefaultMaterializedGraphResultSet(ImmutableMap<IRI, VocabularyEntry> vocabulary, MaterializationParams params,
@@ -175,6 +206,7 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 			this.canBeIncomplete = params.canMaterializationBeIncomplete();
 			this.inputQueryFactory = inputQueryFactory;
 			this.possiblyIncompleteClassesAndProperties = new ArrayList<>();
+			this.statistics = new ArrayList<>();
 
 			if (doStreamResults) {
 				// Autocommit must be OFF (needed for autocommit)
@@ -211,6 +243,9 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 				return true;
 			}
 
+			if (tmpStatistics != null)
+				tmpStatistics.complete();
+
 			while(vocabularyIterator.hasNext()) {
 				/*
 			 	* Closes the previous result set and statement (if open)
@@ -237,6 +272,8 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 				 */
                 VocabularyEntry predicate = vocabularyIterator.next();
 				ConstructQuery query = inputQueryFactory.createConstructQuery(predicate.getQuery());
+				tmpStatistics = new PredicateStatisticsRecorder(predicate.name);
+				statistics.add(tmpStatistics);
 
 				try {
 					tmpStatement = ontopConnection.createStatement();
@@ -249,7 +286,9 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 //						nextAssertion = tmpGraphResultSet.next();
 						return true;
 					}
+					tmpStatistics.complete();
 				} catch (OntopQueryAnsweringException | OntopConnectionException e) {
+					tmpStatistics.complete();
 					if (canBeIncomplete) {
 						LOGGER.warn("Possibly incomplete class/property " + predicate + " (materialization problem).\n"
 								+ "Details: " + e);
@@ -269,6 +308,8 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 		public Assertion next() throws OntopQueryAnsweringException {
 			counter++;
 			try {
+				if (tmpStatistics != null)
+					tmpStatistics.incrementTripleCount();
 				return tmpGraphResultSet.next();
 			} catch (OntopResultConversionException e) {
 			    throw new OntopQueryAnsweringException(e);
@@ -294,6 +335,13 @@ public class DefaultOntopRDFMaterializer implements OntopRDFMaterializer {
 		public ImmutableList<IRI> getPossiblyIncompleteRDFPropertiesAndClassesSoFar() {
 			return ImmutableList.copyOf(possiblyIncompleteClassesAndProperties);
 		}
+
+		@Override
+		public ImmutableList<PredicateMaterializationStatistics> getPredicateStatisticsSoFar() {
+			return statistics.stream()
+					.map(PredicateStatisticsRecorder::snapshot)
+					.collect(ImmutableCollectors.toList());
+		}
 	}
 
 
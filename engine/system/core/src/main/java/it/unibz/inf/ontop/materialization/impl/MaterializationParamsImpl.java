@@ -6,10 +6,17 @@ public class MaterializationParamsImpl implements MaterializationParams {
 
     private final boolean enableDBResultStreaming;
     private final boolean enableIncompleteMaterialization;
+    private final int parallelism;
+    private final int bufferSize;
+    private final boolean preserveVocabularyOrder;
 
-    private MaterializationParamsImpl(boolean enableDBResultStreaming, boolean enableIncompleteMaterialization) {
+    private MaterializationParamsImpl(boolean enableDBResultStreaming, boolean enableIncompleteMaterialization,
+                                      int parallelism, int bufferSize, boolean preserveVocabularyOrder) {
         this.enableDBResultStreaming = enableDBResultStreaming;
         this.enableIncompleteMaterialization = enableIncompleteMaterialization;
+        this.parallelism = parallelism;
+        this.bufferSize = bufferSize;
+        this.preserveVocabularyOrder = preserveVocabularyOrder;
     }
 
 
@@ -23,16 +30,37 @@ public class MaterializationParamsImpl implements MaterializationParams {
         return enableIncompleteMaterialization;
     }
 
+    @Override
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    @Override
+    public boolean isVocabularyOrderPreserved() {
+        return preserveVocabularyOrder;
+    }
+
 
     public static class DefaultBuilder<B extends Builder<B>> implements Builder<B> {
 
         private final B builder;
         private boolean isDBResultStreamingEnabled;
         private boolean canMaterializationBeIncomplete;
+        private int parallelism;
+        private int bufferSize;
+        private boolean preserveVocabularyOrder;
 
         public DefaultBuilder() {
             this.isDBResultStreamingEnabled = false;
             this.canMaterializationBeIncomplete = false;
+            this.parallelism = 1;
+            this.bufferSize = 10000;
+            this.preserveVocabularyOrder = false;
             this.builder = (B) this;
         }
 
@@ -49,9 +77,32 @@ public class MaterializationParamsImpl implements MaterializationParams {
             return builder;
         }
 
+        @Override
+        public B parallelism(int threads) {
+            if (threads < 1)
+                throw new IllegalArgumentException("The parallelism must be positive");
+            this.parallelism = threads;
+            return builder;
+        }
+
+        @Override
+        public B bufferSize(int tripleCount) {
+            if (tripleCount < 1)
+                throw new IllegalArgumentException("The buffer size must be positive");
+            this.bufferSize = tripleCount;
+            return builder;
+        }
+
+        @Override
+        public B preserveVocabularyOrder(boolean preserve) {
+            this.preserveVocabularyOrder = preserve;
+            return builder;
+        }
+
         @Override
         public MaterializationParams build() {
-            return new MaterializationParamsImpl(isDBResultStreamingEnabled, canMaterializationBeIncomplete);
+            return new MaterializationParamsImpl(isDBResultStreamingEnabled, canMaterializationBeIncomplete,
+                    parallelism, bufferSize, preserveVocabularyOrder);
         }
     }
 
@@ -0,0 +1,74 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.materialization.MaterializedGraphWriter;
+import org.apache.commons.rdf.api.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+public class MaterializedGraphWriterBuilderImpl<B extends MaterializedGraphWriter.Builder<B>>
+        implements MaterializedGraphWriter.Builder<B> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MaterializedGraphWriterBuilderImpl.class);
+
+    private final MaterializedGraphWriter.Format format;
+    private final B builder;
+    private boolean compress;
+    private ImmutableMap<String, String> prefixes;
+    private boolean groupSubjects;
+    @Nullable
+    private IRI graph;
+
+    public MaterializedGraphWriterBuilderImpl(MaterializedGraphWriter.Format format) {
+        this.format = format;
+        this.compress = false;
+        this.prefixes = ImmutableMap.of();
+        this.groupSubjects = false;
+        this.graph = null;
+        this.builder = (B) this;
+    }
+
+    @Override
+    public B enableCompression(boolean enable) {
+        this.compress = enable;
+        return builder;
+    }
+
+    @Override
+    public B prefixes(ImmutableMap<String, String> prefixes) {
+        this.prefixes = prefixes;
+        return builder;
+    }
+
+    @Override
+    public B enableSubjectGrouping(boolean enable) {
+        this.groupSubjects = enable;
+        return builder;
+    }
+
+    @Override
+    public B graph(IRI graph) {
+        this.graph = graph;
+        return builder;
+    }
+
+    @Override
+    public MaterializedGraphWriter build(OutputStream outputStream) throws IOException {
+        switch (format) {
+            case NTRIPLES:
+                return new NTriplesGraphWriter(outputStream, compress, null);
+            case NQUADS:
+                if (graph == null)
+                    LOGGER.warn("No graph IRI given for N-Quads: the triples are written in the default graph");
+                return new NTriplesGraphWriter(outputStream, compress, graph);
+            case TURTLE:
+                return new TurtleGraphWriter(outputStream, compress, prefixes, groupSubjects);
+            default:
+                throw new IllegalArgumentException("Unsupported format: " + format);
+        }
+    }
+}
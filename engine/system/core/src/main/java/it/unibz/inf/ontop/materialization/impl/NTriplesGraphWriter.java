@@ -0,0 +1,33 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import org.apache.commons.rdf.api.IRI;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * N-Triples, or N-Quads if a graph is given
+ */
+class NTriplesGraphWriter extends AbstractMaterializedGraphWriter {
+
+    // " <graph> .\n" or " .\n"
+    private final String tripleEnd;
+
+    NTriplesGraphWriter(OutputStream outputStream, boolean compress, @Nullable IRI graph) throws IOException {
+        super(outputStream, compress);
+        this.tripleEnd = (graph == null)
+                ? " .\n"
+                : " " + encodeFullIRI(graph.getIRIString()) + " .\n";
+    }
+
+    @Override
+    protected void writeTriple(String subject, String predicate, String object) throws IOException {
+        writer.write(subject);
+        writer.write(' ');
+        writer.write(predicate);
+        writer.write(' ');
+        writer.write(object);
+        writer.write(tripleEnd);
+    }
+}
@@ -0,0 +1,291 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.reformulation.input.ConstructQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.exception.OntopConnectionException;
+import it.unibz.inf.ontop.exception.OntopQueryAnsweringException;
+import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
+import it.unibz.inf.ontop.materialization.impl.DefaultOntopRDFMaterializer.VocabularyEntry;
+import it.unibz.inf.ontop.spec.ontology.Assertion;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.IRI;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Materializes several RDF properties/classes concurrently, each on its own connection.
+ *
+ * The workers send batches of triples into bounded queues, which are drained by the consumer of the result set
+ * (typically, the thread serializing the triples). A worker blocks when its queue is full.
+ *
+ * If the vocabulary order is preserved, each property/class has its own queue and the queues are drained
+ * one after the other. The workers take the properties/classes in the vocabulary order, so the one drained
+ * by the consumer has always been started.
+ *
+ * Otherwise, all the workers share the same queue.
+ *
+ */
+class ParallelMaterializedGraphResultSet implements MaterializedGraphResultSet {
+
+	private static final Logger LOGGER = LoggerFactory.getLogger(ParallelMaterializedGraphResultSet.class);
+
+	private static final int MAX_BATCH_SIZE = 1000;
+	private static final long POLLING_INTERVAL_MS = 100;
+
+	private final ImmutableMap<IRI, VocabularyEntry> vocabulary;
+	private final ImmutableList<VocabularyEntry> entries;
+	private final OntopQueryEngine queryEngine;
+	private final InputQueryFactory inputQueryFactory;
+	private final boolean doStreamResults, canBeIncomplete;
+	private final int parallelism;
+	private final int batchSize;
+
+	// one per entry if the vocabulary order is preserved, a single shared one otherwise
+	private final ImmutableList<BlockingQueue<Batch>> queues;
+
+	private final List<IRI> possiblyIncompleteClassesAndProperties = new CopyOnWriteArrayList<>();
+	private final List<PredicateStatisticsRecorder> statistics = new CopyOnWriteArrayList<>();
+
+	private volatile boolean closed;
+
+	// Consumer state
+	@Nullable
+	private ExecutorService executor;
+	@Nullable
+	private Iterator<Assertion> currentBatch;
+	private int currentQueueIndex;
+	private int remainingEntries;
+	private long counter;
+
+	ParallelMaterializedGraphResultSet(ImmutableMap<IRI, VocabularyEntry> vocabulary, MaterializationParams params,
+									   OntopQueryEngine queryEngine, InputQueryFactory inputQueryFactory) {
+		this.vocabulary = vocabulary;
+		this.entries = vocabulary.values().asList();
+		this.queryEngine = queryEngine;
+		this.inputQueryFactory = inputQueryFactory;
+		this.doStreamResults = params.isDBResultStreamingEnabled();
+		this.canBeIncomplete = params.canMaterializationBeIncomplete();
+		this.parallelism = params.getParallelism();
+
+		this.batchSize = Math.min(MAX_BATCH_SIZE, params.getBufferSize());
+		int capacity = Math.max(1, params.getBufferSize() / batchSize);
+		int queueCount = params.isVocabularyOrderPreserved() ? entries.size() : 1;
+		ImmutableList.Builder<BlockingQueue<Batch>> queueBuilder = ImmutableList.builder();
+		for (int i = 0; i < queueCount; i++)
+			queueBuilder.add(new ArrayBlockingQueue<>(capacity));
+		this.queues = queueBuilder.build();
+
+		this.remainingEntries = entries.size();
+		this.currentQueueIndex = 0;
+		this.counter = 0;
+	}
+
+	@Override
+	public ImmutableSet<IRI> getSelectedVocabulary() {
+		return vocabulary.keySet();
+	}
+
+	@Override
+	public boolean hasNext() throws OntopQueryAnsweringException, OntopConnectionException {
+		if (currentBatch != null && currentBatch.hasNext())
+			return true;
+
+		if (closed)
+			return false;
+
+		// Lately started
+		if (executor == null)
+			start();
+
+		while (remainingEntries > 0) {
+			Batch batch = takeNextBatch();
+			if (batch.isLast) {
+				remainingEntries--;
+				if (queues.size() > 1)
+					currentQueueIndex++;
+				if (batch.failure != null)
+					fail(batch.failure);
+			}
+			else {
+				currentBatch = batch.assertions.iterator();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public Assertion next() throws OntopQueryAnsweringException {
+		if (currentBatch == null || !currentBatch.hasNext())
+			throw new NoSuchElementException();
+		counter++;
+		return currentBatch.next();
+	}
+
+	private void start() {
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = Executors.newFixedThreadPool(Math.min(parallelism, entries.size()), r -> {
+			Thread thread = new Thread(r, "ontop-materialization-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+		// FIFO: the entries are started in the vocabulary order
+		for (int i = 0; i < entries.size(); i++) {
+			int index = i;
+			executor.execute(() -> materialize(index));
+		}
+		executor.shutdown();
+	}
+
+	private Batch takeNextBatch() throws OntopQueryAnsweringException {
+		try {
+			return queues.get(currentQueueIndex).take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			close();
+			throw new OntopQueryAnsweringException(e);
+		}
+	}
+
+	private void fail(Exception failure) throws OntopQueryAnsweringException, OntopConnectionException {
+		close();
+		if (failure instanceof OntopQueryAnsweringException)
+			throw (OntopQueryAnsweringException) failure;
+		if (failure instanceof OntopConnectionException)
+			throw (OntopConnectionException) failure;
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		throw new OntopQueryAnsweringException(failure);
+	}
+
+	/**
+	 * Run by a worker
+	 */
+	private void materialize(int index) {
+		VocabularyEntry entry = entries.get(index);
+		BlockingQueue<Batch> queue = queues.get(queues.size() > 1 ? index : 0);
+		if (closed)
+			return;
+
+		PredicateStatisticsRecorder recorder = new PredicateStatisticsRecorder(entry.name);
+		statistics.add(recorder);
+		Exception failure = null;
+		try {
+			ConstructQuery query = inputQueryFactory.createConstructQuery(entry.getQuery());
+			try (OntopConnection connection = queryEngine.getConnection();
+				 OntopStatement statement = connection.createStatement()) {
+				if (doStreamResults)
+					statement.setFetchSize(DefaultOntopRDFMaterializer.FETCH_SIZE);
+
+				try (SimpleGraphResultSet graphResultSet = statement.execute(query)) {
+					List<Assertion> assertions = new ArrayList<>(batchSize);
+					while (!closed && graphResultSet.hasNext()) {
+						assertions.add(graphResultSet.next());
+						recorder.incrementTripleCount();
+						if (assertions.size() == batchSize) {
+							put(queue, new Batch(assertions, null, false), recorder);
+							assertions = new ArrayList<>(batchSize);
+						}
+					}
+					if (!assertions.isEmpty())
+						put(queue, new Batch(assertions, null, false), recorder);
+				}
+			}
+		} catch (OntopQueryAnsweringException | OntopConnectionException e) {
+			if (canBeIncomplete) {
+				LOGGER.warn("Possibly incomplete class/property " + entry.name + " (materialization problem).\n"
+						+ "Details: " + e);
+				possiblyIncompleteClassesAndProperties.add(entry.name);
+			}
+			else {
+				LOGGER.error("Problem materializing the class/property " + entry.name);
+				failure = e;
+			}
+		} catch (InterruptedException e) {
+			// Closed
+			return;
+		} catch (RuntimeException e) {
+			LOGGER.error("Problem materializing the class/property " + entry.name);
+			failure = e;
+		}
+		finally {
+			recorder.complete();
+		}
+
+		try {
+			put(queue, new Batch(ImmutableList.of(), failure, true), recorder);
+		} catch (InterruptedException e) {
+			// Closed
+		}
+	}
+
+	/**
+	 * Blocks while the queue is full (unless the result set is closed)
+	 */
+	private void put(BlockingQueue<Batch> queue, Batch batch, PredicateStatisticsRecorder recorder)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		while (!queue.offer(batch, POLLING_INTERVAL_MS, TimeUnit.MILLISECONDS)) {
+			if (closed)
+				throw new InterruptedException("Closed result set");
+		}
+		recorder.addBlockedTime(System.nanoTime() - start);
+	}
+
+	/**
+	 * Stops the workers (they release their connections)
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		currentBatch = null;
+		if (executor != null)
+			executor.shutdownNow();
+	}
+
+	@Override
+	public long getTripleCountSoFar() {
+		return counter;
+	}
+
+	@Override
+	public ImmutableList<IRI> getPossiblyIncompleteRDFPropertiesAndClassesSoFar() {
+		return ImmutableList.copyOf(possiblyIncompleteClassesAndProperties);
+	}
+
+	@Override
+	public ImmutableList<PredicateMaterializationStatistics> getPredicateStatisticsSoFar() {
+		return statistics.stream()
+				.map(PredicateStatisticsRecorder::snapshot)
+				.collect(ImmutableCollectors.toList());
+	}
+
+
+	private static final class Batch {
+		private final List<Assertion> assertions;
+		@Nullable
+		private final Exception failure;
+		// no more batch for the property/class
+		private final boolean isLast;
+
+		private Batch(List<Assertion> assertions, @Nullable Exception failure, boolean isLast) {
+			this.assertions = assertions;
+			this.failure = failure;
+			this.isLast = isLast;
+		}
+	}
+}
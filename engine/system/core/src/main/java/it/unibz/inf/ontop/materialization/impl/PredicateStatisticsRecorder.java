@@ -0,0 +1,100 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
+import org.apache.commons.rdf.api.IRI;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Updated by the thread materializing the class/property, read by any thread
+ */
+class PredicateStatisticsRecorder {
+
+    private final IRI predicate;
+    private final AtomicLong tripleCount = new AtomicLong();
+    private final AtomicLong blockedNanos = new AtomicLong();
+    private final long startNanos;
+    private volatile long endNanos;
+    private volatile boolean completed;
+
+    /**
+     * Starts measuring
+     */
+    PredicateStatisticsRecorder(IRI predicate) {
+        this.predicate = predicate;
+        this.startNanos = System.nanoTime();
+    }
+
+    void incrementTripleCount() {
+        tripleCount.incrementAndGet();
+    }
+
+    void addBlockedTime(long nanos) {
+        blockedNanos.addAndGet(nanos);
+    }
+
+    void complete() {
+        if (!completed) {
+            endNanos = System.nanoTime();
+            completed = true;
+        }
+    }
+
+    PredicateMaterializationStatistics snapshot() {
+        boolean isCompleted = completed;
+        long elapsedNanos = (isCompleted ? endNanos : System.nanoTime()) - startNanos;
+        return new PredicateMaterializationStatisticsImpl(predicate, tripleCount.get(),
+                TimeUnit.NANOSECONDS.toMillis(elapsedNanos),
+                TimeUnit.NANOSECONDS.toMillis(blockedNanos.get()), isCompleted);
+    }
+
+
+    private static class PredicateMaterializationStatisticsImpl implements PredicateMaterializationStatistics {
+        private final IRI predicate;
+        private final long tripleCount;
+        private final long elapsedTimeMillis;
+        private final long blockedTimeMillis;
+        private final boolean isCompleted;
+
+        private PredicateMaterializationStatisticsImpl(IRI predicate, long tripleCount, long elapsedTimeMillis,
+                                                       long blockedTimeMillis, boolean isCompleted) {
+            this.predicate = predicate;
+            this.tripleCount = tripleCount;
+            this.elapsedTimeMillis = elapsedTimeMillis;
+            this.blockedTimeMillis = blockedTimeMillis;
+            this.isCompleted = isCompleted;
+        }
+
+        @Override
+        public IRI getPredicate() {
+            return predicate;
+        }
+
+        @Override
+        public long getTripleCount() {
+            return tripleCount;
+        }
+
+        @Override
+        public long getElapsedTimeMillis() {
+            return elapsedTimeMillis;
+        }
+
+        @Override
+        public long getBlockedTimeMillis() {
+            return blockedTimeMillis;
+        }
+
+        @Override
+        public boolean isCompleted() {
+            return isCompleted;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d triples in %d ms (%.1f triples/s)%s", predicate, tripleCount,
+                    elapsedTimeMillis, getTriplesPerSecond(), isCompleted ? "" : " [in progress]");
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.model.vocabulary.RDF;
+import org.apache.commons.rdf.api.IRI;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Turtle with prefixed names and, optionally, grouping of the consecutive triples sharing the same subject.
+ *
+ * Only the consecutive triples are grouped so as to keep the memory constant
+ * (the triples of a property/class are typically sorted by subject).
+ */
+class TurtleGraphWriter extends AbstractMaterializedGraphWriter {
+
+    // namespace -> prefix (without the colon)
+    private final Map<String, String> prefixes;
+    private final boolean groupSubjects;
+
+    @Nullable
+    private String lastSubject, lastPredicate;
+
+    TurtleGraphWriter(OutputStream outputStream, boolean compress, ImmutableMap<String, String> prefixMap,
+                      boolean groupSubjects) throws IOException {
+        super(outputStream, compress);
+        this.groupSubjects = groupSubjects;
+        this.prefixes = new HashMap<>();
+        for (Map.Entry<String, String> e : prefixMap.entrySet()) {
+            String prefix = e.getKey().endsWith(":")
+                    ? e.getKey().substring(0, e.getKey().length() - 1)
+                    : e.getKey();
+            if (isValidPrefix(prefix) && !prefixes.containsKey(e.getValue())) {
+                prefixes.put(e.getValue(), prefix);
+                writer.write("@prefix " + prefix + ": " + encodeFullIRI(e.getValue()) + " .\n");
+            }
+        }
+        if (!prefixes.isEmpty())
+            writer.write("\n");
+    }
+
+    @Override
+    protected String encodePredicate(IRI iri) {
+        return iri.equals(RDF.TYPE) ? "a" : encodeIRI(iri);
+    }
+
+    /**
+     * Prefixed name if the namespace (ending with the last "/" or "#") has a prefix
+     */
+    @Override
+    protected String encodeIRI(IRI iri) {
+        String iriString = iri.getIRIString();
+        int index = Math.max(iriString.lastIndexOf('/'), iriString.lastIndexOf('#')) + 1;
+        if (index > 0) {
+            String prefix = prefixes.get(iriString.substring(0, index));
+            if (prefix != null) {
+                String localName = iriString.substring(index);
+                if (isValidLocalName(localName))
+                    return prefix + ":" + localName;
+            }
+        }
+        return encodeFullIRI(iriString);
+    }
+
+    /**
+     * Conservative subset of the Turtle prefixes (PN_PREFIX): starts with a letter (or is empty)
+     */
+    private static boolean isValidPrefix(String prefix) {
+        return prefix.isEmpty() || (isLetter(prefix.charAt(0)) && isValidNameTail(prefix));
+    }
+
+    /**
+     * Conservative subset of the Turtle local names (PN_LOCAL): may also start with a digit or "_"
+     */
+    private static boolean isValidLocalName(String localName) {
+        if (localName.isEmpty())
+            return true;
+        char c = localName.charAt(0);
+        return (isLetter(c) || isDigit(c) || c == '_') && isValidNameTail(localName);
+    }
+
+    /**
+     * Letters, digits, "_" and "-" after the first character
+     */
+    private static boolean isValidNameTail(String name) {
+        for (int i = 1; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(isLetter(c) || isDigit(c) || c == '_' || c == '-'))
+                return false;
+        }
+        return true;
+    }
+
+    private static boolean isLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    @Override
+    protected void writeTriple(String subject, String predicate, String object) throws IOException {
+        if (!groupSubjects) {
+            writer.write(subject + " " + predicate + " " + object + " .\n");
+            return;
+        }
+
+        if (subject.equals(lastSubject)) {
+            if (predicate.equals(lastPredicate))
+                writer.write(" ,\n\t\t" + object);
+            else
+                writer.write(" ;\n\t" + predicate + " " + object);
+        }
+        else {
+            if (lastSubject != null)
+                writer.write(" .\n");
+            writer.write(subject + " " + predicate + " " + object);
+        }
+        lastSubject = subject;
+        lastPredicate = predicate;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (lastSubject != null)
+            writer.write(" .\n");
+        super.close();
+    }
+}
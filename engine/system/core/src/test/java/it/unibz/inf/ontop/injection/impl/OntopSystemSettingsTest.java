@@ -0,0 +1,33 @@
+package it.unibz.inf.ontop.injection.impl;
+
+import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
+import it.unibz.inf.ontop.injection.OntopSystemSettings;
+import org.junit.Test;
+
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+public class OntopSystemSettingsTest {
+
+    @Test
+    public void testDescribeBatchSize() {
+        assertEquals(5, createSettings("5").getDescribeBatchSize());
+    }
+
+    @Test(expected = InvalidOntopConfigurationException.class)
+    public void testZeroDescribeBatchSize() {
+        createSettings("0");
+    }
+
+    @Test(expected = InvalidOntopConfigurationException.class)
+    public void testNegativeDescribeBatchSize() {
+        createSettings("-1");
+    }
+
+    private static OntopSystemSettings createSettings(String describeBatchSize) {
+        Properties properties = new Properties();
+        properties.setProperty(OntopSystemSettings.DESCRIBE_BATCH_SIZE, describeBatchSize);
+        return new OntopSystemSettingsImpl(properties);
+    }
+}
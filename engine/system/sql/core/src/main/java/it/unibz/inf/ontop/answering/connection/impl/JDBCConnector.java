@@ -2,8 +2,11 @@ package it.unibz.inf.ontop.answering.connection.impl;
 
 import com.google.inject.assistedinject.Assisted;
 import com.google.inject.assistedinject.AssistedInject;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
 import it.unibz.inf.ontop.answering.connection.DBConnector;
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
 import it.unibz.inf.ontop.dbschema.DBMetadata;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
@@ -44,6 +47,8 @@ public class JDBCConnector implements DBConnector {
     private final TermFactory termFactory;
     private final TypeFactory typeFactory;
     private final RDF rdfFactory;
+    private final QueryExecutionService executionService;
+    private final QueryExecutionReporter reporter;
 
     @AssistedInject
     private JDBCConnector(@Assisted QueryReformulator queryReformulator,
@@ -54,6 +59,8 @@ public class JDBCConnector implements DBConnector {
                           TermFactory termFactory,
                           TypeFactory typeFactory,
                           RDF rdfFactory,
+                          QueryExecutionService executionService,
+                          QueryExecutionReporter reporter,
                           OntopSystemSQLSettings settings) {
         this.queryReformulator = queryReformulator;
         this.dbMetadata = dbMetadata;
@@ -64,6 +71,8 @@ public class JDBCConnector implements DBConnector {
         this.connectionPool = connectionPool;
         this.typeFactory = typeFactory;
         this.rdfFactory = rdfFactory;
+        this.executionService = executionService;
+        this.reporter = reporter;
     }
 
     /**
@@ -97,9 +106,13 @@ public class JDBCConnector implements DBConnector {
             log.error(e.getMessage());
         }
         connectionPool.close();
+        reporter.close();
     }
 
-    public synchronized Connection getSQLPoolConnection() throws OntopConnectionException {
+    /**
+     * Not synchronized: the connection pool is thread-safe.
+     */
+    public Connection getSQLPoolConnection() throws OntopConnectionException {
         try {
             return connectionPool.getConnection();
         } catch (SQLException e) {
@@ -107,6 +120,11 @@ public class JDBCConnector implements DBConnector {
         }
     }
 
+    @Override
+    public Optional<ConnectionPoolStatistics> getConnectionPoolStatistics() {
+        return connectionPool.getStatistics();
+    }
+
     /***
      * Returns an OntopConnection, the main object that a client should use to
      * access the query answering services of Quest. With the QuestConnection
@@ -125,7 +143,8 @@ public class JDBCConnector implements DBConnector {
     public OntopConnection getConnection() throws OntopConnectionException {
 
         return new SQLConnection(this, queryReformulator, getSQLPoolConnection(), iriDictionary,
-                dbMetadata, inputQueryFactory, termFactory, typeFactory, rdfFactory, settings);
+                dbMetadata, inputQueryFactory, termFactory, typeFactory, rdfFactory, executionService, reporter,
+                settings);
     }
 
 
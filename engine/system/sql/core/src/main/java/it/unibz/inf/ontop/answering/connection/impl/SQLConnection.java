@@ -25,7 +25,11 @@ import java.util.Optional;
 
 import it.unibz.inf.ontop.answering.connection.OntopConnection;
 import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
 import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.reformulation.input.SelectQuery;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSetPublisher;
 import it.unibz.inf.ontop.dbschema.DBMetadata;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
 import it.unibz.inf.ontop.answering.reformulation.IRIDictionary;
@@ -61,12 +65,15 @@ public class SQLConnection implements OntopConnection {
 	private final JDBCConnector jdbcConnector;
 	private boolean isClosed;
 	private final RDF rdfFactory;
+	private final QueryExecutionService executionService;
+	private final QueryExecutionReporter reporter;
 
 
 	public SQLConnection(JDBCConnector jdbcConnector, QueryReformulator queryProcessor, Connection connection,
 						 Optional<IRIDictionary> iriDictionary, DBMetadata dbMetadata,
 						 InputQueryFactory inputQueryFactory, TermFactory termFactory, TypeFactory typeFactory,
-						 RDF rdfFactory, OntopSystemSQLSettings settings) {
+						 RDF rdfFactory, QueryExecutionService executionService, QueryExecutionReporter reporter,
+						 OntopSystemSQLSettings settings) {
 		this.jdbcConnector = jdbcConnector;
 		this.queryProcessor = queryProcessor;
 		this.conn = connection;
@@ -77,6 +84,8 @@ public class SQLConnection implements OntopConnection {
 		this.typeFactory = typeFactory;
 		this.settings = settings;
 		this.rdfFactory = rdfFactory;
+		this.executionService = executionService;
+		this.reporter = reporter;
 		this.isClosed = false;
 	}
 	
@@ -99,12 +108,19 @@ public class SQLConnection implements OntopConnection {
 			return new SQLQuestStatement(
 					this.queryProcessor,
 					conn.createStatement(java.sql.ResultSet.TYPE_FORWARD_ONLY, java.sql.ResultSet.CONCUR_READ_ONLY),
-					iriDictionary, dbMetadata, inputQueryFactory, termFactory, typeFactory, rdfFactory, settings);
+					iriDictionary, dbMetadata, inputQueryFactory, termFactory, typeFactory, rdfFactory,
+					executionService, reporter, settings);
 		} catch (Exception e) {
 			throw new OntopConnectionException(e);
 		}
 	}
 
+	@Override
+	public OntopBindingSetPublisher publish(SelectQuery selectQuery) throws OntopConnectionException {
+		SQLQuestStatement statement = (SQLQuestStatement) createStatement();
+		return statement.publish(selectQuery, statement);
+	}
+
 	@Override
 	public InputQueryFactory getInputQueryFactory() {
 		return queryProcessor.getInputQueryFactory();
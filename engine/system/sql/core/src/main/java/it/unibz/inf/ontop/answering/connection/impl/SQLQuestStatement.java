@@ -1,7 +1,13 @@
 package it.unibz.inf.ontop.answering.connection.impl;
 
+import com.google.common.collect.ImmutableList;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.Optional;
 
+import it.unibz.inf.ontop.answering.connection.QueryExecutionService;
+import it.unibz.inf.ontop.answering.report.QueryExecutionReporter;
 import it.unibz.inf.ontop.answering.reformulation.ExecutableQuery;
 import it.unibz.inf.ontop.answering.reformulation.impl.SQLExecutableQuery;
 import it.unibz.inf.ontop.answering.reformulation.input.*;
@@ -20,6 +26,8 @@ import it.unibz.inf.ontop.model.term.TermFactory;
 import it.unibz.inf.ontop.model.type.TypeFactory;
 import org.apache.commons.rdf.api.RDF;
 
+import javax.annotation.Nullable;
+
 import java.sql.*;
 import java.sql.ResultSet;
 
@@ -29,7 +37,22 @@ import java.sql.ResultSet;
  */
 public class SQLQuestStatement extends QuestStatement {
 
+    /**
+     * Maximal number of prepared statements kept open (for parameterized queries)
+     */
+    private static final int MAX_PREPARED_STATEMENTS = 16;
+
     private final Statement sqlStatement;
+    /**
+     * LRU cache of the prepared statements, indexed by SQL string.
+     * Only accessed by the thread executing the queries (one at a time).
+     */
+    private final Map<String, PreparedStatement> preparedStatements;
+    /**
+     * Prepared statement being executed (if any), for cancellation
+     */
+    @Nullable
+    private volatile PreparedStatement currentPreparedStatement;
     private final DBMetadata dbMetadata;
     private final Optional<IRIDictionary> iriDictionary;
     private final TermFactory termFactory;
@@ -41,8 +64,10 @@ public class SQLQuestStatement extends QuestStatement {
                              Optional<IRIDictionary> iriDictionary, DBMetadata dbMetadata,
                              InputQueryFactory inputQueryFactory,
                              TermFactory termFactory, TypeFactory typeFactory,
-                             RDF rdfFactory, OntopSystemSQLSettings settings) {
-        super(queryProcessor, inputQueryFactory);
+                             RDF rdfFactory, QueryExecutionService executionService,
+                             QueryExecutionReporter reporter,
+                             OntopSystemSQLSettings settings) {
+        super(queryProcessor, inputQueryFactory, executionService, reporter, settings);
         this.sqlStatement = sqlStatement;
         this.dbMetadata = dbMetadata;
         this.iriDictionary = iriDictionary;
@@ -50,6 +75,19 @@ public class SQLQuestStatement extends QuestStatement {
         this.typeFactory = typeFactory;
         this.rdfFactory = rdfFactory;
         this.settings = settings;
+        this.preparedStatements = new LinkedHashMap<String, PreparedStatement>(MAX_PREPARED_STATEMENTS, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+                if (size() <= MAX_PREPARED_STATEMENTS)
+                    return false;
+                try {
+                    eldest.getValue().close();
+                } catch (SQLException e) {
+                    // Not critical
+                }
+                return true;
+            }
+        };
     }
 
     @Override
@@ -140,7 +178,7 @@ public class SQLQuestStatement extends QuestStatement {
         if (!isCanceled()) {
             try {
 
-                java.sql.ResultSet set = sqlStatement.executeQuery(newsql);
+                java.sql.ResultSet set = executeSQL(newsql, targetQuery.getParameters());
                 if (set.next()) {
                     return set.getInt(1);
                 } else {
@@ -159,6 +197,9 @@ public class SQLQuestStatement extends QuestStatement {
     @Override
     public void close() throws OntopConnectionException {
         try {
+            for (PreparedStatement preparedStatement : preparedStatements.values())
+                preparedStatement.close();
+            preparedStatements.clear();
             if (sqlStatement != null)
                 sqlStatement.close();
         } catch (SQLException e) {
@@ -168,12 +209,42 @@ public class SQLQuestStatement extends QuestStatement {
 
     protected void cancelExecution() throws OntopQueryEvaluationException {
         try {
-            sqlStatement.cancel();
+            PreparedStatement preparedStatement = currentPreparedStatement;
+            if (preparedStatement != null)
+                preparedStatement.cancel();
+            else
+                sqlStatement.cancel();
         } catch (SQLException e) {
             throw new OntopQueryEvaluationException(e);
         }
     }
 
+    /**
+     * Parameterized queries are executed with a (cached) prepared statement,
+     * configured like the main statement.
+     */
+    private ResultSet executeSQL(String sqlQuery, ImmutableList<Object> parameters) throws SQLException {
+        if (parameters.isEmpty()) {
+            currentPreparedStatement = null;
+            return sqlStatement.executeQuery(sqlQuery);
+        }
+
+        PreparedStatement preparedStatement = preparedStatements.get(sqlQuery);
+        if (preparedStatement == null) {
+            preparedStatement = sqlStatement.getConnection().prepareStatement(sqlQuery);
+            preparedStatements.put(sqlQuery, preparedStatement);
+        }
+        preparedStatement.setFetchSize(sqlStatement.getFetchSize());
+        preparedStatement.setMaxRows(sqlStatement.getMaxRows());
+        preparedStatement.setQueryTimeout(sqlStatement.getQueryTimeout());
+
+        for (int i = 0; i < parameters.size(); i++)
+            preparedStatement.setObject(i + 1, parameters.get(i));
+
+        currentPreparedStatement = preparedStatement;
+        return preparedStatement.executeQuery();
+    }
+
     @Override
     protected BooleanResultSet executeBooleanQuery(ExecutableQuery executableQuery)
             throws OntopQueryEvaluationException {
@@ -184,7 +255,7 @@ public class SQLQuestStatement extends QuestStatement {
         }
 
         try {
-            java.sql.ResultSet set = sqlStatement.executeQuery(sqlQuery);
+            java.sql.ResultSet set = executeSQL(sqlQuery, sqlTargetQuery.getParameters());
             return new SQLBooleanResultSet(set);
         } catch (SQLException e) {
             throw new OntopQueryEvaluationException(e.getMessage());
@@ -201,20 +272,18 @@ public class SQLQuestStatement extends QuestStatement {
             return new EmptyTupleResultSet(executableQuery.getSignature());
         }
         try {
-            java.sql.ResultSet set = sqlStatement.executeQuery(sqlQuery);
+            java.sql.ResultSet set = executeSQL(sqlQuery, sqlTargetQuery.getParameters());
             return settings.isDistinctPostProcessingEnabled()
                     ? new SQLDistinctTupleResultSet(set, executableQuery.getSignature(), dbMetadata, iriDictionary,
                     termFactory, typeFactory, rdfFactory)
-                    : new DelegatedIriSQLTupleResultSet(set, executableQuery.getSignature(), dbMetadata, iriDictionary,
-                    termFactory, typeFactory, rdfFactory);
+                    : createTupleResultSet(set, sqlTargetQuery);
         } catch (SQLException e) {
             throw new OntopQueryEvaluationException(e);
         }
     }
 
     @Override
-    protected SimpleGraphResultSet executeGraphQuery(ConstructQuery inputQuery, ExecutableQuery executableQuery,
-                                                     boolean collectResults)
+    protected SimpleGraphResultSet executeGraphQuery(ConstructQuery inputQuery, ExecutableQuery executableQuery)
             throws OntopQueryEvaluationException, OntopResultConversionException, OntopConnectionException {
         SQLExecutableQuery sqlTargetQuery = checkAndConvertTargetQuery(executableQuery);
 
@@ -227,14 +296,22 @@ public class SQLQuestStatement extends QuestStatement {
         }
         else {
             try {
-                ResultSet set = sqlStatement.executeQuery(sqlQuery);
-                tuples = new DelegatedIriSQLTupleResultSet(set, executableQuery.getSignature(), dbMetadata,
-                        iriDictionary, termFactory, typeFactory, rdfFactory);
+                ResultSet set = executeSQL(sqlQuery, sqlTargetQuery.getParameters());
+                tuples = createTupleResultSet(set, sqlTargetQuery);
             } catch (SQLException e) {
                 throw new OntopQueryEvaluationException(e.getMessage());
             }
         }
-        return new DefaultSimpleGraphResultSet(tuples, inputQuery.getConstructTemplate(), collectResults, termFactory, rdfFactory);
+        return new DefaultSimpleGraphResultSet(tuples, inputQuery.getConstructTemplate(), termFactory, rdfFactory);
+    }
+
+    private TupleResultSet createTupleResultSet(ResultSet set, SQLExecutableQuery sqlTargetQuery) {
+        return sqlTargetQuery.hasPostProcessedIRIs()
+                ? new PostProcessedIriSQLTupleResultSet(set, sqlTargetQuery.getSignature(),
+                sqlTargetQuery.getPostProcessedIRITemplates(), dbMetadata, iriDictionary, termFactory, typeFactory,
+                rdfFactory)
+                : new DelegatedIriSQLTupleResultSet(set, sqlTargetQuery.getSignature(), dbMetadata, iriDictionary,
+                termFactory, typeFactory, rdfFactory);
     }
 
     private SQLExecutableQuery checkAndConvertTargetQuery(ExecutableQuery executableQuery) {
@@ -1,13 +1,26 @@
 package it.unibz.inf.ontop.answering.connection.pool;
 
 
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
+
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Optional;
 
+/**
+ * Thread-safe: connections can be requested concurrently, without external synchronization.
+ */
 public interface JDBCConnectionPool extends AutoCloseable {
 
     @Override
     void close();
 
     Connection getConnection() throws SQLException;
+
+    /**
+     * Empty if the pool is not instrumented
+     */
+    default Optional<ConnectionPoolStatistics> getStatistics() {
+        return Optional.empty();
+    }
 }
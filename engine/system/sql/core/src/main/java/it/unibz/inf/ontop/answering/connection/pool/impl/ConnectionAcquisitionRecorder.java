@@ -0,0 +1,79 @@
+package it.unibz.inf.ontop.answering.connection.pool.impl;
+
+import com.google.common.collect.ImmutableSortedMap;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records the connection requests of a pool.
+ *
+ * Lock-free (based on LongAdder) so that it does not introduce any contention between the client threads.
+ */
+class ConnectionAcquisitionRecorder {
+
+    /**
+     * Upper bounds (in microseconds, inclusive) of the buckets of the latency histogram
+     */
+    private static final long[] BUCKET_BOUNDS = {
+            10, 30, 100, 300, 1_000, 3_000, 10_000, 30_000, 100_000, 300_000, 1_000_000, 3_000_000, 10_000_000,
+            Long.MAX_VALUE};
+
+    private final LongAdder[] buckets;
+    private final LongAdder acquisitionCount = new LongAdder();
+    private final LongAdder waitCount = new LongAdder();
+    private final LongAdder failureCount = new LongAdder();
+    private final LongAdder totalLatency = new LongAdder();
+
+    ConnectionAcquisitionRecorder() {
+        buckets = new LongAdder[BUCKET_BOUNDS.length];
+        for (int i = 0; i < buckets.length; i++)
+            buckets[i] = new LongAdder();
+    }
+
+    /**
+     * When no idle connection is available (according to the pool), the request is counted as a wait.
+     */
+    Connection acquire(ConnectionSupplier supplier, boolean idleConnectionAvailable) throws SQLException {
+        if (!idleConnectionAvailable)
+            waitCount.increment();
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            failureCount.increment();
+            throw e;
+        } finally {
+            record(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        }
+    }
+
+    private void record(long latencyMicros) {
+        acquisitionCount.increment();
+        totalLatency.add(latencyMicros);
+        int i = 0;
+        while (latencyMicros > BUCKET_BOUNDS[i])
+            i++;
+        buckets[i].increment();
+    }
+
+    ConnectionPoolStatistics getStatistics(int activeConnectionCount, int idleConnectionCount,
+                                           int waitingThreadCount) {
+        ImmutableSortedMap.Builder<Long, Long> histogramBuilder = ImmutableSortedMap.naturalOrder();
+        for (int i = 0; i < buckets.length; i++)
+            histogramBuilder.put(BUCKET_BOUNDS[i], buckets[i].sum());
+
+        return new ConnectionPoolStatistics(activeConnectionCount, idleConnectionCount, waitingThreadCount,
+                acquisitionCount.sum(), waitCount.sum(), failureCount.sum(), totalLatency.sum(),
+                histogramBuilder.build());
+    }
+
+
+    @FunctionalInterface
+    interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+}
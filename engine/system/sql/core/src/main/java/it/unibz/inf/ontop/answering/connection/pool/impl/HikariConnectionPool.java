@@ -3,11 +3,14 @@ package it.unibz.inf.ontop.answering.connection.pool.impl;
 import com.google.inject.Inject;
 import com.zaxxer.hikari.HikariConfig;
 import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
 import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
 import it.unibz.inf.ontop.answering.connection.pool.JDBCConnectionPool;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Optional;
 
 /**
  * NOT a singleton
@@ -16,6 +19,7 @@ public class HikariConnectionPool implements JDBCConnectionPool {
 
 
     private final HikariDataSource ds;
+    private final ConnectionAcquisitionRecorder recorder = new ConnectionAcquisitionRecorder();
 
     @Inject
     private HikariConnectionPool(OntopSystemSQLSettings settings) {
@@ -42,6 +46,16 @@ public class HikariConnectionPool implements JDBCConnectionPool {
 
     @Override
     public Connection getConnection() throws SQLException {
-        return ds.getConnection();
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        return recorder.acquire(ds::getConnection, pool == null || pool.getIdleConnections() > 0);
+    }
+
+    @Override
+    public Optional<ConnectionPoolStatistics> getStatistics() {
+        HikariPoolMXBean pool = ds.getHikariPoolMXBean();
+        return Optional.of(pool == null
+                ? recorder.getStatistics(0, 0, 0)
+                : recorder.getStatistics(pool.getActiveConnections(), pool.getIdleConnections(),
+                        pool.getThreadsAwaitingConnection()));
     }
 }
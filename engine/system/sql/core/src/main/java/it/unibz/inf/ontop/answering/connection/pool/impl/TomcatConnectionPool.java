@@ -1,6 +1,7 @@
 package it.unibz.inf.ontop.answering.connection.pool.impl;
 
 import com.google.inject.Inject;
+import it.unibz.inf.ontop.answering.connection.ConnectionPoolStatistics;
 import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
 import it.unibz.inf.ontop.answering.connection.pool.JDBCConnectionPool;
 import org.apache.tomcat.jdbc.pool.DataSource;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Optional;
 
 
 /**
@@ -19,6 +21,7 @@ public class TomcatConnectionPool implements JDBCConnectionPool {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(TomcatConnectionPool.class);
     private final DataSource tomcatPool;
+    private final ConnectionAcquisitionRecorder recorder = new ConnectionAcquisitionRecorder();
 
     @Inject
     private TomcatConnectionPool(OntopSystemSQLSettings settings) {
@@ -78,6 +81,18 @@ public class TomcatConnectionPool implements JDBCConnectionPool {
 
     @Override
     public Connection getConnection() throws SQLException {
-        return tomcatPool.getConnection();
+        // The pool is created lazily by the first request
+        return recorder.acquire(tomcatPool::getConnection,
+                tomcatPool.getPool() == null || tomcatPool.getIdle() > 0);
+    }
+
+    /**
+     * Does not create the pool
+     */
+    @Override
+    public Optional<ConnectionPoolStatistics> getStatistics() {
+        return Optional.of(tomcatPool.getPool() == null
+                ? recorder.getStatistics(0, 0, 0)
+                : recorder.getStatistics(tomcatPool.getActive(), tomcatPool.getIdle(), tomcatPool.getWaitCount()));
     }
 }
@@ -0,0 +1,17 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+/**
+ * What JDBC2ConstantConverter learned about the values of a column (shared by all its cells).
+ *
+ * Not thread-safe: owned by the result set.
+ */
+class ColumnDecodingState {
+
+    static final int UNKNOWN = -1;
+
+    /**
+     * Index of the last formatter that parsed a datetime (resp. time) string of the column
+     */
+    int dateTimeFormatterIndex = UNKNOWN;
+    int timeFormatterIndex = UNKNOWN;
+}
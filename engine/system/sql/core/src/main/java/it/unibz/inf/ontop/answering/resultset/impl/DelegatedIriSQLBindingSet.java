@@ -40,7 +40,7 @@ public class DelegatedIriSQLBindingSet extends AbstractOntopBindingSet implement
         return variableName2BindingMap.isPresent()?
                 variableName2BindingMap.get().containsKey(bindingName):
                 signature.contains(bindingName) &&
-                        row.get(columnMap.get(bindingName) - 1).getMainValue() != null;
+                        getCell(columnMap.get(bindingName)).getMainValue() != null;
     }
 
     /***
@@ -49,7 +49,7 @@ public class DelegatedIriSQLBindingSet extends AbstractOntopBindingSet implement
     @Override
     @Nullable
     public Constant getConstant(int column) throws OntopResultConversionException {
-        final MainTypeLangValues cell = row.get(column - 1);
+        final MainTypeLangValues cell = getCell(column);
         if (cell.getMainValue() == null) {
             return null;
         } else {
@@ -66,13 +66,20 @@ public class DelegatedIriSQLBindingSet extends AbstractOntopBindingSet implement
                 getConstant(columnIndex);
     }
 
+    /**
+     * @param column 1-based
+     */
+    protected MainTypeLangValues getCell(int column) {
+        return row.get(column - 1);
+    }
+
     @Override
     protected OntopBinding computeBinding(String variableName) {
         return computeBinding(columnMap.get(variableName));
     }
 
     private OntopBinding computeBinding(int column) {
-        final MainTypeLangValues cell = row.get(column - 1);
+        final MainTypeLangValues cell = getCell(column);
         if (cell.getMainValue() == null) {
             return null;
         } else {
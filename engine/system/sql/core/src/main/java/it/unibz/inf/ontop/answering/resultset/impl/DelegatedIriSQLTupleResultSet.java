@@ -44,23 +44,24 @@ import java.util.concurrent.atomic.AtomicInteger;
  */
 public class DelegatedIriSQLTupleResultSet extends AbstractSQLTupleResultSet implements TupleResultSet {
 
-    private final ImmutableMap<String, Integer> columnMap;
+    protected final ImmutableMap<String, Integer> columnMap;
     protected final JDBC2ConstantConverter ontopConstantRetriever;
+    protected final SQLRowReader rowReader;
 
     public DelegatedIriSQLTupleResultSet(ResultSet rs, ImmutableList<String> signature, DBMetadata dbMetadata,
                                          Optional<IRIDictionary> iriDictionary, TermFactory termFactory,
                                          TypeFactory typeFactory, RDF rdfFactory) {
         super(rs, signature);
         this.columnMap = buildColumnMap();
+        this.rowReader = new SQLRowReader(signature.size());
         this.ontopConstantRetriever = new JDBC2ConstantConverter(dbMetadata, iriDictionary, termFactory, typeFactory,
                 rdfFactory);
     }
 
     @Override
     protected DelegatedIriSQLBindingSet readCurrentRow() throws OntopConnectionException {
-        SQLRowReader rowReader = new SQLRowReader();
         try {
-            final List<MainTypeLangValues> cells = rowReader.read(rs, getColumnCount());
+            final List<MainTypeLangValues> cells = rowReader.read(rs);
             return new DelegatedIriSQLBindingSet(cells, signature, columnMap, ontopConstantRetriever);
         } catch (SQLException e) {
             throw new OntopConnectionException(e);
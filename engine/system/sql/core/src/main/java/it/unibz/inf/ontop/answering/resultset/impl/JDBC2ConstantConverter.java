@@ -13,15 +13,19 @@ import it.unibz.inf.ontop.model.vocabulary.XSD;
 import org.apache.commons.lang3.time.DateUtils;
 import org.apache.commons.rdf.api.RDF;
 
+import javax.annotation.Nullable;
+
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.net.URISyntaxException;
 import java.text.DecimalFormat;
+import java.text.ParsePosition;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeFormatterBuilder;
-import java.time.format.DateTimeParseException;
 import java.time.temporal.TemporalAccessor;
+import java.time.temporal.TemporalQuery;
 import java.util.*;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -41,6 +45,9 @@ public class JDBC2ConstantConverter {
     private static ImmutableMap<System, ImmutableList<DateTimeFormatter>> system2DateTimeFormatter;
     private static ImmutableMap<System, ImmutableList<DateTimeFormatter>> system2TimeFormatter;
 
+    private static final TemporalQuery<?>[] DATE_TIME_QUERIES = {OffsetDateTime::from, LocalDateTime::from, LocalDate::from};
+    private static final TemporalQuery<?>[] TIME_QUERIES = {OffsetTime::from, LocalTime::from};
+
     private AtomicInteger bnodeCounter;
     private IRIDictionary iriDictionary;
 
@@ -48,6 +55,11 @@ public class JDBC2ConstantConverter {
 
     private final System systemDB;
 
+    /**
+     * Reused for all the floating values (not thread-safe, like the bnode map)
+     */
+    private final DecimalFormat floatingFormatter;
+
     static {
         defaultDateTimeFormatter = buildDefaultDateTimeFormatter();
         system2DateTimeFormatter = buildDateTimeFormatterMap();
@@ -99,17 +111,23 @@ public class JDBC2ConstantConverter {
 
     public JDBC2ConstantConverter(DBMetadata dbMetadata, Optional<IRIDictionary> iriDictionary,
                                   TermFactory termFactory, TypeFactory typeFactory, RDF rdfFactory) {
+        this(identifySystem(dbMetadata.getDriverName()), iriDictionary, termFactory, typeFactory, rdfFactory);
+    }
+
+    JDBC2ConstantConverter(System systemDB, Optional<IRIDictionary> iriDictionary,
+                           TermFactory termFactory, TypeFactory typeFactory, RDF rdfFactory) {
         this.iriDictionary = iriDictionary.orElse(null);
         this.termFactory = termFactory;
         this.typeFactory = typeFactory;
         this.rdfFactory = rdfFactory;
-        String vendor = dbMetadata.getDriverName();
-        systemDB = identifySystem(vendor);
+        this.systemDB = systemDB;
         this.bnodeCounter = new AtomicInteger();
         bnodeMap = new HashMap<>(1000);
+        floatingFormatter = new DecimalFormat("0.0E0");
+        floatingFormatter.setRoundingMode(RoundingMode.UNNECESSARY);
     }
 
-    private System identifySystem(String vendor) {
+    private static System identifySystem(String vendor) {
         if(vendor.contains("Oracle"))
             return ORACLE;
         if(vendor.contains("SQL Server"))
@@ -128,12 +146,13 @@ public class JDBC2ConstantConverter {
             if (value == null) {
                 return null;
             }
-            stringValue = String.valueOf(value);
 
-            int t = cell.getTypeValue();
-            COL_TYPE type = COL_TYPE.getQuestType(t);
+            COL_TYPE type = cell.getColType();
             if (type == null)
-                throw new OntopResultConversionException("typeCode unknown: " + t);
+                throw new OntopResultConversionException("typeCode unknown: " + cell.getTypeValue());
+
+            // Not needed by the temporal types (which may be expensive to print)
+            stringValue = isTemporal(type) ? null : String.valueOf(value);
 
             switch (type) {
                 case UNSUPPORTED:
@@ -143,13 +162,11 @@ public class JDBC2ConstantConverter {
 
                 case OBJECT:
                     if (iriDictionary != null) {
-                        try {
-                            Integer id = Integer.parseInt(stringValue);
+                        // If its not a number, then it has to be a URI, so
+                        // we leave realValue as it is.
+                        Integer id = parseIRIDictionaryId(stringValue);
+                        if (id != null)
                             stringValue = iriDictionary.getURI(id);
-                        } catch (NumberFormatException e) {
-                            // If its not a number, then it has to be a URI, so
-                            // we leave realValue as it is.
-                        }
                     }
                     return termFactory.getConstantIRI(rdfFactory.createIRI(stringValue.trim()));
 
@@ -191,29 +208,31 @@ public class JDBC2ConstantConverter {
                     return termFactory.getConstantLiteral(stringValue, XSD.UNSIGNED_INT);
 
                 case INTEGER:
-                    return termFactory.getConstantLiteral(extractIntegerValue(stringValue), XSD.INTEGER);
+                    return termFactory.getConstantLiteral(extractIntegerValue(value, stringValue), XSD.INTEGER);
                 case NEGATIVE_INTEGER:
-                    return termFactory.getConstantLiteral(extractIntegerValue(stringValue), XSD.NEGATIVE_INTEGER);
+                    return termFactory.getConstantLiteral(extractIntegerValue(value, stringValue), XSD.NEGATIVE_INTEGER);
                 case NON_NEGATIVE_INTEGER:
-                    return termFactory.getConstantLiteral(extractIntegerValue(stringValue), XSD.NON_NEGATIVE_INTEGER);
+                    return termFactory.getConstantLiteral(extractIntegerValue(value, stringValue), XSD.NON_NEGATIVE_INTEGER);
                 case POSITIVE_INTEGER:
-                    return termFactory.getConstantLiteral(extractIntegerValue(stringValue), XSD.POSITIVE_INTEGER);
+                    return termFactory.getConstantLiteral(extractIntegerValue(value, stringValue), XSD.POSITIVE_INTEGER);
                 case NON_POSITIVE_INTEGER:
-                    return termFactory.getConstantLiteral(extractIntegerValue(stringValue), XSD.NON_POSITIVE_INTEGER);
+                    return termFactory.getConstantLiteral(extractIntegerValue(value, stringValue), XSD.NON_POSITIVE_INTEGER);
 
                 case STRING:
                     return termFactory.getConstantLiteral(stringValue, XSD.STRING);
                 case DATETIME:
-                    return termFactory.getConstantLiteral(extractDatetimeValue(value), XSD.DATETIME);
+                    return termFactory.getConstantLiteral(extractDatetimeValue(value, cell.getDecodingState()), XSD.DATETIME);
                 case DATETIME_STAMP:
-                    return termFactory.getConstantLiteral(extractDatetimeValue(value), XSD.DATETIMESTAMP);
+                    return termFactory.getConstantLiteral(extractDatetimeValue(value, cell.getDecodingState()), XSD.DATETIMESTAMP);
 
                 case DATE:
-                    return termFactory.getConstantLiteral( DateTimeFormatter.ISO_DATE.format(convertToJavaDate(value)), XSD.DATE);
+                    return termFactory.getConstantLiteral( DateTimeFormatter.ISO_DATE.format(
+                            convertToJavaDate(value, cell.getDecodingState())), XSD.DATE);
 
                 case TIME:
 
-                    return termFactory.getConstantLiteral(DateTimeFormatter.ISO_TIME.format(convertToTime(value)), XSD.TIME);
+                    return termFactory.getConstantLiteral(DateTimeFormatter.ISO_TIME.format(
+                            convertToTime(value, cell.getDecodingState())), XSD.TIME);
 
                 case YEAR:
                     return termFactory.getConstantLiteral(stringValue, XSD.GYEAR);
@@ -256,14 +275,13 @@ public class JDBC2ConstantConverter {
         catch (NumberFormatException e){
             return stringValue;
         }
-        DecimalFormat formatter = new DecimalFormat("0.0E0");
-        formatter.setRoundingMode(RoundingMode.UNNECESSARY);
-        formatter.setMaximumFractionDigits((bigDecimal.scale() > 0) ? bigDecimal.precision() -1 : bigDecimal.precision() -1 + bigDecimal.scale() *-1);
-        return  formatter.format(bigDecimal);
+        floatingFormatter.setMaximumFractionDigits((bigDecimal.scale() > 0) ? bigDecimal.precision() -1 : bigDecimal.precision() -1 + bigDecimal.scale() *-1);
+        return  floatingFormatter.format(bigDecimal);
     }
 
-    private String extractDatetimeValue(Object value) throws OntopResultConversionException {
-        TemporalAccessor temporal = convertToJavaDate(value);
+    private String extractDatetimeValue(Object value, @Nullable ColumnDecodingState state)
+            throws OntopResultConversionException {
+        TemporalAccessor temporal = convertToJavaDate(value, state);
         if(temporal instanceof LocalDate){
             temporal = LocalDateTime.of((LocalDate)temporal, LocalTime.MIDNIGHT);
         }
@@ -273,11 +291,49 @@ public class JDBC2ConstantConverter {
     /**
      * Sometimes the integer may have been converted as DECIMAL, FLOAT or DOUBLE
      */
-    private String extractIntegerValue(String stringValue) {
+    private String extractIntegerValue(Object value, String stringValue) {
+        // Already in the canonical form
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte
+                || value instanceof BigInteger)
+            return stringValue;
         return String.valueOf(new BigDecimal(stringValue).toBigInteger());
     }
 
-    private TemporalAccessor convertToJavaDate(Object value) throws OntopResultConversionException {
+    private static boolean isTemporal(COL_TYPE type) {
+        switch (type) {
+            case DATETIME:
+            case DATETIME_STAMP:
+            case DATE:
+            case TIME:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Without exception when the value is a non-integer string (e.g. an IRI)
+     */
+    @Nullable
+    private static Integer parseIRIDictionaryId(String stringValue) {
+        int length = stringValue.length();
+        if (length == 0 || length > 11)
+            return null;
+        int start = (stringValue.charAt(0) == '-') ? 1 : 0;
+        if (start == length)
+            return null;
+        for (int i = start; i < length; i++) {
+            if (!Character.isDigit(stringValue.charAt(i)))
+                return null;
+        }
+        long id = Long.parseLong(stringValue);
+        return (id < Integer.MIN_VALUE || id > Integer.MAX_VALUE)
+                ? null
+                : (int) id;
+    }
+
+    private TemporalAccessor convertToJavaDate(Object value, @Nullable ColumnDecodingState state)
+            throws OntopResultConversionException {
         TemporalAccessor dateValue = null;
 
         if (value instanceof Date ) {
@@ -288,14 +344,18 @@ public class JDBC2ConstantConverter {
         } else {
             // Otherwise, we need to deal with possible String representation of datetime
             String stringValue = String.valueOf(value);
-            for (DateTimeFormatter format : system2DateTimeFormatter.get(systemDB)) {
-                try {
-                    dateValue = format.parseBest(stringValue, OffsetDateTime::from, LocalDateTime::from, LocalDate::from);
-
-                    break;
-                } catch (DateTimeParseException e) {
-                    // continue with the next try
-                }
+            ImmutableList<DateTimeFormatter> formatters = system2DateTimeFormatter.get(systemDB);
+            // First tries the formatter that parsed the previous value of the column
+            int learnedIndex = (state == null) ? ColumnDecodingState.UNKNOWN : state.dateTimeFormatterIndex;
+            if (learnedIndex != ColumnDecodingState.UNKNOWN)
+                dateValue = parseWithLearnedFormatter(formatters.get(learnedIndex), stringValue, DATE_TIME_QUERIES);
+
+            for (int i = 0; dateValue == null && i < formatters.size(); i++) {
+                if (i == learnedIndex)
+                    continue;
+                dateValue = parse(formatters.get(i), stringValue, DATE_TIME_QUERIES);
+                if (dateValue != null && state != null)
+                    state.dateTimeFormatterIndex = i;
             }
 
             if (dateValue == null) {
@@ -307,7 +367,8 @@ public class JDBC2ConstantConverter {
 
     }
 
-    private TemporalAccessor convertToTime(Object value) throws OntopResultConversionException {
+    private TemporalAccessor convertToTime(Object value, @Nullable ColumnDecodingState state)
+            throws OntopResultConversionException {
         TemporalAccessor timeValue = null;
 
         if (value instanceof Date ) {
@@ -318,14 +379,17 @@ public class JDBC2ConstantConverter {
         } else {
             // Otherwise, we need to deal with possible String representation of datetime
             String stringValue = String.valueOf(value);
-            for (DateTimeFormatter format : system2TimeFormatter.get(DEFAULT)) {
-                try {
-                    timeValue = format.parseBest(stringValue, OffsetTime::from, LocalTime::from);
-
-                    break;
-                } catch (DateTimeParseException e) {
-                    // continue with the next try
-                }
+            ImmutableList<DateTimeFormatter> formatters = system2TimeFormatter.get(DEFAULT);
+            int learnedIndex = (state == null) ? ColumnDecodingState.UNKNOWN : state.timeFormatterIndex;
+            if (learnedIndex != ColumnDecodingState.UNKNOWN)
+                timeValue = parseWithLearnedFormatter(formatters.get(learnedIndex), stringValue, TIME_QUERIES);
+
+            for (int i = 0; timeValue == null && i < formatters.size(); i++) {
+                if (i == learnedIndex)
+                    continue;
+                timeValue = parse(formatters.get(i), stringValue, TIME_QUERIES);
+                if (timeValue != null && state != null)
+                    state.timeFormatterIndex = i;
             }
 
             if (timeValue == null) {
@@ -337,4 +401,38 @@ public class JDBC2ConstantConverter {
     }
 
 
+    /**
+     * The learned formatter is expected to match: no lexical pre-check (the string is parsed only once).
+     */
+    @Nullable
+    private static TemporalAccessor parseWithLearnedFormatter(DateTimeFormatter formatter, String stringValue,
+                                                              TemporalQuery<?>[] queries) {
+        try {
+            return formatter.parseBest(stringValue, queries);
+        } catch (DateTimeException e) {
+            // The format of the column has changed
+            return null;
+        }
+    }
+
+    /**
+     * Returns null if the formatter does not match.
+     *
+     * The string is first parsed without resolving the fields, which does not throw an exception on failure.
+     */
+    @Nullable
+    private static TemporalAccessor parse(DateTimeFormatter formatter, String stringValue,
+                                          TemporalQuery<?>[] queries) {
+        ParsePosition position = new ParsePosition(0);
+        if (formatter.parseUnresolved(stringValue, position) == null
+                || position.getErrorIndex() >= 0
+                || position.getIndex() != stringValue.length())
+            return null;
+        try {
+            return formatter.parseBest(stringValue, queries);
+        } catch (DateTimeException e) {
+            // Lexically valid but not a proper date/time (rare)
+            return null;
+        }
+    }
 }
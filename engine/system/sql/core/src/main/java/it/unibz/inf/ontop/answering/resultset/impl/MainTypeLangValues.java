@@ -1,5 +1,7 @@
 package it.unibz.inf.ontop.answering.resultset.impl;
 
+import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
+
 import javax.annotation.Nullable;
 
 public class MainTypeLangValues {
@@ -13,10 +15,26 @@ public class MainTypeLangValues {
     @Nullable
     private Object mainValue;
 
+    /**
+     * Decoded from typeValue
+     */
+    @Nullable
+    private final COL_TYPE colType;
+
+    @Nullable
+    private final ColumnDecodingState decodingState;
+
     MainTypeLangValues(Object mainValue, Integer typeValue, String langValue) {
+        this(mainValue, typeValue, langValue, typeValue == null ? null : COL_TYPE.getQuestType(typeValue), null);
+    }
+
+    MainTypeLangValues(Object mainValue, Integer typeValue, String langValue, @Nullable COL_TYPE colType,
+                       @Nullable ColumnDecodingState decodingState) {
         this.mainValue = mainValue;
         this.typeValue = typeValue;
         this.langValue = langValue;
+        this.colType = colType;
+        this.decodingState = decodingState;
     }
 
     @Nullable
@@ -33,5 +51,20 @@ public class MainTypeLangValues {
     public Object getMainValue() {
         return mainValue;
     }
-}
 
+    /**
+     * Null if the type code is unknown
+     */
+    @Nullable
+    public COL_TYPE getColType() {
+        return colType;
+    }
+
+    /**
+     * Shared by the cells of the same column. Null if not known.
+     */
+    @Nullable
+    ColumnDecodingState getDecodingState() {
+        return decodingState;
+    }
+}
@@ -1,59 +1,46 @@
 package it.unibz.inf.ontop.answering.resultset.impl;
 
 import com.google.common.collect.ImmutableList;
-import it.unibz.inf.ontop.answering.resultset.OntopBinding;
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
+import it.unibz.inf.ontop.answering.reformulation.impl.PostProcessedIRITemplate;
 import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
-import it.unibz.inf.ontop.exception.OntopResultConversionException;
-import it.unibz.inf.ontop.iq.node.ConstructionNode;
-import it.unibz.inf.ontop.model.term.Constant;
 
-import javax.annotation.Nullable;
-import java.sql.ResultSet;
+import java.util.List;
 
-public class PostProcessedIriSQLBindingSet extends AbstractOntopBindingSet implements OntopBindingSet {
+/**
+ * The IRIs of the post-processed templates are built (on demand) from the values of their placeholders.
+ */
+public class PostProcessedIriSQLBindingSet extends DelegatedIriSQLBindingSet implements OntopBindingSet {
 
-    private final ResultSet rs;
-    private final ConstructionNode constructionNode;
+    private final ImmutableList<PostProcessedIRITemplate> iriTemplates;
+    // Lazy
+    private final MainTypeLangValues[] postProcessedCells;
 
-    protected PostProcessedIriSQLBindingSet(ResultSet rs, ImmutableList<String> signature,
-                                            ConstructionNode constructionNode) {
-        super(signature);
-        this.rs = rs;
-        this.constructionNode = constructionNode;
+    protected PostProcessedIriSQLBindingSet(List<MainTypeLangValues> row, ImmutableList<String> signature,
+                                            ImmutableMap<String, Integer> columnMap,
+                                            JDBC2ConstantConverter constantRetriever,
+                                            ImmutableList<PostProcessedIRITemplate> iriTemplates) {
+        super(row, signature, columnMap, constantRetriever);
+        this.iriTemplates = iriTemplates;
+        this.postProcessedCells = new MainTypeLangValues[row.size()];
     }
 
-    @Nullable
     @Override
-    public Constant getConstant(int column) throws OntopResultConversionException {
-        throw new RuntimeException("TODO: implement");
-    }
-
-    @Nullable
-    @Override
-    public Constant getConstant(String var) {
-        throw new RuntimeException("TODO: implement");
-    }
-
-    @Nullable
-    @Override
-    public OntopBinding getBinding(int column) {
-        throw new RuntimeException("TODO: implement");
-    }
-
-    @Nullable
-    @Override
-    protected OntopBinding computeBinding(String variableName) {
-        throw new RuntimeException("TODO: implement");
-    }
-
-    @Nullable
-    @Override
-    public OntopBinding getBinding(String name) {
-        throw new RuntimeException("TODO: implement");
-    }
-
-    @Override
-    public boolean hasBinding(String bindingName) {
-        throw new RuntimeException("TODO: implement");
+    protected MainTypeLangValues getCell(int column) {
+        MainTypeLangValues postProcessedCell = postProcessedCells[column - 1];
+        if (postProcessedCell != null)
+            return postProcessedCell;
+
+        MainTypeLangValues cell = super.getCell(column);
+        Integer typeCode = cell.getTypeValue();
+        if (typeCode == null || typeCode < PostProcessedIRITemplate.TYPE_CODE_OFFSET || cell.getMainValue() == null)
+            return cell;
+
+        PostProcessedIRITemplate template = iriTemplates.get(typeCode - PostProcessedIRITemplate.TYPE_CODE_OFFSET);
+        postProcessedCell = new MainTypeLangValues(template.instantiate(String.valueOf(cell.getMainValue())),
+                COL_TYPE.OBJECT.getQuestCode(), null, COL_TYPE.OBJECT, null);
+        postProcessedCells[column - 1] = postProcessedCell;
+        return postProcessedCell;
     }
 }
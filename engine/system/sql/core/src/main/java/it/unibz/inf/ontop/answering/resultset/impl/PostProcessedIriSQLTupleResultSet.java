@@ -2,29 +2,45 @@ package it.unibz.inf.ontop.answering.resultset.impl;
 
 import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.answering.reformulation.IRIDictionary;
+import it.unibz.inf.ontop.answering.reformulation.impl.PostProcessedIRITemplate;
 import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
 import it.unibz.inf.ontop.dbschema.DBMetadata;
 import it.unibz.inf.ontop.exception.OntopConnectionException;
-import it.unibz.inf.ontop.iq.node.ConstructionNode;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import org.apache.commons.rdf.api.RDF;
 
 import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Implementation of TupleResultSet for SQL queries, in the case where the IRI construction is post-processed rather than
  * delegated to the source engine (e.g. when using Calcite as a SQL query generator).
+ *
+ * The IRIs that are not post-processed are read as in {@link DelegatedIriSQLTupleResultSet}.
  */
-public class PostProcessedIriSQLTupleResultSet extends AbstractSQLTupleResultSet implements TupleResultSet{
+public class PostProcessedIriSQLTupleResultSet extends DelegatedIriSQLTupleResultSet implements TupleResultSet {
 
-    private final ConstructionNode constructionNode;
+    private final ImmutableList<PostProcessedIRITemplate> iriTemplates;
 
-    protected PostProcessedIriSQLTupleResultSet(ResultSet rs, ImmutableList<String> signature, ConstructionNode constructionNode) {
-        super(rs, signature);
-        this.constructionNode = constructionNode;
+    public PostProcessedIriSQLTupleResultSet(ResultSet rs, ImmutableList<String> signature,
+                                             ImmutableList<PostProcessedIRITemplate> iriTemplates,
+                                             DBMetadata dbMetadata, Optional<IRIDictionary> iriDictionary,
+                                             TermFactory termFactory, TypeFactory typeFactory, RDF rdfFactory) {
+        super(rs, signature, dbMetadata, iriDictionary, termFactory, typeFactory, rdfFactory);
+        this.iriTemplates = iriTemplates;
     }
 
     @Override
     protected PostProcessedIriSQLBindingSet readCurrentRow() throws OntopConnectionException {
-        return new PostProcessedIriSQLBindingSet(rs, signature, constructionNode);
+        try {
+            final List<MainTypeLangValues> cells = rowReader.read(rs);
+            return new PostProcessedIriSQLBindingSet(cells, signature, columnMap, ontopConstantRetriever,
+                    iriTemplates);
+        } catch (SQLException e) {
+            throw new OntopConnectionException(e);
+        }
     }
 }
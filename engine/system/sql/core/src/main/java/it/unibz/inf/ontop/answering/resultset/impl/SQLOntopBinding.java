@@ -9,6 +9,8 @@ public class SQLOntopBinding implements OntopBinding {
     private final String name;
     private final JDBC2ConstantConverter constantRetriever;
     private final MainTypeLangValues cell;
+    // Lazy
+    private Constant value;
 
     public SQLOntopBinding(String name, MainTypeLangValues cell, JDBC2ConstantConverter constantRetriever){
         this.name = name;
@@ -23,7 +25,9 @@ public class SQLOntopBinding implements OntopBinding {
 
     @Override
     public Constant getValue() throws OntopResultConversionException {
-        return constantRetriever.getConstantFromJDBC(cell);
+        if (value == null)
+            value = constantRetriever.getConstantFromJDBC(cell);
+        return value;
     }
 
     @Override
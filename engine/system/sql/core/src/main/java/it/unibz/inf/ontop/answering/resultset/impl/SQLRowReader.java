@@ -1,29 +1,164 @@
 package it.unibz.inf.ontop.answering.resultset.impl;
 
-import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
 
+import javax.annotation.Nullable;
 import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Reads the type, lang and main columns of each variable of the current row.
+ *
+ * To be created once per result set (not thread-safe): it remembers the last COL_TYPE decoded for each variable
+ * (in most queries, all the rows share the same type codes) and shares a {@link ColumnDecodingState} between
+ * the cells of each variable.
+ *
+ * The getter of each main column is chosen once, from the JDBC type of the column (see {@link MainColumnGetter}).
+ *
+ * The cells are not reused from one row to the next: the binding sets decode them lazily and may be kept
+ * by the caller after moving to the next row.
+ */
 public class SQLRowReader {
 
-    public List<MainTypeLangValues> read(ResultSet rs, int bindingNamesCount) throws SQLException {
+    private final int bindingNamesCount;
+    private final int[] lastTypeCodes;
+    private final COL_TYPE[] lastColTypes;
+    private final ColumnDecodingState[] decodingStates;
+    /**
+     * Built when reading the first row
+     */
+    @Nullable
+    private MainColumnGetter[] mainColumnGetters;
 
-        final ImmutableList.Builder<MainTypeLangValues> builder = ImmutableList.builder();
+    public SQLRowReader(int bindingNamesCount) {
+        this.bindingNamesCount = bindingNamesCount;
+        this.lastTypeCodes = new int[bindingNamesCount];
+        Arrays.fill(lastTypeCodes, Integer.MIN_VALUE);
+        this.lastColTypes = new COL_TYPE[bindingNamesCount];
+        this.decodingStates = new ColumnDecodingState[bindingNamesCount];
+        for (int i = 0; i < bindingNamesCount; i++)
+            decodingStates[i] = new ColumnDecodingState();
+    }
+
+    public List<MainTypeLangValues> read(ResultSet rs) throws SQLException {
+        if (mainColumnGetters == null)
+            mainColumnGetters = createMainColumnGetters(rs.getMetaData());
+
+        final MainTypeLangValues[] cells = new MainTypeLangValues[bindingNamesCount];
+
+        for (int i = 0; i < bindingNamesCount; i++) {
+            final int typeColumnIndex = 3 * i + 1;
+            final int langColumnIndex = 3 * i + 2;
+            final int mainColumnIndex = 3 * i + 3;
+
+            int typeCode = rs.getInt(typeColumnIndex);
+            COL_TYPE colType = getColType(i, typeCode);
 
-        for (int i = 1; i <= bindingNamesCount; i++) {
-            final int mainColumnIndex = 3 * i;
-            final int typeColumnIndex = 3 * i - 2;
-            final int langColumnIndex = 3 * i - 1;
+            // The language tag is only used by lang strings
+            String lang = (colType == COL_TYPE.LANG_STRING)
+                    ? rs.getString(langColumnIndex)
+                    : null;
 
-            builder.add(new MainTypeLangValues(
-                    rs.getObject(mainColumnIndex),
-                    rs.getInt(typeColumnIndex),
-                    rs.getString(langColumnIndex)
-            ));
+            Object main = isReadAsString(colType)
+                    ? rs.getString(mainColumnIndex)
+                    : mainColumnGetters[i].get(rs, mainColumnIndex);
+
+            cells[i] = new MainTypeLangValues(main, typeCode, lang, colType, decodingStates[i]);
         }
+        // Fixed-size view, no copy
+        return Arrays.asList(cells);
+    }
 
-        return builder.build();
+    private COL_TYPE getColType(int index, int typeCode) {
+        if (lastTypeCodes[index] != typeCode) {
+            lastTypeCodes[index] = typeCode;
+            lastColTypes[index] = COL_TYPE.getQuestType(typeCode);
+        }
+        return lastColTypes[index];
+    }
+
+    private MainColumnGetter[] createMainColumnGetters(ResultSetMetaData metaData) throws SQLException {
+        MainColumnGetter[] getters = new MainColumnGetter[bindingNamesCount];
+        for (int i = 0; i < bindingNamesCount; i++)
+            getters[i] = MainColumnGetter.of(metaData.getColumnType(3 * i + 3));
+        return getters;
+    }
+
+    /**
+     * IRIs and blank nodes are built as strings by the SQL query (or are integer ids of the IRI dictionary).
+     * Unknown type codes (e.g. post-processed IRIs) are also read as strings.
+     *
+     * Literals are read with the getter of their column, as their lexical form may depend on the Java type
+     * of the value.
+     */
+    private static boolean isReadAsString(COL_TYPE colType) {
+        return colType == null
+                || colType == COL_TYPE.OBJECT
+                || colType == COL_TYPE.BNODE;
+    }
+
+    /**
+     * Typed getter of the main column of the literals.
+     *
+     * Only used when it gives the same lexical form as getObject (whatever the driver):
+     * the other JDBC types (e.g. BIGINT, which may be unsigned, or the temporal types) are read with getObject.
+     */
+    private enum MainColumnGetter {
+        STRING {
+            @Override
+            Object get(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getString(columnIndex);
+            }
+        },
+        /**
+         * Also covers the unsigned INTEGER columns
+         */
+        LONG {
+            @Override
+            Object get(ResultSet rs, int columnIndex) throws SQLException {
+                long value = rs.getLong(columnIndex);
+                return rs.wasNull() ? null : value;
+            }
+        },
+        DOUBLE {
+            @Override
+            Object get(ResultSet rs, int columnIndex) throws SQLException {
+                double value = rs.getDouble(columnIndex);
+                return rs.wasNull() ? null : value;
+            }
+        },
+        OBJECT {
+            @Override
+            Object get(ResultSet rs, int columnIndex) throws SQLException {
+                return rs.getObject(columnIndex);
+            }
+        };
+
+        @Nullable
+        abstract Object get(ResultSet rs, int columnIndex) throws SQLException;
+
+        static MainColumnGetter of(int jdbcType) {
+            switch (jdbcType) {
+                case Types.CHAR:
+                case Types.VARCHAR:
+                case Types.LONGVARCHAR:
+                case Types.NCHAR:
+                case Types.NVARCHAR:
+                case Types.LONGNVARCHAR:
+                    return STRING;
+                case Types.TINYINT:
+                case Types.SMALLINT:
+                case Types.INTEGER:
+                    return LONG;
+                case Types.DOUBLE:
+                    return DOUBLE;
+                default:
+                    return OBJECT;
+            }
+        }
     }
 }
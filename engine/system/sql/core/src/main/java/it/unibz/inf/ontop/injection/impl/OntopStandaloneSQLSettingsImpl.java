@@ -36,6 +36,26 @@ public class OntopStandaloneSQLSettingsImpl extends OntopMappingSQLAllSettingsIm
         return systemSettings.isIRISafeEncodingEnabled();
     }
 
+    @Override
+    public int getQueryCacheMaxEntries() {
+        return systemSettings.getQueryCacheMaxEntries();
+    }
+
+    @Override
+    public int getQueryCacheMaxWeight() {
+        return systemSettings.getQueryCacheMaxWeight();
+    }
+
+    @Override
+    public boolean isBindingParameterizationEnabled() {
+        return systemSettings.isBindingParameterizationEnabled();
+    }
+
+    @Override
+    public boolean isIRIConstructionPostProcessingEnabled() {
+        return systemSettings.isIRIConstructionPostProcessingEnabled();
+    }
+
     @Override
     public boolean isKeepAliveEnabled() {
         return systemSettings.isKeepAliveEnabled();
@@ -65,4 +85,29 @@ public class OntopStandaloneSQLSettingsImpl extends OntopMappingSQLAllSettingsIm
     public boolean isPermanentDBConnectionEnabled() {
         return systemSettings.isPermanentDBConnectionEnabled();
     }
+
+    @Override
+    public int getDescribeBatchSize() {
+        return systemSettings.getDescribeBatchSize();
+    }
+
+    @Override
+    public int getQueryExecutionThreadCount() {
+        return systemSettings.getQueryExecutionThreadCount();
+    }
+
+    @Override
+    public int getQueryExecutionQueueSize() {
+        return systemSettings.getQueryExecutionQueueSize();
+    }
+
+    @Override
+    public int getSlowQueryThreshold() {
+        return systemSettings.getSlowQueryThreshold();
+    }
+
+    @Override
+    public boolean isQueryStatisticsMBeanEnabled() {
+        return systemSettings.isQueryStatisticsMBeanEnabled();
+    }
 }
@@ -2,6 +2,7 @@ package it.unibz.inf.ontop.injection.impl;
 
 import it.unibz.inf.ontop.injection.OntopSystemSQLSettings;
 import it.unibz.inf.ontop.answering.connection.pool.JDBCConnectionPool;
+import it.unibz.inf.ontop.materialization.DeltaMappingExtractor;
 
 
 public class OntopSystemSQLModule extends OntopAbstractModule {
@@ -17,5 +18,6 @@ public class OntopSystemSQLModule extends OntopAbstractModule {
     protected void configure() {
         bind(OntopSystemSQLSettings.class).toInstance(settings);
         bindFromSettings(JDBCConnectionPool.class);
+        bindFromSettings(DeltaMappingExtractor.class);
     }
 }
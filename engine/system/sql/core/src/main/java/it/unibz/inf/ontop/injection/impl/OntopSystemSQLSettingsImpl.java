@@ -75,4 +75,29 @@ public class OntopSystemSQLSettingsImpl extends OntopReformulationSQLSettingsImp
     public String getJdbcPassword() {
         return sqlCredentialSettings.getJdbcPassword();
     }
+
+    @Override
+    public int getDescribeBatchSize() {
+        return systemSettings.getDescribeBatchSize();
+    }
+
+    @Override
+    public int getQueryExecutionThreadCount() {
+        return systemSettings.getQueryExecutionThreadCount();
+    }
+
+    @Override
+    public int getQueryExecutionQueueSize() {
+        return systemSettings.getQueryExecutionQueueSize();
+    }
+
+    @Override
+    public int getSlowQueryThreshold() {
+        return systemSettings.getSlowQueryThreshold();
+    }
+
+    @Override
+    public boolean isQueryStatisticsMBeanEnabled() {
+        return systemSettings.isQueryStatisticsMBeanEnabled();
+    }
 }
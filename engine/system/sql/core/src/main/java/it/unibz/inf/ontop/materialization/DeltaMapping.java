@@ -0,0 +1,37 @@
+package it.unibz.inf.ontop.materialization;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+
+import java.util.Optional;
+
+/**
+ * Mappings of an incremental materialization, to be materialized separately
+ */
+public interface DeltaMapping {
+
+    /**
+     * Triples derived from the rows inserted or updated (and not deleted) since the previous watermarks.
+     *
+     * Also contains the triples maps without change marker (not restricted, see getUnrestrictedTriplesMapIds()).
+     */
+    SQLPPMapping getChangedMapping();
+
+    /**
+     * Tombstones: triples derived from the rows deleted since the previous watermarks.
+     *
+     * Empty when no triples map with a deletion column has a previous watermark.
+     */
+    Optional<SQLPPMapping> getDeletedMapping();
+
+    /**
+     * Triples maps without change marker, fully included in the changed mapping
+     */
+    ImmutableSet<String> getUnrestrictedTriplesMapIds();
+
+    /**
+     * Watermarks to store for the next incremental materialization
+     */
+    ImmutableMap<String, String> getNewWatermarks();
+}
@@ -0,0 +1,27 @@
+package it.unibz.inf.ontop.materialization;
+
+import com.google.common.collect.ImmutableMap;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+
+import javax.annotation.Nonnull;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Incremental materialization: restricts the triples maps declaring a change marker (see ChangeMarker)
+ * to the rows that have changed since the previous watermarks.
+ *
+ * The watermarks are indexed by triples map id. They are expected to be stored by the caller
+ * once the delta has been successfully materialized.
+ *
+ * Available through Guice.
+ */
+public interface DeltaMappingExtractor {
+
+    /**
+     * The current watermarks are read from the DB through the given connection
+     * (the changes committed afterwards will be part of the next delta).
+     */
+    DeltaMapping extract(@Nonnull SQLPPMapping ppMapping, @Nonnull ImmutableMap<String, String> previousWatermarks,
+                         @Nonnull Connection connection) throws SQLException;
+}
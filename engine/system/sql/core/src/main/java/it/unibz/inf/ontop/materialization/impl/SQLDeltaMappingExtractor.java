@@ -0,0 +1,270 @@
+package it.unibz.inf.ontop.materialization.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.exception.DuplicateMappingException;
+import it.unibz.inf.ontop.exception.OntopInternalBugException;
+import it.unibz.inf.ontop.materialization.DeltaMapping;
+import it.unibz.inf.ontop.materialization.DeltaMappingExtractor;
+import it.unibz.inf.ontop.spec.mapping.SQLMappingFactory;
+import it.unibz.inf.ontop.spec.mapping.impl.SQLMappingFactoryImpl;
+import it.unibz.inf.ontop.spec.mapping.pp.ChangeMarker;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
+import it.unibz.inf.ontop.spec.mapping.pp.impl.OntopNativeSQLPPTriplesMap;
+import it.unibz.inf.ontop.spec.mapping.pp.impl.SQLPPMappingImpl;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Wraps the source queries of the triples maps declaring a change marker:
+ *
+ *   SELECT * FROM (source) delta_source WHERE previous < change column <= current [AND deletion column IS NULL]
+ *
+ * The deleted rows are selected with "deletion column IS NOT NULL" instead.
+ *
+ * The watermarks are serialized after the JDBC type of the change column and compared as typed SQL literals
+ * (numbers, DATE, TIME and TIMESTAMP literals; string literals for the other types).
+ * The watermark of a triples map never decreases (e.g. when the rows with the highest values are removed).
+ */
+@Singleton
+public class SQLDeltaMappingExtractor implements DeltaMappingExtractor {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(SQLDeltaMappingExtractor.class);
+    private static final SQLMappingFactory SQL_MAPPING_FACTORY = SQLMappingFactoryImpl.getInstance();
+    private static final String ALIAS = "delta_source";
+
+    @Inject
+    private SQLDeltaMappingExtractor() {
+    }
+
+    @Override
+    public DeltaMapping extract(@Nonnull SQLPPMapping ppMapping, @Nonnull ImmutableMap<String, String> previousWatermarks,
+                                @Nonnull Connection connection) throws SQLException {
+        List<SQLPPTriplesMap> changedTriplesMaps = new ArrayList<>();
+        List<SQLPPTriplesMap> deletedTriplesMaps = new ArrayList<>();
+        ImmutableSet.Builder<String> unrestrictedIdBuilder = ImmutableSet.builder();
+        ImmutableMap.Builder<String, String> watermarkBuilder = ImmutableMap.builder();
+
+        for (SQLPPTriplesMap triplesMap : ppMapping.getTripleMaps()) {
+            Optional<ChangeMarker> changeMarker = triplesMap.getChangeMarker();
+            if (!changeMarker.isPresent()) {
+                changedTriplesMaps.add(triplesMap);
+                unrestrictedIdBuilder.add(triplesMap.getId());
+                continue;
+            }
+            ChangeMarker marker = changeMarker.get();
+            String sourceQuery = triplesMap.getSourceQuery().getSQLQuery();
+            Optional<String> previousWatermark = Optional.ofNullable(previousWatermarks.get(triplesMap.getId()));
+
+            ChangeColumnMax max = readMax(sourceQuery, marker, Optional.empty(), connection);
+            // Only the rows not below the previous watermark (the DB compares the values)
+            Optional<String> currentWatermark = previousWatermark.isPresent() && max.value.isPresent()
+                    ? readMax(sourceQuery, marker, previousWatermark.map(w -> toLiteral(w, max.jdbcType)),
+                        connection).value
+                    : max.value;
+            Optional<String> newWatermark = currentWatermark.isPresent() ? currentWatermark : previousWatermark;
+            newWatermark.ifPresent(w -> watermarkBuilder.put(triplesMap.getId(), w));
+
+            // No row after the previous watermark
+            if (!currentWatermark.isPresent())
+                continue;
+
+            String window = getWindowCondition(marker, previousWatermark, currentWatermark.get(), max.jdbcType);
+            String changedCondition = marker.getDeletionColumn()
+                    .map(c -> window + " AND " + qualify(c) + " IS NULL")
+                    .orElse(window);
+            changedTriplesMaps.add(restrict(triplesMap, changedCondition));
+
+            // Tombstones are only needed for the rows materialized before
+            if (previousWatermark.isPresent() && marker.getDeletionColumn().isPresent()) {
+                deletedTriplesMaps.add(restrict(triplesMap,
+                        window + " AND " + qualify(marker.getDeletionColumn().get()) + " IS NOT NULL"));
+            }
+        }
+
+        ImmutableSet<String> unrestrictedIds = unrestrictedIdBuilder.build();
+        if (!unrestrictedIds.isEmpty())
+            LOGGER.warn("Triples maps without change marker (fully materialized): " + unrestrictedIds);
+
+        return new DeltaMappingImpl(
+                createMapping(changedTriplesMaps, ppMapping),
+                deletedTriplesMaps.isEmpty()
+                        ? Optional.empty()
+                        : Optional.of(createMapping(deletedTriplesMaps, ppMapping)),
+                unrestrictedIds,
+                watermarkBuilder.build());
+    }
+
+    /**
+     * Maximal value of the change column, optionally among the values greater or equal to the lower bound
+     */
+    private static ChangeColumnMax readMax(String sourceQuery, ChangeMarker marker, Optional<String> lowerBound,
+                                           Connection connection) throws SQLException {
+        String changeColumn = qualify(marker.getChangeColumn());
+        String query = "SELECT MAX(" + changeColumn + ") FROM (" + sourceQuery + ") " + ALIAS
+                + lowerBound.map(b -> " WHERE " + changeColumn + " >= " + b).orElse("");
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(query)) {
+            int jdbcType = resultSet.getMetaData().getColumnType(1);
+            return new ChangeColumnMax(jdbcType, resultSet.next()
+                    ? Optional.ofNullable(resultSet.getObject(1)).map(v -> serialize(v, jdbcType))
+                    : Optional.empty());
+        }
+    }
+
+    /**
+     * Inverse of toLiteral
+     */
+    private static String serialize(Object value, int jdbcType) {
+        if (isNumeric(jdbcType))
+            return new BigDecimal(value.toString()).toPlainString();
+        // String forms of java.sql.Date, Time and Timestamp
+        return value.toString();
+    }
+
+    private static String getWindowCondition(ChangeMarker marker, Optional<String> previousWatermark,
+                                             String currentWatermark, int jdbcType) {
+        String changeColumn = qualify(marker.getChangeColumn());
+        String upperBound = changeColumn + " <= " + toLiteral(currentWatermark, jdbcType);
+        return previousWatermark
+                .map(w -> changeColumn + " > " + toLiteral(w, jdbcType) + " AND " + upperBound)
+                .orElse(upperBound);
+    }
+
+    private static SQLPPTriplesMap restrict(SQLPPTriplesMap triplesMap, String condition) {
+        String query = "SELECT * FROM (" + triplesMap.getSourceQuery().getSQLQuery() + ") " + ALIAS + " WHERE " + condition;
+        return new OntopNativeSQLPPTriplesMap(triplesMap.getId(), SQL_MAPPING_FACTORY.getSQLQuery(query),
+                triplesMap.getTargetAtoms(), triplesMap.getChangeMarker());
+    }
+
+    private static String qualify(String column) {
+        return ALIAS + "." + column;
+    }
+
+    /**
+     * Typed SQL literal. The watermark is parsed first (it may have been stored by the caller).
+     */
+    private static String toLiteral(String watermark, int jdbcType) {
+        try {
+            if (isNumeric(jdbcType))
+                return new BigDecimal(watermark).toPlainString();
+            switch (jdbcType) {
+                case Types.DATE:
+                    return "DATE " + toStringLiteral(Date.valueOf(watermark).toString());
+                case Types.TIME:
+                    return "TIME " + toStringLiteral(Time.valueOf(watermark).toString());
+                case Types.TIMESTAMP:
+                    return "TIMESTAMP " + toStringLiteral(Timestamp.valueOf(watermark).toString());
+                default:
+                    return toStringLiteral(watermark);
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid watermark for a change column of JDBC type "
+                    + jdbcType + ": " + watermark, e);
+        }
+    }
+
+    private static String toStringLiteral(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+
+    private static boolean isNumeric(int jdbcType) {
+        switch (jdbcType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+            case Types.REAL:
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private SQLPPMapping createMapping(List<SQLPPTriplesMap> triplesMaps, SQLPPMapping initialMapping) {
+        try {
+            return new SQLPPMappingImpl(ImmutableList.copyOf(triplesMaps), initialMapping.getMetadata());
+        } catch (DuplicateMappingException e) {
+            // The triples maps come from a valid mapping
+            throw new UnexpectedDuplicateMappingException(e);
+        }
+    }
+
+
+    private static class ChangeColumnMax {
+        private final int jdbcType;
+        private final Optional<String> value;
+
+        private ChangeColumnMax(int jdbcType, Optional<String> value) {
+            this.jdbcType = jdbcType;
+            this.value = value;
+        }
+    }
+
+
+    private static class DeltaMappingImpl implements DeltaMapping {
+        private final SQLPPMapping changedMapping;
+        private final Optional<SQLPPMapping> deletedMapping;
+        private final ImmutableSet<String> unrestrictedTriplesMapIds;
+        private final ImmutableMap<String, String> newWatermarks;
+
+        private DeltaMappingImpl(SQLPPMapping changedMapping, Optional<SQLPPMapping> deletedMapping,
+                                 ImmutableSet<String> unrestrictedTriplesMapIds,
+                                 ImmutableMap<String, String> newWatermarks) {
+            this.changedMapping = changedMapping;
+            this.deletedMapping = deletedMapping;
+            this.unrestrictedTriplesMapIds = unrestrictedTriplesMapIds;
+            this.newWatermarks = newWatermarks;
+        }
+
+        @Override
+        public SQLPPMapping getChangedMapping() {
+            return changedMapping;
+        }
+
+        @Override
+        public Optional<SQLPPMapping> getDeletedMapping() {
+            return deletedMapping;
+        }
+
+        @Override
+        public ImmutableSet<String> getUnrestrictedTriplesMapIds() {
+            return unrestrictedTriplesMapIds;
+        }
+
+        @Override
+        public ImmutableMap<String, String> getNewWatermarks() {
+            return newWatermarks;
+        }
+    }
+
+
+    private static class UnexpectedDuplicateMappingException extends OntopInternalBugException {
+        private UnexpectedDuplicateMappingException(DuplicateMappingException e) {
+            super("Unexpected duplicate triples map: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package it.unibz.inf.ontop.answering.report;
+
+import it.unibz.inf.ontop.answering.OntopQueryEngine;
+import it.unibz.inf.ontop.answering.connection.OntopConnection;
+import it.unibz.inf.ontop.answering.connection.OntopStatement;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.injection.OntopStandaloneSQLConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.Assert.*;
+
+public class QueryExecutionReportTest {
+
+    private static final String OBDA_FILE = "src/test/resources/marriage/marriage.obda";
+    private static final String CREATE_DB_FILE = "src/test/resources/marriage/create-db.sql";
+    private static final String URL = "jdbc:h2:mem:queryexecutionreport";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final String PERSON_QUERY = "PREFIX : <http://example.org/marriage/voc#>\n" +
+            "SELECT DISTINCT ?x WHERE { ?x a :Person . }";
+
+    private Connection sqlConnection;
+
+    @Before
+    public void setUp() throws Exception {
+        sqlConnection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Statement st = sqlConnection.createStatement()) {
+            st.executeUpdate(new String(Files.readAllBytes(Paths.get(CREATE_DB_FILE)), StandardCharsets.UTF_8));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement st = sqlConnection.createStatement()) {
+            st.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        sqlConnection.close();
+    }
+
+    @Test
+    public void testReportedOnceConsumed() throws Exception {
+        OntopStandaloneSQLConfiguration configuration = createConfiguration(new Properties());
+        List<QueryExecutionReport> reports = new CopyOnWriteArrayList<>();
+        configuration.getInjector().getInstance(QueryExecutionReporter.class).addListener(reports::add);
+
+        try (OntopQueryEngine queryEngine = configuration.loadQueryEngine()) {
+            queryEngine.connect();
+            try (OntopConnection connection = queryEngine.getConnection();
+                 OntopStatement statement = connection.createStatement()) {
+                InputQueryFactory inputQueryFactory = connection.getInputQueryFactory();
+
+                TupleResultSet resultSet = statement.execute(inputQueryFactory.createSelectQuery(PERSON_QUERY));
+                int count = 0;
+                while (resultSet.hasNext()) {
+                    assertTrue(reports.isEmpty());
+                    resultSet.next();
+                    count++;
+                }
+                assertEquals(3, count);
+                assertEquals(1, reports.size());
+                resultSet.close();
+                assertEquals(1, reports.size());
+
+                statement.execute(inputQueryFactory.createSelectQuery(PERSON_QUERY)).close();
+            }
+        }
+
+        assertEquals(2, reports.size());
+        QueryExecutionReport report = reports.get(0);
+        assertEquals(PERSON_QUERY, report.getInputQueryString());
+        assertFalse(report.isCacheHit());
+        assertTrue(report.getPhaseTimesMicros().containsKey(ReformulationPhase.TRANSLATION));
+        assertTrue(report.getPhaseTimesMicros().containsKey(ReformulationPhase.NATIVE_QUERY_GENERATION));
+        assertTrue(report.getNativeQueryString().isPresent());
+        assertTrue(report.getUCQSizeAfterRewriting().isPresent());
+        assertTrue(report.getOptimizedIQSize().isPresent());
+        assertTrue(report.getDBFirstRowTimeMicros().isPresent());
+        assertTrue(report.getDBTotalTimeMicros().isPresent());
+        assertEquals(3, report.getRowCount());
+        assertFalse(report.getFailureMessage().isPresent());
+
+        QueryExecutionReport secondReport = reports.get(1);
+        assertTrue(secondReport.isCacheHit());
+        assertTrue(secondReport.getPhaseTimesMicros().isEmpty());
+        assertEquals(report.getNativeQueryString(), secondReport.getNativeQueryString());
+        assertEquals(0, secondReport.getRowCount());
+    }
+
+    @Test
+    public void testStatisticsMBean() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("ontop.queryReport.jmx", "true");
+        properties.setProperty("ontop.slowQueryLog.threshold", "0");
+        OntopStandaloneSQLConfiguration configuration = createConfiguration(properties);
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName pattern = new ObjectName("it.unibz.inf.ontop:type=QueryExecutionStatistics,*");
+        Set<ObjectName> previousNames = mBeanServer.queryNames(pattern, null);
+
+        ObjectName name;
+        try (OntopQueryEngine queryEngine = configuration.loadQueryEngine()) {
+            queryEngine.connect();
+            try (OntopConnection connection = queryEngine.getConnection();
+                 OntopStatement statement = connection.createStatement()) {
+                TupleResultSet resultSet = statement.execute(
+                        connection.getInputQueryFactory().createSelectQuery(PERSON_QUERY));
+                while (resultSet.hasNext())
+                    resultSet.next();
+            }
+
+            Set<ObjectName> names = new HashSet<>(mBeanServer.queryNames(pattern, null));
+            names.removeAll(previousNames);
+            assertEquals(1, names.size());
+            name = names.iterator().next();
+            assertEquals(1L, mBeanServer.getAttribute(name, "QueryCount"));
+            assertEquals(1L, mBeanServer.getAttribute(name, "SlowQueryCount"));
+            assertEquals(3L, mBeanServer.getAttribute(name, "RowCount"));
+        }
+        // Unregistered when the engine is closed
+        assertFalse(mBeanServer.isRegistered(name));
+    }
+
+    private static OntopStandaloneSQLConfiguration createConfiguration(Properties properties) {
+        return OntopStandaloneSQLConfiguration.defaultBuilder()
+                .nativeOntopMappingFile(OBDA_FILE)
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .properties(properties)
+                .enableTestMode()
+                .build();
+    }
+}
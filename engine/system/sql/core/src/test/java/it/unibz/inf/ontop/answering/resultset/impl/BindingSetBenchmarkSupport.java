@@ -0,0 +1,121 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.dbschema.JdbcTypeMapper;
+import it.unibz.inf.ontop.dbschema.RDBMetadata;
+import it.unibz.inf.ontop.dbschema.RDBMetadataExtractionTools;
+import it.unibz.inf.ontop.injection.OntopSQLCoreConfiguration;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import org.apache.commons.rdf.api.RDF;
+import org.h2.tools.SimpleResultSet;
+import org.h2.tools.SimpleRowSource;
+
+import java.lang.management.ManagementFactory;
+import java.sql.*;
+import java.util.Optional;
+
+/**
+ * Shared by the benchmarks of the conversion of the Ontop binding sets (OWLAPI and RDF4J bindings).
+ *
+ * The rows (an IRI, a language-tagged string and an integer) are generated on the fly by a synthetic result set.
+ * The H2 DB is only used for extracting the DB metadata.
+ *
+ * Exported in the test jar of this module.
+ */
+public class BindingSetBenchmarkSupport implements AutoCloseable {
+
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    public static final int ROWS = 2_000_000;
+    public static final ImmutableList<String> SIGNATURE = ImmutableList.of("s", "name", "age");
+
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final RDF rdfFactory;
+    private final Connection connection;
+    private final RDBMetadata metadata;
+
+    public BindingSetBenchmarkSupport(String url) throws SQLException {
+        Injector injector = OntopSQLCoreConfiguration.defaultBuilder()
+                .jdbcUrl(url)
+                .jdbcDriver("org.h2.Driver")
+                .enableTestMode()
+                .build()
+                .getInjector();
+        termFactory = injector.getInstance(TermFactory.class);
+        typeFactory = injector.getInstance(TypeFactory.class);
+        rdfFactory = injector.getInstance(RDF.class);
+
+        connection = DriverManager.getConnection(url, USER, PASSWORD);
+        metadata = RDBMetadataExtractionTools.createMetadata(connection, typeFactory,
+                injector.getInstance(JdbcTypeMapper.class));
+    }
+
+    @Override
+    public void close() throws SQLException {
+        connection.close();
+    }
+
+    public TupleResultSet createTupleResultSet() {
+        return new DelegatedIriSQLTupleResultSet(createSyntheticResultSet(), SIGNATURE, metadata, Optional.empty(),
+                termFactory, typeFactory, rdfFactory);
+    }
+
+    public interface Operation {
+        void run() throws Exception;
+    }
+
+    /**
+     * Reports the time and the memory allocated (by the current thread) per row
+     */
+    public static void measure(String name, int run, Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        operation.run();
+        long time = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-40s (run %d): %8.1f ns/row %8.1f B/row%n", name, run,
+                (double) time / ROWS, (double) allocated / ROWS);
+    }
+
+    private static ResultSet createSyntheticResultSet() {
+        SimpleResultSet rs = new SimpleResultSet(new SimpleRowSource() {
+            private int index = 0;
+
+            @Override
+            public Object[] readRow() {
+                if (index >= ROWS)
+                    return null;
+                int id = index++;
+                return new Object[]{
+                        1, null, "http://example.org/person/" + id,
+                        -3, "en", "Person " + id,
+                        4, null, id % 100};
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void reset() {
+                index = 0;
+            }
+        });
+        for (String variable : SIGNATURE) {
+            rs.addColumn(variable.toUpperCase() + "_TYPE", Types.INTEGER, 10, 0);
+            rs.addColumn(variable.toUpperCase() + "_LANG", Types.VARCHAR, 10, 0);
+            rs.addColumn(variable.toUpperCase(), Types.VARCHAR, 100, 0);
+        }
+        return rs;
+    }
+}
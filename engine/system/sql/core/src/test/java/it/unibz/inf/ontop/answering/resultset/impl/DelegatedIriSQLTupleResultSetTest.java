@@ -0,0 +1,139 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.dbschema.JdbcTypeMapper;
+import it.unibz.inf.ontop.dbschema.RDBMetadata;
+import it.unibz.inf.ontop.dbschema.RDBMetadataExtractionTools;
+import it.unibz.inf.ontop.injection.OntopSQLCoreConfiguration;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Optional;
+
+import static org.junit.Assert.*;
+
+/**
+ * Decoding of the type, lang and main columns, in particular when the type of a variable changes between rows
+ */
+public class DelegatedIriSQLTupleResultSetTest {
+
+    private static final String URL = "jdbc:h2:mem:resultset";
+
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final RDF rdfFactory;
+    private final JdbcTypeMapper jdbcTypeMapper;
+
+    private Connection connection;
+
+    public DelegatedIriSQLTupleResultSetTest() {
+        OntopSQLCoreConfiguration configuration = OntopSQLCoreConfiguration.defaultBuilder()
+                .jdbcUrl(URL)
+                .jdbcDriver("org.h2.Driver")
+                .enableTestMode()
+                .build();
+        Injector injector = configuration.getInjector();
+        termFactory = injector.getInstance(TermFactory.class);
+        typeFactory = injector.getInstance(TypeFactory.class);
+        rdfFactory = injector.getInstance(RDF.class);
+        jdbcTypeMapper = injector.getInstance(JdbcTypeMapper.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection(URL, "sa", "");
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE T (X_TYPE INT, X_LANG VARCHAR(10), X VARCHAR(100), "
+                    + "Y_TYPE INT, Y_LANG VARCHAR(10), Y DOUBLE, ORD INT)");
+            st.execute("INSERT INTO T VALUES (1, NULL, 'http://example.org/a', 6, NULL, 150.5, 1)");
+            st.execute("INSERT INTO T VALUES (-3, 'en', 'hello', 4, 'ignored', 12.0, 2)");
+            st.execute("INSERT INTO T VALUES (7, 'ignored', 'world', 6, NULL, NULL, 3)");
+
+            st.execute("CREATE TABLE U (A_TYPE INT, A_LANG VARCHAR(10), A INT, "
+                    + "B_TYPE INT, B_LANG VARCHAR(10), B SMALLINT, ORD INT)");
+            st.execute("INSERT INTO U VALUES (19, NULL, -42, 13, NULL, 1, 1)");
+            st.execute("INSERT INTO U VALUES (4, NULL, NULL, 4, NULL, 7, 2)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testChangingTypes() throws Exception {
+        RDBMetadata metadata = RDBMetadataExtractionTools.createMetadata(connection, typeFactory, jdbcTypeMapper);
+
+        try (Statement st = connection.createStatement()) {
+            ResultSet rs = st.executeQuery("SELECT X_TYPE, X_LANG, X, Y_TYPE, Y_LANG, Y FROM T ORDER BY ORD");
+            DelegatedIriSQLTupleResultSet resultSet = new DelegatedIriSQLTupleResultSet(rs, ImmutableList.of("x", "y"),
+                    metadata, Optional.empty(), termFactory, typeFactory, rdfFactory);
+
+            assertTrue(resultSet.hasNext());
+            OntopBindingSet first = resultSet.next();
+            assertEquals(termFactory.getConstantIRI(rdfFactory.createIRI("http://example.org/a")),
+                    first.getConstant("x"));
+            assertEquals(termFactory.getConstantLiteral("1.505E2", XSD.DOUBLE), first.getConstant("y"));
+
+            assertTrue(resultSet.hasNext());
+            OntopBindingSet second = resultSet.next();
+            assertEquals(termFactory.getConstantLiteral("hello", "en"), second.getConstant("x"));
+            assertEquals(termFactory.getConstantLiteral("12", XSD.INTEGER), second.getConstant("y"));
+
+            assertTrue(resultSet.hasNext());
+            OntopBindingSet third = resultSet.next();
+            assertEquals(termFactory.getConstantLiteral("world", XSD.STRING), third.getConstant("x"));
+            assertNull(third.getConstant("y"));
+            assertFalse(third.hasBinding("y"));
+
+            assertFalse(resultSet.hasNext());
+            resultSet.close();
+        }
+    }
+
+    /**
+     * The integral main columns are read with the typed getter (wasNull for the NULLs)
+     */
+    @Test
+    public void testTypedColumns() throws Exception {
+        RDBMetadata metadata = RDBMetadataExtractionTools.createMetadata(connection, typeFactory, jdbcTypeMapper);
+
+        try (Statement st = connection.createStatement()) {
+            ResultSet rs = st.executeQuery("SELECT A_TYPE, A_LANG, A, B_TYPE, B_LANG, B FROM U ORDER BY ORD");
+            DelegatedIriSQLTupleResultSet resultSet = new DelegatedIriSQLTupleResultSet(rs, ImmutableList.of("a", "b"),
+                    metadata, Optional.empty(), termFactory, typeFactory, rdfFactory);
+
+            assertTrue(resultSet.hasNext());
+            OntopBindingSet first = resultSet.next();
+            assertEquals(termFactory.getConstantLiteral("-42", XSD.INT), first.getConstant("a"));
+            assertEquals(termFactory.getConstantLiteral("1", XSD.LONG), first.getConstant("b"));
+
+            assertTrue(resultSet.hasNext());
+            OntopBindingSet second = resultSet.next();
+            assertNull(second.getConstant("a"));
+            assertFalse(second.hasBinding("a"));
+            assertEquals(termFactory.getConstantLiteral("7", XSD.INTEGER), second.getConstant("b"));
+
+            // The first binding set is still readable
+            assertEquals(termFactory.getConstantLiteral("-42", XSD.INT), first.getConstant("a"));
+
+            assertFalse(resultSet.hasNext());
+            resultSet.close();
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+import static it.unibz.inf.ontop.answering.resultset.impl.JDBC2ConstantConverter.System.MSSQL;
+import static it.unibz.inf.ontop.answering.resultset.impl.JDBC2ConstantConverter.System.ORACLE;
+
+/**
+ * Decoding of Oracle and SQL Server date strings, compared to trying each formatter until
+ * one does not throw an exception (former behavior of JDBC2ConstantConverter).
+ *
+ * Both build the same constants.
+ */
+@Ignore("used only for benchmark tests")
+public class JDBC2ConstantConverterBenchmark {
+
+    private static final int NUM_VALUES = 200_000;
+    private static final int NUM_RUNS = 5;
+
+    private static final ImmutableList<DateTimeFormatter> DEFAULT_FORMATTERS = ImmutableList.of(
+            DateTimeFormatter.ISO_LOCAL_DATE_TIME,
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss[[.SSSSSSSSS][.SSSSSSS][.SSSSSS][.SSS][.SS][.S][XXXXX][XXXX][x]"),
+            DateTimeFormatter.ISO_DATE,
+            new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("dd-MMM-yy[ HH:mm:ss]").toFormatter());
+
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final RDF rdfFactory;
+
+    public JDBC2ConstantConverterBenchmark() {
+        Injector injector = OntopModelConfiguration.defaultBuilder()
+                .enableTestMode()
+                .build()
+                .getInjector();
+        termFactory = injector.getInstance(TermFactory.class);
+        typeFactory = injector.getInstance(TypeFactory.class);
+        rdfFactory = injector.getInstance(RDF.class);
+    }
+
+    @Test
+    public void benchmarkOracle() throws Exception {
+        ImmutableList<DateTimeFormatter> formatters = ImmutableList.<DateTimeFormatter>builder()
+                .addAll(DEFAULT_FORMATTERS)
+                .add(new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("dd-MMM-yy[ hh[.][:]mm[.][:]ss[.][,][n][ a][ ZZZZZ][ VV]]").toFormatter())
+                .build();
+        run("Oracle", ORACLE, formatters, "15-JAN-17 10.30.00.000000 AM");
+    }
+
+    @Test
+    public void benchmarkSQLServer() throws Exception {
+        ImmutableList<DateTimeFormatter> formatters = ImmutableList.<DateTimeFormatter>builder()
+                .addAll(DEFAULT_FORMATTERS)
+                .add(new DateTimeFormatterBuilder().parseCaseInsensitive().appendPattern("MMM dd yyyy[ hh:mm[a]]").toFormatter())
+                .build();
+        run("SQL Server", MSSQL, formatters, "Jan 15 2017 10:30AM");
+    }
+
+    private void run(String name, JDBC2ConstantConverter.System system, ImmutableList<DateTimeFormatter> formatters,
+                     String value) throws Exception {
+        JDBC2ConstantConverter converter = new JDBC2ConstantConverter(system, Optional.empty(), termFactory,
+                typeFactory, rdfFactory);
+
+        for (int run = 0; run < NUM_RUNS; run++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < NUM_VALUES; i++) {
+                termFactory.getConstantLiteral(DateTimeFormatter.ISO_DATE_TIME.format(
+                        parseWithExceptions(formatters, value)), XSD.DATETIME);
+            }
+            long exceptionTime = System.nanoTime() - start;
+
+            ColumnDecodingState state = new ColumnDecodingState();
+            start = System.nanoTime();
+            for (int i = 0; i < NUM_VALUES; i++) {
+                converter.getConstantFromJDBC(new MainTypeLangValues(value, COL_TYPE.DATETIME.getQuestCode(), null,
+                        COL_TYPE.DATETIME, state));
+            }
+            long converterTime = System.nanoTime() - start;
+
+            System.out.printf("%s (run %d): exceptions %d ms, converter %d ms%n", name, run,
+                    exceptionTime / 1_000_000, converterTime / 1_000_000);
+        }
+    }
+
+    private static TemporalAccessor parseWithExceptions(ImmutableList<DateTimeFormatter> formatters, String value) {
+        for (DateTimeFormatter format : formatters) {
+            try {
+                return format.parseBest(value, OffsetDateTime::from, LocalDateTime::from, LocalDate::from);
+            } catch (DateTimeParseException e) {
+                // continue with the next try
+            }
+        }
+        throw new IllegalArgumentException("unparseable datetime: " + value);
+    }
+}
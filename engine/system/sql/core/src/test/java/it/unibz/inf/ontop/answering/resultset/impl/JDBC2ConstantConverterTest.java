@@ -0,0 +1,114 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.reformulation.IRIDictionary;
+import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
+import it.unibz.inf.ontop.injection.OntopModelConfiguration;
+import it.unibz.inf.ontop.model.term.Constant;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.model.vocabulary.XSD;
+import org.apache.commons.rdf.api.RDF;
+import org.junit.Test;
+
+import java.util.Optional;
+
+import static it.unibz.inf.ontop.answering.resultset.impl.JDBC2ConstantConverter.System.*;
+import static org.junit.Assert.assertEquals;
+
+public class JDBC2ConstantConverterTest {
+
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final RDF rdfFactory;
+
+    public JDBC2ConstantConverterTest() {
+        Injector injector = OntopModelConfiguration.defaultBuilder()
+                .enableTestMode()
+                .build()
+                .getInjector();
+        termFactory = injector.getInstance(TermFactory.class);
+        typeFactory = injector.getInstance(TypeFactory.class);
+        rdfFactory = injector.getInstance(RDF.class);
+    }
+
+    /**
+     * The formatter learned from the previous rows does not apply to all the rows of the column
+     */
+    @Test
+    public void testOracleDatetimes() throws Exception {
+        JDBC2ConstantConverter converter = createConverter(ORACLE, Optional.empty());
+        ColumnDecodingState state = new ColumnDecodingState();
+
+        assertEquals(datetime("2017-01-15T10:30:00"), convert(converter, "15-JAN-17 10:30:00", COL_TYPE.DATETIME, state));
+        assertEquals(datetime("2017-01-16T10:30:00"), convert(converter, "16-JAN-17 10:30:00", COL_TYPE.DATETIME, state));
+        assertEquals(datetime("2017-01-16T10:30:00"), convert(converter, "2017-01-16 10:30:00", COL_TYPE.DATETIME, state));
+        assertEquals(datetime("2017-01-16T00:00:00"), convert(converter, "16-JAN-17", COL_TYPE.DATETIME, state));
+    }
+
+    @Test
+    public void testSQLServerDatetimes() throws Exception {
+        JDBC2ConstantConverter converter = createConverter(MSSQL, Optional.empty());
+        ColumnDecodingState state = new ColumnDecodingState();
+
+        assertEquals(datetime("2017-01-15T10:30:00"), convert(converter, "Jan 15 2017 10:30AM", COL_TYPE.DATETIME, state));
+        assertEquals(datetime("2017-01-15T22:30:00"), convert(converter, "Jan 15 2017 10:30PM", COL_TYPE.DATETIME, state));
+        assertEquals(datetime("2017-01-15T22:30:00"), convert(converter, "2017-01-15T22:30:00", COL_TYPE.DATETIME, state));
+    }
+
+    @Test
+    public void testTimes() throws Exception {
+        JDBC2ConstantConverter converter = createConverter(DEFAULT, Optional.empty());
+        ColumnDecodingState state = new ColumnDecodingState();
+
+        assertEquals(termFactory.getConstantLiteral("10:30:00", XSD.TIME),
+                convert(converter, "10:30:00", COL_TYPE.TIME, state));
+        assertEquals(termFactory.getConstantLiteral("10:30:00+01:00", XSD.TIME),
+                convert(converter, "10:30:00+01:00", COL_TYPE.TIME, state));
+    }
+
+    @Test(expected = it.unibz.inf.ontop.exception.OntopResultConversionException.class)
+    public void testUnparseableDatetime() throws Exception {
+        convert(createConverter(DEFAULT, Optional.empty()), "not a date", COL_TYPE.DATETIME,
+                new ColumnDecodingState());
+    }
+
+    @Test
+    public void testIRIDictionary() throws Exception {
+        IRIDictionary dictionary = new IRIDictionary() {
+            @Override
+            public int getId(String uri) {
+                return -2;
+            }
+
+            @Override
+            public String getURI(Integer id) {
+                return "http://example.org/" + id;
+            }
+        };
+        JDBC2ConstantConverter converter = createConverter(DEFAULT, Optional.of(dictionary));
+        ColumnDecodingState state = new ColumnDecodingState();
+
+        assertEquals(iri("http://example.org/12"), convert(converter, "12", COL_TYPE.OBJECT, state));
+        assertEquals(iri("http://example.org/a"), convert(converter, "http://example.org/a", COL_TYPE.OBJECT, state));
+        assertEquals(iri("http://example.org/-1"), convert(converter, "-1", COL_TYPE.OBJECT, state));
+    }
+
+    private JDBC2ConstantConverter createConverter(JDBC2ConstantConverter.System system,
+                                                   Optional<IRIDictionary> dictionary) {
+        return new JDBC2ConstantConverter(system, dictionary, termFactory, typeFactory, rdfFactory);
+    }
+
+    private static Constant convert(JDBC2ConstantConverter converter, String value, COL_TYPE type,
+                                    ColumnDecodingState state) throws Exception {
+        return converter.getConstantFromJDBC(new MainTypeLangValues(value, type.getQuestCode(), null, type, state));
+    }
+
+    private Constant datetime(String lexicalValue) {
+        return termFactory.getConstantLiteral(lexicalValue, XSD.DATETIME);
+    }
+
+    private Constant iri(String iri) {
+        return termFactory.getConstantIRI(rdfFactory.createIRI(iri));
+    }
+}
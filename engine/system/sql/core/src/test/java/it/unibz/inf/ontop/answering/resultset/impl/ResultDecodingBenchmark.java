@@ -0,0 +1,310 @@
+package it.unibz.inf.ontop.answering.resultset.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.answering.reformulation.generation.utils.COL_TYPE;
+import it.unibz.inf.ontop.answering.reformulation.input.ConstructQuery;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQueryFactory;
+import it.unibz.inf.ontop.answering.resultset.OntopBindingSet;
+import it.unibz.inf.ontop.answering.resultset.SimpleGraphResultSet;
+import it.unibz.inf.ontop.answering.resultset.TupleResultSet;
+import it.unibz.inf.ontop.dbschema.JdbcTypeMapper;
+import it.unibz.inf.ontop.dbschema.RDBMetadata;
+import it.unibz.inf.ontop.dbschema.RDBMetadataExtractionTools;
+import it.unibz.inf.ontop.injection.OntopStandaloneSQLConfiguration;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import org.apache.commons.rdf.api.RDF;
+import org.h2.tools.SimpleResultSet;
+import org.h2.tools.SimpleRowSource;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.sql.*;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Decoding of the answers of the SQL queries (per row), on an in-memory H2 table and on a synthetic
+ * result set generating its rows on the fly (no I/O, no storage).
+ *
+ * Each row binds 3 variables: an IRI, a language-tagged string and an integer (type, lang and main columns).
+ *
+ * Reports the time and the memory allocated (by the benchmark thread) per row.
+ */
+@Ignore("used only for benchmark tests")
+public class ResultDecodingBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:resultdecoding";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final int SYNTHETIC_ROWS = 2_000_000;
+    private static final int H2_ROWS = 200_000;
+    private static final int CONVERTED_VALUES = 1_000_000;
+    private static final int NUM_RUNS = 5;
+
+    private static final ImmutableList<String> SIGNATURE = ImmutableList.of("s", "name", "age");
+    private static final String CONSTRUCT_QUERY = "PREFIX : <http://example.org/voc#>\n" +
+            "CONSTRUCT { ?s a :Person ; :name ?name ; :age ?age } WHERE { ?s :name ?name ; :age ?age }";
+
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final RDF rdfFactory;
+    private final JdbcTypeMapper jdbcTypeMapper;
+    private final InputQueryFactory inputQueryFactory;
+
+    private Connection connection;
+    private RDBMetadata metadata;
+
+    public ResultDecodingBenchmark() {
+        // The mapping is not loaded
+        Injector injector = OntopStandaloneSQLConfiguration.defaultBuilder()
+                .nativeOntopMappingReader(new StringReader(""))
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .enableTestMode()
+                .build()
+                .getInjector();
+        termFactory = injector.getInstance(TermFactory.class);
+        typeFactory = injector.getInstance(TypeFactory.class);
+        rdfFactory = injector.getInstance(RDF.class);
+        jdbcTypeMapper = injector.getInstance(JdbcTypeMapper.class);
+        inputQueryFactory = injector.getInstance(InputQueryFactory.class);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE TABLE T (S_TYPE INT, S_LANG VARCHAR(10), S VARCHAR(100), "
+                    + "NAME_TYPE INT, NAME_LANG VARCHAR(10), NAME VARCHAR(100), "
+                    + "AGE_TYPE INT, AGE_LANG VARCHAR(10), AGE INT)");
+            st.execute("INSERT INTO T SELECT 1, NULL, CONCAT('http://example.org/person/', X), "
+                    + "-3, 'en', CONCAT('Person ', X), 4, NULL, MOD(X, 100) FROM SYSTEM_RANGE(1, " + H2_ROWS + ")");
+        }
+        metadata = RDBMetadataExtractionTools.createMetadata(connection, typeFactory, jdbcTypeMapper);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void benchmarkRowReader() throws Exception {
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("SQLRowReader, synthetic", run, SYNTHETIC_ROWS, () -> readRows(createSyntheticResultSet(1)));
+            measure("SQLRowReader, H2", run, H2_ROWS, () -> readRows(queryH2()));
+        }
+    }
+
+    /**
+     * One value of each COL_TYPE, as returned by ResultSet.getObject() (or getString() for IRIs and blank nodes).
+     * Here a "row" is a single value.
+     */
+    @Test
+    public void benchmarkConstantConverter() throws Exception {
+        JDBC2ConstantConverter converter = new JDBC2ConstantConverter(metadata, Optional.empty(), termFactory,
+                typeFactory, rdfFactory);
+
+        for (int run = 0; run < NUM_RUNS; run++) {
+            for (COL_TYPE colType : COL_TYPE.values()) {
+                Object value = getSampleValue(colType);
+                if (value == null)
+                    continue;
+                String lang = (colType == COL_TYPE.LANG_STRING) ? "en" : null;
+                ColumnDecodingState state = new ColumnDecodingState();
+
+                measure("JDBC2ConstantConverter, " + colType, run, CONVERTED_VALUES, () -> {
+                    for (int i = 0; i < CONVERTED_VALUES; i++)
+                        converter.getConstantFromJDBC(new MainTypeLangValues(value, colType.getQuestCode(), lang,
+                                colType, state));
+                });
+            }
+        }
+    }
+
+    @Test
+    public void benchmarkTupleResultSet() throws Exception {
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("DelegatedIriSQLTupleResultSet, synthetic", run, SYNTHETIC_ROWS,
+                    () -> readBindingSets(createTupleResultSet(createSyntheticResultSet(1))));
+            measure("DelegatedIriSQLTupleResultSet, H2", run, H2_ROWS,
+                    () -> readBindingSets(createTupleResultSet(queryH2())));
+        }
+    }
+
+    /**
+     * Each row is repeated twice: the time is per row of the SQL result set
+     */
+    @Test
+    public void benchmarkDistinctMoveCursor() throws Exception {
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("SQLDistinctTupleResultSet.moveCursor", run, SYNTHETIC_ROWS, () -> {
+                SQLDistinctTupleResultSet resultSet = new SQLDistinctTupleResultSet(createSyntheticResultSet(2),
+                        SIGNATURE, metadata, Optional.empty(), termFactory, typeFactory, rdfFactory);
+                while (resultSet.moveCursor()) {
+                    // only the cursor is moved
+                }
+                resultSet.close();
+            });
+        }
+    }
+
+    /**
+     * 3 triples per row
+     */
+    @Test
+    public void benchmarkGraphConstruction() throws Exception {
+        ConstructQuery query = inputQueryFactory.createConstructQuery(CONSTRUCT_QUERY);
+
+        for (int run = 0; run < NUM_RUNS; run++) {
+            measure("DefaultSimpleGraphResultSet, synthetic", run, SYNTHETIC_ROWS, () -> {
+                SimpleGraphResultSet graphResultSet = new DefaultSimpleGraphResultSet(
+                        createTupleResultSet(createSyntheticResultSet(1)), query.getConstructTemplate(),
+                        termFactory, rdfFactory);
+                while (graphResultSet.hasNext())
+                    graphResultSet.next();
+                graphResultSet.close();
+            });
+        }
+    }
+
+    private interface Operation {
+        void run() throws Exception;
+    }
+
+    private static void measure(String name, int run, int rowCount, Operation operation) throws Exception {
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        operation.run();
+        long time = System.nanoTime() - start;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-55s (run %d): %8.1f ns/row %8.1f B/row%n", name, run,
+                (double) time / rowCount, (double) allocated / rowCount);
+    }
+
+    private static void readRows(ResultSet rs) throws SQLException {
+        SQLRowReader rowReader = new SQLRowReader(SIGNATURE.size());
+        while (rs.next()) {
+            List<MainTypeLangValues> cells = rowReader.read(rs);
+            if (cells.isEmpty())
+                throw new IllegalStateException();
+        }
+        rs.close();
+    }
+
+    private static void readBindingSets(TupleResultSet resultSet) throws Exception {
+        while (resultSet.hasNext()) {
+            OntopBindingSet bindingSet = resultSet.next();
+            for (String variable : SIGNATURE)
+                bindingSet.getConstant(variable);
+        }
+        resultSet.close();
+    }
+
+    private TupleResultSet createTupleResultSet(ResultSet rs) {
+        return new DelegatedIriSQLTupleResultSet(rs, SIGNATURE, metadata, Optional.empty(), termFactory,
+                typeFactory, rdfFactory);
+    }
+
+    private ResultSet queryH2() throws SQLException {
+        return connection.createStatement().executeQuery(
+                "SELECT S_TYPE, S_LANG, S, NAME_TYPE, NAME_LANG, NAME, AGE_TYPE, AGE_LANG, AGE FROM T");
+    }
+
+    /**
+     * Each row is repeated "repetitions" times
+     */
+    private static ResultSet createSyntheticResultSet(int repetitions) {
+        SimpleResultSet rs = new SimpleResultSet(new SimpleRowSource() {
+            private int index = 0;
+
+            @Override
+            public Object[] readRow() {
+                if (index >= SYNTHETIC_ROWS)
+                    return null;
+                int id = index++ / repetitions;
+                return new Object[]{
+                        1, null, "http://example.org/person/" + id,
+                        -3, "en", "Person " + id,
+                        4, null, id % 100};
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void reset() {
+                index = 0;
+            }
+        });
+        for (String variable : SIGNATURE) {
+            rs.addColumn(variable.toUpperCase() + "_TYPE", Types.INTEGER, 10, 0);
+            rs.addColumn(variable.toUpperCase() + "_LANG", Types.VARCHAR, 10, 0);
+            rs.addColumn(variable.toUpperCase(), Types.VARCHAR, 100, 0);
+        }
+        return rs;
+    }
+
+    private static Object getSampleValue(COL_TYPE colType) {
+        switch (colType) {
+            case OBJECT:
+                return "http://example.org/person/1";
+            case BNODE:
+                return "node1";
+            case LANG_STRING:
+            case STRING:
+                return "Person 1";
+            case INTEGER:
+            case INT:
+            case UNSIGNED_INT:
+            case NON_NEGATIVE_INTEGER:
+            case POSITIVE_INTEGER:
+                return 42;
+            case NEGATIVE_INTEGER:
+            case NON_POSITIVE_INTEGER:
+                return -42;
+            case LONG:
+                return 42L;
+            case DECIMAL:
+                return new BigDecimal("150.50");
+            case DOUBLE:
+                return 150.5;
+            case FLOAT:
+                return 150.5f;
+            case BOOLEAN:
+                return true;
+            case DATETIME:
+            case DATETIME_STAMP:
+                return Timestamp.valueOf("2017-01-15 10:30:00.123");
+            case DATE:
+                return Date.valueOf("2017-01-15");
+            case TIME:
+                return Time.valueOf("10:30:00");
+            case YEAR:
+                return 2017;
+            case WKT:
+                return "POINT (11.35 46.5)";
+            // UNSUPPORTED and NULL
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package it.unibz.inf.ontop.materialization;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import it.unibz.inf.ontop.injection.OntopStandaloneSQLConfiguration;
+import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+/**
+ * Triples maps declaring a change marker in the native mapping
+ */
+public class DeltaMaterializationTest {
+
+    private static final String URL = "jdbc:h2:mem:deltamaterialization";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+    private static final String MAPPING_FILE = "src/test/resources/delta/delta.obda";
+    private static final String TIMESTAMP_MAPPING_FILE = "src/test/resources/delta/delta-timestamp.obda";
+
+    private static final String PERSON = "<http://example.org/person/%d>";
+    private static final String CITY_1 = "<http://example.org/city/1>";
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(new String(Files.readAllBytes(Paths.get("src/test/resources/delta/delta.sql")), "UTF-8"));
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testDelta() throws Exception {
+        OntopStandaloneSQLConfiguration configuration = createConfiguration()
+                .nativeOntopMappingFile(MAPPING_FILE)
+                .build();
+        SQLPPMapping ppMapping = configuration.loadProvidedPPMapping();
+        DeltaMappingExtractor extractor = configuration.getInjector().getInstance(DeltaMappingExtractor.class);
+
+        // First run: all the rows not deleted
+        DeltaMapping initialDelta = extractor.extract(ppMapping, ImmutableMap.of(), connection);
+        assertEquals(ImmutableMap.of("person", "3"), initialDelta.getNewWatermarks());
+        assertEquals(ImmutableSet.of("city"), initialDelta.getUnrestrictedTriplesMapIds());
+        assertFalse(initialDelta.getDeletedMapping().isPresent());
+
+        ImmutableSet<String> initialSubjects = materializeSubjects(initialDelta.getChangedMapping());
+        assertEquals(ImmutableSet.of(person(1), person(2), CITY_1), initialSubjects);
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("UPDATE PERSON SET NAME = 'Anne', VERSION = 4 WHERE ID = 1");
+            statement.executeUpdate("UPDATE PERSON SET DELETED_AT = '2018-02-01 00:00:00', VERSION = 5 WHERE ID = 2");
+            statement.executeUpdate("INSERT INTO PERSON VALUES (4, 'Dario', 6, NULL)");
+        }
+
+        DeltaMapping delta = extractor.extract(ppMapping, initialDelta.getNewWatermarks(), connection);
+        assertEquals(ImmutableMap.of("person", "6"), delta.getNewWatermarks());
+        assertEquals(ImmutableSet.of(person(1), person(4), CITY_1), materializeSubjects(delta.getChangedMapping()));
+        assertTrue(delta.getDeletedMapping().isPresent());
+        assertEquals(ImmutableSet.of(person(2)), materializeSubjects(delta.getDeletedMapping().get()));
+
+        // No change
+        DeltaMapping emptyDelta = extractor.extract(ppMapping, delta.getNewWatermarks(), connection);
+        assertEquals(delta.getNewWatermarks(), emptyDelta.getNewWatermarks());
+        assertEquals(ImmutableSet.of(CITY_1), materializeSubjects(emptyDelta.getChangedMapping()));
+        assertEquals(ImmutableSet.of(), materializeSubjects(emptyDelta.getDeletedMapping().get()));
+    }
+
+    /**
+     * The rows with the highest change values are removed: the watermark is kept
+     */
+    @Test
+    public void testWatermarkNotDecreasing() throws Exception {
+        OntopStandaloneSQLConfiguration configuration = createConfiguration()
+                .nativeOntopMappingFile(MAPPING_FILE)
+                .build();
+        SQLPPMapping ppMapping = configuration.loadProvidedPPMapping();
+        DeltaMappingExtractor extractor = configuration.getInjector().getInstance(DeltaMappingExtractor.class);
+
+        DeltaMapping initialDelta = extractor.extract(ppMapping, ImmutableMap.of(), connection);
+        assertEquals(ImmutableMap.of("person", "3"), initialDelta.getNewWatermarks());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM PERSON WHERE ID = 3");
+        }
+
+        DeltaMapping delta = extractor.extract(ppMapping, initialDelta.getNewWatermarks(), connection);
+        assertEquals(ImmutableMap.of("person", "3"), delta.getNewWatermarks());
+        assertEquals(ImmutableSet.of(CITY_1), materializeSubjects(delta.getChangedMapping()));
+        assertFalse(delta.getDeletedMapping().isPresent());
+    }
+
+    /**
+     * The watermarks of a TIMESTAMP change column are compared as TIMESTAMP literals
+     */
+    @Test
+    public void testTimestampChangeColumn() throws Exception {
+        OntopStandaloneSQLConfiguration configuration = createConfiguration()
+                .nativeOntopMappingFile(TIMESTAMP_MAPPING_FILE)
+                .build();
+        SQLPPMapping ppMapping = configuration.loadProvidedPPMapping();
+        DeltaMappingExtractor extractor = configuration.getInjector().getInstance(DeltaMappingExtractor.class);
+
+        DeltaMapping initialDelta = extractor.extract(ppMapping, ImmutableMap.of(), connection);
+        assertEquals(ImmutableMap.of("event", "2018-01-02 10:00:00.0"), initialDelta.getNewWatermarks());
+        assertTrue(initialDelta.getChangedMapping().getTripleMaps().get(0).getSourceQuery().getSQLQuery()
+                .contains("<= TIMESTAMP '2018-01-02 10:00:00.0'"));
+        assertEquals(ImmutableSet.of(event(1), event(2)), materializeSubjects(initialDelta.getChangedMapping()));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO EVENT VALUES (3, '2018-01-10 10:00:00')");
+        }
+
+        DeltaMapping delta = extractor.extract(ppMapping, initialDelta.getNewWatermarks(), connection);
+        assertEquals(ImmutableMap.of("event", "2018-01-10 10:00:00.0"), delta.getNewWatermarks());
+        assertEquals(ImmutableSet.of(event(3)), materializeSubjects(delta.getChangedMapping()));
+    }
+
+    private static String event(int id) {
+        return "<http://example.org/event/" + id + ">";
+    }
+
+    private static String person(int id) {
+        return String.format(PERSON, id);
+    }
+
+    private static ImmutableSet<String> materializeSubjects(SQLPPMapping ppMapping) throws Exception {
+        OntopStandaloneSQLConfiguration configuration = createConfiguration()
+                .ppMapping(ppMapping)
+                .build();
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (MaterializedGraphResultSet resultSet = OntopRDFMaterializer.defaultMaterializer()
+                .materialize(configuration, MaterializationParams.defaultBuilder().build());
+             MaterializedGraphWriter writer = MaterializedGraphWriter.defaultBuilder(
+                     MaterializedGraphWriter.Format.NTRIPLES).build(outputStream)) {
+            writer.write(resultSet);
+        }
+        // N-Triples: the subject is the first term of the line
+        return Arrays.stream(new String(outputStream.toByteArray(), "UTF-8").split("\n"))
+                .filter(l -> !l.isEmpty())
+                .map(l -> l.substring(0, l.indexOf(' ')))
+                .collect(ImmutableCollectors.toSet());
+    }
+
+    private static OntopStandaloneSQLConfiguration.Builder<? extends OntopStandaloneSQLConfiguration.Builder> createConfiguration() {
+        return OntopStandaloneSQLConfiguration.defaultBuilder()
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .enableTestMode();
+    }
+}
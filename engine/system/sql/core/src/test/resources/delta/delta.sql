@@ -0,0 +1,22 @@
+CREATE TABLE PERSON (
+  ID INT NOT NULL PRIMARY KEY,
+  NAME VARCHAR(20) NOT NULL,
+  VERSION INT NOT NULL,
+  DELETED_AT TIMESTAMP
+);
+
+CREATE TABLE CITY (
+  ID INT NOT NULL PRIMARY KEY
+);
+
+CREATE TABLE EVENT (
+  ID INT NOT NULL PRIMARY KEY,
+  UPDATED_AT TIMESTAMP NOT NULL
+);
+
+INSERT INTO PERSON VALUES (1, 'Anna', 1, NULL);
+INSERT INTO PERSON VALUES (2, 'Bruno', 2, NULL);
+INSERT INTO PERSON VALUES (3, 'Carla', 3, '2018-01-01 00:00:00');
+INSERT INTO CITY VALUES (1);
+INSERT INTO EVENT VALUES (1, '2018-01-01 10:00:00');
+INSERT INTO EVENT VALUES (2, '2018-01-02 10:00:00');
@@ -0,0 +1,188 @@
+package it.unibz.inf.ontop.answering.reformulation.impl;
+
+import com.google.common.collect.ImmutableList;
+import it.unibz.inf.ontop.answering.reformulation.input.InputQuery;
+import it.unibz.inf.ontop.answering.report.QueryExecutionRecorder;
+import it.unibz.inf.ontop.datalog.DatalogProgram;
+import it.unibz.inf.ontop.datalog.InternalSparqlQuery;
+import it.unibz.inf.ontop.injection.OntopSQLOWLAPIConfiguration;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IntermediateQuery;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Ignore;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.concurrent.Callable;
+
+/**
+ * Time spent in each stage of QuestQueryProcessor.reformulateIntoNativeQuery(), for synthetic mappings
+ * of increasing size (number of triples maps) and ontologies of increasing depth.
+ *
+ * In-memory H2 fixture: a single table, each triples map selecting a different slice of it.
+ *
+ * Ontology of depth d:
+ *   - class chain C0 < C1 < ... < Cd, the triples maps populating the classes C0 ... Cd in turn
+ *   - all the data properties p_i (one per triples map) are sub-properties of q
+ *   - C0 < exists r (tree-witness rewriting)
+ */
+@Ignore("used only for benchmark tests")
+public class ReformulationBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:reformulationbenchmark";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+    private static final String NS = "http://example.org/voc#";
+
+    private static final int[] MAPPING_SIZES = {10, 100, 1_000, 10_000};
+    private static final int[] ONTOLOGY_DEPTHS = {1, 4, 16};
+
+    private static final int WARMUP_RUNS = 5;
+    private static final int MEASURED_RUNS = 20;
+    // The slowest stages are measured fewer times
+    private static final long TIME_BUDGET_NS = 10_000_000_000L;
+
+    private Connection connection;
+
+    @Before
+    public void setUp() throws Exception {
+        connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE T (ID INT PRIMARY KEY, V0 VARCHAR(20), V1 VARCHAR(20), V2 VARCHAR(20), " +
+                    "R INT)");
+            statement.execute("INSERT INTO T VALUES (1, 'a', 'b', 'c', 2)");
+        }
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void benchmarkClassQuery() throws Exception {
+        run("class", depth -> "PREFIX : <" + NS + ">\nSELECT ?x WHERE { ?x a :C" + depth + " }");
+    }
+
+    @Test
+    public void benchmarkPropertyQuery() throws Exception {
+        run("property", depth -> "PREFIX : <" + NS + ">\nSELECT ?x ?v WHERE { ?x :q ?v }");
+    }
+
+    @Test
+    public void benchmarkExistentialQuery() throws Exception {
+        run("existential", depth -> "PREFIX : <" + NS + ">\n" +
+                "SELECT ?x WHERE { ?x a :C" + depth + " ; :r ?y . ?y a :C" + depth + " }");
+    }
+
+    private interface QueryGenerator {
+        String generate(int depth);
+    }
+
+    private void run(String name, QueryGenerator queryGenerator) throws Exception {
+        for (int depth : ONTOLOGY_DEPTHS) {
+            for (int size : MAPPING_SIZES) {
+                QuestQueryProcessor processor = (QuestQueryProcessor) createConfiguration(size, depth)
+                        .loadQueryReformulator();
+                InputQuery inputQuery = processor.getInputQueryFactory()
+                        .createSelectQuery(queryGenerator.generate(depth));
+
+                System.out.printf("%s query, %d triples maps, depth %d%n", name, size, depth);
+
+                InternalSparqlQuery translation = measure("SPARQL translation",
+                        () -> processor.translate(inputQuery));
+                DatalogProgram program = measure("normalization", () -> processor.preProcess(translation));
+                DatalogProgram rewriting = measure("tree-witness rewriting", () -> processor.rewrite(program));
+                IQ convertedIQ = measure("conversion into IQ", () -> processor.convert(rewriting));
+                IQ unfoldedIQ = measure("unfolding", () -> processor.unfold(convertedIQ));
+                QueryExecutionRecorder recorder = new QueryExecutionRecorder(inputQuery.getInputString());
+                IntermediateQuery optimizedQuery = measure("join and binding-lift optimizations",
+                        () -> processor.optimize(unfoldedIQ, recorder));
+                ImmutableList<String> signature = ImmutableList.copyOf(translation.getSignature());
+                measure("SQL generation",
+                        () -> processor.generateExecutableQuery(optimizedQuery.createSnapshot(), signature));
+            }
+        }
+    }
+
+    private static <T> T measure(String stage, Callable<T> operation) throws Exception {
+        long warmupStart = System.nanoTime();
+        for (int i = 0; i < WARMUP_RUNS && System.nanoTime() - warmupStart < TIME_BUDGET_NS; i++)
+            operation.call();
+
+        T result = null;
+        int runs = 0;
+        long start = System.nanoTime();
+        long time;
+        do {
+            result = operation.call();
+            runs++;
+            time = System.nanoTime() - start;
+        } while (runs < MEASURED_RUNS && time < TIME_BUDGET_NS);
+
+        System.out.printf("  %-40s %10.1f us/op (%d runs)%n", stage, time / 1000.0 / runs, runs);
+        return result;
+    }
+
+    private static OntopSQLOWLAPIConfiguration createConfiguration(int size, int depth) throws Exception {
+        return OntopSQLOWLAPIConfiguration.defaultBuilder()
+                .nativeOntopMappingReader(new StringReader(generateMapping(size, depth)))
+                .ontology(generateOntology(size, depth))
+                .jdbcUrl(URL)
+                .jdbcUser(USER)
+                .jdbcPassword(PASSWORD)
+                .enableTestMode()
+                .build();
+    }
+
+    private static String generateMapping(int size, int depth) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("[PrefixDeclaration]\n:\t\t").append(NS).append("\n\n");
+        sb.append("[MappingDeclaration] @collection [[\n");
+        for (int i = 0; i < size; i++) {
+            int column = i % 3;
+            sb.append("mappingId\tm").append(i).append("\n")
+                    .append("target\t\t<http://example.org/t/{ID}> a :C").append(i % (depth + 1))
+                    .append(" ; :p").append(i).append(" {V").append(column).append("} .\n")
+                    .append("source\t\tSELECT ID, V").append(column).append(" FROM T WHERE ID > ").append(i)
+                    .append("\n\n");
+        }
+        sb.append("mappingId\tr\n")
+                .append("target\t\t<http://example.org/t/{ID}> :r <http://example.org/t/{R}> .\n")
+                .append("source\t\tSELECT ID, R FROM T\n");
+        sb.append("]]\n");
+        return sb.toString();
+    }
+
+    private static OWLOntology generateOntology(int size, int depth) throws OWLOntologyCreationException {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory dataFactory = manager.getOWLDataFactory();
+        OWLOntology ontology = manager.createOntology(IRI.create("http://example.org/voc"));
+
+        for (int k = 0; k < depth; k++) {
+            manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(
+                    dataFactory.getOWLClass(IRI.create(NS + "C" + k)),
+                    dataFactory.getOWLClass(IRI.create(NS + "C" + (k + 1)))));
+        }
+        OWLDataProperty q = dataFactory.getOWLDataProperty(IRI.create(NS + "q"));
+        for (int i = 0; i < size; i++) {
+            manager.addAxiom(ontology, dataFactory.getOWLSubDataPropertyOfAxiom(
+                    dataFactory.getOWLDataProperty(IRI.create(NS + "p" + i)), q));
+        }
+        OWLObjectProperty r = dataFactory.getOWLObjectProperty(IRI.create(NS + "r"));
+        manager.addAxiom(ontology, dataFactory.getOWLDeclarationAxiom(r));
+        manager.addAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(
+                dataFactory.getOWLClass(IRI.create(NS + "C0")),
+                dataFactory.getOWLObjectSomeValuesFrom(r, dataFactory.getOWLThing())));
+        return ontology;
+    }
+}
@@ -25,21 +25,42 @@ import it.unibz.inf.ontop.spec.ontology.Assertion;
 import it.unibz.inf.ontop.spec.ontology.ClassAssertion;
 import it.unibz.inf.ontop.spec.ontology.ObjectPropertyAssertion;
 import it.unibz.inf.ontop.materialization.MaterializationParams;
+import it.unibz.inf.ontop.materialization.MaterializationSession;
+import it.unibz.inf.ontop.materialization.MaterializedGraphWriter;
 import it.unibz.inf.ontop.materialization.OntopRDFMaterializer;
+import it.unibz.inf.ontop.materialization.PredicateMaterializationStatistics;
 import it.unibz.inf.ontop.answering.resultset.MaterializedGraphResultSet;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
 import junit.framework.TestCase;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.simple.SimpleRDF;
+import org.eclipse.rdf4j.model.Model;
+import org.eclipse.rdf4j.rio.RDFFormat;
+import org.eclipse.rdf4j.rio.Rio;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileReader;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPInputStream;
 
 public class OntopOntologyMaterializerTest extends TestCase {
 
@@ -182,4 +203,194 @@ public class OntopOntologyMaterializerTest extends TestCase {
 			assertEquals(3, objAss); //3 since no subprop for obj prop
 		}
 	}
+
+	/**
+	 * Same triples as the sequential materialization (same order if the vocabulary order is preserved)
+	 */
+	public void testParallelMaterialization() throws Exception {
+		OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+				.ontologyFile("src/test/resources/materializer/MaterializeTest.owl")
+				.nativeOntopMappingFile(new File("src/test/resources/materializer/MaterializeTest.obda"))
+				.jdbcUrl(url)
+				.jdbcUser(username)
+				.jdbcPassword(password)
+				.enableTestMode()
+				.build();
+
+		List<String> expected = materialize(configuration, MaterializationParams.defaultBuilder().build());
+		assertEquals(51, expected.size());
+
+		// small buffer: the workers have to wait for the consumer
+		List<String> ordered = materialize(configuration, MaterializationParams.defaultBuilder()
+				.parallelism(3)
+				.bufferSize(2)
+				.preserveVocabularyOrder(true)
+				.build());
+		assertEquals(expected, ordered);
+
+		List<String> interleaved = materialize(configuration, MaterializationParams.defaultBuilder()
+				.parallelism(3)
+				.bufferSize(2)
+				.build());
+		Collections.sort(expected);
+		Collections.sort(interleaved);
+		assertEquals(expected, interleaved);
+	}
+
+	/**
+	 * One session for many vocabulary subsets, consumed concurrently
+	 */
+	public void testSession() throws Exception {
+		OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+				.ontologyFile("src/test/resources/materializer/MaterializeTest.owl")
+				.nativeOntopMappingFile(new File("src/test/resources/materializer/MaterializeTest.obda"))
+				.jdbcUrl(url)
+				.jdbcUser(username)
+				.jdbcPassword(password)
+				.enableTestMode()
+				.build();
+		MaterializationParams params = MaterializationParams.defaultBuilder().build();
+		List<String> expected = materialize(configuration, params);
+
+		try (MaterializationSession session = OntopRDFMaterializer.defaultMaterializer().createSession(configuration)) {
+			assertEquals(expected, toStrings(session.materialize(params)));
+
+			ExecutorService executor = Executors.newFixedThreadPool(4);
+			try {
+				List<Future<List<String>>> futures = new ArrayList<>();
+				for (IRI iri : session.getVocabulary())
+					futures.add(executor.submit(() -> toStrings(session.materialize(ImmutableSet.of(iri), params))));
+
+				List<String> assertions = new ArrayList<>();
+				for (Future<List<String>> future : futures)
+					assertions.addAll(future.get());
+				Collections.sort(expected);
+				Collections.sort(assertions);
+				assertEquals(expected, assertions);
+			} finally {
+				executor.shutdown();
+			}
+		}
+	}
+
+	private static List<String> toStrings(MaterializedGraphResultSet resultSet) throws Exception {
+		List<String> assertions = new ArrayList<>();
+		try {
+			while (resultSet.hasNext())
+				assertions.add(resultSet.next().toString());
+		} finally {
+			resultSet.close();
+		}
+		return assertions;
+	}
+
+	/**
+	 * The streamed documents are parsed back (same number of triples)
+	 */
+	public void testStreamingWriters() throws Exception {
+		OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+				.ontologyFile("src/test/resources/materializer/MaterializeTest.owl")
+				.nativeOntopMappingFile(new File("src/test/resources/materializer/MaterializeTest.obda"))
+				.jdbcUrl(url)
+				.jdbcUser(username)
+				.jdbcPassword(password)
+				.enableTestMode()
+				.build();
+		ImmutableMap<String, String> prefixes = configuration.loadProvidedPPMapping().getMetadata()
+				.getPrefixManager().getPrefixMap();
+
+		byte[] nTriples = write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.NTRIPLES));
+		Model model = Rio.parse(new ByteArrayInputStream(nTriples), "", RDFFormat.NTRIPLES);
+		// 2 duplicated triples
+		assertEquals(49, model.size());
+
+		byte[] compressed = write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.NTRIPLES)
+				.enableCompression(true));
+		assertEquals(model, Rio.parse(new GZIPInputStream(new ByteArrayInputStream(compressed)), "",
+				RDFFormat.NTRIPLES));
+
+		byte[] turtle = write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.TURTLE)
+				.prefixes(prefixes)
+				.enableSubjectGrouping(true));
+		assertEquals(model, Rio.parse(new ByteArrayInputStream(turtle), "", RDFFormat.TURTLE));
+
+		byte[] nQuads = write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.NQUADS));
+		assertEquals(49, Rio.parse(new ByteArrayInputStream(nQuads), "", RDFFormat.NQUADS).size());
+
+		String graph = "http://example.org/graph";
+		byte[] namedQuads = write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.NQUADS)
+				.graph(new SimpleRDF().createIRI(graph)));
+		Model quadModel = Rio.parse(new ByteArrayInputStream(namedQuads), "", RDFFormat.NQUADS);
+		assertEquals(49, quadModel.size());
+		assertEquals(ImmutableSet.of(graph), quadModel.contexts().stream()
+				.map(Object::toString)
+				.collect(ImmutableCollectors.toSet()));
+	}
+
+	/**
+	 * The prefixes starting with a digit, "_" or "-" are not valid Turtle prefixes: they are not declared
+	 */
+	public void testTurtleWriterInvalidPrefixes() throws Exception {
+		OntopSQLOWLAPIConfiguration configuration = OntopSQLOWLAPIConfiguration.defaultBuilder()
+				.ontologyFile("src/test/resources/materializer/MaterializeTest.owl")
+				.nativeOntopMappingFile(new File("src/test/resources/materializer/MaterializeTest.obda"))
+				.jdbcUrl(url)
+				.jdbcUser(username)
+				.jdbcPassword(password)
+				.enableTestMode()
+				.build();
+		String namespace = "http://www.semanticweb.org/ontologies/MaterializeTest.owl#";
+		ImmutableMap<String, String> prefixes = ImmutableMap.of(
+				"1m:", namespace,
+				"_m:", namespace,
+				"-i:", namespace + "id/",
+				"i-1:", namespace + "id/");
+
+		Model model = Rio.parse(new ByteArrayInputStream(write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.NTRIPLES))), "", RDFFormat.NTRIPLES);
+
+		byte[] turtle = write(configuration, MaterializedGraphWriter.defaultBuilder(
+				MaterializedGraphWriter.Format.TURTLE)
+				.prefixes(prefixes));
+		String turtleString = new String(turtle, StandardCharsets.UTF_8);
+		assertTrue(turtleString.startsWith("@prefix i-1: <" + namespace + "id/> .\n\n"));
+		assertEquals(model, Rio.parse(new ByteArrayInputStream(turtle), "", RDFFormat.TURTLE));
+	}
+
+	private static byte[] write(OntopSQLOWLAPIConfiguration configuration,
+								MaterializedGraphWriter.Builder<?> writerBuilder) throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		OntopRDFMaterializer materializer = OntopRDFMaterializer.defaultMaterializer();
+		try (MaterializedGraphResultSet resultSet = materializer.materialize(configuration,
+				MaterializationParams.defaultBuilder().build());
+			 MaterializedGraphWriter writer = writerBuilder.build(outputStream)) {
+			assertEquals(51, writer.write(resultSet));
+		}
+		return outputStream.toByteArray();
+	}
+
+	private static List<String> materialize(OntopSQLOWLAPIConfiguration configuration, MaterializationParams params)
+			throws Exception {
+		OntopRDFMaterializer materializer = OntopRDFMaterializer.defaultMaterializer();
+		List<String> assertions = new ArrayList<>();
+		try (MaterializedGraphResultSet resultSet = materializer.materialize(configuration, params)) {
+			while (resultSet.hasNext())
+				assertions.add(resultSet.next().toString());
+
+			assertEquals(assertions.size(), resultSet.getTripleCountSoFar());
+			long fetched = 0;
+			for (PredicateMaterializationStatistics statistics : resultSet.getPredicateStatisticsSoFar()) {
+				assertTrue(statistics.isCompleted());
+				fetched += statistics.getTripleCount();
+			}
+			assertEquals(assertions.size(), fetched);
+			assertEquals(resultSet.getSelectedVocabulary().size(), resultSet.getPredicateStatisticsSoFar().size());
+		}
+		return assertions;
+	}
 }
@@ -2,10 +2,13 @@ package it.unibz.inf.ontop.injection;
 
 
 import it.unibz.inf.ontop.dbschema.DBMetadata;
+import it.unibz.inf.ontop.exception.OBDASpecificationException;
 import it.unibz.inf.ontop.injection.impl.OntopMappingConfigurationImpl;
 import it.unibz.inf.ontop.spec.mapping.TMappingExclusionConfig;
 
 import javax.annotation.Nonnull;
+import java.io.File;
+import java.io.IOException;
 import java.util.Optional;
 
 public interface OntopMappingConfiguration extends OntopOBDAConfiguration, OntopOptimizationConfiguration {
@@ -15,6 +18,13 @@ public interface OntopMappingConfiguration extends OntopOBDAConfiguration, Ontop
     @Override
     OntopMappingSettings getSettings();
 
+    /**
+     * Compiles the OBDA specification and saves it into a binary file.
+     *
+     * This file can then be given to the configuration builder (see compiledSpecificationFile(...))
+     * in order to skip the extraction of the specification, as long as the inputs remain the same.
+     */
+    void saveCompiledSpecification(@Nonnull File file) throws OBDASpecificationException, IOException;
 
 
     static Builder<? extends Builder> defaultBuilder() {
@@ -36,6 +46,11 @@ public interface OntopMappingConfiguration extends OntopOBDAConfiguration, Ontop
 
         B enableDefaultDatatypeInference(boolean inferDefaultDatatype);
 
+        /**
+         * See OntopMappingSettings.getCompiledSpecificationFile()
+         */
+        B compiledSpecificationFile(@Nonnull File file);
+
     }
 
     interface Builder<B extends Builder<B>> extends OntopMappingBuilderFragment<B>, OntopOBDAConfiguration.Builder<B>,
@@ -1,5 +1,7 @@
 package it.unibz.inf.ontop.injection;
 
+import java.util.Optional;
+
 
 public interface OntopMappingSettings extends OntopOBDASettings, OntopOptimizationSettings {
 
@@ -36,6 +38,20 @@ public interface OntopMappingSettings extends OntopOBDASettings, OntopOptimizati
      */
     boolean isCanIRIComplete();
 
+    /**
+     * Binary file containing a previously compiled OBDA specification.
+     *
+     * Used instead of extracting the specification again if it has been compiled from the same inputs
+     * (mapping, ontology, constraint files and settings).
+     */
+    Optional<String> getCompiledSpecificationFile();
+
+    /**
+     * Number of threads saturating the mapping with the ontology (T-mappings).
+     * The classes and properties are then saturated in parallel (1: sequential saturation).
+     */
+    int getTMappingSaturationThreads();
+
     //--------------------------
     // Keys
     //--------------------------
@@ -45,6 +61,8 @@ public interface OntopMappingSettings extends OntopOBDASettings, OntopOptimizati
     String COMPLETE_PROVIDED_METADATA = "ontop.completeProvidedMetadata";
     String INFER_DEFAULT_DATATYPE = "ontop.inferDefaultDatatype";
     String IS_CANONICAL_IRI_COMPLETE = "ontop.isCanonicalIRIComplete";
+    String COMPILED_SPECIFICATION_FILE = "ontop.compiledSpecificationFile";
+    String TMAPPING_SATURATION_THREADS = "ontop.tmappingSaturation.threads";
 
 
     /**
@@ -1,10 +1,14 @@
 package it.unibz.inf.ontop.injection.impl;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
 import com.google.inject.Injector;
 import com.google.inject.Module;
 import it.unibz.inf.ontop.dbschema.DBMetadata;
 import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
+import it.unibz.inf.ontop.exception.MappingIOException;
+import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
 import it.unibz.inf.ontop.exception.MissingInputMappingException;
 import it.unibz.inf.ontop.exception.OBDASpecificationException;
 import it.unibz.inf.ontop.injection.OntopMappingConfiguration;
@@ -16,22 +20,29 @@ import it.unibz.inf.ontop.iq.proposal.QueryOptimizationProposal;
 import it.unibz.inf.ontop.spec.OBDASpecInput;
 import it.unibz.inf.ontop.spec.OBDASpecification;
 import it.unibz.inf.ontop.spec.OBDASpecificationExtractor;
+import it.unibz.inf.ontop.spec.OBDASpecificationSerializer;
 import it.unibz.inf.ontop.spec.mapping.TMappingExclusionConfig;
 import it.unibz.inf.ontop.spec.mapping.pp.PreProcessedMapping;
 import it.unibz.inf.ontop.spec.ontology.Ontology;
 import org.apache.commons.rdf.api.Graph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
-import java.io.File;
-import java.io.Reader;
-import java.util.Optional;
-import java.util.Properties;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
 
 public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl implements OntopMappingConfiguration {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(OntopMappingConfigurationImpl.class);
+
     private final OntopMappingSettings settings;
     private final OntopMappingOptions options;
     private final OntopOptimizationConfigurationImpl optimizationConfiguration;
@@ -75,13 +86,17 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
         return internalExecutorMapBuilder.build();
     }
 
+    @Override
+    protected final OBDASpecification loadOBDASpecification() throws OBDASpecificationException {
+        return loadChecksummedSpecification().specification;
+    }
+
     /**
      * Can be overloaded.
-     * However, the expected usage is to use the other method loadSpecification(...).
+     * However, the expected usage is to use the other method loadChecksummedSpecification(...).
      */
-    @Override
-    protected OBDASpecification loadOBDASpecification() throws OBDASpecificationException {
-        return loadSpecification(
+    ChecksummedSpecification loadChecksummedSpecification() throws OBDASpecificationException {
+        return loadChecksummedSpecification(
                 Optional::empty,
                 Optional::empty,
                 Optional::empty,
@@ -91,27 +106,62 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
                 );
     }
 
-    OBDASpecification loadSpecification(OntologySupplier ontologySupplier,
+    ChecksummedSpecification loadChecksummedSpecification(OntologySupplier ontologySupplier,
                                                   Supplier<Optional<PreProcessedMapping>> ppMappingSupplier,
                                                   Supplier<Optional<File>> mappingFileSupplier,
                                                   Supplier<Optional<Reader>> mappingReaderSupplier,
                                                   Supplier<Optional<Graph>> mappingGraphSupplier,
                                                   Supplier<Optional<File>> constraintFileSupplier
                                                   ) throws OBDASpecificationException {
+        Optional<PreProcessedMapping> optionalPPMapping = ppMappingSupplier.get();
+        Optional<File> optionalMappingFile = mappingFileSupplier.get();
+        Optional<Reader> optionalMappingReader = mappingReaderSupplier.get();
+        Optional<Graph> optionalMappingGraph = mappingGraphSupplier.get();
+        Optional<File> optionalConstraintFile = constraintFileSupplier.get();
+
+        /*
+         * Compiled specification (only when all the inputs are files)
+         */
+        Optional<String> inputChecksum = (optionalPPMapping.isPresent() || optionalMappingReader.isPresent()
+                || optionalMappingGraph.isPresent() || options.dbMetadata.isPresent())
+                ? Optional.empty()
+                : computeInputChecksum(optionalMappingFile, optionalConstraintFile);
+
+        Optional<File> compiledSpecificationFile = settings.getCompiledSpecificationFile()
+                .map(File::new);
+        if (compiledSpecificationFile.isPresent() && inputChecksum.isPresent()) {
+            Optional<OBDASpecification> compiledSpecification = loadCompiledSpecification(
+                    compiledSpecificationFile.get(), inputChecksum.get());
+            if (compiledSpecification.isPresent())
+                return new ChecksummedSpecification(compiledSpecification.get(), inputChecksum);
+        }
+
+        return new ChecksummedSpecification(
+                extractSpecification(ontologySupplier, optionalPPMapping, optionalMappingFile, optionalMappingReader,
+                        optionalMappingGraph, optionalConstraintFile),
+                inputChecksum);
+    }
+
+    private OBDASpecification extractSpecification(OntologySupplier ontologySupplier,
+                                                   Optional<PreProcessedMapping> optionalPPMapping,
+                                                   Optional<File> optionalMappingFile,
+                                                   Optional<Reader> optionalMappingReader,
+                                                   Optional<Graph> optionalMappingGraph,
+                                                   Optional<File> optionalConstraintFile)
+            throws OBDASpecificationException {
+
         OBDASpecificationExtractor extractor = getInjector().getInstance(OBDASpecificationExtractor.class);
 
         Optional<Ontology> optionalOntology = ontologySupplier.get();
         Optional<DBMetadata> optionalMetadata = options.dbMetadata;
 
-        /*
-         * Pre-processed mapping
-         */
-        Optional<PreProcessedMapping> optionalPPMapping = ppMappingSupplier.get();
-
         OBDASpecInput.Builder specInputBuilder = OBDASpecInput.defaultBuilder();
-        constraintFileSupplier.get()
+        optionalConstraintFile
                 .ifPresent(specInputBuilder::addConstraintFile);
 
+        /*
+         * Pre-processed mapping
+         */
         if (optionalPPMapping.isPresent()) {
             PreProcessedMapping ppMapping = optionalPPMapping.get();
 
@@ -122,7 +172,6 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
         /*
          * Mapping file
          */
-        Optional<File> optionalMappingFile = mappingFileSupplier.get();
         if (optionalMappingFile.isPresent()) {
             specInputBuilder.addMappingFile(optionalMappingFile.get());
 
@@ -133,7 +182,6 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
         /*
          * Reader
          */
-        Optional<Reader> optionalMappingReader = mappingReaderSupplier.get();
         if (optionalMappingReader.isPresent()) {
             specInputBuilder.addMappingReader(optionalMappingReader.get());
 
@@ -144,7 +192,6 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
         /*
          * Graph
          */
-        Optional<Graph> optionalMappingGraph = mappingGraphSupplier.get();
         if (optionalMappingGraph.isPresent()) {
             specInputBuilder.addMappingGraph(optionalMappingGraph.get());
 
@@ -155,6 +202,121 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
         throw new MissingInputMappingException();
     }
 
+    /**
+     * Files from which the ontology is loaded.
+     *
+     * Returns empty if the ontology is not (only) given as files: the input checksum cannot be computed.
+     *
+     * Can be overloaded by sub-classes
+     */
+    protected Optional<ImmutableList<File>> getOntologyFiles() {
+        return Optional.of(ImmutableList.of());
+    }
+
+    /**
+     * SHA-256 of the settings (without the passwords), of the T-mapping exclusions and of the input files.
+     *
+     * NB: the DB schema itself is not considered (only how to connect to the DB).
+     */
+    private Optional<String> computeInputChecksum(Optional<File> mappingFile, Optional<File> constraintFile)
+            throws OBDASpecificationException {
+        Optional<ImmutableList<File>> ontologyFiles = getOntologyFiles();
+        if ((!ontologyFiles.isPresent()) || (!(settings instanceof OntopModelSettingsImpl)))
+            return Optional.empty();
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+            Properties properties = ((OntopModelSettingsImpl) settings).copyProperties();
+            SortedMap<String, String> relevantProperties = new TreeMap<>();
+            for (Map.Entry<Object, Object> entry : properties.entrySet()) {
+                String key = String.valueOf(entry.getKey());
+                if (!key.toLowerCase().endsWith("password")
+                        && !key.equals(OntopMappingSettings.COMPILED_SPECIFICATION_FILE))
+                    relevantProperties.put(key, String.valueOf(entry.getValue()));
+            }
+            for (Map.Entry<String, String> entry : relevantProperties.entrySet())
+                updateDigest(digest, entry.getKey() + "=" + entry.getValue());
+
+            if (options.excludeFromTMappings.isPresent()) {
+                TMappingExclusionConfig exclusionConfig = options.excludeFromTMappings.get();
+                updateDigest(digest, "tMappingExclusions");
+                for (String c : new TreeSet<>(exclusionConfig.getClasses()))
+                    updateDigest(digest, c);
+                updateDigest(digest, "");
+                for (String p : new TreeSet<>(exclusionConfig.getProperties()))
+                    updateDigest(digest, p);
+            }
+
+            updateDigest(digest, "mapping", mappingFile);
+            updateDigest(digest, "constraints", constraintFile);
+            for (File ontologyFile : ontologyFiles.get())
+                updateDigest(digest, "ontology", Optional.of(ontologyFile));
+
+            return Optional.of(BaseEncoding.base16().lowerCase().encode(digest.digest()));
+
+        } catch (NoSuchAlgorithmException e) {
+            throw new MinorOntopInternalBugException("SHA-256 is expected to be supported by any JVM");
+        } catch (IOException e) {
+            throw new MappingIOException(e);
+        }
+    }
+
+    private static void updateDigest(MessageDigest digest, String label, Optional<File> file) throws IOException {
+        updateDigest(digest, label);
+        if (file.isPresent())
+            digest.update(Files.readAllBytes(file.get().toPath()));
+    }
+
+    private static void updateDigest(MessageDigest digest, String s) {
+        digest.update(s.getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+    }
+
+    /**
+     * Returns empty if the compiled specification is missing, outdated or corrupted
+     */
+    private Optional<OBDASpecification> loadCompiledSpecification(File file, String checksum) {
+        if (!file.exists()) {
+            LOGGER.info("No compiled OBDA specification found at {}", file);
+            return Optional.empty();
+        }
+        OBDASpecificationSerializer serializer = getInjector().getInstance(OBDASpecificationSerializer.class);
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+            Optional<OBDASpecification> specification = serializer.deserialize(inputStream, checksum);
+            if (specification.isPresent())
+                LOGGER.info("OBDA specification loaded from {}", file);
+            else
+                LOGGER.info("The compiled OBDA specification {} is outdated. Extracting the specification again.",
+                        file);
+            return specification;
+        } catch (IOException e) {
+            LOGGER.warn("Cannot load the compiled OBDA specification {} ({}). Extracting the specification again.",
+                    file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public void saveCompiledSpecification(@Nonnull File file) throws OBDASpecificationException, IOException {
+        if (options.obdaOptions.optionalSpecification.isPresent())
+            throw new InvalidOntopConfigurationException(
+                    "Only an OBDA specification extracted from files (mapping, ontology, constraints) " +
+                            "can be compiled");
+
+        ChecksummedSpecification checksummedSpecification = loadChecksummedSpecification();
+        OBDASpecification specification = checksummedSpecification.specification;
+        String checksum = checksummedSpecification.inputChecksum
+                .orElseThrow(() -> new InvalidOntopConfigurationException(
+                        "Only an OBDA specification extracted from files (mapping, ontology, constraints) " +
+                                "can be compiled"));
+
+        OBDASpecificationSerializer serializer = getInjector().getInstance(OBDASpecificationSerializer.class);
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(file))) {
+            serializer.serialize(specification, checksum, outputStream);
+        }
+    }
+
     protected Stream<Module> buildGuiceModules() {
         return Stream.concat(
                 Stream.concat(
@@ -163,6 +325,19 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
                 Stream.of(new OntopMappingModule(this)));
     }
 
+    /**
+     * The input checksum is absent when the specification has not been extracted (only) from files
+     */
+    static class ChecksummedSpecification {
+        final OBDASpecification specification;
+        final Optional<String> inputChecksum;
+
+        ChecksummedSpecification(OBDASpecification specification, Optional<String> inputChecksum) {
+            this.specification = specification;
+            this.inputChecksum = inputChecksum;
+        }
+    }
+
     static class OntopMappingOptions {
 
         final OntopOBDAOptions obdaOptions;
@@ -191,6 +366,7 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
         private Optional<Boolean> inferDefaultDatatype =  Optional.empty();
         private Optional<DBMetadata> dbMetadata = Optional.empty();
         private Optional<TMappingExclusionConfig> excludeFromTMappings = Optional.empty();
+        private Optional<File> compiledSpecificationFile = Optional.empty();
 
         DefaultOntopMappingBuilderFragment(B builder, Runnable declareDBMetadataCB) {
             this.builder = builder;
@@ -234,6 +410,12 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
             return builder;
         }
 
+        @Override
+        public B compiledSpecificationFile(@Nonnull File file) {
+            this.compiledSpecificationFile = Optional.of(file);
+            return builder;
+        }
+
         final OntopMappingOptions generateMappingOptions(OntopOBDAOptions obdaOptions,
                                                          OntopOptimizationOptions optimizationOptions) {
             return new OntopMappingOptions(dbMetadata, excludeFromTMappings, obdaOptions, optimizationOptions);
@@ -245,6 +427,8 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
             queryingAnnotationsInOntology.ifPresent(b -> properties.put(OntopMappingSettings.QUERY_ONTOLOGY_ANNOTATIONS, b));
             completeDBMetadata.ifPresent(b -> properties.put(OntopMappingSettings.COMPLETE_PROVIDED_METADATA, b));
             inferDefaultDatatype.ifPresent(b -> properties.put(OntopMappingSettings.INFER_DEFAULT_DATATYPE, b));
+            compiledSpecificationFile.ifPresent(f -> properties.put(OntopMappingSettings.COMPILED_SPECIFICATION_FILE,
+                    f.getAbsolutePath()));
 
             return properties;
         }
@@ -301,6 +485,11 @@ public class OntopMappingConfigurationImpl extends OntopOBDAConfigurationImpl im
             return mappingBuilderFragment.dbMetadata(dbMetadata);
         }
 
+        @Override
+        public B compiledSpecificationFile(@Nonnull File file) {
+            return mappingBuilderFragment.compiledSpecificationFile(file);
+        }
+
         final OntopMappingOptions generateMappingOptions() {
             return generateMappingOptions(generateOBDAOptions());
         }
@@ -1,8 +1,10 @@
 package it.unibz.inf.ontop.injection.impl;
 
+import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.injection.OntopMappingSettings;
 import it.unibz.inf.ontop.injection.OntopOptimizationSettings;
 
+import java.util.Optional;
 import java.util.Properties;
 
 
@@ -10,10 +12,15 @@ class OntopMappingSettingsImpl extends OntopOBDASettingsImpl implements OntopMap
 
     private static final String DEFAULT_FILE = "mapping-default.properties";
     private final OntopOptimizationSettings optimizationSettings;
+    private final int tMappingSaturationThreads;
 
     OntopMappingSettingsImpl(Properties properties) {
         super(loadProperties(properties));
         optimizationSettings = new OntopOptimizationSettingsImpl(copyProperties());
+        tMappingSaturationThreads = getRequiredInteger(TMAPPING_SATURATION_THREADS);
+        if (tMappingSaturationThreads < 1)
+            throw new InvalidOntopConfigurationException("Invalid value for " + TMAPPING_SATURATION_THREADS
+                    + ": at least one thread is expected, is " + tMappingSaturationThreads);
     }
 
     private static Properties loadProperties(Properties userProperties) {
@@ -51,4 +58,14 @@ class OntopMappingSettingsImpl extends OntopOBDASettingsImpl implements OntopMap
     public boolean isCanIRIComplete() {
         return getRequiredBoolean(IS_CANONICAL_IRI_COMPLETE);
     }
+
+    @Override
+    public Optional<String> getCompiledSpecificationFile() {
+        return getProperty(COMPILED_SPECIFICATION_FILE);
+    }
+
+    @Override
+    public int getTMappingSaturationThreads() {
+        return tMappingSaturationThreads;
+    }
 }
@@ -0,0 +1,29 @@
+package it.unibz.inf.ontop.spec;
+
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Optional;
+
+/**
+ * Saves a (compiled) OBDA specification so that it can be loaded later without extracting it again.
+ *
+ * The input checksum identifies the inputs (mapping, ontology, settings, etc.) the specification has been
+ * extracted from.
+ */
+public interface OBDASpecificationSerializer {
+
+    void serialize(@Nonnull OBDASpecification specification, @Nonnull String inputChecksum,
+                   @Nonnull OutputStream outputStream) throws IOException;
+
+    /**
+     * Returns empty if the serialized specification is outdated, that is if it has been produced from other inputs
+     * (different checksum) or by another version of the serializer.
+     *
+     * Throws an IOException (e.g. InvalidObjectException) if the stream is corrupted.
+     */
+    Optional<OBDASpecification> deserialize(@Nonnull InputStream inputStream, @Nonnull String expectedInputChecksum)
+            throws IOException;
+}
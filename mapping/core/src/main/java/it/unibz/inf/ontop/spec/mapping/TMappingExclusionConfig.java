@@ -28,6 +28,14 @@ public class TMappingExclusionConfig {
         this.properties = properties;
     }
 
+    public Set<String> getClasses() {
+        return Collections.unmodifiableSet(classes);
+    }
+
+    public Set<String> getProperties() {
+        return Collections.unmodifiableSet(properties);
+    }
+
     public boolean contains(OClass cls){
         return classes.contains(cls.getName());
     }
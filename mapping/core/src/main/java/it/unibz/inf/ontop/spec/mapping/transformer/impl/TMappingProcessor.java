@@ -21,12 +21,16 @@ package it.unibz.inf.ontop.spec.mapping.transformer.impl;
  */
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.Inject;
 import it.unibz.inf.ontop.datalog.CQIE;
 import it.unibz.inf.ontop.datalog.DatalogFactory;
 import it.unibz.inf.ontop.datalog.EQNormalizer;
+import it.unibz.inf.ontop.datalog.LinearInclusionDependency;
 import it.unibz.inf.ontop.datalog.impl.CQContainmentCheckUnderLIDs;
 import it.unibz.inf.ontop.exception.MinorOntopInternalBugException;
+import it.unibz.inf.ontop.injection.OntopMappingSettings;
 import it.unibz.inf.ontop.model.atom.AtomFactory;
 import it.unibz.inf.ontop.model.atom.AtomPredicate;
 import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
@@ -34,6 +38,7 @@ import it.unibz.inf.ontop.model.term.ImmutableTerm;
 import it.unibz.inf.ontop.model.term.TermFactory;
 import it.unibz.inf.ontop.model.term.Function;
 import it.unibz.inf.ontop.model.term.Term;
+import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
 import it.unibz.inf.ontop.model.term.impl.ImmutabilityTools;
 import it.unibz.inf.ontop.spec.mapping.TMappingExclusionConfig;
 import it.unibz.inf.ontop.spec.ontology.ClassExpression;
@@ -50,33 +55,95 @@ import it.unibz.inf.ontop.substitution.impl.SubstitutionUtilities;
 import it.unibz.inf.ontop.utils.ImmutableCollectors;
 import org.apache.commons.rdf.api.IRI;
 
+import javax.annotation.Nullable;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.StreamSupport;
 
 public class TMappingProcessor {
 
 	// TODO: the implementation of EXCLUDE ignores equivalent classes / properties
 
 	private class TMappingIndexEntry implements Iterable<TMappingRule> {
-		private final List<TMappingRule> rules = new LinkedList<>();
+		// the rules, in their insertion order
+		private final SortedMap<Integer, TMappingRule> rules = new TreeMap<>();
+		// positions of the rules, indexed by the predicates of their database atoms
+		private final Map<ImmutableSet<Predicate>, SortedSet<Integer>> signatureIndex = new HashMap<>();
+		private final Map<ImmutableSet<Predicate>, Set<Predicate>> chasedSignatures = new HashMap<>();
+		private final ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies;
+		private int nextPosition = 0;
+
+		private TMappingIndexEntry(ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies) {
+			this.dependencies = dependencies;
+		}
 
 		public TMappingIndexEntry copyOf(IRI newPredicate) {
-			TMappingIndexEntry copy = new TMappingIndexEntry();
-			for (TMappingRule rule : rules) {
+			TMappingIndexEntry copy = new TMappingIndexEntry(dependencies);
+			for (TMappingRule rule : rules.values()) {
 				List<Term> headTerms = rule.getHeadTerms();
 				Function newHead = rule.isClass()
 						? atomFactory.getMutableTripleHeadAtom(headTerms.get(0), newPredicate)
 						: atomFactory.getMutableTripleHeadAtom(headTerms.get(0), newPredicate, headTerms.get(2));
 				TMappingRule newRule = new TMappingRule(newHead, rule, datalogFactory, termFactory, eqNormalizer,
 						rule.isClass());
-				copy.rules.add(newRule);
+				copy.add(newRule);
 			}
 			return copy;
 		}
 
 		@Override
 		public Iterator<TMappingRule> iterator() {
-			return rules.iterator();
+			return rules.values().iterator();
+		}
+
+		private void add(TMappingRule rule) {
+			int position = nextPosition++;
+			rules.put(position, rule);
+			signatureIndex.computeIfAbsent(rule.getDatabasePredicates(), s -> new TreeSet<>()).add(position);
+		}
+
+		private void remove(int position) {
+			ImmutableSet<Predicate> signature = rules.remove(position).getDatabasePredicates();
+			SortedSet<Integer> positions = signatureIndex.get(signature);
+			positions.remove(position);
+			if (positions.isEmpty())
+				signatureIndex.remove(signature);
+		}
+
+		/**
+		 * Positions (in the insertion order) of the rules that can be compared with the new rule.
+		 *
+		 * A homomorphism from a rule into another one requires all the predicates of the first rule
+		 * to occur in the (one-step) chase of the second one. The other rules are left untouched
+		 * by mergeMappingsWithCQC, so they can be skipped.
+		 */
+		private SortedSet<Integer> getCandidatePositions(TMappingRule newRule) {
+			ImmutableSet<Predicate> newSignature = newRule.getDatabasePredicates();
+			Set<Predicate> newChasedSignature = getChasedSignature(newSignature);
+
+			SortedSet<Integer> candidates = new TreeSet<>();
+			for (Entry<ImmutableSet<Predicate>, SortedSet<Integer>> e : signatureIndex.entrySet()) {
+				if (newChasedSignature.containsAll(e.getKey())
+						|| getChasedSignature(e.getKey()).containsAll(newSignature))
+					candidates.addAll(e.getValue());
+			}
+			return candidates;
+		}
+
+		private Set<Predicate> getChasedSignature(ImmutableSet<Predicate> signature) {
+			return chasedSignatures.computeIfAbsent(signature, s -> {
+				Set<Predicate> chased = new HashSet<>(s);
+				for (Predicate p : s)
+					for (LinearInclusionDependency d : dependencies.get(p))
+						chased.add(d.getHead().getFunctionSymbol());
+				return chased;
+			});
 		}
 
 		/***
@@ -130,23 +197,22 @@ public class TMappingProcessor {
 			
 			// Facts are just added
 			if (newRule.isFact()) {
-				rules.add(newRule);
+				add(newRule);
 				return;
 			}
 		
 			if (noCQC) {
-				for (TMappingRule r : rules)
+				for (TMappingRule r : rules.values())
 					if (r.equals(newRule))
 						return;
 				
-				rules.add(newRule);
+				add(newRule);
 				return;
 			}
 			
-			Iterator<TMappingRule> mappingIterator = rules.iterator();
-			while (mappingIterator.hasNext()) {
+			for (int position : getCandidatePositions(newRule)) {
 
-				TMappingRule currentRule = mappingIterator.next(); 
+				TMappingRule currentRule = rules.get(position);
 				// ROMAN (14 Oct 2015): quick fix, but one has to be more careful with variables in filters
 				if (currentRule.equals(newRule))
 					return;
@@ -168,7 +234,7 @@ public class TMappingProcessor {
 				if ((fromNewRule != null) && checkConditions(currentRule, newRule, fromNewRule)) {		
 					// The existing query is more specific than the new query, so we
 					// need to add the new query and remove the old	 
-					mappingIterator.remove();
+					remove(position);
 					continue;
 				} 
 				
@@ -219,14 +285,14 @@ public class TMappingProcessor {
 
 					filterAtoms.add(newconditions);	
 					
-	                mappingIterator.remove();
+	                remove(position);
 	                
 					newRule = new TMappingRule(currentRule, filterAtoms, datalogFactory, termFactory, eqNormalizer);
 
 					break;
 				}				
 			}
-			rules.add(newRule);
+			add(newRule);
 		}
 		
 		private boolean checkConditions(TMappingRule rule1, TMappingRule rule2, Substitution toRule1) {
@@ -256,17 +322,19 @@ public class TMappingProcessor {
 	private final SubstitutionUtilities substitutionUtilities;
 	private final EQNormalizer eqNormalizer;
 	private final ImmutabilityTools immutabilityTools;
+	private final int saturationThreads;
 
 	@Inject
 	private TMappingProcessor(AtomFactory atomFactory, TermFactory termFactory, DatalogFactory datalogFactory,
 							  SubstitutionUtilities substitutionUtilities, EQNormalizer eqNormalizer,
-							  ImmutabilityTools immutabilityTools) {
+							  ImmutabilityTools immutabilityTools, OntopMappingSettings settings) {
 		this.atomFactory = atomFactory;
 		this.termFactory = termFactory;
 		this.datalogFactory = datalogFactory;
 		this.substitutionUtilities = substitutionUtilities;
 		this.eqNormalizer = eqNormalizer;
 		this.immutabilityTools = immutabilityTools;
+		this.saturationThreads = settings.getTMappingSaturationThreads();
 	}
 
 	/**
@@ -278,24 +346,14 @@ public class TMappingProcessor {
 	private void getObjectTMappings(Map<IRI, TMappingIndexEntry> mappingIndex,
 			Map<IRI, List<TMappingRule>> originalMappings,
 			EquivalencesDAG<ObjectPropertyExpression> dag,
-			TMappingExclusionConfig excludeFromTMappings) {
-
-		for (Equivalences<ObjectPropertyExpression> propertySet : dag) {
-
-			ObjectPropertyExpression representative = propertySet.getRepresentative();
-			if (representative.isInverse())
-				continue;
-
-			if (excludeFromTMappings.contains(representative)) {
-				continue;
-			}
-
-			/* Getting the current node mappings */
-			IRI currentPredicate = representative.getIRI();
-			TMappingIndexEntry currentNodeMappings = getMappings(mappingIndex, currentPredicate);	
-
-			for (Equivalences<ObjectPropertyExpression> descendants : dag.getSub(propertySet)) {
-				for(ObjectPropertyExpression childproperty : descendants) {
+			TMappingExclusionConfig excludeFromTMappings,
+			ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies,
+			@Nullable ExecutorService executor) {
+
+		saturate(mappingIndex, dag,
+				p -> p.isInverse() ? Optional.empty() : Optional.of(p.getIRI()),
+				excludeFromTMappings::contains,
+				(currentNodeMappings, currentPredicate, childproperty) -> {
 					/*
 					 * adding the mappings of the children as own mappings, the new
 					 * mappings use the current predicate instead of the child's
@@ -304,28 +362,20 @@ public class TMappingProcessor {
 					 */
 					List<TMappingRule> childmappings = originalMappings.get(childproperty.getIRI());
 					if (childmappings == null)
-						continue;
-					
+						return;
+
 					for (TMappingRule childmapping : childmappings) {
 						List<Term> terms = childmapping.getHeadTerms();
 						Function newMappingHead = !childproperty.isInverse()
-								? atomFactory.getMutableTripleHeadAtom(terms.get(0), currentPredicate, terms.get(2))
-								: atomFactory.getMutableTripleHeadAtom(terms.get(2), currentPredicate, terms.get(0));
+								? atomFactory.getMutableTripleHeadAtom(terms.get(0).clone(), currentPredicate, terms.get(2).clone())
+								: atomFactory.getMutableTripleHeadAtom(terms.get(2).clone(), currentPredicate, terms.get(0).clone());
 
 						TMappingRule newmapping = new TMappingRule(newMappingHead, childmapping, datalogFactory,
 								termFactory, eqNormalizer, false);
 						currentNodeMappings.mergeMappingsWithCQC(newmapping);
 					}
-				}
-			}
-
-			/* Setting up mappings for the equivalent classes */
-			for (ObjectPropertyExpression equivProperty : propertySet) {
-				if (!equivProperty.isInverse())
-					setMappings(mappingIndex, equivProperty.getIRI(), currentNodeMappings);
-			}
-		} // Properties loop ended
-		
+				},
+				dependencies, executor);
 	}
 
 	/**
@@ -337,51 +387,185 @@ public class TMappingProcessor {
 	private void getDataTMappings(Map<IRI, TMappingIndexEntry> mappingIndex,
 			Map<IRI, List<TMappingRule>> originalMappings,
 			EquivalencesDAG<DataPropertyExpression> dag,
-			TMappingExclusionConfig excludeFromTMappings) {
-		
-		for (Equivalences<DataPropertyExpression> propertySet : dag) {
-			DataPropertyExpression representative = propertySet.getRepresentative();
+			TMappingExclusionConfig excludeFromTMappings,
+			ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies,
+			@Nullable ExecutorService executor) {
+
+		saturate(mappingIndex, dag,
+				p -> Optional.of(p.getIRI()),
+				excludeFromTMappings::contains,
+				(currentNodeMappings, currentPredicate, childproperty) -> {
+					List<TMappingRule> childmappings = originalMappings.get(childproperty.getIRI());
+					if (childmappings == null)
+						return;
 
-			if (excludeFromTMappings.contains(representative)) {
-				continue;
-			}
-			/* Getting the current node mappings */
-			IRI currentPredicate = representative.getIRI();
-			TMappingIndexEntry currentNodeMappings = getMappings(mappingIndex, currentPredicate);
+					for (TMappingRule childmapping : childmappings) {
+						List<Term> terms = childmapping.getHeadTerms();
 
-			for (Equivalences<DataPropertyExpression> descendants : dag.getSub(propertySet)) {
-				for(DataPropertyExpression childproperty : descendants) {
+						Function newMappingHead = atomFactory.getMutableTripleHeadAtom(terms.get(0).clone(),
+								currentPredicate, terms.get(2).clone());
+						TMappingRule newmapping = new TMappingRule(newMappingHead, childmapping, datalogFactory,
+								termFactory, eqNormalizer, false);
+						currentNodeMappings.mergeMappingsWithCQC(newmapping);
+					}
+				},
+				dependencies, executor);
+	}
 
-					/*
-					 * adding the mappings of the children as own mappings, the new
-					 * mappings use the current predicate instead of the child's
-					 * predicate and, if the child is inverse and the current is
-					 * positive, it will also invert the terms in the head
+	/**
+	 * constructs the TMappings for classes using DAG
+	 * @param mappingIndex
+	 * @param originalMappings
+	 * @param dag
+	 */
+	private void getClassTMappings(Map<IRI, TMappingIndexEntry> mappingIndex,
+			Map<IRI, List<TMappingRule>> originalMappings,
+			EquivalencesDAG<ClassExpression> dag,
+			TMappingExclusionConfig excludeFromTMappings,
+			ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies,
+			@Nullable ExecutorService executor) {
+
+		saturate(mappingIndex, dag,
+				c -> (c instanceof OClass) ? Optional.of(((OClass) c).getIRI()) : Optional.empty(),
+				c -> excludeFromTMappings.contains((OClass) c),
+				(currentNodeMappings, currentPredicate, childDescription) -> {
+					/* adding the mappings of the children as own mappings, the new
+					 * mappings. There are three cases, when the child is a named
+					 * class, or when it is an \exists P or \exists \inv P.
 					 */
-					List<TMappingRule> childmappings = originalMappings.get(childproperty.getIRI());
+
+					final int arg;
+					final IRI childPredicate;
+					if (childDescription instanceof OClass) {
+						childPredicate = ((OClass) childDescription).getIRI();
+						arg = 0;
+					}
+					else if (childDescription instanceof ObjectSomeValuesFrom) {
+						ObjectPropertyExpression some = ((ObjectSomeValuesFrom) childDescription).getProperty();
+						childPredicate = some.getIRI();
+						arg = some.isInverse() ? 2 : 0;
+					}
+					else {
+						assert (childDescription instanceof DataSomeValuesFrom);
+						DataPropertyExpression some = ((DataSomeValuesFrom) childDescription).getProperty();
+						childPredicate = some.getIRI();
+						arg = 0; // can never be an inverse
+					}
+
+					List<TMappingRule> childmappings = originalMappings.get(childPredicate);
 					if (childmappings == null)
-						continue;
+						return;
 
 					for (TMappingRule childmapping : childmappings) {
 						List<Term> terms = childmapping.getHeadTerms();
-
-						Function newMappingHead = atomFactory.getMutableTripleHeadAtom(terms.get(0), currentPredicate,
-								terms.get(2));
+						Function newMappingHead = atomFactory.getMutableTripleHeadAtom(terms.get(arg).clone(), currentPredicate);
 						TMappingRule newmapping = new TMappingRule(newMappingHead, childmapping, datalogFactory,
-								termFactory, eqNormalizer, false);
+								termFactory, eqNormalizer, true);
 						currentNodeMappings.mergeMappingsWithCQC(newmapping);
 					}
-				}
-			}
+				},
+				dependencies, executor);
+	}
+
+	/**
+	 * Saturates the named nodes of the DAG that are not excluded.
+	 *
+	 * The nodes are processed in parallel if an executor is given: the saturation of a node only reads
+	 * the original mappings and modifies its own index entry. The index is then updated sequentially, in the order
+	 * of the DAG, so the result is the same as with a sequential saturation.
+	 *
+	 * The terms of the original mappings are cloned before being used in new atoms (constructing a mutable atom
+	 * registers it as a listener of its arguments).
+	 */
+	private <T> void saturate(Map<IRI, TMappingIndexEntry> mappingIndex, EquivalencesDAG<T> dag,
+							  java.util.function.Function<T, Optional<IRI>> iriExtractor,
+							  java.util.function.Predicate<T> isExcluded,
+							  ChildMappingsMerger<T> childMappingsMerger,
+							  ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies,
+							  @Nullable ExecutorService executor) {
+
+		ImmutableList<Equivalences<T>> nodes = StreamSupport.stream(dag.spliterator(), false)
+				.filter(n -> iriExtractor.apply(n.getRepresentative()).isPresent())
+				.filter(n -> !isExcluded.test(n.getRepresentative()))
+				.collect(ImmutableCollectors.toList());
+
+		// Computed beforehand: the DAG caches the descendants in a non-thread-safe manner
+		ImmutableList<Set<Equivalences<T>>> nodeDescendants = nodes.stream()
+				.map(dag::getSub)
+				.collect(ImmutableCollectors.toList());
+
+		List<Supplier<TMappingIndexEntry>> tasks = new ArrayList<>(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			Equivalences<T> node = nodes.get(i);
+			Set<Equivalences<T>> descendants = nodeDescendants.get(i);
+			tasks.add(() -> {
+				/* Getting the current node mappings */
+				IRI currentPredicate = iriExtractor.apply(node.getRepresentative()).get();
+				TMappingIndexEntry currentNodeMappings = Optional.ofNullable(mappingIndex.get(currentPredicate))
+						.orElseGet(() -> new TMappingIndexEntry(dependencies));
+
+				for (Equivalences<T> descendant : descendants)
+					for (T child : descendant)
+						childMappingsMerger.merge(currentNodeMappings, currentPredicate, child);
+				return currentNodeMappings;
+			});
+		}
+		List<TMappingIndexEntry> saturatedEntries = run(tasks, executor);
+
+		for (int i = 0; i < nodes.size(); i++) {
+			Equivalences<T> node = nodes.get(i);
+			TMappingIndexEntry currentNodeMappings = saturatedEntries.get(i);
+			mappingIndex.put(iriExtractor.apply(node.getRepresentative()).get(), currentNodeMappings);
 
 			/* Setting up mappings for the equivalent classes */
-			for (DataPropertyExpression equivProperty : propertySet) {
-				setMappings(mappingIndex, equivProperty.getIRI(), currentNodeMappings);
-			}
-		} // Properties loop ended
-		
+			for (T equivalent : node)
+				iriExtractor.apply(equivalent)
+						.ifPresent(iri -> setMappings(mappingIndex, iri, currentNodeMappings));
+		}
+	}
+
+	/**
+	 * Runs the tasks (on the executor, if any) and returns their results in the order of the tasks
+	 */
+	private static <R> List<R> run(List<Supplier<R>> tasks, @Nullable ExecutorService executor) {
+		List<R> results = new ArrayList<>(tasks.size());
+		if (executor == null) {
+			for (Supplier<R> task : tasks)
+				results.add(task.get());
+			return results;
+		}
+
+		List<Future<R>> futures = new ArrayList<>(tasks.size());
+		for (Supplier<R> task : tasks)
+			futures.add(executor.submit(task::get));
+		try {
+			for (Future<R> future : futures)
+				results.add(future.get());
+		}
+		catch (ExecutionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException)
+				throw (RuntimeException) cause;
+			if (cause instanceof Error)
+				throw (Error) cause;
+			throw new MinorOntopInternalBugException("Unexpected exception during the T-mapping saturation: " + cause);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted during the T-mapping saturation", e);
+		}
+		finally {
+			for (Future<R> future : futures)
+				future.cancel(true);
+		}
+		return results;
 	}
-	
+
+	@FunctionalInterface
+	private interface ChildMappingsMerger<T> {
+		void merge(TMappingIndexEntry currentNodeMappings, IRI currentPredicate, T child);
+	}
+
 	/**
 	 * constructs the TMappings using DAG
 	 * @param originalMappings
@@ -398,6 +582,9 @@ public class TMappingProcessor {
 		
 		if (excludeFromTMappings == null)
 			throw new NullPointerException("excludeFromTMappings");
+
+		ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies =
+				Optional.ofNullable(cqc.dependencies()).orElseGet(ImmutableMultimap::of);
 		
 		Map<IRI, TMappingIndexEntry> mappingIndex = new HashMap<>();
 
@@ -442,7 +629,7 @@ public class TMappingProcessor {
 			}
 			ms.add(rule);
 						
-			TMappingIndexEntry set = getMappings(mappingIndex, ruleIndex);
+			TMappingIndexEntry set = getMappings(mappingIndex, ruleIndex, dependencies);
 			set.mergeMappingsWithCQC(rule);
 		}
 		if (printouts)
@@ -459,75 +646,25 @@ public class TMappingProcessor {
 		 * the TMappings specification.
 		 */
 
-		getObjectTMappings(mappingIndex, originalMappingIndex, reasoner.objectPropertiesDAG(), excludeFromTMappings);
-		getDataTMappings(mappingIndex, originalMappingIndex, reasoner.dataPropertiesDAG(), excludeFromTMappings);
+		// Dedicated threads, stopped once the T-mappings are computed
+		ExecutorService executor = createSaturationExecutor();
+		try {
+			getObjectTMappings(mappingIndex, originalMappingIndex, reasoner.objectPropertiesDAG(), excludeFromTMappings,
+					dependencies, executor);
+			getDataTMappings(mappingIndex, originalMappingIndex, reasoner.dataPropertiesDAG(), excludeFromTMappings,
+					dependencies, executor);
 
-		/*
-		 * Property t-mappings are done, we now continue with class t-mappings.
-		 */
-
-		for (Equivalences<ClassExpression> classSet : reasoner.classesDAG()) {
-
-			if (!(classSet.getRepresentative() instanceof OClass))
-				continue;
+			/*
+			 * Property t-mappings are done, we now continue with class t-mappings.
+			 */
 
-			OClass representative = (OClass)classSet.getRepresentative();
-
-			if (excludeFromTMappings.contains(representative)) {
-				continue;
-			}
-
-			/* Getting the current node mappings */
-			IRI currentPredicate = representative.getIRI();
-			TMappingIndexEntry currentNodeMappings = getMappings(mappingIndex, currentPredicate);
-
-			for (Equivalences<ClassExpression> descendants : reasoner.classesDAG().getSub(classSet)) {
-				for (ClassExpression childDescription : descendants) {
-
-                    /* adding the mappings of the children as own mappings, the new
-					 * mappings. There are three cases, when the child is a named
-					 * class, or when it is an \exists P or \exists \inv P. 
-					 */
-					
-					final int arg;
-					final IRI childPredicate;
-					if (childDescription instanceof OClass) {
-						childPredicate = ((OClass) childDescription).getIRI();
-						arg = 0;
-					}
-					else if (childDescription instanceof ObjectSomeValuesFrom) {
-						ObjectPropertyExpression some = ((ObjectSomeValuesFrom) childDescription).getProperty();
-						childPredicate = some.getIRI();
-						arg = some.isInverse() ? 2 : 0;
-					} 
-					else {
-						assert (childDescription instanceof DataSomeValuesFrom);
-						DataPropertyExpression some = ((DataSomeValuesFrom) childDescription).getProperty();
-						childPredicate = some.getIRI();
-						arg = 0; // can never be an inverse
-					} 
-					
-					List<TMappingRule> childmappings = originalMappingIndex.get(childPredicate);
-					if (childmappings == null)
-						continue;
-					
-					for (TMappingRule childmapping : childmappings) {
-						List<Term> terms = childmapping.getHeadTerms();
-						Function newMappingHead = atomFactory.getMutableTripleHeadAtom(terms.get(arg), currentPredicate);
-						TMappingRule newmapping = new TMappingRule(newMappingHead, childmapping, datalogFactory,
-								termFactory, eqNormalizer, true);
-						currentNodeMappings.mergeMappingsWithCQC(newmapping);
-					}
-				}
-			}
-
-			/* Setting up mappings for the equivalent classes */
-			for (ClassExpression equiv : classSet) {
-				if (equiv instanceof OClass)
-					setMappings(mappingIndex, ((OClass) equiv).getIRI(), currentNodeMappings);
-			}
+			getClassTMappings(mappingIndex, originalMappingIndex, reasoner.classesDAG(), excludeFromTMappings,
+					dependencies, executor);
+		}
+		finally {
+			if (executor != null)
+				executor.shutdownNow();
 		}
-		
 
 		List<CQIE> tmappingsProgram = new LinkedList<>();
 		for (Entry<IRI, TMappingIndexEntry> entry : mappingIndex.entrySet()) {
@@ -564,7 +701,7 @@ public class TMappingProcessor {
 				for (IRI p : frequences.get(idx)) {
 					TMappingIndexEntry e = 	mappingIndex.get(p);
 					System.out.println(p + " " + e.rules.size());
-					for (TMappingRule r : e.rules) 
+					for (TMappingRule r : e) 
 						System.out.println("    " + r.asCQIE());
 				}
 			}
@@ -580,6 +717,22 @@ public class TMappingProcessor {
 		return tmappingsProgram;
 	}
 
+	/**
+	 * @return null if the saturation is sequential (only one thread)
+	 */
+	@Nullable
+	private ExecutorService createSaturationExecutor() {
+		if (saturationThreads <= 1)
+			return null;
+
+		AtomicInteger threadCount = new AtomicInteger();
+		return Executors.newFixedThreadPool(saturationThreads, r -> {
+			Thread thread = new Thread(r, "ontop-tmapping-saturation-" + threadCount.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
 	private RDFPredicate extractRDFPredicate(CQIE mappingAssertion) {
 		Function headAtom = mappingAssertion.getHead();
 		if (!(headAtom.getFunctionSymbol() instanceof RDFAtomPredicate))
@@ -600,11 +753,12 @@ public class TMappingProcessor {
 	}
 
 
-	private TMappingIndexEntry getMappings(Map<IRI, TMappingIndexEntry> mappingIndex, IRI current) {
+	private TMappingIndexEntry getMappings(Map<IRI, TMappingIndexEntry> mappingIndex, IRI current,
+										   ImmutableMultimap<Predicate, LinearInclusionDependency> dependencies) {
 		
 		TMappingIndexEntry currentMappings = mappingIndex.get(current);	
 		if (currentMappings == null) {
-			currentMappings = new TMappingIndexEntry();
+			currentMappings = new TMappingIndexEntry(dependencies);
 			mappingIndex.put(current, currentMappings);
 		}
 		return currentMappings;
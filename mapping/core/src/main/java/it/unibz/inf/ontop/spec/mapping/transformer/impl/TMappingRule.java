@@ -1,12 +1,15 @@
 package it.unibz.inf.ontop.spec.mapping.transformer.impl;
 
+import com.google.common.collect.ImmutableSet;
 import it.unibz.inf.ontop.datalog.CQIE;
 import it.unibz.inf.ontop.datalog.DatalogFactory;
 import it.unibz.inf.ontop.model.atom.AtomPredicate;
 import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
 import it.unibz.inf.ontop.datalog.CQContainmentCheck;
 import it.unibz.inf.ontop.datalog.EQNormalizer;
 import it.unibz.inf.ontop.substitution.Substitution;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -226,6 +229,12 @@ public class TMappingRule {
 	public int databaseAtomsSize() {
 		return databaseAtoms.size();
 	}
+
+	public ImmutableSet<Predicate> getDatabasePredicates() {
+		return databaseAtoms.stream()
+				.map(Function::getFunctionSymbol)
+				.collect(ImmutableCollectors.toSet());
+	}
 	
 	public List<List<Function>> getConditions() {
 		return filterAtoms;
@@ -0,0 +1,116 @@
+package it.unibz.inf.ontop.spec.mapping.transformer.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSetMultimap;
+import it.unibz.inf.ontop.datalog.CQIE;
+import it.unibz.inf.ontop.datalog.LinearInclusionDependency;
+import it.unibz.inf.ontop.datalog.impl.CQContainmentCheckUnderLIDs;
+import it.unibz.inf.ontop.injection.OntopMappingConfiguration;
+import it.unibz.inf.ontop.injection.OntopMappingSettings;
+import it.unibz.inf.ontop.model.atom.RDFAtomPredicate;
+import it.unibz.inf.ontop.model.term.Function;
+import it.unibz.inf.ontop.model.term.Variable;
+import it.unibz.inf.ontop.model.term.functionsymbol.Predicate;
+import it.unibz.inf.ontop.spec.mapping.TMappingExclusionConfig;
+import it.unibz.inf.ontop.spec.ontology.ClassifiedTBox;
+import it.unibz.inf.ontop.spec.ontology.OClass;
+import it.unibz.inf.ontop.spec.ontology.OntologyBuilder;
+import it.unibz.inf.ontop.spec.ontology.impl.OntologyBuilderImpl;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import org.apache.commons.rdf.api.IRI;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Properties;
+
+import static it.unibz.inf.ontop.utils.MappingTestingTools.*;
+import static org.junit.Assert.assertEquals;
+
+public class TMappingProcessorTest {
+
+    private static final IRI A1 = RDF_FACTORY.createIRI("http://example.org/A1");
+    private static final IRI B1 = RDF_FACTORY.createIRI("http://example.org/B1");
+    private static final IRI A2 = RDF_FACTORY.createIRI("http://example.org/A2");
+    private static final IRI C2 = RDF_FACTORY.createIRI("http://example.org/C2");
+
+    private static final Variable X = TERM_FACTORY.getVariable("x");
+    private static final Variable Y = TERM_FACTORY.getVariable("y");
+    private static final Variable Z = TERM_FACTORY.getVariable("z");
+
+    /**
+     * TABLE1AR2 and TABLE2AR2 share no predicate: the rules over them are only compared
+     * because TABLE1AR2(x, z) implies TABLE2AR2(x, _) (foreign key on the first column).
+     *
+     * A1 <- TABLE2AR2 is already in the index when the contained rule A1 <- TABLE1AR2 (from B1) is merged,
+     * while A2 <- TABLE1AR2 is already in the index when the containing rule A2 <- TABLE2AR2 (from C2) is merged.
+     *
+     * The result does not depend on the number of saturation threads.
+     */
+    @Test
+    public void testCandidatesThroughTheChase() throws Exception {
+        ImmutableSetMultimap<IRI, Predicate> expected = ImmutableSetMultimap.<IRI, Predicate>builder()
+                .put(A1, TABLE2_AR2)
+                .put(B1, TABLE1_AR2)
+                .put(A2, TABLE2_AR2)
+                .put(C2, TABLE2_AR2)
+                .build();
+
+        assertEquals(expected, saturate(1));
+        assertEquals(expected, saturate(4));
+    }
+
+    private static ImmutableSetMultimap<IRI, Predicate> saturate(int threads) throws Exception {
+        OntologyBuilder builder = OntologyBuilderImpl.builder(RDF_FACTORY);
+        OClass a1 = builder.declareClass(A1.getIRIString());
+        OClass b1 = builder.declareClass(B1.getIRIString());
+        OClass a2 = builder.declareClass(A2.getIRIString());
+        OClass c2 = builder.declareClass(C2.getIRIString());
+        builder.addSubClassOfAxiom(b1, a1);
+        builder.addSubClassOfAxiom(c2, a2);
+        ClassifiedTBox tbox = builder.build().tbox();
+
+        ImmutableList<CQIE> mappings = ImmutableList.of(
+                createRule(A1, TABLE2_AR2),
+                createRule(B1, TABLE1_AR2),
+                createRule(A2, TABLE1_AR2),
+                createRule(C2, TABLE2_AR2));
+
+        // TABLE2AR2(x, y) :- TABLE1AR2(x, z)
+        LinearInclusionDependency foreignKey = new LinearInclusionDependency(
+                TERM_FACTORY.getFunction(TABLE2_AR2, X, Y),
+                TERM_FACTORY.getFunction(TABLE1_AR2, X, Z));
+        CQContainmentCheckUnderLIDs cqc = new CQContainmentCheckUnderLIDs(ImmutableList.of(foreignKey),
+                DATALOG_FACTORY, UNIFIER_UTILITIES, SUBSTITUTION_UTILITIES, TERM_FACTORY);
+
+        Properties properties = new Properties();
+        properties.setProperty(OntopMappingSettings.TMAPPING_SATURATION_THREADS, String.valueOf(threads));
+        TMappingProcessor processor = OntopMappingConfiguration.defaultBuilder()
+                .properties(properties)
+                .enableTestMode()
+                .build()
+                .getInjector()
+                .getInstance(TMappingProcessor.class);
+
+        List<CQIE> tMappings = processor.getTMappings(mappings, tbox, cqc, TMappingExclusionConfig.empty());
+        ImmutableSetMultimap.Builder<IRI, Predicate> rules = ImmutableSetMultimap.builder();
+        for (CQIE rule : tMappings) {
+            Function head = rule.getHead();
+            IRI classIRI = ((RDFAtomPredicate) head.getFunctionSymbol())
+                    .getClassIRI(head.getTerms().stream()
+                            .map(IMMUTABILITY_TOOLS::convertIntoImmutableTerm)
+                            .collect(ImmutableCollectors.toList()))
+                    .get();
+            assertEquals(1, rule.getBody().size());
+            rules.put(classIRI, rule.getBody().get(0).getFunctionSymbol());
+        }
+        ImmutableSetMultimap<IRI, Predicate> result = rules.build();
+        // no duplicate rule
+        assertEquals(tMappings.size(), result.size());
+        return result;
+    }
+
+    private static CQIE createRule(IRI classIRI, Predicate table) {
+        return DATALOG_FACTORY.getCQIE(ATOM_FACTORY.getMutableTripleHeadAtom(X, classIRI),
+                TERM_FACTORY.getFunction(table, X, Y));
+    }
+}
@@ -1,5 +1,6 @@
 package it.unibz.inf.ontop.injection.impl;
 
+import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.exception.OntologyException;
 import it.unibz.inf.ontop.injection.OntopMappingOWLAPIConfiguration;
 import it.unibz.inf.ontop.injection.OntopMappingSettings;
@@ -12,6 +13,7 @@ import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
 
 import javax.annotation.Nonnull;
+import java.io.File;
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
@@ -76,6 +78,18 @@ public class OntopMappingOWLAPIConfigurationImpl extends OntopMappingConfigurati
         return owlOntology;
     }
 
+    /**
+     * Empty if the ontology is given as an OWLOntology object or a URL
+     */
+    @Override
+    protected Optional<ImmutableList<File>> getOntologyFiles() {
+        if (options.ontology.isPresent() || options.mappingOntologyOptions.ontologyURL.isPresent())
+            return Optional.empty();
+        return Optional.of(options.mappingOntologyOptions.ontologyFile
+                .map(ImmutableList::of)
+                .orElseGet(ImmutableList::of));
+    }
+
     Optional<Ontology> loadOntology() throws OntologyException {
         OWLAPITranslatorOWL2QL translator = getInjector().getInstance(OWLAPITranslatorOWL2QL.class);
         try {
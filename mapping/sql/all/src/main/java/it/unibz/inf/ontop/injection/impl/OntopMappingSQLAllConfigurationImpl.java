@@ -8,7 +8,6 @@ import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.injection.OntopMappingSQLAllConfiguration;
 import it.unibz.inf.ontop.injection.OntopMappingSQLAllSettings;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
-import it.unibz.inf.ontop.spec.OBDASpecification;
 import org.apache.commons.rdf.api.Graph;
 
 import javax.annotation.Nonnull;
@@ -38,14 +37,14 @@ public class OntopMappingSQLAllConfigurationImpl extends OntopMappingSQLConfigur
     }
 
     @Override
-    protected OBDASpecification loadOBDASpecification() throws OBDASpecificationException {
-        return loadSpecification(Optional::empty);
+    ChecksummedSpecification loadChecksummedSpecification() throws OBDASpecificationException {
+        return loadChecksummedSpecification(Optional::empty);
     }
 
-    OBDASpecification loadSpecification(OntologySupplier ontologySupplier)
+    ChecksummedSpecification loadChecksummedSpecification(OntologySupplier ontologySupplier)
             throws OBDASpecificationException {
 
-        return loadSpecification(ontologySupplier,
+        return loadChecksummedSpecification(ontologySupplier,
                 () -> options.mappingFile,
                 () -> options.mappingReader,
                 () -> options.mappingGraph,
@@ -0,0 +1,109 @@
+package it.unibz.inf.ontop.spec.dbschema;
+
+import com.google.inject.Injector;
+import it.unibz.inf.ontop.dbschema.*;
+import it.unibz.inf.ontop.injection.OntopMappingConfiguration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static it.unibz.inf.ontop.utils.SQLAllMappingTestingTools.TYPE_FACTORY;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The metadata extracted in parallel (and schema by schema) is the same as the one extracted sequentially
+ */
+public class ParallelMetadataExtractionTest {
+
+    private static final String URL = "jdbc:h2:mem:parallelmetadata;DB_CLOSE_DELAY=-1";
+    private static final String USER = "sa";
+    private static final String PASSWORD = "";
+
+    private static final int TABLE_COUNT = 20;
+
+    private Connection connection;
+    private JdbcTypeMapper jdbcTypeMapper;
+
+    @Before
+    public void setUp() throws SQLException {
+        Injector injector = OntopMappingConfiguration.defaultBuilder().enableTestMode().build().getInjector();
+        jdbcTypeMapper = injector.getInstance(JdbcTypeMapper.class);
+
+        connection = DriverManager.getConnection(URL, USER, PASSWORD);
+        try (Statement st = connection.createStatement()) {
+            st.execute("CREATE SCHEMA S1");
+            st.execute("CREATE SCHEMA S2");
+            for (String schema : new String[] { "S1", "S2" }) {
+                for (int i = 0; i < TABLE_COUNT; i++) {
+                    String table = schema + ".T" + i;
+                    st.execute("CREATE TABLE " + table + " (ID INT NOT NULL, CODE VARCHAR(10), " +
+                            "A INT, B INT, PARENT INT, PRIMARY KEY (ID), UNIQUE (A, B))");
+                    if (i > 0)
+                        st.execute("ALTER TABLE " + table + " ADD FOREIGN KEY (PARENT) REFERENCES "
+                                + schema + ".T" + (i - 1) + "(ID)");
+                }
+            }
+            st.execute("ALTER TABLE S2.T0 ADD FOREIGN KEY (PARENT) REFERENCES S1.T0(ID)");
+        }
+    }
+
+    @After
+    public void tearDown() throws SQLException {
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP ALL OBJECTS DELETE FILES");
+        }
+        connection.close();
+    }
+
+    @Test
+    public void testAllTables() throws SQLException {
+        RDBMetadata metadata = extract(null, 1, false);
+        assertTrue(metadata.getDatabaseRelations().size() >= 2 * TABLE_COUNT);
+        String expected = describe(metadata);
+        assertEquals(expected, describe(extract(null, 4, false)));
+        assertEquals(expected, describe(extract(null, 4, true)));
+        assertEquals(expected, describe(extract(null, 1, true)));
+    }
+
+    @Test
+    public void testMappingTables() throws SQLException {
+        QuotedIDFactory idfac = RDBMetadataExtractionTools.createMetadata(connection, TYPE_FACTORY, jdbcTypeMapper)
+                .getQuotedIDFactory();
+        Set<RelationID> tables = new TreeSet<>((r1, r2) -> r1.toString().compareTo(r2.toString()));
+        for (int i = 0; i < TABLE_COUNT; i += 2)
+            tables.add(idfac.createRelationID("S1", "T" + i));
+        tables.add(idfac.createRelationID("S2", "T0"));
+
+        String expected = describe(extract(tables, 1, false));
+        assertEquals(expected, describe(extract(tables, 3, false)));
+        assertEquals(expected, describe(extract(tables, 3, true)));
+    }
+
+    private RDBMetadata extract(Set<RelationID> tables, int threads, boolean bulk) throws SQLException {
+        RDBMetadata metadata = RDBMetadataExtractionTools.createMetadata(connection, TYPE_FACTORY, jdbcTypeMapper);
+        RDBMetadataExtractionTools.loadMetadata(metadata, connection, tables, threads,
+                () -> DriverManager.getConnection(URL, USER, PASSWORD), bulk);
+        return metadata;
+    }
+
+    private static String describe(RDBMetadata metadata) {
+        Set<String> relations = new TreeSet<>();
+        for (DatabaseRelationDefinition relation : metadata.getDatabaseRelations()) {
+            StringBuilder sb = new StringBuilder(relation.toString());
+            for (UniqueConstraint uc : relation.getUniqueConstraints())
+                sb.append("\n").append(uc);
+            for (ForeignKeyConstraint fk : relation.getForeignKeys())
+                sb.append("\n").append(fk);
+            relations.add(sb.toString());
+        }
+        return String.join("\n", relations);
+    }
+}
@@ -3,4 +3,24 @@ package it.unibz.inf.ontop.injection;
 
 public interface OntopMappingSQLSettings extends OntopMappingSettings, OntopSQLCredentialSettings {
 
+    /**
+     * Number of JDBC connections used in parallel for extracting the DB metadata
+     * (1: only the connection of the mapping extraction)
+     */
+    int getMetadataExtractionThreads();
+
+    /**
+     * If true, the columns are retrieved schema by schema and the constraints by a few catalog queries
+     * (PostgreSQL, MySQL, MS SQL Server and Oracle) instead of several JDBC metadata calls per table.
+     *
+     * NB: unique indexes not declared as UNIQUE constraints are then ignored.
+     */
+    boolean isBulkMetadataExtractionEnabled();
+
+    //--------------------------
+    // Keys
+    //--------------------------
+
+    String METADATA_EXTRACTION_THREADS = "ontop.metadataExtraction.threads";
+    String BULK_METADATA_EXTRACTION = "ontop.metadataExtraction.bulk";
 }
@@ -17,7 +17,6 @@ import it.unibz.inf.ontop.injection.OntopMappingSQLSettings;
 import it.unibz.inf.ontop.spec.mapping.parser.SQLMappingParser;
 import it.unibz.inf.ontop.iq.proposal.QueryOptimizationProposal;
 import it.unibz.inf.ontop.spec.mapping.pp.PreProcessedMapping;
-import it.unibz.inf.ontop.spec.OBDASpecification;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
 import org.apache.commons.rdf.api.Graph;
 
@@ -72,17 +71,18 @@ public class OntopMappingSQLConfigurationImpl extends OntopMappingConfigurationI
      *
      */
     @Override
-    protected OBDASpecification loadOBDASpecification() throws OBDASpecificationException {
-        return loadSpecification(Optional::empty, Optional::empty, Optional::empty, Optional::empty, Optional::empty);
+    ChecksummedSpecification loadChecksummedSpecification() throws OBDASpecificationException {
+        return loadChecksummedSpecification(Optional::empty, Optional::empty, Optional::empty, Optional::empty,
+                Optional::empty);
     }
 
-    OBDASpecification loadSpecification(OntologySupplier ontologySupplier,
+    ChecksummedSpecification loadChecksummedSpecification(OntologySupplier ontologySupplier,
                                         Supplier<Optional<File>> mappingFileSupplier,
                                         Supplier<Optional<Reader>> mappingReaderSupplier,
                                         Supplier<Optional<Graph>> mappingGraphSupplier,
                                         Supplier<Optional<File>> constraintFileSupplier)
             throws OBDASpecificationException {
-        return loadSpecification(
+        return loadChecksummedSpecification(
                 ontologySupplier,
                 () -> options.ppMapping.map(m -> (PreProcessedMapping) m),
                 mappingFileSupplier,
@@ -28,6 +28,16 @@ public class OntopMappingSQLSettingsImpl extends OntopMappingSettingsImpl implem
         return loadDefaultPropertiesFromFile(OntopMappingSQLSettings.class, DEFAULT_PROPERTY_FILE);
     }
 
+    @Override
+    public int getMetadataExtractionThreads() {
+        return getRequiredInteger(METADATA_EXTRACTION_THREADS);
+    }
+
+    @Override
+    public boolean isBulkMetadataExtractionEnabled() {
+        return getRequiredBoolean(BULK_METADATA_EXTRACTION);
+    }
+
     @Override
     public String getJdbcUrl() {
         return sqlSettings.getJdbcUrl();
@@ -9,6 +9,7 @@ import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
 import it.unibz.inf.ontop.spec.dbschema.RDBMetadataExtractor;
 import it.unibz.inf.ontop.spec.dbschema.PreProcessedImplicitRelationalDBConstraintExtractor;
 import it.unibz.inf.ontop.spec.dbschema.PreProcessedImplicitRelationalDBConstraintSet;
+import it.unibz.inf.ontop.utils.LocalJDBCConnectionUtils;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -39,6 +40,7 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
     private final PreProcessedImplicitRelationalDBConstraintExtractor implicitDBConstraintExtractor;
     private final JdbcTypeMapper jdbcTypeMapper;
     private final TypeFactory typeFactory;
+    private final OntopMappingSQLSettings settings;
 
     @Inject
     private DefaultRDBMetadataExtractor(OntopMappingSQLSettings settings,
@@ -48,6 +50,7 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
         this.implicitDBConstraintExtractor = implicitDBConstraintExtractor;
         this.jdbcTypeMapper = jdbcTypeMapper;
         this.typeFactory = typeFactory;
+        this.settings = settings;
     }
 
     @Override
@@ -80,7 +83,7 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
 
             // if we have to parse the full metadata or just the table list in the mappings
             if (obtainFullMetadata) {
-                RDBMetadataExtractionTools.loadMetadata(metadata, connection, null);
+                loadMetadata(metadata, connection, null);
             }
             else {
                 try {
@@ -96,7 +99,7 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
                         realTables.addAll(referredTables);
                     });
 
-                    RDBMetadataExtractionTools.loadMetadata(metadata, connection, realTables);
+                    loadMetadata(metadata, connection, realTables);
                 }
                 catch (SQLException e) {
                     System.out.println("Error obtaining the metadata " + e);
@@ -115,4 +118,12 @@ public class DefaultRDBMetadataExtractor implements RDBMetadataExtractor {
             throw new DBMetadataExtractionException(e.getMessage());
         }
     }
+
+    private void loadMetadata(RDBMetadata metadata, Connection connection, @Nullable Set<RelationID> realTables)
+            throws SQLException {
+        RDBMetadataExtractionTools.loadMetadata(metadata, connection, realTables,
+                settings.getMetadataExtractionThreads(),
+                () -> LocalJDBCConnectionUtils.createConnection(settings),
+                settings.isBulkMetadataExtractionEnabled());
+    }
 }
@@ -0,0 +1,180 @@
+package it.unibz.inf.ontop.spec.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Inject;
+import com.google.inject.Singleton;
+import it.unibz.inf.ontop.dbschema.JdbcTypeMapper;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.SpecificationFactory;
+import it.unibz.inf.ontop.model.atom.AtomFactory;
+import it.unibz.inf.ontop.model.term.TermFactory;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.spec.OBDASpecification;
+import it.unibz.inf.ontop.spec.OBDASpecificationSerializer;
+import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import org.apache.commons.rdf.api.RDF;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Compact binary format:
+ *   - header: magic number, format version, Ontop version and input checksum
+ *   - string table (IRIs, variable names, etc. are stored once)
+ *   - body: DB metadata, TBox (as the axioms of its DAGs) and saturated mapping (IQs)
+ *   - CRC32 of all the preceding bytes
+ *
+ * The TBox is classified again when loaded (cheap compared to the mapping saturation).
+ */
+@Singleton
+public class BinaryOBDASpecificationSerializer implements OBDASpecificationSerializer {
+
+    private static final int MAGIC = 0x4F425350; // "OBSP"
+    private static final int FORMAT_VERSION = 1;
+
+    /*
+     * Tags (shared by the encoder and the decoder)
+     */
+
+    // Query nodes
+    static final byte CONSTRUCTION_NODE = 1;
+    static final byte UNION_NODE = 2;
+    static final byte INNER_JOIN_NODE = 3;
+    static final byte LEFT_JOIN_NODE = 4;
+    static final byte FILTER_NODE = 5;
+    static final byte EXTENSIONAL_DATA_NODE = 6;
+    static final byte INTENSIONAL_DATA_NODE = 7;
+    static final byte EMPTY_NODE = 8;
+    static final byte TRUE_NODE = 9;
+    static final byte DISTINCT_NODE = 10;
+    static final byte SLICE_NODE = 11;
+    static final byte ORDER_BY_NODE = 12;
+
+    static final long NO_LIMIT = -1;
+
+    // Atom predicates
+    static final byte TRIPLE_PREDICATE = 1;
+    static final byte QUAD_PREDICATE = 2;
+
+    // Terms
+    static final byte VARIABLE = 1;
+    static final byte IRI_CONSTANT = 2;
+    static final byte BNODE_CONSTANT = 3;
+    static final byte LITERAL = 4;
+    static final byte FUNCTIONAL_TERM = 5;
+
+    // Function symbols
+    static final byte URI_TEMPLATE_SYMBOL = 1;
+    static final byte BNODE_TEMPLATE_SYMBOL = 2;
+    static final byte DATATYPE_SYMBOL = 3;
+    static final byte EXPRESSION_SYMBOL = 4;
+
+    // Class expressions
+    static final byte CLASS = 1;
+    static final byte OBJECT_SOME_VALUES_FROM = 2;
+    static final byte DATA_SOME_VALUES_FROM = 3;
+
+    /**
+     * Names of the auxiliary object properties created by OntologyBuilder
+     */
+    static final Pattern AUXILIARY_PROPERTY_NAME = Pattern.compile("urn:AUX\\.ROLE(\\d+)");
+
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final AtomFactory atomFactory;
+    private final IntermediateQueryFactory iqFactory;
+    private final SubstitutionFactory substitutionFactory;
+    private final SpecificationFactory specificationFactory;
+    private final JdbcTypeMapper jdbcTypeMapper;
+    private final RDF rdfFactory;
+    private final String ontopVersion;
+
+    @Inject
+    private BinaryOBDASpecificationSerializer(TermFactory termFactory, TypeFactory typeFactory,
+                                              AtomFactory atomFactory, IntermediateQueryFactory iqFactory,
+                                              SubstitutionFactory substitutionFactory,
+                                              SpecificationFactory specificationFactory,
+                                              JdbcTypeMapper jdbcTypeMapper, RDF rdfFactory) {
+        this.termFactory = termFactory;
+        this.typeFactory = typeFactory;
+        this.atomFactory = atomFactory;
+        this.iqFactory = iqFactory;
+        this.substitutionFactory = substitutionFactory;
+        this.specificationFactory = specificationFactory;
+        this.jdbcTypeMapper = jdbcTypeMapper;
+        this.rdfFactory = rdfFactory;
+        // Only available when packaged (not in IDEs)
+        this.ontopVersion = Optional.ofNullable(getClass().getPackage().getImplementationVersion())
+                .orElse("");
+    }
+
+    @Override
+    public void serialize(@Nonnull OBDASpecification specification, @Nonnull String inputChecksum,
+                          @Nonnull OutputStream outputStream) throws IOException {
+        SpecificationEncoder encoder = new SpecificationEncoder();
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        encoder.encode(specification, new DataOutputStream(body));
+
+        CheckedOutputStream checkedStream = new CheckedOutputStream(outputStream, new CRC32());
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(checkedStream));
+        out.writeInt(MAGIC);
+        out.writeInt(FORMAT_VERSION);
+        SpecificationEncoder.writeRawString(ontopVersion, out);
+        SpecificationEncoder.writeRawString(inputChecksum, out);
+
+        ImmutableList<String> strings = encoder.getStrings();
+        out.writeInt(strings.size());
+        for (String s : strings)
+            SpecificationEncoder.writeRawString(s, out);
+
+        out.writeInt(body.size());
+        body.writeTo(out);
+        out.flush();
+
+        DataOutputStream trailer = new DataOutputStream(outputStream);
+        trailer.writeLong(checkedStream.getChecksum().getValue());
+        trailer.flush();
+    }
+
+    @Override
+    public Optional<OBDASpecification> deserialize(@Nonnull InputStream inputStream,
+                                                   @Nonnull String expectedInputChecksum) throws IOException {
+        CheckedInputStream checkedStream = new CheckedInputStream(inputStream, new CRC32());
+        DataInputStream in = new DataInputStream(checkedStream);
+
+        if (in.readInt() != MAGIC)
+            throw new InvalidObjectException("Not a serialized OBDA specification");
+        if (in.readInt() != FORMAT_VERSION)
+            return Optional.empty();
+        if (!SpecificationDecoder.readRawString(in).equals(ontopVersion))
+            return Optional.empty();
+        if (!SpecificationDecoder.readRawString(in).equals(expectedInputChecksum))
+            return Optional.empty();
+
+        int stringCount = in.readInt();
+        if (stringCount < 0)
+            throw new InvalidObjectException("Negative number of strings: " + stringCount);
+        ImmutableList.Builder<String> stringBuilder = ImmutableList.builder();
+        for (int i = 0; i < stringCount; i++)
+            stringBuilder.add(SpecificationDecoder.readRawString(in));
+
+        int bodySize = in.readInt();
+        if (bodySize < 0)
+            throw new InvalidObjectException("Negative body size: " + bodySize);
+        byte[] body = new byte[bodySize];
+        in.readFully(body);
+
+        long actualCRC = checkedStream.getChecksum().getValue();
+        if (in.readLong() != actualCRC)
+            throw new InvalidObjectException("Corrupted OBDA specification (CRC mismatch)");
+
+        SpecificationDecoder decoder = new SpecificationDecoder(stringBuilder.build(), termFactory, typeFactory,
+                atomFactory, iqFactory, substitutionFactory, specificationFactory, jdbcTypeMapper, rdfFactory);
+        return Optional.of(decoder.decode(new DataInputStream(new ByteArrayInputStream(body))));
+    }
+}
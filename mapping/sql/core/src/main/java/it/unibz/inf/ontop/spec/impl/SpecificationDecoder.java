@@ -0,0 +1,479 @@
+package it.unibz.inf.ontop.spec.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableTable;
+import it.unibz.inf.ontop.dbschema.JdbcTypeMapper;
+import it.unibz.inf.ontop.dbschema.RDBMetadata;
+import it.unibz.inf.ontop.dbschema.RDBMetadataSerializer;
+import it.unibz.inf.ontop.dbschema.RelationDefinition;
+import it.unibz.inf.ontop.injection.IntermediateQueryFactory;
+import it.unibz.inf.ontop.injection.SpecificationFactory;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.*;
+import it.unibz.inf.ontop.model.atom.*;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.ExpressionOperation;
+import it.unibz.inf.ontop.model.term.functionsymbol.FunctionSymbol;
+import it.unibz.inf.ontop.model.type.RDFDatatype;
+import it.unibz.inf.ontop.model.type.TypeFactory;
+import it.unibz.inf.ontop.spec.OBDASpecification;
+import it.unibz.inf.ontop.spec.mapping.Mapping;
+import it.unibz.inf.ontop.spec.mapping.PrefixManager;
+import it.unibz.inf.ontop.spec.ontology.*;
+import it.unibz.inf.ontop.spec.ontology.impl.OntologyBuilderImpl;
+import it.unibz.inf.ontop.substitution.SubstitutionFactory;
+import it.unibz.inf.ontop.utils.ImmutableCollectors;
+import it.unibz.inf.ontop.utils.UriTemplateMatcher;
+import org.apache.commons.rdf.api.IRI;
+import org.apache.commons.rdf.api.RDF;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+import static it.unibz.inf.ontop.spec.impl.BinaryOBDASpecificationSerializer.*;
+
+/**
+ * Decodes an OBDA specification encoded by SpecificationEncoder.
+ *
+ * Not thread-safe: one decoder per specification.
+ */
+class SpecificationDecoder {
+
+    private final ImmutableList<String> strings;
+    private final TermFactory termFactory;
+    private final TypeFactory typeFactory;
+    private final AtomFactory atomFactory;
+    private final IntermediateQueryFactory iqFactory;
+    private final SubstitutionFactory substitutionFactory;
+    private final SpecificationFactory specificationFactory;
+    private final JdbcTypeMapper jdbcTypeMapper;
+    private final RDF rdfFactory;
+
+    private final TriplePredicate triplePredicate;
+    private final QuadPredicate quadPredicate;
+
+    private ImmutableList<RelationDefinition> relations;
+    private OntologyBuilder ontologyBuilder;
+    private final Map<String, ObjectPropertyExpression> auxiliaryProperties = new HashMap<>();
+
+    SpecificationDecoder(ImmutableList<String> strings, TermFactory termFactory, TypeFactory typeFactory,
+                         AtomFactory atomFactory, IntermediateQueryFactory iqFactory,
+                         SubstitutionFactory substitutionFactory, SpecificationFactory specificationFactory,
+                         JdbcTypeMapper jdbcTypeMapper, RDF rdfFactory) {
+        this.strings = strings;
+        this.termFactory = termFactory;
+        this.typeFactory = typeFactory;
+        this.atomFactory = atomFactory;
+        this.iqFactory = iqFactory;
+        this.substitutionFactory = substitutionFactory;
+        this.specificationFactory = specificationFactory;
+        this.jdbcTypeMapper = jdbcTypeMapper;
+        this.rdfFactory = rdfFactory;
+
+        Variable s = termFactory.getVariable("s"), p = termFactory.getVariable("p"),
+                o = termFactory.getVariable("o"), g = termFactory.getVariable("g");
+        this.triplePredicate = (TriplePredicate) atomFactory.getDistinctTripleAtom(s, p, o).getPredicate();
+        this.quadPredicate = (QuadPredicate) atomFactory.getDistinctQuadAtom(s, p, o, g).getPredicate();
+    }
+
+    OBDASpecification decode(DataInput in) throws IOException {
+        RDBMetadata dbMetadata = RDBMetadataSerializer.deserialize(in, jdbcTypeMapper, typeFactory);
+        relations = RDBMetadataSerializer.getRelations(dbMetadata);
+
+        ClassifiedTBox tbox = decodeTBox(in);
+        Mapping mapping = decodeMapping(in);
+        return specificationFactory.createSpecification(mapping, dbMetadata, tbox);
+    }
+
+    /*
+     * Mapping
+     */
+
+    private Mapping decodeMapping(DataInput in) throws IOException {
+        int prefixCount = readCount(in);
+        ImmutableMap.Builder<String, String> prefixMapBuilder = ImmutableMap.builder();
+        for (int i = 0; i < prefixCount; i++)
+            prefixMapBuilder.put(readString(in), readString(in));
+        PrefixManager prefixManager = specificationFactory.createPrefixManager(prefixMapBuilder.build());
+
+        int templateCount = readCount(in);
+        ImmutableList.Builder<ImmutableFunctionalTerm> templateBuilder = ImmutableList.builder();
+        for (int i = 0; i < templateCount; i++)
+            templateBuilder.add((ImmutableFunctionalTerm) decodeTerm(in));
+        UriTemplateMatcher uriTemplateMatcher = UriTemplateMatcher.create(templateBuilder.build().stream(),
+                termFactory);
+
+        ImmutableTable<RDFAtomPredicate, IRI, IQ> propertyTable = decodeMappingTable(in);
+        ImmutableTable<RDFAtomPredicate, IRI, IQ> classTable = decodeMappingTable(in);
+
+        return specificationFactory.createMapping(
+                specificationFactory.createMetadata(prefixManager, uriTemplateMatcher),
+                propertyTable, classTable);
+    }
+
+    private ImmutableTable<RDFAtomPredicate, IRI, IQ> decodeMappingTable(DataInput in) throws IOException {
+        int count = readCount(in);
+        ImmutableTable.Builder<RDFAtomPredicate, IRI, IQ> builder = ImmutableTable.builder();
+        for (int i = 0; i < count; i++) {
+            AtomPredicate predicate = decodeAtomPredicate(in);
+            if (!(predicate instanceof RDFAtomPredicate))
+                throw new InvalidObjectException("RDF atom predicate expected");
+            builder.put((RDFAtomPredicate) predicate, rdfFactory.createIRI(readString(in)), decodeIQ(in));
+        }
+        return builder.build();
+    }
+
+    /*
+     * IQ
+     */
+
+    private IQ decodeIQ(DataInput in) throws IOException {
+        AtomPredicate predicate = decodeAtomPredicate(in);
+        ImmutableList<Variable> arguments = decodeVariables(in).asList();
+        DistinctVariableOnlyDataAtom projectionAtom = atomFactory.getDistinctVariableOnlyDataAtom(predicate,
+                arguments);
+        return iqFactory.createIQ(projectionAtom, decodeTree(in));
+    }
+
+    private IQTree decodeTree(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case CONSTRUCTION_NODE: {
+                ImmutableSet<Variable> variables = decodeVariables(in);
+                int size = readCount(in);
+                ImmutableMap.Builder<Variable, ImmutableTerm> substitutionBuilder = ImmutableMap.builder();
+                for (int i = 0; i < size; i++)
+                    substitutionBuilder.put(termFactory.getVariable(readString(in)), decodeTerm(in));
+                ConstructionNode node = iqFactory.createConstructionNode(variables,
+                        substitutionFactory.getSubstitution(substitutionBuilder.build()));
+                return iqFactory.createUnaryIQTree(node, decodeTree(in));
+            }
+            case UNION_NODE:
+                return iqFactory.createNaryIQTree(iqFactory.createUnionNode(decodeVariables(in)), decodeChildren(in));
+            case INNER_JOIN_NODE:
+                return iqFactory.createNaryIQTree(iqFactory.createInnerJoinNode(decodeOptionalExpression(in)),
+                        decodeChildren(in));
+            case LEFT_JOIN_NODE: {
+                LeftJoinNode node = iqFactory.createLeftJoinNode(decodeOptionalExpression(in));
+                IQTree leftChild = decodeTree(in);
+                return iqFactory.createBinaryNonCommutativeIQTree(node, leftChild, decodeTree(in));
+            }
+            case FILTER_NODE:
+                return iqFactory.createUnaryIQTree(iqFactory.createFilterNode(decodeExpression(in)), decodeTree(in));
+            case EXTENSIONAL_DATA_NODE: {
+                RelationPredicate predicate = getRelation(in.readInt()).getAtomPredicate();
+                return iqFactory.createExtensionalDataNode(atomFactory.getDataAtom(predicate, decodeArguments(in)));
+            }
+            case INTENSIONAL_DATA_NODE: {
+                AtomPredicate predicate = decodeAtomPredicate(in);
+                return iqFactory.createIntensionalDataNode(atomFactory.getDataAtom(predicate, decodeArguments(in)));
+            }
+            case EMPTY_NODE:
+                return iqFactory.createEmptyNode(decodeVariables(in));
+            case TRUE_NODE:
+                return iqFactory.createTrueNode();
+            case DISTINCT_NODE:
+                return iqFactory.createUnaryIQTree(iqFactory.createDistinctNode(), decodeTree(in));
+            case SLICE_NODE: {
+                long offset = in.readLong();
+                long limit = in.readLong();
+                SliceNode node = (limit == NO_LIMIT)
+                        ? iqFactory.createSliceNode(offset)
+                        : iqFactory.createSliceNode(offset, limit);
+                return iqFactory.createUnaryIQTree(node, decodeTree(in));
+            }
+            case ORDER_BY_NODE: {
+                int size = readCount(in);
+                ImmutableList.Builder<OrderByNode.OrderComparator> comparatorBuilder = ImmutableList.builder();
+                for (int i = 0; i < size; i++) {
+                    ImmutableTerm term = decodeTerm(in);
+                    if (!(term instanceof NonGroundTerm))
+                        throw new InvalidObjectException("Non-ground term expected in an order comparator");
+                    comparatorBuilder.add(iqFactory.createOrderComparator((NonGroundTerm) term, in.readBoolean()));
+                }
+                return iqFactory.createUnaryIQTree(iqFactory.createOrderByNode(comparatorBuilder.build()),
+                        decodeTree(in));
+            }
+            default:
+                throw new InvalidObjectException("Unknown query node tag: " + tag);
+        }
+    }
+
+    private ImmutableList<IQTree> decodeChildren(DataInput in) throws IOException {
+        int size = readCount(in);
+        ImmutableList.Builder<IQTree> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++)
+            builder.add(decodeTree(in));
+        return builder.build();
+    }
+
+    private AtomPredicate decodeAtomPredicate(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TRIPLE_PREDICATE:
+                return triplePredicate;
+            case QUAD_PREDICATE:
+                return quadPredicate;
+            default:
+                throw new InvalidObjectException("Unknown atom predicate tag: " + tag);
+        }
+    }
+
+    private RelationDefinition getRelation(int index) throws InvalidObjectException {
+        if (index < 0 || index >= relations.size())
+            throw new InvalidObjectException("Invalid relation index: " + index);
+        return relations.get(index);
+    }
+
+    /*
+     * Terms
+     */
+
+    private ImmutableSet<Variable> decodeVariables(DataInput in) throws IOException {
+        int size = readCount(in);
+        ImmutableSet.Builder<Variable> builder = ImmutableSet.builder();
+        for (int i = 0; i < size; i++)
+            builder.add(termFactory.getVariable(readString(in)));
+        return builder.build();
+    }
+
+    private ImmutableList<ImmutableTerm> decodeTerms(DataInput in) throws IOException {
+        int size = readCount(in);
+        ImmutableList.Builder<ImmutableTerm> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++)
+            builder.add(decodeTerm(in));
+        return builder.build();
+    }
+
+    private ImmutableList<VariableOrGroundTerm> decodeArguments(DataInput in) throws IOException {
+        ImmutableList<ImmutableTerm> terms = decodeTerms(in);
+        for (ImmutableTerm term : terms)
+            if (!(term instanceof VariableOrGroundTerm))
+                throw new InvalidObjectException("Variable or ground term expected: " + term);
+        return terms.stream()
+                .map(t -> (VariableOrGroundTerm) t)
+                .collect(ImmutableCollectors.toList());
+    }
+
+    private ImmutableExpression decodeExpression(DataInput in) throws IOException {
+        ImmutableTerm term = decodeTerm(in);
+        if (!(term instanceof ImmutableExpression))
+            throw new InvalidObjectException("Expression expected: " + term);
+        return (ImmutableExpression) term;
+    }
+
+    private java.util.Optional<ImmutableExpression> decodeOptionalExpression(DataInput in) throws IOException {
+        return in.readBoolean()
+                ? java.util.Optional.of(decodeExpression(in))
+                : java.util.Optional.empty();
+    }
+
+    private ImmutableTerm decodeTerm(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case VARIABLE:
+                return termFactory.getVariable(readString(in));
+            case IRI_CONSTANT:
+                return termFactory.getConstantIRI(rdfFactory.createIRI(readString(in)));
+            case BNODE_CONSTANT:
+                return termFactory.getConstantBNode(readString(in));
+            case LITERAL: {
+                String value = readString(in);
+                return termFactory.getConstantLiteral(value, decodeDatatype(in));
+            }
+            case FUNCTIONAL_TERM:
+                return decodeFunctionalTerm(in);
+            default:
+                throw new InvalidObjectException("Unknown term tag: " + tag);
+        }
+    }
+
+    private ImmutableFunctionalTerm decodeFunctionalTerm(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case URI_TEMPLATE_SYMBOL:
+                return termFactory.getImmutableUriTemplate(decodeTerms(in));
+            case BNODE_TEMPLATE_SYMBOL:
+                return termFactory.getImmutableBNodeTemplate(decodeTerms(in));
+            case DATATYPE_SYMBOL: {
+                FunctionSymbol functionSymbol = termFactory.getRequiredTypePredicate(decodeDatatype(in));
+                return termFactory.getImmutableFunctionalTerm(functionSymbol, decodeTerms(in));
+            }
+            case EXPRESSION_SYMBOL: {
+                String name = readString(in);
+                ExpressionOperation operation;
+                try {
+                    operation = ExpressionOperation.valueOf(name);
+                } catch (IllegalArgumentException e) {
+                    throw new InvalidObjectException("Unknown expression operation: " + name);
+                }
+                return termFactory.getImmutableExpression(operation, decodeTerms(in));
+            }
+            default:
+                throw new InvalidObjectException("Unknown function symbol tag: " + tag);
+        }
+    }
+
+    private RDFDatatype decodeDatatype(DataInput in) throws IOException {
+        IRI datatypeIRI = rdfFactory.createIRI(readString(in));
+        String languageTag = readString(in);
+        return languageTag.isEmpty()
+                ? typeFactory.getDatatype(datatypeIRI)
+                : typeFactory.getLangTermType(languageTag);
+    }
+
+    /*
+     * TBox
+     */
+
+    private ClassifiedTBox decodeTBox(DataInput in) throws IOException {
+        ontologyBuilder = OntologyBuilderImpl.builder(rdfFactory);
+
+        // the built-in vocabulary (owl:Thing, etc.) is already declared
+        for (String name : readStrings(in))
+            if (!ontologyBuilder.classes().contains(name))
+                ontologyBuilder.declareClass(name);
+        for (String name : readStrings(in))
+            if (!ontologyBuilder.objectProperties().contains(name))
+                ontologyBuilder.declareObjectProperty(name);
+        for (String name : readStrings(in))
+            if (!ontologyBuilder.dataProperties().contains(name))
+                ontologyBuilder.declareDataProperty(name);
+        int auxiliaryPropertyCount = readCount(in);
+        for (int i = 0; i < auxiliaryPropertyCount; i++) {
+            ObjectPropertyExpression property = ontologyBuilder.createAuxiliaryObjectProperty();
+            auxiliaryProperties.put(property.getName(), property);
+        }
+
+        try {
+            int count = readCount(in);
+            for (int i = 0; i < count; i += 2)
+                ontologyBuilder.addSubPropertyOfAxiom(decodeObjectProperty(in), decodeObjectProperty(in));
+            count = readCount(in);
+            for (int i = 0; i < count; i += 2)
+                ontologyBuilder.addSubPropertyOfAxiom(decodeDataProperty(in), decodeDataProperty(in));
+            count = readCount(in);
+            for (int i = 0; i < count; i += 2)
+                ontologyBuilder.addSubClassOfAxiom(decodeClassExpression(in), decodeClassExpression(in));
+            count = readCount(in);
+            for (int i = 0; i < count; i++)
+                ontologyBuilder.addDataPropertyRangeAxiom(decodeDataProperty(in).getRange(),
+                        ontologyBuilder.getDatatype(readString(in)));
+
+            count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                int size = readCount(in);
+                ClassExpression[] components = new ClassExpression[size];
+                for (int j = 0; j < size; j++)
+                    components[j] = decodeClassExpression(in);
+                ontologyBuilder.addDisjointClassesAxiom(components);
+            }
+            count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                int size = readCount(in);
+                ObjectPropertyExpression[] components = new ObjectPropertyExpression[size];
+                for (int j = 0; j < size; j++)
+                    components[j] = decodeObjectProperty(in);
+                ontologyBuilder.addDisjointObjectPropertiesAxiom(components);
+            }
+            count = readCount(in);
+            for (int i = 0; i < count; i++) {
+                int size = readCount(in);
+                DataPropertyExpression[] components = new DataPropertyExpression[size];
+                for (int j = 0; j < size; j++)
+                    components[j] = decodeDataProperty(in);
+                ontologyBuilder.addDisjointDataPropertiesAxiom(components);
+            }
+
+            count = readCount(in);
+            for (int i = 0; i < count; i++)
+                ontologyBuilder.addReflexiveObjectPropertyAxiom(decodeObjectProperty(in));
+            count = readCount(in);
+            for (int i = 0; i < count; i++)
+                ontologyBuilder.addIrreflexiveObjectPropertyAxiom(decodeObjectProperty(in));
+        }
+        catch (InconsistentOntologyException e) {
+            throw new InvalidObjectException("Inconsistent TBox: " + e.getMessage());
+        }
+        int count = readCount(in);
+        for (int i = 0; i < count; i++)
+            ontologyBuilder.addFunctionalObjectPropertyAxiom(decodeObjectProperty(in));
+        count = readCount(in);
+        for (int i = 0; i < count; i++)
+            ontologyBuilder.addFunctionalDataPropertyAxiom(decodeDataProperty(in));
+
+        return ontologyBuilder.build().tbox();
+    }
+
+    private ImmutableList<String> readStrings(DataInput in) throws IOException {
+        int size = readCount(in);
+        ImmutableList.Builder<String> builder = ImmutableList.builder();
+        for (int i = 0; i < size; i++)
+            builder.add(readString(in));
+        return builder.build();
+    }
+
+    private ObjectPropertyExpression decodeObjectProperty(DataInput in) throws IOException {
+        boolean isInverse = in.readBoolean();
+        String name = readString(in);
+        ObjectPropertyExpression property = auxiliaryProperties.get(name);
+        if (property == null) {
+            if (!ontologyBuilder.objectProperties().contains(name))
+                throw new InvalidObjectException("Undeclared object property: " + name);
+            property = ontologyBuilder.objectProperties().get(name);
+        }
+        return isInverse ? property.getInverse() : property;
+    }
+
+    private DataPropertyExpression decodeDataProperty(DataInput in) throws IOException {
+        String name = readString(in);
+        if (!ontologyBuilder.dataProperties().contains(name))
+            throw new InvalidObjectException("Undeclared data property: " + name);
+        return ontologyBuilder.dataProperties().get(name);
+    }
+
+    private ClassExpression decodeClassExpression(DataInput in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case CLASS: {
+                String name = readString(in);
+                if (!ontologyBuilder.classes().contains(name))
+                    throw new InvalidObjectException("Undeclared class: " + name);
+                return ontologyBuilder.classes().get(name);
+            }
+            case OBJECT_SOME_VALUES_FROM:
+                return decodeObjectProperty(in).getDomain();
+            case DATA_SOME_VALUES_FROM: {
+                DataPropertyExpression property = decodeDataProperty(in);
+                return property.getDomainRestriction(ontologyBuilder.getDatatype(readString(in)));
+            }
+            default:
+                throw new InvalidObjectException("Unknown class expression tag: " + tag);
+        }
+    }
+
+    private String readString(DataInput in) throws IOException {
+        int index = in.readInt();
+        if (index < 0 || index >= strings.size())
+            throw new InvalidObjectException("Invalid string index: " + index);
+        return strings.get(index);
+    }
+
+    private static int readCount(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new InvalidObjectException("Negative size: " + count);
+        return count;
+    }
+
+    static String readRawString(DataInput in) throws IOException {
+        byte[] bytes = new byte[readCount(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,447 @@
+package it.unibz.inf.ontop.spec.impl;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Table;
+import it.unibz.inf.ontop.dbschema.DBMetadata;
+import it.unibz.inf.ontop.dbschema.RDBMetadata;
+import it.unibz.inf.ontop.dbschema.RDBMetadataSerializer;
+import it.unibz.inf.ontop.dbschema.RelationDefinition;
+import it.unibz.inf.ontop.iq.IQ;
+import it.unibz.inf.ontop.iq.IQTree;
+import it.unibz.inf.ontop.iq.node.*;
+import it.unibz.inf.ontop.model.atom.*;
+import it.unibz.inf.ontop.model.term.*;
+import it.unibz.inf.ontop.model.term.functionsymbol.*;
+import it.unibz.inf.ontop.model.type.LanguageTag;
+import it.unibz.inf.ontop.model.type.RDFDatatype;
+import it.unibz.inf.ontop.spec.OBDASpecification;
+import it.unibz.inf.ontop.spec.mapping.Mapping;
+import it.unibz.inf.ontop.spec.ontology.*;
+import org.apache.commons.rdf.api.IRI;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+
+import static it.unibz.inf.ontop.spec.impl.BinaryOBDASpecificationSerializer.*;
+
+/**
+ * Encodes an OBDA specification (see BinaryOBDASpecificationSerializer for the layout).
+ *
+ * Strings (IRIs, variable names, etc.) are replaced by their index in a table built on the fly.
+ * Not thread-safe: one encoder per specification.
+ */
+class SpecificationEncoder {
+
+    private final Map<String, Integer> stringIndex = new LinkedHashMap<>();
+    private final Map<RelationDefinition, Integer> relationIndex = new HashMap<>();
+
+    /**
+     * Strings in their order of index
+     */
+    ImmutableList<String> getStrings() {
+        return ImmutableList.copyOf(stringIndex.keySet());
+    }
+
+    void encode(OBDASpecification specification, DataOutput out) throws IOException {
+        DBMetadata dbMetadata = specification.getDBMetadata();
+        if (!(dbMetadata instanceof RDBMetadata))
+            throw new NotSerializableException("Unsupported DB metadata: " + dbMetadata.getClass().getName());
+        RDBMetadata rdbMetadata = (RDBMetadata) dbMetadata;
+
+        ImmutableList<RelationDefinition> relations = RDBMetadataSerializer.getRelations(rdbMetadata);
+        for (int i = 0; i < relations.size(); i++)
+            relationIndex.put(relations.get(i), i);
+        RDBMetadataSerializer.serialize(rdbMetadata, out);
+
+        encodeTBox(specification.getSaturatedTBox(), out);
+        encodeMapping(specification.getSaturatedMapping(), out);
+    }
+
+    /*
+     * Mapping
+     */
+
+    private void encodeMapping(Mapping mapping, DataOutput out) throws IOException {
+        ImmutableMap<String, String> prefixMap = mapping.getMetadata().getPrefixManager().getPrefixMap();
+        out.writeInt(prefixMap.size());
+        for (Map.Entry<String, String> entry : prefixMap.entrySet()) {
+            writeString(entry.getKey(), out);
+            writeString(entry.getValue(), out);
+        }
+
+        Collection<ImmutableFunctionalTerm> uriTemplates = mapping.getMetadata().getUriTemplateMatcher().getMap()
+                .values();
+        out.writeInt(uriTemplates.size());
+        for (ImmutableFunctionalTerm template : uriTemplates)
+            encodeTerm(template, out);
+
+        encodeMappingTable(mapping.getRDFPropertyQueries(), out);
+        encodeMappingTable(mapping.getRDFClassQueries(), out);
+    }
+
+    private void encodeMappingTable(Set<Table.Cell<RDFAtomPredicate, IRI, IQ>> cells, DataOutput out)
+            throws IOException {
+        out.writeInt(cells.size());
+        for (Table.Cell<RDFAtomPredicate, IRI, IQ> cell : cells) {
+            encodeAtomPredicate(cell.getRowKey(), out);
+            writeString(cell.getColumnKey().getIRIString(), out);
+            encodeIQ(cell.getValue(), out);
+        }
+    }
+
+    /*
+     * IQ
+     */
+
+    private void encodeIQ(IQ iq, DataOutput out) throws IOException {
+        DistinctVariableOnlyDataAtom projectionAtom = iq.getProjectionAtom();
+        encodeAtomPredicate(projectionAtom.getPredicate(), out);
+        encodeVariables(projectionAtom.getArguments(), out);
+        encodeTree(iq.getTree(), out);
+    }
+
+    private void encodeTree(IQTree tree, DataOutput out) throws IOException {
+        QueryNode node = tree.getRootNode();
+
+        if (node instanceof ConstructionNode) {
+            ConstructionNode constructionNode = (ConstructionNode) node;
+            out.writeByte(CONSTRUCTION_NODE);
+            encodeVariables(constructionNode.getVariables(), out);
+            ImmutableMap<Variable, ImmutableTerm> substitution = constructionNode.getSubstitution().getImmutableMap();
+            out.writeInt(substitution.size());
+            for (Map.Entry<Variable, ImmutableTerm> entry : substitution.entrySet()) {
+                writeString(entry.getKey().getName(), out);
+                encodeTerm(entry.getValue(), out);
+            }
+        }
+        else if (node instanceof UnionNode) {
+            out.writeByte(UNION_NODE);
+            encodeVariables(((UnionNode) node).getVariables(), out);
+        }
+        else if (node instanceof InnerJoinNode) {
+            out.writeByte(INNER_JOIN_NODE);
+            encodeOptionalTerm(((InnerJoinNode) node).getOptionalFilterCondition(), out);
+        }
+        else if (node instanceof LeftJoinNode) {
+            out.writeByte(LEFT_JOIN_NODE);
+            encodeOptionalTerm(((LeftJoinNode) node).getOptionalFilterCondition(), out);
+        }
+        else if (node instanceof FilterNode) {
+            out.writeByte(FILTER_NODE);
+            encodeTerm(((FilterNode) node).getFilterCondition(), out);
+        }
+        else if (node instanceof ExtensionalDataNode) {
+            DataAtom<RelationPredicate> atom = ((ExtensionalDataNode) node).getProjectionAtom();
+            out.writeByte(EXTENSIONAL_DATA_NODE);
+            Integer index = relationIndex.get(atom.getPredicate().getRelationDefinition());
+            if (index == null)
+                throw new NotSerializableException("Relation not found in the DB metadata: " + atom.getPredicate());
+            out.writeInt(index);
+            encodeTerms(atom.getArguments(), out);
+        }
+        else if (node instanceof IntensionalDataNode) {
+            DataAtom<AtomPredicate> atom = ((IntensionalDataNode) node).getProjectionAtom();
+            out.writeByte(INTENSIONAL_DATA_NODE);
+            encodeAtomPredicate(atom.getPredicate(), out);
+            encodeTerms(atom.getArguments(), out);
+        }
+        else if (node instanceof EmptyNode) {
+            out.writeByte(EMPTY_NODE);
+            encodeVariables(tree.getVariables(), out);
+        }
+        else if (node instanceof TrueNode) {
+            out.writeByte(TRUE_NODE);
+        }
+        else if (node instanceof DistinctNode) {
+            out.writeByte(DISTINCT_NODE);
+        }
+        else if (node instanceof SliceNode) {
+            SliceNode sliceNode = (SliceNode) node;
+            out.writeByte(SLICE_NODE);
+            out.writeLong(sliceNode.getOffset());
+            out.writeLong(sliceNode.getLimit().orElse(NO_LIMIT));
+        }
+        else if (node instanceof OrderByNode) {
+            ImmutableList<OrderByNode.OrderComparator> comparators = ((OrderByNode) node).getComparators();
+            out.writeByte(ORDER_BY_NODE);
+            out.writeInt(comparators.size());
+            for (OrderByNode.OrderComparator comparator : comparators) {
+                encodeTerm(comparator.getTerm(), out);
+                out.writeBoolean(comparator.isAscending());
+            }
+        }
+        else
+            throw new NotSerializableException("Unsupported query node: " + node);
+
+        // The arity of the other nodes is fixed
+        if (node instanceof NaryOperatorNode)
+            out.writeInt(tree.getChildren().size());
+        for (IQTree child : tree.getChildren())
+            encodeTree(child, out);
+    }
+
+    private void encodeAtomPredicate(AtomPredicate predicate, DataOutput out) throws IOException {
+        if (predicate instanceof TriplePredicate)
+            out.writeByte(TRIPLE_PREDICATE);
+        else if (predicate instanceof QuadPredicate)
+            out.writeByte(QUAD_PREDICATE);
+        else
+            throw new NotSerializableException("Unsupported atom predicate: " + predicate);
+    }
+
+    /*
+     * Terms
+     */
+
+    private void encodeVariables(Collection<Variable> variables, DataOutput out) throws IOException {
+        out.writeInt(variables.size());
+        for (Variable variable : variables)
+            writeString(variable.getName(), out);
+    }
+
+    private void encodeTerms(List<? extends ImmutableTerm> terms, DataOutput out) throws IOException {
+        out.writeInt(terms.size());
+        for (ImmutableTerm term : terms)
+            encodeTerm(term, out);
+    }
+
+    private void encodeOptionalTerm(Optional<? extends ImmutableTerm> term, DataOutput out) throws IOException {
+        out.writeBoolean(term.isPresent());
+        if (term.isPresent())
+            encodeTerm(term.get(), out);
+    }
+
+    private void encodeTerm(ImmutableTerm term, DataOutput out) throws IOException {
+        if (term instanceof Variable) {
+            out.writeByte(VARIABLE);
+            writeString(((Variable) term).getName(), out);
+        }
+        else if (term instanceof IRIConstant) {
+            out.writeByte(IRI_CONSTANT);
+            writeString(((IRIConstant) term).getIRI().getIRIString(), out);
+        }
+        else if (term instanceof BNode) {
+            out.writeByte(BNODE_CONSTANT);
+            writeString(((BNode) term).getName(), out);
+        }
+        else if (term instanceof ValueConstant) {
+            ValueConstant constant = (ValueConstant) term;
+            out.writeByte(LITERAL);
+            writeString(constant.getValue(), out);
+            encodeDatatype(constant.getType(), out);
+        }
+        else if (term instanceof ImmutableFunctionalTerm) {
+            ImmutableFunctionalTerm functionalTerm = (ImmutableFunctionalTerm) term;
+            out.writeByte(FUNCTIONAL_TERM);
+            encodeFunctionSymbol(functionalTerm.getFunctionSymbol(), out);
+            encodeTerms(functionalTerm.getTerms(), out);
+        }
+        else
+            throw new NotSerializableException("Unsupported term: " + term);
+    }
+
+    private void encodeFunctionSymbol(FunctionSymbol functionSymbol, DataOutput out) throws IOException {
+        if (functionSymbol instanceof URITemplatePredicate)
+            out.writeByte(URI_TEMPLATE_SYMBOL);
+        else if (functionSymbol instanceof BNodePredicate)
+            out.writeByte(BNODE_TEMPLATE_SYMBOL);
+        else if (functionSymbol instanceof DatatypePredicate) {
+            out.writeByte(DATATYPE_SYMBOL);
+            encodeDatatype(((DatatypePredicate) functionSymbol).getReturnedType(), out);
+        }
+        else if (functionSymbol instanceof ExpressionOperation) {
+            out.writeByte(EXPRESSION_SYMBOL);
+            writeString(((ExpressionOperation) functionSymbol).name(), out);
+        }
+        else
+            throw new NotSerializableException("Unsupported function symbol: " + functionSymbol);
+    }
+
+    /**
+     * IRI and language tag ("" if none)
+     */
+    private void encodeDatatype(RDFDatatype datatype, DataOutput out) throws IOException {
+        writeString(datatype.getIRI().getIRIString(), out);
+        writeString(datatype.getLanguageTag()
+                .map(LanguageTag::getFullString)
+                .orElse(""), out);
+    }
+
+    /*
+     * TBox
+     *
+     * Encoded as the axioms of the classified DAGs: classifying them again gives the same TBox
+     * (the representatives of the equivalence classes are chosen deterministically).
+     */
+
+    private void encodeTBox(ClassifiedTBox tbox, DataOutput out) throws IOException {
+        encodeNames(tbox.classes(), OClass::getName, out);
+        encodeNames(tbox.objectProperties(), ObjectPropertyExpression::getName, out);
+        encodeNames(tbox.dataProperties(), DataPropertyExpression::getName, out);
+        out.writeInt(getAuxiliaryObjectPropertyCount(tbox));
+
+        encodeInclusions(tbox.objectPropertiesDAG(), this::encodeObjectProperty, out);
+        encodeInclusions(tbox.dataPropertiesDAG(), this::encodeDataProperty, out);
+        encodeInclusions(tbox.classesDAG(), this::encodeClassExpression, out);
+        encodeDataPropertyRanges(tbox.dataRangesDAG(), out);
+
+        encodeNaryAxioms(tbox.disjointClasses(), this::encodeClassExpression, out);
+        encodeNaryAxioms(tbox.disjointObjectProperties(), this::encodeObjectProperty, out);
+        encodeNaryAxioms(tbox.disjointDataProperties(), this::encodeDataProperty, out);
+
+        encodeCollection(tbox.reflexiveObjectProperties(), this::encodeObjectProperty, out);
+        encodeCollection(tbox.irreflexiveObjectProperties(), this::encodeObjectProperty, out);
+        encodeCollection(tbox.functionalObjectProperties(), this::encodeObjectProperty, out);
+        encodeCollection(tbox.functionalDataProperties(), this::encodeDataProperty, out);
+    }
+
+    /**
+     * Auxiliary properties are not part of the vocabulary: they are re-created in the same order (same names)
+     */
+    private int getAuxiliaryObjectPropertyCount(ClassifiedTBox tbox) throws NotSerializableException {
+        int count = 0;
+        for (Equivalences<ObjectPropertyExpression> equivalences : tbox.objectPropertiesDAG()) {
+            for (ObjectPropertyExpression property : equivalences.getMembers()) {
+                if (property.isInverse() || tbox.objectProperties().contains(property.getName()))
+                    continue;
+                Matcher matcher = AUXILIARY_PROPERTY_NAME.matcher(property.getName());
+                if (!matcher.matches())
+                    throw new NotSerializableException("Unknown object property: " + property);
+                count = Math.max(count, Integer.parseInt(matcher.group(1)) + 1);
+            }
+        }
+        return count;
+    }
+
+    private <T> void encodeNames(Iterable<T> vocabulary, java.util.function.Function<T, String> nameExtractor,
+                                 DataOutput out) throws IOException {
+        List<T> elements = ImmutableList.copyOf(vocabulary);
+        out.writeInt(elements.size());
+        for (T element : elements)
+            writeString(nameExtractor.apply(element), out);
+    }
+
+    /**
+     * Sub-description, super-description
+     */
+    private <T> void encodeInclusions(EquivalencesDAG<T> dag, DescriptionEncoder<T> encoder, DataOutput out)
+            throws IOException {
+        List<T> inclusions = new ArrayList<>();
+        for (Equivalences<T> equivalences : dag) {
+            T representative = equivalences.getRepresentative();
+            for (T member : equivalences.getMembers()) {
+                if (!member.equals(representative)) {
+                    inclusions.add(member);
+                    inclusions.add(representative);
+                    inclusions.add(representative);
+                    inclusions.add(member);
+                }
+            }
+            for (Equivalences<T> superEquivalences : dag.getDirectSuper(equivalences)) {
+                inclusions.add(representative);
+                inclusions.add(superEquivalences.getRepresentative());
+            }
+        }
+        encodeCollection(inclusions, encoder, out);
+    }
+
+    /**
+     * Only the inclusions of data property ranges into datatypes are axioms
+     * (the others are derived from the data property hierarchy)
+     */
+    private void encodeDataPropertyRanges(EquivalencesDAG<DataRangeExpression> dag, DataOutput out)
+            throws IOException {
+        List<DataRangeExpression> inclusions = new ArrayList<>();
+        for (Equivalences<DataRangeExpression> equivalences : dag) {
+            for (DataRangeExpression member : equivalences.getMembers()) {
+                if (!(member instanceof DataPropertyRangeExpression))
+                    continue;
+                for (Equivalences<DataRangeExpression> superEquivalences : dag.getDirectSuper(equivalences)) {
+                    for (DataRangeExpression superMember : superEquivalences.getMembers()) {
+                        if (superMember instanceof Datatype) {
+                            inclusions.add(member);
+                            inclusions.add(superMember);
+                        }
+                    }
+                }
+                for (DataRangeExpression equivalentMember : equivalences.getMembers()) {
+                    if (equivalentMember instanceof Datatype) {
+                        inclusions.add(member);
+                        inclusions.add(equivalentMember);
+                    }
+                }
+            }
+        }
+        out.writeInt(inclusions.size() / 2);
+        for (int i = 0; i < inclusions.size(); i += 2) {
+            encodeDataProperty(((DataPropertyRangeExpression) inclusions.get(i)).getProperty(), out);
+            writeString(((Datatype) inclusions.get(i + 1)).getIRI().getIRIString(), out);
+        }
+    }
+
+    private <T> void encodeNaryAxioms(ImmutableList<NaryAxiom<T>> axioms, DescriptionEncoder<T> encoder,
+                                      DataOutput out) throws IOException {
+        out.writeInt(axioms.size());
+        for (NaryAxiom<T> axiom : axioms)
+            encodeCollection(axiom.getComponents(), encoder, out);
+    }
+
+    private <T> void encodeCollection(Collection<T> elements, DescriptionEncoder<T> encoder, DataOutput out)
+            throws IOException {
+        out.writeInt(elements.size());
+        for (T element : elements)
+            encoder.encode(element, out);
+    }
+
+    private void encodeObjectProperty(ObjectPropertyExpression property, DataOutput out) throws IOException {
+        out.writeBoolean(property.isInverse());
+        writeString((property.isInverse() ? property.getInverse() : property).getName(), out);
+    }
+
+    private void encodeDataProperty(DataPropertyExpression property, DataOutput out) throws IOException {
+        writeString(property.getName(), out);
+    }
+
+    private void encodeClassExpression(ClassExpression expression, DataOutput out) throws IOException {
+        if (expression instanceof OClass) {
+            out.writeByte(CLASS);
+            writeString(((OClass) expression).getName(), out);
+        }
+        else if (expression instanceof ObjectSomeValuesFrom) {
+            out.writeByte(OBJECT_SOME_VALUES_FROM);
+            encodeObjectProperty(((ObjectSomeValuesFrom) expression).getProperty(), out);
+        }
+        else if (expression instanceof DataSomeValuesFrom) {
+            DataSomeValuesFrom someValuesFrom = (DataSomeValuesFrom) expression;
+            out.writeByte(DATA_SOME_VALUES_FROM);
+            encodeDataProperty(someValuesFrom.getProperty(), out);
+            writeString(someValuesFrom.getDatatype().getIRI().getIRIString(), out);
+        }
+        else
+            throw new NotSerializableException("Unsupported class expression: " + expression);
+    }
+
+    private void writeString(String s, DataOutput out) throws IOException {
+        Integer index = stringIndex.get(s);
+        if (index == null) {
+            index = stringIndex.size();
+            stringIndex.put(s, index);
+        }
+        out.writeInt(index);
+    }
+
+
+    @FunctionalInterface
+    private interface DescriptionEncoder<T> {
+        void encode(T description, DataOutput out) throws IOException;
+    }
+
+    static void writeRawString(String s, DataOutput out) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
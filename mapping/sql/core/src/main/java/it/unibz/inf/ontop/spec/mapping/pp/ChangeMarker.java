@@ -0,0 +1,50 @@
+package it.unibz.inf.ontop.spec.mapping.pp;
+
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Columns of the source query of a triples map that track the changes of its rows.
+ *
+ *   - change column: monotonic (e.g. update timestamp or sequence), increased each time a row is inserted,
+ *     updated or soft-deleted
+ *   - deletion column (optional): NULL as long as the row is not (soft-)deleted
+ *
+ * Used by the incremental materialization.
+ */
+public final class ChangeMarker {
+
+    private final String changeColumn;
+    private final Optional<String> deletionColumn;
+
+    public ChangeMarker(String changeColumn, Optional<String> deletionColumn) {
+        this.changeColumn = Objects.requireNonNull(changeColumn);
+        this.deletionColumn = Objects.requireNonNull(deletionColumn);
+    }
+
+    public String getChangeColumn() {
+        return changeColumn;
+    }
+
+    public Optional<String> getDeletionColumn() {
+        return deletionColumn;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ChangeMarker that = (ChangeMarker) o;
+        return changeColumn.equals(that.changeColumn) && deletionColumn.equals(that.deletionColumn);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(changeColumn, deletionColumn);
+    }
+
+    @Override
+    public String toString() {
+        return "ChangeMarker{" + changeColumn + deletionColumn.map(c -> ", deleted: " + c).orElse("") + "}";
+    }
+}
@@ -24,6 +24,8 @@ import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.model.atom.TargetAtom;
 import it.unibz.inf.ontop.spec.mapping.OBDASQLQuery;
 
+import java.util.Optional;
+
 
 public interface SQLPPTriplesMap extends PreProcessedTriplesMap {
 
@@ -33,6 +35,11 @@ public interface SQLPPTriplesMap extends PreProcessedTriplesMap {
 
 	String getId();
 
+	/**
+	 * Declared for the incremental materialization
+	 */
+	Optional<ChangeMarker> getChangeMarker();
+
 	/**
 	 * PPMappingAssertion: a SQLPPTriplesMap with a single target atom.
 	 */
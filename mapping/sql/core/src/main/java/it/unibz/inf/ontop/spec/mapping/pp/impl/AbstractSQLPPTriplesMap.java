@@ -3,20 +3,30 @@ package it.unibz.inf.ontop.spec.mapping.pp.impl;
 import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.model.atom.TargetAtom;
 import it.unibz.inf.ontop.spec.mapping.OBDASQLQuery;
+import it.unibz.inf.ontop.spec.mapping.pp.ChangeMarker;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
 import it.unibz.inf.ontop.utils.IDGenerator;
 
+import java.util.Optional;
+
 
 public abstract class AbstractSQLPPTriplesMap implements SQLPPTriplesMap {
 
     private final ImmutableList<TargetAtom> targetAtoms;
     private final OBDASQLQuery sqlQuery;
     private final String id;
+    private final Optional<ChangeMarker> changeMarker;
 
-    protected AbstractSQLPPTriplesMap(ImmutableList<TargetAtom> targetAtoms, OBDASQLQuery sqlQuery, String id) {
+    protected AbstractSQLPPTriplesMap(ImmutableList<TargetAtom> targetAtoms, OBDASQLQuery sqlQuery, String id,
+                                      Optional<ChangeMarker> changeMarker) {
         this.targetAtoms = targetAtoms;
         this.sqlQuery = sqlQuery;
         this.id = id;
+        this.changeMarker = changeMarker;
+    }
+
+    protected AbstractSQLPPTriplesMap(ImmutableList<TargetAtom> targetAtoms, OBDASQLQuery sqlQuery, String id) {
+        this(targetAtoms, sqlQuery, id, Optional.empty());
     }
 
     protected AbstractSQLPPTriplesMap(ImmutableList<TargetAtom> targetAtoms, OBDASQLQuery sqlQuery) {
@@ -37,4 +47,9 @@ public abstract class AbstractSQLPPTriplesMap implements SQLPPTriplesMap {
     public String getId() {
         return id;
     }
+
+    @Override
+    public Optional<ChangeMarker> getChangeMarker() {
+        return changeMarker;
+    }
 }
@@ -3,10 +3,13 @@ package it.unibz.inf.ontop.spec.mapping.pp.impl;
 import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.model.atom.TargetAtom;
 import it.unibz.inf.ontop.spec.mapping.OBDASQLQuery;
+import it.unibz.inf.ontop.spec.mapping.pp.ChangeMarker;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
 import it.unibz.inf.ontop.spec.mapping.pp.PPMappingAssertionProvenance;
 import it.unibz.inf.ontop.spec.mapping.pp.PPTriplesMapProvenance;
 
+import java.util.Optional;
+
 /**
  * When the input mapping document is in the native Ontop format
  */
@@ -19,6 +22,12 @@ public class OntopNativeSQLPPTriplesMap extends AbstractSQLPPTriplesMap {
         this.triplesMapProvenance = createProvenance(this);
     }
 
+    public OntopNativeSQLPPTriplesMap(String id, OBDASQLQuery sqlQuery, ImmutableList<TargetAtom> targetAtoms,
+                                      Optional<ChangeMarker> changeMarker) {
+        super(targetAtoms, sqlQuery, id, changeMarker);
+        this.triplesMapProvenance = createProvenance(this);
+    }
+
     public OntopNativeSQLPPTriplesMap(OBDASQLQuery sqlQuery, ImmutableList<TargetAtom> targetAtoms) {
         super(targetAtoms, sqlQuery);
         this.triplesMapProvenance = createProvenance(this);
@@ -50,6 +59,6 @@ public class OntopNativeSQLPPTriplesMap extends AbstractSQLPPTriplesMap {
 
     @Override
     public SQLPPTriplesMap extractPPMappingAssertions(String newId, ImmutableList<TargetAtom> atoms) {
-        return new OntopNativeSQLPPTriplesMap(newId, getSourceQuery(), atoms);
+        return new OntopNativeSQLPPTriplesMap(newId, getSourceQuery(), atoms, getChangeMarker());
     }
 }
@@ -38,6 +38,7 @@ import it.unibz.inf.ontop.spec.mapping.impl.SQLMappingFactoryImpl;
 import it.unibz.inf.ontop.spec.mapping.parser.SQLMappingParser;
 import it.unibz.inf.ontop.spec.mapping.parser.TargetQueryParser;
 import it.unibz.inf.ontop.spec.mapping.parser.exception.UnparsableTargetQueryException;
+import it.unibz.inf.ontop.spec.mapping.pp.ChangeMarker;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
 import it.unibz.inf.ontop.spec.mapping.pp.impl.OntopNativeSQLPPTriplesMap;
@@ -47,11 +48,13 @@ import org.apache.commons.rdf.api.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import java.io.*;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static it.unibz.inf.ontop.exception.InvalidMappingExceptionWithIndicator.*;
 
@@ -66,7 +69,8 @@ public class OntopNativeMappingParser implements SQLMappingParser {
 
     public enum Label {
         /* Source decl.: */sourceUri, connectionUrl, username, password, driverClass,
-        /* Mapping decl.: */mappingId, target, source
+        /* Mapping decl.: */mappingId, target, source,
+        /* Optional, for the incremental materialization: */changeColumn, deletedColumn
     }
 
     public static final String PREFIX_DECLARATION_TAG = "[PrefixDeclaration]";
@@ -258,6 +262,8 @@ public class OntopNativeMappingParser implements SQLMappingParser {
         String currentLabel = ""; // the reader is working on which label
         StringBuffer sourceQuery = null;
         ImmutableList<TargetAtom> targetQuery = null;
+        String changeColumn = null;
+        String deletedColumn = null;
         int wsCount = 0;  // length of whitespace used as the separator
         boolean isMappingValid = true; // a flag to load the mapping to the model if valid
         
@@ -270,11 +276,13 @@ public class OntopNativeMappingParser implements SQLMappingParser {
             	if (!mappingId.isEmpty()) {
 	            	// Save the mapping to the model (if valid) at this point
 	                if (isMappingValid) {
-	                    currentSourceMappings =
-                                addNewMapping(mappingId, sourceQuery.toString(), targetQuery, currentSourceMappings);
+	                    currentSourceMappings = addNewMapping(mappingId, sourceQuery.toString(), targetQuery,
+                                changeColumn, deletedColumn, currentSourceMappings);
 	                    mappingId = "";
 	                    sourceQuery = null;
 	                    targetQuery = null;
+	                    changeColumn = null;
+	                    deletedColumn = null;
 	                }
 
 
@@ -344,6 +352,10 @@ public class OntopNativeMappingParser implements SQLMappingParser {
 	                	sourceQuery.append(sourceString);
 	                }
                 }
+            } else if (currentLabel.equals(Label.changeColumn.name())) {
+                changeColumn = value;
+            } else if (currentLabel.equals(Label.deletedColumn.name())) {
+                deletedColumn = value;
             } else {
                 String msg = String.format("Unknown parameter name \"%s\" at line: %d.", tokens[0], lineNumber);
                 throw new IOException(msg);
@@ -356,7 +368,8 @@ public class OntopNativeMappingParser implements SQLMappingParser {
         
         // Save the last mapping entry to the model
         if (!mappingId.isEmpty() && isMappingValid) {
-            currentSourceMappings = addNewMapping(mappingId, sourceQuery.toString(), targetQuery, currentSourceMappings);
+            currentSourceMappings = addNewMapping(mappingId, sourceQuery.toString(), targetQuery,
+                    changeColumn, deletedColumn, currentSourceMappings);
         }
 
         return currentSourceMappings;
@@ -389,9 +402,17 @@ public class OntopNativeMappingParser implements SQLMappingParser {
 
     private static List<SQLPPTriplesMap> addNewMapping(String mappingId, String sourceQuery,
                                                        ImmutableList<TargetAtom> targetQuery,
-                                                       List<SQLPPTriplesMap> currentSourceMappings) {
+                                                       @Nullable String changeColumn, @Nullable String deletedColumn,
+                                                       List<SQLPPTriplesMap> currentSourceMappings) throws IOException {
+        if (changeColumn == null && deletedColumn != null)
+            throw new IOException(String.format("The mapping %s declares a %s but no %s.", mappingId,
+                    Label.deletedColumn.name(), Label.changeColumn.name()));
+
+        Optional<ChangeMarker> changeMarker = Optional.ofNullable(changeColumn)
+                .map(c -> new ChangeMarker(c, Optional.ofNullable(deletedColumn)));
+
         SQLPPTriplesMap mapping = new OntopNativeSQLPPTriplesMap(
-                mappingId, SQL_MAPPING_FACTORY.getSQLQuery(sourceQuery), targetQuery);
+                mappingId, SQL_MAPPING_FACTORY.getSQLQuery(sourceQuery), targetQuery, changeMarker);
         if (!currentSourceMappings.contains(mapping)) {
             currentSourceMappings.add(mapping);
         }
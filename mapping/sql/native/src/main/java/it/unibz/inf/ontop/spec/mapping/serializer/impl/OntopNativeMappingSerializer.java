@@ -6,6 +6,7 @@ import com.google.common.collect.ImmutableMap;
 import it.unibz.inf.ontop.model.atom.TargetAtom;
 import it.unibz.inf.ontop.spec.mapping.OBDASQLQuery;
 import it.unibz.inf.ontop.spec.mapping.parser.impl.OntopNativeMappingParser;
+import it.unibz.inf.ontop.spec.mapping.pp.ChangeMarker;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPMapping;
 import it.unibz.inf.ontop.spec.mapping.pp.SQLPPTriplesMap;
 import it.unibz.inf.ontop.spec.mapping.serializer.SourceQueryRenderer;
@@ -94,6 +95,14 @@ public class OntopNativeMappingSerializer {
 
             OBDASQLQuery sourceQuery = axiom.getSourceQuery();
             writer.write(OntopNativeMappingParser.Label.source.name() + "\t\t" + printSourceQuery(sourceQuery) + "\n");
+
+            if (axiom.getChangeMarker().isPresent()) {
+                ChangeMarker changeMarker = axiom.getChangeMarker().get();
+                writer.write(OntopNativeMappingParser.Label.changeColumn.name() + "\t" + changeMarker.getChangeColumn() + "\n");
+                if (changeMarker.getDeletionColumn().isPresent())
+                    writer.write(OntopNativeMappingParser.Label.deletedColumn.name() + "\t"
+                            + changeMarker.getDeletionColumn().get() + "\n");
+            }
             needLineBreak = true;
         }
         writer.write(OntopNativeMappingParser.END_COLLECTION_SYMBOL);
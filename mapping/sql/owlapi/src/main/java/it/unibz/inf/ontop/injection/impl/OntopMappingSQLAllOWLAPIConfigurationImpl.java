@@ -1,11 +1,11 @@
 package it.unibz.inf.ontop.injection.impl;
 
+import com.google.common.collect.ImmutableList;
 import it.unibz.inf.ontop.exception.OBDASpecificationException;
 import it.unibz.inf.ontop.exception.InvalidOntopConfigurationException;
 import it.unibz.inf.ontop.injection.OntopMappingSQLAllOWLAPIConfiguration;
 import it.unibz.inf.ontop.injection.OntopMappingSQLAllSettings;
 import it.unibz.inf.ontop.injection.impl.OntopMappingOWLAPIConfigurationImpl.OntopMappingOWLAPIOptions;
-import it.unibz.inf.ontop.spec.OBDASpecification;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyCreationException;
 
@@ -26,8 +26,13 @@ public class OntopMappingSQLAllOWLAPIConfigurationImpl extends OntopMappingSQLAl
     }
 
     @Override
-    protected OBDASpecification loadOBDASpecification() throws OBDASpecificationException {
-        return loadSpecification(mappingOWLConfiguration::loadOntology);
+    ChecksummedSpecification loadChecksummedSpecification() throws OBDASpecificationException {
+        return loadChecksummedSpecification(mappingOWLConfiguration::loadOntology);
+    }
+
+    @Override
+    protected Optional<ImmutableList<File>> getOntologyFiles() {
+        return mappingOWLConfiguration.getOntologyFiles();
     }
     @Override
     public Optional<OWLOntology> loadInputOntology() throws OWLOntologyCreationException {